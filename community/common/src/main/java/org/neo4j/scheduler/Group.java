@@ -40,6 +40,12 @@ public enum Group
     LOG_ROTATION( "LogRotation" ),
     /** Checkpoint and store flush. */
     CHECKPOINT( "CheckPoint" ),
+    /** The stages of the pipelined transaction commit process. */
+    TRANSACTION_COMMIT( "TransactionCommit" ),
+    /** Forces the transaction log in the background, for transactions that commit with relaxed durability. */
+    TRANSACTION_LOG_FORCE( "TransactionLogForce" ),
+    /** Reading ahead in the transaction log, and applying recovered transactions to the store, during recovery. */
+    RECOVERY( "Recovery" ),
     /** Various little periodic tasks that need to be done on a regular basis to keep the store in good shape. */
     STORAGE_MAINTENANCE( "StorageMaintenance" ),
     /** Terminates kernel transactions that have timed out. */
@@ -642,6 +642,42 @@ public abstract class PageCacheTest<T extends PageCache> extends PageCacheTestSu
         }
     }
 
+    @Test
+    void pageCacheFlushMustWriteDirtyPagesWithoutForcingChannels() throws Exception
+    {
+        final AtomicInteger writeCounter = new AtomicInteger();
+        final AtomicInteger forceCounter = new AtomicInteger();
+        FileSystemAbstraction fs = writeAndForceCountingFs( writeCounter, forceCounter );
+
+        getPageCache( fs, maxPages, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+
+        try ( PagedFile pagedFileA = map( existingFile( "a" ), filePageSize );
+                PagedFile pagedFileB = map( existingFile( "b" ), filePageSize ) )
+        {
+            try ( PageCursor cursor = pagedFileA.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 1 );
+            }
+            try ( PageCursor cursor = pagedFileB.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putInt( 1 );
+            }
+
+            pageCache.flush( pageCache.listExistingMappings(), IOLimiter.UNLIMITED );
+
+            assertThat( writeCounter.get(), greaterThanOrEqualTo( 2 ) ); // we might race with background flushing
+            assertThat( forceCounter.get(), is( 0 ) );
+
+            // The pages are clean now, so only the forces remain to be done.
+            int writesAfterFlush = writeCounter.get();
+            pageCache.flushAndForce();
+            assertThat( writeCounter.get(), is( writesAfterFlush ) );
+            assertThat( forceCounter.get(), is( 2 ) );
+        }
+    }
+
     private DelegatingFileSystemAbstraction writeAndForceCountingFs( final AtomicInteger writeCounter, final AtomicInteger forceCounter )
     {
         return new DelegatingFileSystemAbstraction( fs )
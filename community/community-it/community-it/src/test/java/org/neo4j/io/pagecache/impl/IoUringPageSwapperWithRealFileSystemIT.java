@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.neo4j.internal.nativeimpl.IoUring;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IoUringPageSwapperWithRealFileSystemIT extends SingleFilePageSwapperWithRealFileSystemIT
+{
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        IoUringPageSwapperFactory factory = new IoUringPageSwapperFactory();
+        factory.open( getFs() );
+        return factory;
+    }
+
+    @Test
+    void mustCreateIoUringSwappersWhenAvailable() throws IOException
+    {
+        assumeTrue( IoUring.isAvailable(), IoUring::describe );
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, getFile(), 32, NO_CALLBACK, true, false );
+        try
+        {
+            assertThat( swapper, instanceOf( IoUringPageSwapper.class ) );
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    @Override
+    @Test
+    void mustDisableStripingIfToldTo() throws IOException
+    {
+        assumeTrue( IoUring.isAvailable(), IoUring::describe );
+        // given
+        int bytesPerPage = 32;
+        File file = getFile();
+        PageSwapperFactory factory = createSwapperFactory();
+        FileSystemAbstraction fs = mock( FileSystemAbstraction.class );
+        StoreChannel channel = mock( StoreChannel.class );
+        when( channel.tryLock() ).thenReturn( mock( FileLock.class ) );
+        when( fs.write( any( File.class ) ) ).thenReturn( channel );
+
+        // when
+        factory.open( fs );
+        PageSwapper swapper = createSwapper( factory, file, bytesPerPage, NO_CALLBACK, true, true );
+        try
+        {
+            // then the one striped channel, plus the channel for the io_uring operations
+            verify( fs, times( 2 ) ).write( eq( file ) );
+        }
+        finally
+        {
+            swapper.close();
+        }
+    }
+
+    @Test
+    void concurrentSinglePageReadsAndWritesToDifferentFilesMustNotInterfere() throws Exception
+    {
+        assumeTrue( IoUring.isAvailable(), IoUring::describe );
+        int threads = 8;
+        int pagesPerThread = 1000;
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper[] swappers = {
+                createSwapper( factory, getFile(), 4, NO_CALLBACK, true, false ),
+                createSwapper( factory, testDir.file( "other" ), 4, NO_CALLBACK, true, false )};
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                int thread = t;
+                futures.add( executor.submit( () ->
+                {
+                    long page = createPage( 4 );
+                    // Every thread writes, and then reads back, its own pages in both files.
+                    for ( int i = 0; i < pagesPerThread; i++ )
+                    {
+                        long filePageId = (long) i * threads + thread;
+                        PageSwapper swapper = swappers[i % swappers.length];
+                        putInt( page, 0, (int) filePageId );
+                        assertEquals( 4, swapper.write( filePageId, page ) );
+                    }
+                    for ( int i = 0; i < pagesPerThread; i++ )
+                    {
+                        long filePageId = (long) i * threads + thread;
+                        PageSwapper swapper = swappers[i % swappers.length];
+                        assertEquals( 4, swapper.read( filePageId, page ) );
+                        assertEquals( (int) filePageId, getInt( page, 0 ) );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+}
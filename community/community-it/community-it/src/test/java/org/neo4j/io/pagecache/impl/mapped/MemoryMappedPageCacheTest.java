@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mapped;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.READ_ONLY;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+@TestDirectoryExtension
+class MemoryMappedPageCacheTest
+{
+    private static final int PAGE_SIZE = 64;
+
+    @Inject
+    private TestDirectory directory;
+    @Inject
+    private FileSystemAbstraction fs;
+
+    private JobScheduler jobScheduler;
+    private PageCache pageCache;
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        jobScheduler = new ThreadPoolJobScheduler();
+        pageCache = new MemoryMappedPageCache( StandalonePageCacheFactory.createPageCache( fs, jobScheduler ), fs );
+        file = directory.file( "a" );
+        // Two and a half pages of longs, that hold their own position in the file.
+        ByteBuffer buffer = ByteBuffer.allocate( PAGE_SIZE * 5 / 2 );
+        while ( buffer.hasRemaining() )
+        {
+            buffer.putLong( buffer.position() );
+        }
+        buffer.flip();
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            channel.writeAll( buffer );
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        pageCache.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void mustReadPagesOfReadOnlyMappedFile() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, READ_ONLY ) )
+        {
+            assertThat( pagedFile, instanceOf( MemoryMappedPagedFile.class ) );
+            assertEquals( 2, pagedFile.getLastPageId() );
+            assertEquals( PAGE_SIZE * 5 / 2, pagedFile.fileSize() );
+
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId = 0; pageId < 3; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( pageId, cursor.getCurrentPageId() );
+                    for ( int offset = 0; offset < PAGE_SIZE; offset += Long.BYTES )
+                    {
+                        long position = pageId * PAGE_SIZE + offset;
+                        // The part of the last page that is beyond the end of the file reads as zeros.
+                        long expected = position < PAGE_SIZE * 5 / 2 ? position : 0;
+                        assertEquals( expected, cursor.getLong( offset ) );
+                    }
+                    assertFalse( cursor.shouldRetry() );
+                    assertFalse( cursor.checkAndClearBoundsFlag() );
+                }
+                assertFalse( cursor.next() );
+            }
+        }
+    }
+
+    @Test
+    void mustRaiseBoundsFlagOnAccessOutsideOfPage() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, READ_ONLY );
+              PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            assertEquals( 0, cursor.getLong( PAGE_SIZE - 4 ) );
+            assertTrue( cursor.checkAndClearBoundsFlag() );
+            assertFalse( cursor.checkAndClearBoundsFlag() );
+            assertEquals( PAGE_SIZE + 8, cursor.getLong( 8 ) );
+            assertFalse( cursor.checkAndClearBoundsFlag() );
+        }
+    }
+
+    @Test
+    void mustRefuseWritesToReadOnlyMappedFile() throws IOException
+    {
+        try ( PagedFile pagedFile = pageCache.map( file, PAGE_SIZE, READ_ONLY ) )
+        {
+            assertThrows( UnsupportedOperationException.class, () -> pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertThrows( UnsupportedOperationException.class, () -> cursor.putLong( 0, 1 ) );
+            }
+            assertThrows( UnsupportedOperationException.class, () -> pageCache.map( file, PAGE_SIZE ) );
+        }
+    }
+
+    @Test
+    void mustShareMappingOfSameFileAndUnmapWithLastClose() throws IOException
+    {
+        PagedFile first = pageCache.map( file, PAGE_SIZE, READ_ONLY );
+        PagedFile second = pageCache.map( file, PAGE_SIZE, READ_ONLY );
+        assertSame( first, second );
+        assertThrows( IllegalArgumentException.class, () -> pageCache.map( file, PAGE_SIZE * 2, READ_ONLY ) );
+
+        first.close();
+        PagedFile existing = pageCache.getExistingMapping( file ).orElseThrow( AssertionError::new );
+        assertSame( first, existing );
+        existing.close();
+        second.close();
+        assertFalse( pageCache.getExistingMapping( file ).isPresent() );
+        assertTrue( pageCache.listExistingMappings().isEmpty() );
+    }
+
+    @Test
+    void mustLeaveFilesMappedForWritingToThePageCache() throws IOException
+    {
+        File other = directory.file( "b" );
+        try ( PagedFile pagedFile = pageCache.map( other, PAGE_SIZE, CREATE );
+              PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+        {
+            assertThat( pagedFile, not( instanceOf( MemoryMappedPagedFile.class ) ) );
+            assertTrue( cursor.next() );
+            cursor.putLong( 42 );
+        }
+    }
+
+    @Test
+    void mustUsePageCacheWhenFileIsAlreadyMappedThere() throws IOException
+    {
+        try ( PagedFile writable = pageCache.map( file, PAGE_SIZE );
+              PagedFile readOnly = pageCache.map( file, PAGE_SIZE, READ_ONLY ) )
+        {
+            assertSame( writable, readOnly );
+        }
+    }
+
+    @Test
+    void mustFallBackToPageCacheWhenFileSystemHasNoFileDescriptors() throws Exception
+    {
+        try ( EphemeralFileSystemAbstraction ephemeralFs = new EphemeralFileSystemAbstraction();
+              PageCache ephemeralPageCache = new MemoryMappedPageCache( StandalonePageCacheFactory.createPageCache( ephemeralFs, jobScheduler ),
+                      ephemeralFs ) )
+        {
+            ephemeralFs.mkdirs( file.getParentFile() );
+            ephemeralFs.write( file ).close();
+            try ( PagedFile pagedFile = ephemeralPageCache.map( file, PAGE_SIZE, READ_ONLY ) )
+            {
+                assertThat( pagedFile, not( instanceOf( MemoryMappedPagedFile.class ) ) );
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.neo4j.scheduler.JobScheduler;
 public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnPageCache>
 {
     CountDownLatch backgroundFlushLatch;
+    EvictionPolicy evictionPolicy;
     private MemoryAllocator allocator;
 
     @Override
@@ -41,6 +42,10 @@ public class MuninnPageCacheFixture extends PageCacheTestSupport.Fixture<MuninnP
     {
         long memory = MuninnPageCache.memoryRequiredForPages( maxPages );
         allocator = MemoryAllocator.createAllocator( String.valueOf( memory ), new LocalMemoryTracker() );
+        if ( evictionPolicy != null )
+        {
+            return new MuninnPageCache( swapperFactory, allocator, tracer, cursorTracerSupplier, contextSupplier, jobScheduler, evictionPolicy );
+        }
         return new MuninnPageCache( swapperFactory, allocator, tracer, cursorTracerSupplier, contextSupplier, jobScheduler );
     }
 
@@ -30,7 +30,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 
@@ -43,14 +45,18 @@ import org.neo4j.io.memory.ByteBuffers;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageQuota;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 import org.neo4j.io.pagecache.tracing.ConfigurablePageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
@@ -58,9 +64,14 @@ import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.OnDemandJobScheduler;
 
+import static java.nio.file.StandardOpenOption.CREATE;
 import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -68,9 +79,12 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
 
 public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
@@ -735,6 +749,375 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void readAheadFlagMustFaultInPagesAheadOfFirstPin() throws IOException
+    {
+        int filePages = 100;
+        File file = file( "a" );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = mapFileWithRecords( pageCache, file, filePages ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                assertTrue( cursor.next() );
+                verifyRecordsMatchExpected( cursor );
+            }
+            for ( long pageId = 1; pageId < 10; pageId++ )
+            {
+                assertTrue( isResident( pagedFile, pageId ), "page " + pageId );
+            }
+            assertFalse( isResident( pagedFile, filePages - 1 ) );
+        }
+    }
+
+    @Test
+    void sequentialScanMustReadAheadAndStillSeeCorrectData() throws IOException
+    {
+        int filePages = 100;
+        File file = file( "a" );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = mapFileWithRecords( pageCache, file, filePages ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int i = 0; i < 10; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                }
+                // We are now well into a sequential scan, so the pages ahead of us should already be in memory.
+                assertTrue( isResident( pagedFile, 11 ) );
+                int pagesSeen = 10;
+                while ( cursor.next() )
+                {
+                    verifyRecordsMatchExpected( cursor );
+                    pagesSeen++;
+                }
+                assertEquals( filePages, pagesSeen );
+            }
+        }
+    }
+
+    @Test
+    void randomAccessMustNotReadAhead() throws IOException
+    {
+        int filePages = 100;
+        File file = file( "a" );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 1024, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = mapFileWithRecords( pageCache, file, filePages ) )
+        {
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId = 0; pageId < filePages; pageId += 2 )
+                {
+                    assertTrue( cursor.next( pageId ) );
+                    verifyRecordsMatchExpected( cursor );
+                }
+            }
+            for ( long pageId = 1; pageId < filePages; pageId += 2 )
+            {
+                assertFalse( isResident( pagedFile, pageId ), "page " + pageId );
+            }
+        }
+    }
+
+    @Test
+    void scanResistantPolicyMustEvictPagesAccessedOnceBeforePagesAccessedTwice() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        fixture.evictionPolicy = EvictionPolicy.SCAN_RESISTANT;
+        // Four pages, such that the two we use leave enough free pages for the eviction thread to stay out of our way.
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            pinPage( pagedFile, 0, PF_SHARED_READ_LOCK );
+            pinPage( pagedFile, 0, PF_SHARED_READ_LOCK );
+            int clockArm = 0;
+            for ( int i = 0; i < 5; i++ )
+            {
+                // A scan touches page 1 once, and the clock arm then comes by to evict a page.
+                pinPage( pagedFile, 1, PF_SHARED_READ_LOCK );
+                clockArm = pageCache.evictPages( 1, clockArm, EvictionRunEvent.NULL );
+                assertTrue( isResident( pagedFile, 0 ), "page 0 after round " + i );
+                assertFalse( isResident( pagedFile, 1 ), "page 1 after round " + i );
+            }
+        }
+        finally
+        {
+            fixture.evictionPolicy = null;
+        }
+    }
+
+    @Test
+    void transientAccessMustNotMarkPagesAsUsed() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            pinPage( pagedFile, 0, PF_SHARED_READ_LOCK );
+            pinPage( pagedFile, 0, PF_SHARED_READ_LOCK );
+            pinPage( pagedFile, 1, PF_SHARED_READ_LOCK | PF_TRANSIENT );
+            List<Long> usedPages = new ArrayList<>();
+            pagedFile.visitResidentPages( usedPages::add );
+            assertEquals( List.of( 0L ), usedPages );
+
+            pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+            assertTrue( isResident( pagedFile, 0 ) );
+            assertFalse( isResident( pagedFile, 1 ) );
+        }
+    }
+
+    @Test
+    void evictionMustPassOverPagesOfFilesWithinTheirReservation() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        // Enough pages that the eviction thread stays out of our way.
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            pageCache.setPageQuotas( file -> file.getName().equals( "a" ) ? PageQuota.of( 2, Long.MAX_VALUE ) : PageQuota.NONE );
+            try ( PagedFile a = map( pageCache, file( "a" ), 8 );
+                  PagedFile b = map( pageCache, file( "b" ), 8 ) )
+            {
+                pinPage( a, 0, PF_SHARED_READ_LOCK );
+                pinPage( a, 1, PF_SHARED_READ_LOCK );
+                pinPage( b, 0, PF_SHARED_READ_LOCK );
+                pinPage( b, 0, PF_SHARED_READ_LOCK );
+                assertEquals( 2, a.pageFileCounters().residentPages() );
+                assertEquals( 1, b.pageFileCounters().residentPages() );
+
+                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+
+                assertTrue( isResident( a, 0 ) );
+                assertTrue( isResident( a, 1 ) );
+                assertFalse( isResident( b, 0 ) );
+                assertEquals( 2, a.pageFileCounters().residentPages() );
+                assertEquals( 0, b.pageFileCounters().residentPages() );
+            }
+        }
+    }
+
+    @Test
+    void evictionMustFirstEvictPagesOfFilesOverTheirLimit() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            pageCache.setPageQuotas( file -> file.getName().equals( "b" ) ? PageQuota.of( 0, 1 ) : PageQuota.NONE );
+            try ( PagedFile a = map( pageCache, file( "a" ), 8 );
+                  PagedFile b = map( pageCache, file( "b" ), 8 ) )
+            {
+                // All the pages are hot, but b has more pages in memory than it is allowed to.
+                for ( int i = 0; i < 4; i++ )
+                {
+                    pinPage( a, 0, PF_SHARED_READ_LOCK );
+                    pinPage( b, 0, PF_SHARED_READ_LOCK );
+                    pinPage( b, 1, PF_SHARED_READ_LOCK );
+                }
+                assertEquals( 2, b.pageFileCounters().residentPages() );
+                assertEquals( 1, b.pageFileCounters().maxPages() );
+
+                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+
+                assertTrue( isResident( a, 0 ) );
+                assertEquals( 1, b.pageFileCounters().residentPages() );
+            }
+        }
+    }
+
+    @Test
+    void evictionMustGiveUpReservationsWhenNothingElseCanBeEvicted() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            pageCache.setPageQuotas( file -> PageQuota.of( 20, 20 ) );
+            try ( PagedFile a = map( pageCache, file( "a" ), 8 ) )
+            {
+                pinPage( a, 0, PF_SHARED_READ_LOCK );
+                pinPage( a, 1, PF_SHARED_READ_LOCK );
+
+                pageCache.evictPages( 1, 0, EvictionRunEvent.NULL );
+
+                assertEquals( 1, a.pageFileCounters().residentPages() );
+            }
+        }
+    }
+
+    @Test
+    void mustExposeResidentPagesAndQuotaPerFile() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            pageCache.setPageQuotas( file -> file.getName().equals( "a" ) ? PageQuota.of( 2, 5 ) : PageQuota.NONE );
+            try ( PagedFile a = map( pageCache, file( "a" ), 8 );
+                  PagedFile b = map( pageCache, file( "b" ), 8 ) )
+            {
+                pinPage( a, 0, PF_SHARED_READ_LOCK );
+                pinPage( a, 1, PF_SHARED_READ_LOCK );
+                pinPage( a, 1, PF_SHARED_READ_LOCK );
+
+                PageFileCounters aCounters = a.pageFileCounters();
+                assertEquals( 2, aCounters.residentPages() );
+                assertEquals( 2, aCounters.reservedPages() );
+                assertEquals( 5, aCounters.maxPages() );
+                PageFileCounters bCounters = b.pageFileCounters();
+                assertEquals( 0, bCounters.residentPages() );
+                assertEquals( 0, bCounters.reservedPages() );
+                assertEquals( Long.MAX_VALUE, bCounters.maxPages() );
+            }
+        }
+    }
+
+    @Test
+    void mustCountHitsAndFaultsPerFile() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        writeInitialDataTo( file( "b" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            try ( PagedFile a = map( pageCache, file( "a" ), 8 );
+                  PagedFile b = map( pageCache, file( "b" ), 8 ) )
+            {
+                pinPage( a, 0, PF_SHARED_READ_LOCK );
+                pinPage( a, 0, PF_SHARED_READ_LOCK );
+                pinPage( a, 0, PF_SHARED_READ_LOCK );
+                pinPage( b, 0, PF_SHARED_READ_LOCK );
+                pinPage( b, 1, PF_SHARED_READ_LOCK );
+
+                assertEquals( 2, a.pageFileCounters().hits() );
+                assertEquals( 1, a.pageFileCounters().faults() );
+                assertEquals( 2.0 / 3, a.pageFileCounters().hitRatio(), 0.0001 );
+                assertEquals( 0, b.pageFileCounters().hits() );
+                assertEquals( 2, b.pageFileCounters().faults() );
+                assertEquals( 0d, b.pageFileCounters().hitRatio(), 0.0001 );
+            }
+        }
+    }
+
+    @Test
+    void mustCountPagesEvictedByPageFaults() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCacheWithoutEvictionThread( 4, tracer );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8, CREATE ) )
+        {
+            for ( long pageId = 0; pageId < 10; pageId++ )
+            {
+                writePage( pagedFile, pageId, pageId );
+            }
+
+            // The first four page faults take the free pages, and the rest have to evict a page.
+            assertEquals( 6, tracer.cooperativeEvictions() );
+        }
+    }
+
+    @Test
+    void preFlushMustWriteColdDirtyPagesWithoutEvictingThem() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCacheWithoutEvictionThread( 20, tracer );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8, CREATE ) )
+        {
+            for ( long pageId = 0; pageId < 4; pageId++ )
+            {
+                writePage( pagedFile, pageId, pageId + 1 );
+            }
+            PageList pages = pageCache.pages;
+            for ( int pageId = 0; pageId < pages.getPageCount(); pageId++ )
+            {
+                long pageRef = pages.deref( pageId );
+                while ( !pages.decrementUsage( pageRef ) )
+                {
+                    // Make every page cold.
+                }
+            }
+            // Warm up one of the dirty pages again.
+            writePage( pagedFile, 3, 4 );
+            long flushesBefore = tracer.flushes();
+
+            assertEquals( 2, pageCache.preFlushPages( 0, pages.getPageCount(), 2 ) );
+            assertEquals( 1, pageCache.preFlushPages( 0, pages.getPageCount(), 20 ) );
+            assertEquals( 0, pageCache.preFlushPages( 0, pages.getPageCount(), 20 ) );
+
+            assertEquals( 3, tracer.flushes() - flushesBefore );
+            assertEquals( 0, tracer.evictions() );
+            int modifiedPages = 0;
+            for ( int pageId = 0; pageId < pages.getPageCount(); pageId++ )
+            {
+                long pageRef = pages.deref( pageId );
+                modifiedPages += pages.isModified( pageRef ) ? 1 : 0;
+            }
+            assertEquals( 1, modifiedPages );
+
+            // The pre-flushed pages are clean, so evicting them writes nothing.
+            pageCache.evictPages( 3, 0, EvictionRunEvent.NULL );
+            assertEquals( 3, tracer.flushes() - flushesBefore );
+        }
+        ByteBuffer buffer = readIntoBuffer( "a" );
+        assertEquals( 1, buffer.getLong() );
+        assertEquals( 2, buffer.getLong() );
+    }
+
+    @Test
+    void mustAdaptNumberOfPagesToKeepFreeToRateOfPageFaults() throws IOException
+    {
+        long parkNanos = MILLISECONDS.toNanos( 10 );
+        try ( MuninnPageCache pageCache = createPageCacheWithoutEvictionThread( 1024, PageCacheTracer.NULL ) )
+        {
+            assertEquals( 30, pageCache.keepFree() );
+            long now = 0;
+
+            takeFreePages( pageCache, 100 );
+            assertEquals( 200, pageCache.adaptKeepFree( now += parkNanos ) );
+            // The same number of page faults over a longer time is a lower rate, which only slowly lowers the target.
+            takeFreePages( pageCache, 100 );
+            int previous = pageCache.adaptKeepFree( now += 4 * parkNanos );
+            assertTrue( previous < 200 && previous > 100, "Expected to fall slowly, but was " + previous );
+            // Once page faults stop, the number of pages to keep free falls back to the minimum.
+            for ( int i = 0; i < 100; i++ )
+            {
+                int keepFree = pageCache.adaptKeepFree( now += parkNanos );
+                assertTrue( keepFree <= previous );
+                previous = keepFree;
+            }
+            assertEquals( 30, previous );
+
+            // No more than half the pages are kept free.
+            takeFreePages( pageCache, 400 );
+            assertEquals( 512, pageCache.adaptKeepFree( now += parkNanos ) );
+            assertEquals( 512, pageCache.keepFree() );
+        }
+    }
+
+    private MuninnPageCache createPageCacheWithoutEvictionThread( int maxPages, PageCacheTracer tracer )
+    {
+        // The background jobs of the page cache, including the eviction thread, never run on this scheduler.
+        JobScheduler scheduler = jobScheduler;
+        jobScheduler = new OnDemandJobScheduler();
+        try
+        {
+            return createPageCache( fs, maxPages, tracer, PageCursorTracerSupplier.NULL );
+        }
+        finally
+        {
+            jobScheduler = scheduler;
+        }
+    }
+
+    private static void takeFreePages( MuninnPageCache pageCache, int count ) throws IOException
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            long pageRef = pageCache.grabFreeAndExclusivelyLockedPage( PageFaultEvent.NULL );
+            pageCache.pages.unlockExclusive( pageRef );
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
@@ -778,6 +1161,181 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         }
     }
 
+    @Test
+    void flushMustCoalesceAdjacentDirtyPagesAcrossTranslationTableChunks() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8, CREATE ) )
+        {
+            long lastPageOfFirstChunk = MuninnPagedFile.translationTableChunkSize - 1;
+            writePage( pagedFile, lastPageOfFirstChunk, 1 );
+            writePage( pagedFile, lastPageOfFirstChunk + 1, 2 );
+            long flushesBefore = tracer.flushes();
+
+            pagedFile.flushAndForce();
+
+            assertEquals( 1, tracer.flushes() - flushesBefore );
+            assertEquals( 16, tracer.bytesFlushed( pagedFile.file() ) );
+        }
+    }
+
+    @Test
+    void parallelFlushMustFlushAllStripesOfAFileAndReportItsBytes() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        File file = file( "a" );
+        long chunkSize = MuninnPagedFile.translationTableChunkSize;
+        long[] pageIds = {0, chunkSize + 1, 2 * chunkSize + 2, 3 * chunkSize + 3};
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file, 8, CREATE ) )
+        {
+            for ( long pageId : pageIds )
+            {
+                writePage( pagedFile, pageId, pageId + 1 );
+            }
+
+            // Stripes of a single chunk, so that every dirty page ends up in its own stripe.
+            ParallelFlush.flush( List.of( pagedFile ), IOLimiter.UNLIMITED, 3, 1, jobScheduler, tracer, true );
+
+            assertEquals( pageIds.length * 8, tracer.bytesFlushed( pagedFile.file() ) );
+        }
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            ByteBuffer buffer = ByteBuffers.allocate( 8 );
+            for ( long pageId : pageIds )
+            {
+                buffer.clear();
+                channel.position( pageId * 8 ).readAll( buffer );
+                buffer.flip();
+                assertEquals( pageId + 1, buffer.getLong() );
+            }
+        }
+    }
+
+    @Test
+    void flushAndForceMustReportBytesFlushedPerFile() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 20, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile a = map( pageCache, file( "a" ), 8, CREATE );
+              PagedFile b = map( pageCache, file( "b" ), 8, CREATE ) )
+        {
+            writePage( a, 0, 1 );
+            writePage( b, 0, 1 );
+            writePage( b, 5, 1 );
+
+            pageCache.flushAndForce();
+
+            assertEquals( 8, tracer.bytesFlushed( a.file() ) );
+            assertEquals( 16, tracer.bytesFlushed( b.file() ) );
+        }
+    }
+
+    @Test
+    void writeBarrierMustBePassedBeforePagesAreEvictedOrFlushed() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        List<Long> firstValuesOnFileAtBarrier = new ArrayList<>();
+        PageWriteBarrier barrier = () -> firstValuesOnFileAtBarrier.add( readIntoBuffer( "a" ).getLong() );
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8, barrier ) )
+        {
+            writePage( pagedFile, 0, 0 );
+            writePage( pagedFile, 1, 0 );
+            pageCache.evictPages( 2, 0, tracer.beginPageEvictions( 2 ) );
+            assertThat( firstValuesOnFileAtBarrier, hasSize( 2 ) );
+            assertThat( firstValuesOnFileAtBarrier.get( 0 ), is( x ) );
+
+            writePage( pagedFile, 0, 5 );
+            pagedFile.flushAndForce();
+            assertThat( firstValuesOnFileAtBarrier, hasSize( 3 ) );
+            assertThat( firstValuesOnFileAtBarrier.get( 2 ), is( 0L ) );
+            assertThat( readIntoBuffer( "a" ).getLong(), is( 5L ) );
+        }
+    }
+
+    @Test
+    void writesMustNotOverlapWithPageWritesOfFilesWithWriteBarrier() throws Exception
+    {
+        writeInitialDataTo( file( "a" ) );
+        PagedFile[] mappedFile = new PagedFile[1];
+        List<Future<?>> writes = new ArrayList<>();
+        MutableBoolean writeDoneAtBarrier = new MutableBoolean();
+        PageWriteBarrier barrier = () ->
+        {
+            if ( writes.isEmpty() )
+            {
+                // A write that starts after the barrier has been passed must wait until the page has been written
+                Future<?> write = executor.submit( () ->
+                {
+                    writePage( mappedFile[0], 0, 7 );
+                    return null;
+                } );
+                writes.add( write );
+                try
+                {
+                    write.get( 100, MILLISECONDS );
+                    writeDoneAtBarrier.setTrue();
+                }
+                catch ( TimeoutException e )
+                {
+                    // The write is still waiting for the page, as it should
+                }
+                catch ( InterruptedException | ExecutionException e )
+                {
+                    throw new IOException( e );
+                }
+            }
+        };
+
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8, barrier ) )
+        {
+            mappedFile[0] = pagedFile;
+            writePage( pagedFile, 0, 5 );
+            pagedFile.flushAndForce();
+            assertThat( writes, hasSize( 1 ) );
+            writes.get( 0 ).get();
+            assertFalse( writeDoneAtBarrier.booleanValue() );
+            assertThat( readIntoBuffer( "a" ).getLong(), is( 5L ) );
+        }
+    }
+
+    private static void writePage( PagedFile pagedFile, long pageId, long value ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK ) )
+        {
+            assertTrue( cursor.next() );
+            cursor.putLong( value );
+        }
+    }
+
+    private static void pinPage( PagedFile pagedFile, long pageId, int pf_flags ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, pf_flags ) )
+        {
+            assertTrue( cursor.next() );
+        }
+    }
+
+    private PagedFile mapFileWithRecords( MuninnPageCache pageCache, File file, int filePages ) throws IOException
+    {
+        // The record layout depends on the page size, which is only known once the page cache has been created.
+        generateFileWithRecords( file, recordsPerFilePage * filePages, recordSize );
+        return map( pageCache, file, filePageSize );
+    }
+
+    private static boolean isResident( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID;
+        }
+    }
+
     private void writeInitialDataTo( File file ) throws IOException
     {
         try ( StoreChannel channel = fs.write( file ) )
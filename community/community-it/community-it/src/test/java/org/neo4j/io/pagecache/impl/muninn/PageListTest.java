@@ -1270,6 +1270,26 @@ public class PageListTest
         assertTrue( pageList.decrementUsage( pageRef ) );
     }
 
+    @Test
+    public void promotingUsageOfUnusedPageMustPutItOnProbation()
+    {
+        pageList.promoteUsage( pageRef );
+        assertTrue( pageList.decrementUsage( pageRef ) );
+    }
+
+    @Test
+    public void promotingUsageOfUsedPageMustGoStraightToSeven()
+    {
+        pageList.promoteUsage( pageRef );
+        pageList.promoteUsage( pageRef );
+        pageList.promoteUsage( pageRef );
+        for ( int i = 0; i < 6; i++ )
+        {
+            assertFalse( pageList.decrementUsage( pageRef ) );
+        }
+        assertTrue( pageList.decrementUsage( pageRef ) );
+    }
+
     @Test
     public void incrementingUsageCounterMustNotInterfereWithAdjacentUsageCounters()
     {
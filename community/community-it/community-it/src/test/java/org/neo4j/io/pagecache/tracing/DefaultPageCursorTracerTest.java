@@ -29,6 +29,9 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class DefaultPageCursorTracerTest
@@ -199,6 +202,27 @@ class DefaultPageCursorTracerTest
         assertEquals( 450, cacheTracer.bytesRead() );
     }
 
+    @Test
+    void countFaultTimeAndReportFaultAndFlushLatencies() throws InterruptedException
+    {
+        PinEvent pinEvent = pageCursorTracer.beginPin( true, 0, swapper );
+        PageFaultEvent pageFaultEvent = pinEvent.beginPageFault();
+        Thread.sleep( 2 );
+        FlushEvent flushEvent = pageFaultEvent.beginEviction().flushEventOpportunity().beginFlush( 0, 0, swapper );
+        flushEvent.done();
+        pageFaultEvent.done();
+        pinEvent.done();
+
+        assertThat( pageCursorTracer.faultTimeNanos(), greaterThanOrEqualTo( MILLISECONDS.toNanos( 2 ) ) );
+        assertEquals( 1, cacheTracer.faultLatencies().count() );
+        assertEquals( pageCursorTracer.faultTimeNanos(), cacheTracer.faultLatencies().totalNanos() );
+        assertEquals( 1, cacheTracer.flushLatencies().count() );
+
+        pageCursorTracer.reportEvents();
+
+        assertEquals( 0, pageCursorTracer.faultTimeNanos() );
+    }
+
     @Test
     void shouldCalculateHitRatio()
     {
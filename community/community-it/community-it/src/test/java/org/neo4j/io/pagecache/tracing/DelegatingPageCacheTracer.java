@@ -103,12 +103,24 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.unmappedFile( file );
     }
 
+    @Override
+    public void flushedFile( File file, long bytesWritten )
+    {
+        delegate.flushedFile( file, bytesWritten );
+    }
+
     @Override
     public long evictionExceptions()
     {
         return delegate.evictionExceptions();
     }
 
+    @Override
+    public long cooperativeEvictions()
+    {
+        return delegate.cooperativeEvictions();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -121,6 +133,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         return delegate.usageRatio();
     }
 
+    @Override
+    public LatencyHistogram faultLatencies()
+    {
+        return delegate.faultLatencies();
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies()
+    {
+        return delegate.flushLatencies();
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -163,6 +187,12 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.evictionExceptions( evictionExceptions );
     }
 
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+        delegate.cooperativeEvictions( cooperativeEvictions );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -181,6 +211,18 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public void faultLatency( long nanos )
+    {
+        delegate.faultLatency( nanos );
+    }
+
+    @Override
+    public void flushLatency( long nanos )
+    {
+        delegate.flushLatency( nanos );
+    }
+
     @Override
     public long filesMapped()
     {
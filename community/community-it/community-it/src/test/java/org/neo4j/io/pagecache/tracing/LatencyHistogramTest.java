@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LatencyHistogramTest
+{
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    void emptyHistogramMustReportZeros()
+    {
+        assertEquals( 0, histogram.count() );
+        assertEquals( 0, histogram.totalNanos() );
+        assertEquals( 0d, histogram.meanNanos() );
+        assertEquals( 0, histogram.percentileNanos( 0.99 ) );
+    }
+
+    @Test
+    void mustCountLatenciesInPowerOfTwoBuckets()
+    {
+        assertEquals( 0, LatencyHistogram.bucketOf( 0 ) );
+        assertEquals( 1, LatencyHistogram.bucketOf( 1 ) );
+        assertEquals( 2, LatencyHistogram.bucketOf( 2 ) );
+        assertEquals( 2, LatencyHistogram.bucketOf( 3 ) );
+        assertEquals( 11, LatencyHistogram.bucketOf( 1024 ) );
+        assertEquals( LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf( Long.MAX_VALUE ) );
+
+        histogram.record( 1000 );
+        histogram.record( 1023 );
+        histogram.record( -5 );
+
+        assertEquals( 3, histogram.count() );
+        assertEquals( 2023, histogram.totalNanos() );
+        assertEquals( 2, histogram.bucketCount( 10 ) );
+        assertEquals( 1, histogram.bucketCount( 0 ) );
+        assertEquals( 1023, LatencyHistogram.bucketUpperBoundNanos( 10 ) );
+    }
+
+    @Test
+    void mustEstimatePercentilesByBucketUpperBound()
+    {
+        for ( int i = 0; i < 99; i++ )
+        {
+            histogram.record( 100 );
+        }
+        histogram.record( 1_000_000 );
+
+        assertEquals( 127, histogram.percentileNanos( 0.5 ) );
+        assertEquals( 127, histogram.percentileNanos( 0.99 ) );
+        assertEquals( 1_048_575, histogram.percentileNanos( 1.0 ) );
+        assertEquals( 127, histogram.percentileNanos( 0 ) );
+        assertThrows( IllegalArgumentException.class, () -> histogram.percentileNanos( 1.5 ) );
+    }
+}
@@ -113,6 +113,26 @@ class HEvents
         }
     }
 
+    static class FlushedFileHEvent extends HEvent
+    {
+        File file;
+        long bytesWritten;
+
+        FlushedFileHEvent( File file, long bytesWritten )
+        {
+            this.file = file;
+            this.bytesWritten = bytesWritten;
+        }
+
+        @Override
+        void printBody( PrintStream out, String exceptionLinePrefix )
+        {
+            print( out, file );
+            out.print( ", bytesWritten:" );
+            out.print( bytesWritten );
+        }
+    }
+
     public static class EvictionRunHEvent extends IntervalHEvent implements EvictionRunEvent
     {
         int pagesToEvict;
@@ -23,10 +23,12 @@ import java.io.File;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
+import org.neo4j.io.pagecache.tracing.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.EvictionRunHEvent;
+import static org.neo4j.io.pagecache.tracing.linear.HEvents.FlushedFileHEvent;
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.MajorFlushHEvent;
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.MappedFileHEvent;
 import static org.neo4j.io.pagecache.tracing.linear.HEvents.UnmappedFileHEvent;
@@ -60,6 +62,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         tracer.add( new UnmappedFileHEvent( file ) );
     }
 
+    @Override
+    public void flushedFile( File file, long bytesWritten )
+    {
+        tracer.add( new FlushedFileHEvent( file, bytesWritten ) );
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -144,6 +152,12 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0;
     }
 
+    @Override
+    public long cooperativeEvictions()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -156,6 +170,18 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
         return 0d;
     }
 
+    @Override
+    public LatencyHistogram faultLatencies()
+    {
+        return new LatencyHistogram();
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies()
+    {
+        return new LatencyHistogram();
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -191,6 +217,11 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     {
     }
 
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -205,4 +236,14 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public void faultLatency( long nanos )
+    {
+    }
+
+    @Override
+    public void flushLatency( long nanos )
+    {
+    }
 }
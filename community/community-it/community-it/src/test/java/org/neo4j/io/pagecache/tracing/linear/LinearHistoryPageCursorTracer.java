@@ -47,6 +47,12 @@ public class LinearHistoryPageCursorTracer implements PageCursorTracer
         return 0;
     }
 
+    @Override
+    public long faultTimeNanos()
+    {
+        return 0;
+    }
+
     @Override
     public long pins()
     {
@@ -27,6 +27,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
+import org.neo4j.io.pagecache.tracing.LatencyHistogram;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 
@@ -53,6 +54,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         // we currently do not record these
     }
 
+    @Override
+    public void flushedFile( File file, long bytesWritten )
+    {
+        // we currently do not record these
+    }
+
     @Override
     public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
     {
@@ -149,6 +156,12 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0;
     }
 
+    @Override
+    public long cooperativeEvictions()
+    {
+        return 0;
+    }
+
     @Override
     public double hitRatio()
     {
@@ -161,6 +174,18 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
         return 0d;
     }
 
+    @Override
+    public LatencyHistogram faultLatencies()
+    {
+        return new LatencyHistogram();
+    }
+
+    @Override
+    public LatencyHistogram flushLatencies()
+    {
+        return new LatencyHistogram();
+    }
+
     @Override
     public void pins( long pins )
     {
@@ -199,6 +224,11 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -214,6 +244,16 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void faultLatency( long nanos )
+    {
+    }
+
+    @Override
+    public void flushLatency( long nanos )
+    {
+    }
+
     private void evicted( long filePageId, PageSwapper swapper )
     {
         record( new Evict( swapper, filePageId ) );
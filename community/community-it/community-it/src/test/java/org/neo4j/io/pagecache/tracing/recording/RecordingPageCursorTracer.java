@@ -57,6 +57,12 @@ public class RecordingPageCursorTracer extends RecordingTracer implements PageCu
         return faults;
     }
 
+    @Override
+    public long faultTimeNanos()
+    {
+        return 0;
+    }
+
     @Override
     public long pins()
     {
@@ -201,6 +201,21 @@ public class ConsistencyCheckServiceIntegrationTest
         assertFalse( reportFile.exists(), "Unexpected generation of consistency check report file: " + reportFile );
     }
 
+    @Test
+    void shouldSucceedWithMemoryMappedReadOnlyStores() throws Exception
+    {
+        // given
+        ConsistencyCheckService service = new ConsistencyCheckService( new Date() );
+        Config configuration = Config.defaults( settings() );
+        configuration.set( GraphDatabaseSettings.pagecache_memory_mapped_read_only, true );
+
+        // when
+        ConsistencyCheckService.Result result = runFullConsistencyCheck( service, configuration );
+
+        // then
+        assertTrue( result.isSuccessful() );
+    }
+
     @Test
     void shouldFailIfTheStoreInNotConsistent() throws Exception
     {
@@ -661,6 +661,7 @@ class DataCollectorQueriesAcceptanceTest extends DataCollectorTestSupport {
           val invocations = m("invocations").asInstanceOf[Seq[Map[String, AnyRef]]]
           val compileTimes = invocations.map(inv => inv("elapsedCompileTimeInUs").asInstanceOf[Long])
           val executionTimes = invocations.map(inv => inv("elapsedExecutionTimeInUs").asInstanceOf[Long])
+          val pageFaultTimes = invocations.map(inv => inv("pageFaultTimeInUs").asInstanceOf[Long])
 
           beMapContaining(
             "compileTimeInUs" -> beMapContaining(
@@ -673,6 +674,11 @@ class DataCollectorQueriesAcceptanceTest extends DataCollectorTestSupport {
               "max" -> executionTimes.max,
               "avg" -> (executionTimes.sum / executionTimes.size)
             ),
+            "pageFaultTimeInUs" -> beMapContaining(
+              "min" -> pageFaultTimes.min,
+              "max" -> pageFaultTimes.max,
+              "avg" -> (pageFaultTimes.sum / pageFaultTimes.size)
+            ),
             "invocationCount" -> invocations.size
           ).apply(m("invocationSummary"))
 
@@ -710,6 +716,9 @@ class DataCollectorQueriesAcceptanceTest extends DataCollectorTestSupport {
                   map("elapsedExecutionTimeInUs").asInstanceOf[Long] should be > 0L
                   map("elapsedCompileTimeInUs").asInstanceOf[Long] should be > 0L
                   map("startTimestampMillis").asInstanceOf[Long] should be > 0L
+                  map("pageHits").asInstanceOf[Long] should be >= 0L
+                  map("pageFaults").asInstanceOf[Long] should be >= 0L
+                  map("pageFaultTimeInUs").asInstanceOf[Long] should be >= 0L
                   val invocationTime = map("startTimestampMillis").asInstanceOf[Long]
                   if (invocationTime < previousInvocationTime)
                     errors += s"Expected invocations to be ordered by start timestamp, but got invocation with timestamp $invocationTime ordered after invocation with timestamp $previousInvocationTime"
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.schema;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.neo4j.graphdb.ConstraintViolationException;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.api.index.BatchingMultipleIndexPopulator;
+import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.Race;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.DbmsExtension;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.util.FeatureToggles;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.index_population_scan_parallelism;
+import static org.neo4j.internal.helpers.collection.Iterators.count;
+import static org.neo4j.kernel.impl.api.index.MultipleIndexPopulator.QUEUE_THRESHOLD_NAME;
+import static org.neo4j.test.Race.throwing;
+
+@DbmsExtension( configurationCallback = "configure" )
+class ParallelIndexPopulationIT
+{
+    private static final Label LABEL = Label.label( "Label" );
+    private static final String KEY = "key";
+    private static final String OTHER_KEY = "otherKey";
+    // Enough nodes for the scan to be split into several batches
+    private static final int NODE_COUNT = 35_123;
+
+    @Inject
+    private GraphDatabaseAPI db;
+
+    @ExtensionCallback
+    void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( index_population_scan_parallelism, 4 );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        FeatureToggles.clear( MultipleIndexPopulator.class, QUEUE_THRESHOLD_NAME );
+        FeatureToggles.clear( BatchingMultipleIndexPopulator.class, QUEUE_THRESHOLD_NAME );
+    }
+
+    @Test
+    void shouldPopulateIndexWithAllNodesWhenScanningInParallel()
+    {
+        // given
+        createNodes();
+
+        // when
+        createIndexAndAwaitOnline( tx -> tx.schema().indexFor( LABEL ).on( OTHER_KEY ).create() );
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( NODE_COUNT / 10 + 1, count( tx.findNodes( LABEL, OTHER_KEY, 0 ) ) );
+            assertEquals( NODE_COUNT / 10, count( tx.findNodes( LABEL, OTHER_KEY, 9 ) ) );
+            long total = 0;
+            for ( int value = 0; value < 10; value++ )
+            {
+                total += count( tx.findNodes( LABEL, OTHER_KEY, value ) );
+            }
+            assertEquals( NODE_COUNT, total );
+        }
+    }
+
+    @Test
+    void shouldApplyConcurrentUpdatesWhenScanningInParallel() throws Throwable
+    {
+        // given
+        createNodes();
+        List<Long> nodeIds;
+        try ( Transaction tx = db.beginTx() )
+        {
+            nodeIds = tx.findNodes( LABEL ).stream().map( Node::getId ).collect( toList() );
+        }
+        // A low threshold has the scan threads apply the queued updates while scanning
+        FeatureToggles.set( MultipleIndexPopulator.class, QUEUE_THRESHOLD_NAME, 50 );
+        FeatureToggles.set( BatchingMultipleIndexPopulator.class, QUEUE_THRESHOLD_NAME, 50 );
+
+        // when
+        AtomicBoolean online = new AtomicBoolean();
+        Race race = new Race().withEndCondition( online::get );
+        race.addContestant( throwing( () ->
+        {
+            createIndexAndAwaitOnline( tx -> tx.schema().indexFor( LABEL ).on( OTHER_KEY ).create() );
+            online.set( true );
+        } ), 1 );
+        race.addContestants( 4, throwing( () ->
+        {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try ( Transaction tx = db.beginTx() )
+            {
+                for ( int i = 0; i < 10; i++ )
+                {
+                    Node node = tx.getNodeById( nodeIds.get( random.nextInt( nodeIds.size() ) ) );
+                    if ( random.nextInt( 10 ) == 0 )
+                    {
+                        node.removeProperty( OTHER_KEY );
+                    }
+                    else
+                    {
+                        node.setProperty( OTHER_KEY, random.nextInt( 20 ) );
+                    }
+                }
+                tx.createNode( LABEL ).setProperty( OTHER_KEY, random.nextInt( 20 ) );
+                tx.commit();
+            }
+        } ) );
+        race.go();
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            int[] valueCounts = new int[20];
+            tx.findNodes( LABEL ).forEachRemaining( node ->
+            {
+                Object value = node.getProperty( OTHER_KEY, null );
+                if ( value != null )
+                {
+                    valueCounts[(Integer) value]++;
+                }
+            } );
+            for ( int value = 0; value < valueCounts.length; value++ )
+            {
+                assertEquals( valueCounts[value], count( tx.findNodes( LABEL, OTHER_KEY, value ) ) );
+            }
+        }
+    }
+
+    @Test
+    void shouldPopulateUniquenessConstraintWhenScanningInParallel()
+    {
+        // given
+        createNodes();
+
+        // when
+        createIndexAndAwaitOnline( tx -> tx.schema().constraintFor( LABEL ).assertPropertyIsUnique( KEY ).create() );
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODE_COUNT; i++ )
+            {
+                Node node = tx.findNode( LABEL, KEY, i );
+                assertNotNull( node );
+                assertEquals( i, node.getProperty( KEY ) );
+            }
+        }
+    }
+
+    @Test
+    void shouldFailConstraintOnDuplicatesFoundByDifferentScanThreads()
+    {
+        // given
+        createNodes();
+        try ( Transaction tx = db.beginTx() )
+        {
+            // The duplicate ends up in the last id range, far away from the node it duplicates
+            tx.createNode( LABEL ).setProperty( KEY, 0 );
+            tx.commit();
+        }
+
+        // when
+        assertThrows( ConstraintViolationException.class, () ->
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.schema().constraintFor( LABEL ).assertPropertyIsUnique( KEY ).create();
+                tx.commit();
+            }
+        } );
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 0, count( tx.schema().getConstraints().iterator() ) );
+        }
+    }
+
+    private void createNodes()
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < NODE_COUNT; i++ )
+            {
+                Node node = tx.createNode( LABEL );
+                node.setProperty( KEY, i );
+                node.setProperty( OTHER_KEY, i % 10 );
+                if ( i % 3 == 0 )
+                {
+                    // Nodes without the label makes the labeled nodes unevenly spread out over the id ranges
+                    tx.createNode().setProperty( KEY, i );
+                }
+            }
+            tx.commit();
+        }
+    }
+
+    private void createIndexAndAwaitOnline( Consumer<Transaction> creator )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            creator.accept( tx );
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 2, MINUTES );
+            tx.commit();
+        }
+    }
+}
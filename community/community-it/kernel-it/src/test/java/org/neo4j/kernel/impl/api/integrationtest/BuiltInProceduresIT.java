@@ -22,9 +22,12 @@ package org.neo4j.kernel.impl.api.integrationtest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.FutureTask;
@@ -54,6 +57,7 @@ import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode;
 import org.neo4j.kernel.impl.util.DefaultValueMapper;
 import org.neo4j.kernel.internal.Version;
 import org.neo4j.monitoring.Monitors;
+import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.values.AnyValue;
 import org.neo4j.values.storable.Values;
 import org.neo4j.values.virtual.ListValue;
@@ -64,7 +68,10 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -440,6 +447,97 @@ class BuiltInProceduresIT extends CommunityProcedureITBase
         constraintCreator.join();
     }
 
+    @Test
+    void listChangesOfCommittedTransactions()
+    {
+        // Given
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "CREATE (:Person {name: 'Ada'})-[:KNOWS]->(:Person)" ).close();
+            transaction.commit();
+        }
+        long lastTransactionId = dependencyResolver.resolveDependency( TransactionIdStore.class ).getLastClosedTransactionId();
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "MATCH (n:Person {name: 'Ada'}) SET n.name = 'Grace'" ).close();
+            transaction.commit();
+        }
+
+        // When
+        List<List<Object>> changes = new ArrayList<>();
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "CALL db.changes($from) YIELD event, token, before, after", Map.of( "from", lastTransactionId + 1 ) )
+                    .accept( row ->
+                    {
+                        changes.add( Arrays.asList( row.getString( "event" ), row.getString( "token" ), row.get( "before" ), row.get( "after" ) ) );
+                        return true;
+                    } );
+            transaction.commit();
+        }
+
+        // Then
+        assertThat( changes, contains( Arrays.asList( "NODE_PROPERTY_SET", "name", "Ada", "Grace" ), Arrays.asList( "COMMIT", null, null, null ) ) );
+    }
+
+    @Test
+    void listPageCacheStatisticsOfDatabaseFiles()
+    {
+        // Given
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "CREATE (:Person {name: 'Ada'})" ).close();
+            transaction.commit();
+        }
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "MATCH (n:Person) RETURN n.name" ).close();
+            transaction.commit();
+        }
+
+        // When
+        List<String> files = new ArrayList<>();
+        AtomicLong pageHits = new AtomicLong();
+        AtomicLong residentPages = new AtomicLong();
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "CALL db.pageCacheFiles() YIELD file, pageHits, residentPages, reservedPages, maxPages" ).accept( row ->
+            {
+                files.add( row.getString( "file" ) );
+                pageHits.addAndGet( row.getNumber( "pageHits" ).longValue() );
+                residentPages.addAndGet( row.getNumber( "residentPages" ).longValue() );
+                assertThat( row.getNumber( "maxPages" ).longValue(), greaterThanOrEqualTo( row.getNumber( "reservedPages" ).longValue() ) );
+                return true;
+            } );
+            transaction.commit();
+        }
+
+        // Then
+        assertThat( files, hasItem( endsWith( "neostore.nodestore.db" ) ) );
+        assertThat( pageHits.get(), greaterThan( 0L ) );
+        assertThat( residentPages.get(), greaterThan( 0L ) );
+    }
+
+    @Test
+    void listPageCacheLatencies()
+    {
+        // When
+        Map<String,Long> counts = new HashMap<>();
+        try ( org.neo4j.graphdb.Transaction transaction = db.beginTx() )
+        {
+            transaction.execute( "CALL dbms.pageCacheLatencies() YIELD operation, count" ).accept( row ->
+            {
+                counts.put( row.getString( "operation" ), row.getNumber( "count" ).longValue() );
+                return true;
+            } );
+            transaction.commit();
+        }
+
+        // Then
+        assertThat( counts.keySet(), containsInAnyOrder( "fault", "flush" ) );
+        assertThat( counts.get( "fault" ), greaterThan( 0L ) );
+    }
+
     @Test
     void prepareForReplanningShouldEmptyQueryCache()
     {
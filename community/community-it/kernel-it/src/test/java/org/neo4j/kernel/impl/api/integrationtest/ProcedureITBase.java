@@ -101,6 +101,26 @@ public interface ProcedureITBase
                         "WRITE", false ), proc( "db.createRelationshipType", "(newRelationshipType :: STRING?) :: VOID", "Create a RelationshipType",
                         stringArray( "publisher", "architect", "admin" ), "WRITE", false ),
                 proc( "db.clearQueryCaches", "() :: (value :: STRING?)", "Clears all query caches.", stringArray( "admin" ), "DBMS" ),
+                proc( "db.pageCacheFiles", "() :: (file :: STRING?, pageHits :: INTEGER?, pageFaults :: INTEGER?, hitRatio :: FLOAT?, " +
+                                "residentPages :: INTEGER?, reservedPages :: INTEGER?, maxPages :: INTEGER?)",
+                        "List the page cache statistics of the files of the database that are mapped into the page cache, and the pages " +
+                                "reserved for and allowed to each file by its page quota. Page hits are counted when the page cursor that observed " +
+                                "them is closed.",
+                        stringArray( "admin" ), "READ", false ),
+                proc( "dbms.pageCacheLatencies",
+                        "() :: (operation :: STRING?, count :: INTEGER?, meanNanos :: FLOAT?, p50Nanos :: INTEGER?, p90Nanos :: INTEGER?, " +
+                                "p99Nanos :: INTEGER?, p999Nanos :: INTEGER?)",
+                        "Show the latencies of the page faults and page flushes of the page cache, in nanoseconds. The latencies are counted in " +
+                                "buckets that are powers of two wide, and the percentiles are the upper bounds of the buckets that hold them.",
+                        stringArray( "admin" ), "DBMS" ),
+                proc( "db.changes",
+                        "(fromTransactionId :: INTEGER?, maxTransactions = 1000 :: INTEGER?) :: (transactionId :: INTEGER?, commitTime :: INTEGER?, " +
+                                "event :: STRING?, entityId :: INTEGER?, token :: STRING?, startNodeId :: INTEGER?, endNodeId :: INTEGER?, " +
+                                "before :: ANY?, after :: ANY?)",
+                        "Stream the changes to nodes and relationships made by committed transactions, starting from the given transaction id. " +
+                                "The changes of every transaction end with a COMMIT event. At most the given number of transactions are returned; " +
+                                "call again from the transaction after the last COMMIT event to follow the changes.",
+                        stringArray( "admin" ), "READ", false ),
                 proc( "db.createIndex",
                         "(indexName :: STRING?, labels :: LIST? OF STRING?, properties :: LIST? OF STRING?, providerName :: STRING?, config = {} :: MAP?) :: " +
                                 "(name :: STRING?, labels :: LIST? OF STRING?, properties :: LIST? OF STRING?, providerName :: STRING?, status :: STRING?)",
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.core;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.DbRepresentation;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory_mapped_read_only;
+import static org.neo4j.configuration.GraphDatabaseSettings.read_only;
+import static org.neo4j.graphdb.RelationshipType.withName;
+import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+
+@TestDirectoryExtension
+class MemoryMappedReadOnlyDatabaseIT
+{
+    @Inject
+    private TestDirectory testDirectory;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void tearDown()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void readOnlyDatabaseMustServeRecordStoresFromMemoryMappings() throws Exception
+    {
+        DbRepresentation someData = createSomeData();
+
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homeDir() )
+                .setConfig( read_only, true )
+                .setConfig( pagecache_memory_mapped_read_only, true )
+                .build();
+        GraphDatabaseAPI db = (GraphDatabaseAPI) managementService.database( DEFAULT_DATABASE_NAME );
+        assertEquals( someData, DbRepresentation.of( db ) );
+
+        PageCache pageCache = db.getDependencyResolver().resolveDependency( PageCache.class );
+        PagedFile nodeStore = pageCache.getExistingMapping( db.databaseLayout().nodeStore() ).orElseThrow();
+        // Only the memory mapped paged files refuse write cursors outright
+        assertThrows( UnsupportedOperationException.class, () ->
+        {
+            try ( PageCursor cursor = nodeStore.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                cursor.next();
+            }
+        } );
+    }
+
+    private DbRepresentation createSomeData()
+    {
+        DatabaseManagementService managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homeDir() ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = tx.createNode();
+            node.setProperty( "name", "Just some name" );
+            node.createRelationshipTo( tx.createNode(), withName( "KNOWS" ) );
+            tx.commit();
+        }
+        DbRepresentation representation = DbRepresentation.of( db );
+        managementService.shutdown();
+        return representation;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.api.set.primitive.LongSet;
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.eclipse.collections.impl.factory.primitive.LongSets;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.kernel.api.CursorFactory;
+import org.neo4j.internal.kernel.api.IndexReadSession;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.kernel.api.KernelTransaction;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.kernel.impl.newapi.TestUtils.assertDistinct;
+import static org.neo4j.kernel.impl.newapi.TestUtils.concat;
+import static org.neo4j.kernel.impl.newapi.TestUtils.randomBatchWorker;
+
+public abstract class ParallelNodeIndexScanTestBase<G extends KernelAPIReadTestSupport> extends KernelAPIReadTestBase<G>
+{
+    private static final int NUMBER_OF_NODES = 10_000;
+    private static final String INDEX_NAME = "nodeProp";
+    private static final ToLongFunction<NodeValueIndexCursor> NODE_GET = NodeValueIndexCursor::nodeReference;
+    private static LongSet NODES;
+
+    @Override
+    public void createTestGraph( GraphDatabaseService graphDb )
+    {
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.schema().indexFor( label( "Node" ) ).on( "prop" ).withName( INDEX_NAME ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 5, MINUTES );
+            tx.commit();
+        }
+        MutableLongSet nodes = LongSets.mutable.empty();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < NUMBER_OF_NODES; i++ )
+            {
+                Node node = tx.createNode( label( "Node" ) );
+                node.setProperty( "prop", "value" + i );
+                nodes.add( node.getId() );
+            }
+            // some nodes not in the index
+            for ( int i = 0; i < 10; i++ )
+            {
+                tx.createNode( label( "Node" ) );
+            }
+            tx.commit();
+        }
+        NODES = nodes;
+    }
+
+    @Test
+    void shouldScanAllNodesInPartitions() throws Exception
+    {
+        // given
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        try ( NodeValueIndexCursor nodes = cursors.allocateNodeValueIndexCursor() )
+        {
+            // when
+            Scan<NodeValueIndexCursor> scan = read.nodeIndexScan( index, 4, false );
+            MutableLongList ids = LongLists.mutable.empty();
+            int numberOfPartitions = 0;
+            while ( scan.reserveBatch( nodes, 1 ) )
+            {
+                numberOfPartitions++;
+                while ( nodes.next() )
+                {
+                    ids.add( nodes.nodeReference() );
+                }
+            }
+
+            // then
+            assertTrue( numberOfPartitions > 1 && numberOfPartitions <= 4, "Unexpected number of partitions " + numberOfPartitions );
+            assertEquals( NODES.size(), ids.size() );
+            assertEquals( NODES, LongSets.immutable.withAll( ids ) );
+        }
+    }
+
+    @Test
+    void shouldFailForSizeHintZero() throws Exception
+    {
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        try ( NodeValueIndexCursor nodes = cursors.allocateNodeValueIndexCursor() )
+        {
+            // given
+            Scan<NodeValueIndexCursor> scan = read.nodeIndexScan( index, 4, false );
+
+            // when
+            assertThrows( IllegalArgumentException.class, () -> scan.reserveBatch( nodes, 0 ) );
+        }
+    }
+
+    @Test
+    void shouldFailInTransactionWithChanges() throws Exception
+    {
+        try ( KernelTransaction tx = beginTransaction() )
+        {
+            // given
+            tx.dataWrite().nodeCreate();
+            IndexReadSession index = tx.dataRead().indexReadSession( tx.schemaRead().indexGetForName( INDEX_NAME ) );
+
+            // when
+            assertThrows( IllegalStateException.class, () -> tx.dataRead().nodeIndexScan( index, 4, false ) );
+        }
+    }
+
+    @Test
+    void shouldScanAllNodesFromMultipleThreads() throws Exception
+    {
+        // given
+        ExecutorService service = Executors.newFixedThreadPool( 4 );
+        IndexReadSession index = read.indexReadSession( schemaRead.indexGetForName( INDEX_NAME ) );
+        Scan<NodeValueIndexCursor> scan = read.nodeIndexScan( index, 8, false );
+        CursorFactory cursors = testSupport.kernelToTest().cursors();
+
+        try
+        {
+            // when
+            List<Future<LongList>> futures = new ArrayList<>();
+            for ( int i = 0; i < 4; i++ )
+            {
+                futures.add( service.submit( randomBatchWorker( scan, cursors::allocateNodeValueIndexCursor, NODE_GET ) ) );
+            }
+
+            // then
+            List<LongList> lists = futures.stream().map( TestUtils::unsafeGet ).collect( Collectors.toList() );
+
+            assertDistinct( lists );
+            assertEquals( NODES, LongSets.immutable.withAll( concat( lists ) ) );
+        }
+        finally
+        {
+            service.shutdown();
+            service.awaitTermination( 1, TimeUnit.MINUTES );
+        }
+    }
+}
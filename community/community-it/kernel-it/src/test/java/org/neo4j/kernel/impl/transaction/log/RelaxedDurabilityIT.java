@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointer;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.SimpleTriggerInfo;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.ExtensionCallback;
+import org.neo4j.test.extension.ImpermanentDbmsExtension;
+import org.neo4j.test.extension.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ImpermanentDbmsExtension( configurationCallback = "configure" )
+class RelaxedDurabilityIT
+{
+    @Inject
+    private GraphDatabaseAPI db;
+
+    @ExtensionCallback
+    static void configure( TestDatabaseManagementServiceBuilder builder )
+    {
+        builder.setConfig( GraphDatabaseSettings.relaxed_durability, true );
+        // Only page writes and check points force the log in this test.
+        builder.setConfig( GraphDatabaseSettings.relaxed_durability_force_interval, Duration.ofHours( 1 ) );
+    }
+
+    @Test
+    void shouldCommitWithoutForcingAndForceBeforeCheckPoint() throws IOException
+    {
+        DatabaseTracer databaseTracer = db.getDependencyResolver().resolveDependency( DatabaseTracer.class );
+        CheckPointer checkPointer = db.getDependencyResolver().resolveDependency( CheckPointer.class );
+        long relaxedCommitsBefore = databaseTracer.numberOfRelaxedCommits();
+        for ( int i = 0; i < 5; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                tx.createNode();
+                tx.commit();
+            }
+        }
+        assertEquals( relaxedCommitsBefore + 5, databaseTracer.numberOfRelaxedCommits() );
+
+        long backgroundForcesBefore = databaseTracer.numberOfBackgroundLogForces();
+        checkPointer.forceCheckPoint( new SimpleTriggerInfo( "test" ) );
+
+        assertThat( databaseTracer.numberOfBackgroundLogForces(), greaterThan( backgroundForcesBefore ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 5, tx.getAllNodes().stream().count() );
+        }
+    }
+}
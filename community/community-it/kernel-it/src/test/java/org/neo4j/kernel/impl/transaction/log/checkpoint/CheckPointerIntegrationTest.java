@@ -28,6 +28,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.neo4j.configuration.GraphDatabaseSettings.CheckpointPolicy;
 import org.neo4j.dbms.api.DatabaseManagementService;
 import org.neo4j.dbms.api.DatabaseManagementServiceBuilder;
 import org.neo4j.graphdb.GraphDatabaseService;
@@ -64,6 +65,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
 import static org.neo4j.configuration.GraphDatabaseSettings.check_point_interval_time;
 import static org.neo4j.configuration.GraphDatabaseSettings.check_point_interval_tx;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_policy;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
 import static org.neo4j.storageengine.api.LogVersionRepository.INITIAL_LOG_VERSION;
 
@@ -139,6 +141,34 @@ class CheckPointerIntegrationTest
                 checkPoints.toString() );
     }
 
+    @Test
+    void shouldCheckPointIncrementallyAfterBackgroundFlush() throws Throwable
+    {
+        // given
+        DatabaseManagementService managementService = builder
+                .setConfig( check_point_policy, CheckpointPolicy.INCREMENTAL )
+                .setConfig( check_point_interval_time, Duration.ofHours( 1 ) )
+                .setConfig( check_point_interval_tx, 10000 )
+                .setConfig( logical_log_rotation_threshold, ByteUnit.gibiBytes( 1 ) ).build();
+        GraphDatabaseService db = managementService.database( DEFAULT_DATABASE_NAME );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.createNode();
+            tx.commit();
+        }
+
+        // then the check point follows the background flush of the pages dirtied by the transaction
+        long endTime = currentTimeMillis() + SECONDS.toMillis( 30 );
+        while ( checkPointInTxLog( db ) == 0 )
+        {
+            Thread.sleep( 100 );
+            assertTrue( currentTimeMillis() < endTime, "Took too long to produce a checkpoint" );
+        }
+        managementService.shutdown();
+    }
+
     private static int checkPointInTxLog( GraphDatabaseService db ) throws IOException
     {
         LogFiles logFiles = ((GraphDatabaseAPI)db).getDependencyResolver().resolveDependency( LogFiles.class );
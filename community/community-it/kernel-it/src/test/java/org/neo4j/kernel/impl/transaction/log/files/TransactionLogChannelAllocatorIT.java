@@ -102,7 +102,7 @@ class TransactionLogChannelAllocatorIT
         LogHeaderCache logHeaderCache = new LogHeaderCache( 10 );
         var logFileContext = createLogFileContext();
         var nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, logFileContext );
-        return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor );
+        return new TransactionLogChannelAllocator( logFileContext, fileHelper, logHeaderCache, nativeChannelAccessor, null );
     }
 
     private TransactionLogFilesContext createLogFileContext()
@@ -111,6 +111,7 @@ class TransactionLogChannelAllocatorIT
                 new VersionAwareLogEntryReader(), () -> 1L,
                 () -> 1L, () -> new LogPosition( 0, 1 ),
                 SimpleLogVersionRepository::new, fileSystem,
-                NullLogProvider.getInstance(), DatabaseTracer.NULL, () -> StoreId.UNKNOWN, NativeAccessProvider.getNativeAccess() );
+                NullLogProvider.getInstance(), DatabaseTracer.NULL, () -> StoreId.UNKNOWN, NativeAccessProvider.getNativeAccess(),
+                false, null, false );
     }
 }
@@ -30,6 +30,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.exceptions.KernelException;
 import org.neo4j.graphdb.Label;
@@ -57,6 +59,7 @@ import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.NodeLabelUpdate;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 import org.neo4j.test.extension.DbmsExtension;
@@ -98,6 +101,7 @@ class NeoStoreIndexStoreViewTest
     private Node alistair;
     private Node stefan;
     private LockService locks;
+    private RecordStorageEngine storageEngine;
     private NeoStores neoStores;
     private Relationship aKnowsS;
     private Relationship sKnowsA;
@@ -110,7 +114,7 @@ class NeoStoreIndexStoreViewTest
         createAlistairAndStefanNodes();
         getOrCreateIds();
 
-        RecordStorageEngine storageEngine = graphDb.getDependencyResolver().resolveDependency( RecordStorageEngine.class );
+        storageEngine = graphDb.getDependencyResolver().resolveDependency( RecordStorageEngine.class );
         neoStores = storageEngine.testAccessNeoStores();
 
         locks = mock( LockService.class );
@@ -258,6 +262,45 @@ class NeoStoreIndexStoreViewTest
         order.verify( lock1 ).release();
     }
 
+    @Test
+    void shouldScanAllNodesInParallel() throws Exception
+    {
+        // given
+        Set<EntityUpdates> expected = createPersonsWithNames( PropertyAwareEntityStoreScan.PARALLEL_SCAN_BATCH_SIZE * 3 + 17 );
+        expected.add( add( alistair.getId(), propertyKeyId, "Alistair", new long[] { labelId } ) );
+        expected.add( add( stefan.getId(), propertyKeyId, "Stefan", new long[] { labelId } ) );
+        ConcurrentEntityUpdateCollectingVisitor visitor = new ConcurrentEntityUpdateCollectingVisitor();
+        storeView = new NeoStoreIndexStoreView( LockService.NO_LOCK_SERVICE, storageEngine::newReader );
+        StoreScan<Exception> storeScan = storeView.visitNodes( new int[]{labelId}, id -> id == propertyKeyId, visitor, null, false );
+
+        // when
+        assertEquals( 4, storeScan.setParallelism( 4 ) );
+        storeScan.run();
+
+        // then
+        assertEquals( expected.size(), visitor.visits.get() );
+        assertEquals( expected, visitor.updates );
+        assertEquals( storeScan.getProgress().getTotal(), storeScan.getProgress().getCompleted() );
+    }
+
+    @Test
+    void shouldScanAllRelationshipsInParallel() throws Exception
+    {
+        // given
+        ConcurrentEntityUpdateCollectingVisitor visitor = new ConcurrentEntityUpdateCollectingVisitor();
+        storeView = new NeoStoreIndexStoreView( LockService.NO_LOCK_SERVICE, storageEngine::newReader );
+        StoreScan<Exception> storeScan = storeView.visitRelationships( new int[]{relTypeId}, id -> id == relPropertyKeyId, visitor );
+
+        // when
+        storeScan.setParallelism( 3 );
+        storeScan.run();
+
+        // then
+        assertEquals( asSet( add( aKnowsS.getId(), relPropertyKeyId, "long", new long[]{relTypeId} ),
+                add( sKnowsA.getId(), relPropertyKeyId, "lengthy", new long[]{relTypeId} ) ), visitor.updates );
+        assertEquals( 2, visitor.visits.get() );
+    }
+
     @Test
     void shouldReadProperties() throws EntityNotFoundException
     {
@@ -274,12 +317,13 @@ class NeoStoreIndexStoreViewTest
                         null, propertyUpdateVisitor, new int[]{labelId},
                         id -> true );
 
-        try ( StorageNodeCursor nodeCursor = reader.allocateNodeCursor() )
+        try ( StorageNodeCursor nodeCursor = reader.allocateNodeCursor();
+              StoragePropertyCursor propertyCursor = reader.allocatePropertyCursor() )
         {
             nodeCursor.single( 1 );
             nodeCursor.next();
 
-            storeViewNodeStoreScan.process( nodeCursor );
+            storeViewNodeStoreScan.process( nodeCursor, propertyCursor );
         }
 
         EntityUpdates propertyUpdates = propertyUpdateVisitor.getPropertyUpdates();
@@ -307,12 +351,13 @@ class NeoStoreIndexStoreViewTest
                 new RelationshipStoreScan<>( new RecordStorageReader( neoStores ), locks, propertyUpdateVisitor, new int[]{relTypeId},
                         id -> true );
 
-        try ( StorageRelationshipScanCursor relationshipScanCursor = reader.allocateRelationshipScanCursor() )
+        try ( StorageRelationshipScanCursor relationshipScanCursor = reader.allocateRelationshipScanCursor();
+              StoragePropertyCursor propertyCursor = reader.allocatePropertyCursor() )
         {
             relationshipScanCursor.single( 1 );
             relationshipScanCursor.next();
 
-            relationshipStoreScan.process( relationshipScanCursor );
+            relationshipStoreScan.process( relationshipScanCursor, propertyCursor );
         }
 
         EntityUpdates propertyUpdates = propertyUpdateVisitor.getPropertyUpdates();
@@ -352,6 +397,24 @@ class NeoStoreIndexStoreViewTest
         }
     }
 
+    private Set<EntityUpdates> createPersonsWithNames( int count )
+    {
+        Set<EntityUpdates> updates = new HashSet<>();
+        try ( Transaction tx = graphDb.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                Node person = tx.createNode( label );
+                person.setProperty( "name", "Person" + i );
+                updates.add( add( person.getId(), propertyKeyId, "Person" + i, new long[] { labelId } ) );
+                // Nodes without the label should not be visited
+                tx.createNode().setProperty( "name", "Other" + i );
+            }
+            tx.commit();
+        }
+        return updates;
+    }
+
     private void deleteAlistairAndStefanNodes()
     {
         try ( Transaction tx = graphDb.beginTx() )
@@ -410,4 +473,18 @@ class NeoStoreIndexStoreViewTest
             return updates;
         }
     }
+
+    private static class ConcurrentEntityUpdateCollectingVisitor implements Visitor<EntityUpdates,Exception>
+    {
+        private final Set<EntityUpdates> updates = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger visits = new AtomicInteger();
+
+        @Override
+        public boolean visit( EntityUpdates propertyUpdates )
+        {
+            updates.add( propertyUpdates );
+            visits.incrementAndGet();
+            return false;
+        }
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterators;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.compress_tx_log_commands;
+import static org.neo4j.graphdb.Label.label;
+
+@EphemeralTestDirectoryExtension
+class CompressedTransactionLogRecoveryIT
+{
+    private static final Label LABEL = label( "Compressed" );
+
+    @Inject
+    private volatile EphemeralFileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void shutdownDatabase()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRecoverFromCompressedTransactionLog()
+    {
+        GraphDatabaseService db = startDb( true );
+        createNodes( db, 10_000 );
+        createNodes( db, 1 );
+        killDb();
+
+        db = startDb( true );
+        assertEquals( 10_001, countNodes( db ) );
+    }
+
+    @Test
+    void shouldRecoverFromCompressedTransactionLogWithCompressionDisabled()
+    {
+        GraphDatabaseService db = startDb( true );
+        createNodes( db, 10_000 );
+        killDb();
+
+        db = startDb( false );
+        createNodes( db, 1 );
+        killDb();
+
+        db = startDb( false );
+        assertEquals( 10_001, countNodes( db ) );
+    }
+
+    private GraphDatabaseService startDb( boolean compress )
+    {
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homeDir() )
+                .setFileSystem( fs )
+                .impermanent()
+                .setConfig( compress_tx_log_commands, compress )
+                .build();
+        return managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    private void killDb()
+    {
+        fs = fs.snapshot();
+        managementService.shutdown();
+        managementService = null;
+    }
+
+    private static void createNodes( GraphDatabaseService db, int count )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                Node node = tx.createNode( LABEL );
+                node.setProperty( "name", "node" + i % 100 );
+            }
+            tx.commit();
+        }
+    }
+
+    private static long countNodes( GraphDatabaseService db )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            return Iterators.count( tx.findNodes( LABEL ) );
+        }
+    }
+}
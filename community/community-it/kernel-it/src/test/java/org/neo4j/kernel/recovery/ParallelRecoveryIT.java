@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.internal.helpers.collection.Iterables;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.test.TestDatabaseManagementServiceBuilder;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.neo4j.configuration.GraphDatabaseSettings.DEFAULT_DATABASE_NAME;
+import static org.neo4j.configuration.GraphDatabaseSettings.recovery_apply_parallelism;
+import static org.neo4j.graphdb.Label.label;
+import static org.neo4j.graphdb.RelationshipType.withName;
+
+@EphemeralTestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+class ParallelRecoveryIT
+{
+    private static final Label PERSON = label( "Person" );
+    private static final RelationshipType KNOWS = withName( "KNOWS" );
+
+    @Inject
+    private EphemeralFileSystemAbstraction fs;
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+    private DatabaseManagementService managementService;
+
+    @AfterEach
+    void shutdownDatabase()
+    {
+        if ( managementService != null )
+        {
+            managementService.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRecoverTheSameDataInParallelAsSerially()
+    {
+        GraphDatabaseService db = startDb( fs, 4 );
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().indexFor( PERSON ).on( "id" ).create();
+            tx.commit();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            tx.schema().awaitIndexesOnline( 1, MINUTES );
+        }
+        Map<Long,Person> persons = new HashMap<>();
+        produceRandomUpdates( db, persons, 2_000 );
+        EphemeralFileSystemAbstraction crashedFs = fs.snapshot();
+        managementService.shutdown();
+
+        managementService = null;
+        assertPersons( startDb( crashedFs.snapshot(), 4 ), persons );
+        managementService.shutdown();
+
+        managementService = null;
+        assertPersons( startDb( crashedFs, 1 ), persons );
+    }
+
+    private void produceRandomUpdates( GraphDatabaseService db, Map<Long,Person> persons, int transactions )
+    {
+        List<Long> ids = new ArrayList<>();
+        long nextId = 0;
+        for ( int i = 0; i < transactions; i++ )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                if ( ids.isEmpty() || random.nextInt( 4 ) != 0 )
+                {
+                    // Create a few connected persons, some of which have properties stored in dynamic records
+                    Node previous = null;
+                    int count = random.intBetween( 1, 5 );
+                    for ( int j = 0; j < count; j++ )
+                    {
+                        Person person = new Person( nextId++, randomName(), random.nextInt( 10 ) == 0 ? randomScores() : null );
+                        Node node = tx.createNode( PERSON );
+                        person.writeTo( node );
+                        if ( previous != null )
+                        {
+                            previous.createRelationshipTo( node, KNOWS );
+                            person.relationships++;
+                            persons.get( (Long) previous.getProperty( "id" ) ).relationships++;
+                        }
+                        persons.put( person.id, person );
+                        ids.add( person.id );
+                        previous = node;
+                    }
+                }
+                else
+                {
+                    // Update or delete an existing person
+                    Long id = ids.get( random.nextInt( ids.size() ) );
+                    Node node = tx.findNode( PERSON, "id", id );
+                    Person person = persons.get( id );
+                    if ( random.nextBoolean() )
+                    {
+                        person.name = randomName();
+                        person.writeTo( node );
+                    }
+                    else
+                    {
+                        for ( Relationship relationship : node.getRelationships() )
+                        {
+                            persons.get( (Long) relationship.getOtherNode( node ).getProperty( "id" ) ).relationships--;
+                            relationship.delete();
+                        }
+                        node.delete();
+                        persons.remove( id );
+                        ids.remove( id );
+                    }
+                }
+                tx.commit();
+            }
+        }
+    }
+
+    private long[] randomScores()
+    {
+        // Arrays this long end up in the array store
+        long[] scores = new long[random.intBetween( 20, 40 )];
+        for ( int i = 0; i < scores.length; i++ )
+        {
+            scores[i] = random.nextLong();
+        }
+        return scores;
+    }
+
+    private String randomName()
+    {
+        // Long names end up in the string store
+        return random.nextAlphaNumericString( 1, random.nextInt( 5 ) == 0 ? 200 : 10 );
+    }
+
+    private void assertPersons( GraphDatabaseService db, Map<Long,Person> persons )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( persons.size(), Iterables.count( tx.getAllNodes() ) );
+            for ( Person person : persons.values() )
+            {
+                Node node = tx.findNode( PERSON, "id", person.id );
+                assertNotNull( node, "Person " + person.id );
+                assertEquals( person.name, node.getProperty( "name" ) );
+                if ( person.scores != null )
+                {
+                    assertArrayEquals( person.scores, (long[]) node.getProperty( "scores" ) );
+                }
+                assertEquals( person.relationships, node.getDegree() );
+            }
+            tx.commit();
+        }
+    }
+
+    private GraphDatabaseService startDb( EphemeralFileSystemAbstraction fs, int parallelism )
+    {
+        managementService = new TestDatabaseManagementServiceBuilder( testDirectory.homeDir() )
+                .setFileSystem( fs )
+                .impermanent()
+                .setConfig( recovery_apply_parallelism, parallelism )
+                .build();
+        return managementService.database( DEFAULT_DATABASE_NAME );
+    }
+
+    private static class Person
+    {
+        private final long id;
+        private final long[] scores;
+        private String name;
+        private int relationships;
+
+        Person( long id, String name, long[] scores )
+        {
+            this.id = id;
+            this.name = name;
+            this.scores = scores;
+        }
+
+        void writeTo( Node node )
+        {
+            node.setProperty( "id", id );
+            node.setProperty( "name", name );
+            if ( scores != null )
+            {
+                node.setProperty( "scores", scores );
+            }
+        }
+    }
+}
@@ -31,6 +31,7 @@ import org.neo4j.annotations.service.ServiceProvider;
 import org.neo4j.configuration.connectors.BoltConnector;
 import org.neo4j.configuration.connectors.HttpConnector;
 import org.neo4j.configuration.connectors.HttpsConnector;
+import org.neo4j.configuration.helpers.PageQuotaEntry;
 import org.neo4j.configuration.helpers.SocketAddress;
 import org.neo4j.graphdb.config.Setting;
 import org.neo4j.io.ByteUnit;
@@ -570,7 +571,7 @@ public class GraphDatabaseSettings implements SettingsDeclaration
 
     public enum CheckpointPolicy
     {
-        PERIODIC, CONTINUOUS, VOLUMETRIC
+        PERIODIC, CONTINUOUS, VOLUMETRIC, INCREMENTAL
     }
     @Description( "Configures the general policy for when check-points should occur. The default policy is the " +
             "'periodic' check-point policy, as specified by the 'dbms.checkpoint.interval.tx' and " +
@@ -580,10 +581,22 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "check-point process all the time. " +
             "The second is the 'volumetric' check-point policy, which makes a best-effort at check-pointing " +
             "often enough so that the database doesn't get too far behind on deleting old transaction logs in " +
-            "accordance with the 'dbms.tx_log.rotation.retention_policy' setting." )
+            "accordance with the 'dbms.tx_log.rotation.retention_policy' setting. " +
+            "The 'incremental' check-point policy writes dirty pages to the store files in the background, in rounds that are " +
+            "'dbms.checkpoint.incremental.interval' apart, at the rate allowed by 'dbms.checkpoint.iops.limit', and check-points " +
+            "every time all the changes of more transactions have been written. Every check-point then has little left to flush, and recovery only has to " +
+            "replay the transactions of about one round of background writes." )
     public static final Setting<CheckpointPolicy> check_point_policy =
             newBuilder( "dbms.checkpoint", ofEnum( CheckpointPolicy.class ), CheckpointPolicy.PERIODIC ).build();
 
+    @Description( "The time between the rounds of background writes of the 'incremental' check-point policy. Every round goes over " +
+            "all the pages of all the store files in the page cache, to find and write the ones that are dirty, so a round costs " +
+            "CPU time in proportion to the size of the page cache, even when few pages are dirty. A round is skipped when no " +
+            "transaction has been committed since the last one. A longer interval costs less CPU time, but makes every check-point " +
+            "and recovery cover more transactions. This setting is only used by the 'incremental' check-point policy." )
+    public static final Setting<Duration> check_point_incremental_interval =
+            newBuilder( "dbms.checkpoint.incremental.interval", DURATION, ofSeconds( 1 ) ).addConstraint( min( ofMillis( 1 ) ) ).build();
+
     @Description( "Configures the transaction interval between check-points. The database will not check-point more " +
             "often  than this (unless check pointing is triggered by a different event), but might check-point " +
             "less often than this interval, if performing a check-point takes longer time than the configured " +
@@ -621,6 +634,13 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Integer> check_point_iops_limit =
             newBuilder( "dbms.checkpoint.iops.limit", INT, 300 ).dynamic().build();
 
+    @Description( "The maximum number of threads that flush store files at the same time during a check-point. " +
+            "Small files are flushed side by side, and large files are split into parts that are flushed in parallel. " +
+            "Any IO limit set with 'dbms.checkpoint.iops.limit' is shared by all the flushing threads. " +
+            "A value of 1 flushes the store files one after another." )
+    public static final Setting<Integer> check_point_flush_parallelism =
+            newBuilder( "dbms.checkpoint.flush.parallelism", INT, 4 ).addConstraint( min( 1 ) ).build();
+
     // Index sampling
     @Description( "Enable or disable background index sampling" )
     public static final Setting<Boolean> index_background_sampling_enabled =
@@ -652,6 +672,12 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     public static final Setting<Boolean> multi_threaded_schema_index_population_enabled =
             newBuilder( "unsupported.dbms.multi_threaded_schema_index_population_enabled", BOOL, true ).build();
 
+    @Description( "The number of threads that scan the store in parallel id ranges when populating schema indexes. " +
+            "Only used when multi-threaded schema index population is enabled." )
+    @Internal
+    public static final Setting<Integer> index_population_scan_parallelism =
+            newBuilder( "unsupported.dbms.index_population.scan_parallelism", INT, 1 ).addConstraint( min( 1 ) ).build();
+
     public enum SchemaIndex
     {
         NATIVE_BTREE10( "native-btree", "1.0", false ),
@@ -743,6 +769,51 @@ public class GraphDatabaseSettings implements SettingsDeclaration
     @Description( "Specify if Neo4j should try to preallocate logical log file in advance." )
     public static final Setting<Boolean> preallocate_logical_logs = newBuilder( "dbms.tx_log.preallocate", BOOL, true ).dynamic().build();
 
+    @Description( "Specify if Neo4j should reuse pruned logical log files, instead of deleting them. A couple of spare log files are kept, " +
+            "that are filled with zeros up to the rotation threshold in the background, so that rotating to a new log file only has to " +
+            "rename one of them." )
+    public static final Setting<Boolean> recycle_logical_logs = newBuilder( "dbms.tx_log.recycle", BOOL, false ).build();
+
+    @Description( "Specify if Neo4j should write and read logical log files with direct I/O, bypassing the file system cache. " +
+            "Logical logs are written once, and seldom read again, so keeping them out of the file system cache leaves more room for " +
+            "the store files. Only supported on Linux, and on file systems that support direct I/O; otherwise the logs are accessed " +
+            "through the file system cache, and forced log data is evicted from it. Reading recent log data, for instance for log " +
+            "shipping, then goes to disk." )
+    @Internal
+    public static final Setting<Boolean> logical_logs_direct_io = newBuilder( "unsupported.dbms.tx_log.direct_io", BOOL, false ).build();
+
+    @Description( "The longest time, in microseconds, that a committing transaction holds off forcing the transaction log to disk, " +
+            "waiting for more concurrently committing transactions to share the force. The transaction log is forced as soon as " +
+            "`dbms.tx_log.group_commit.size` transactions are waiting for it. A small delay trades a little commit latency for " +
+            "fewer forces, and higher commit throughput, on storage with fast forces. Zero disables the delay." )
+    public static final Setting<Long> group_commit_delay_micros =
+            newBuilder( "dbms.tx_log.group_commit.delay_micros", LONG, 0L ).addConstraint( range( 0L, 1_000_000L ) ).build();
+
+    @Description( "The number of concurrently committing transactions that stops the wait for more transactions to share a " +
+            "transaction log force. Only used if `dbms.tx_log.group_commit.delay_micros` is greater than zero." )
+    public static final Setting<Integer> group_commit_size =
+            newBuilder( "dbms.tx_log.group_commit.size", INT, 64 ).addConstraint( min( 1 ) ).build();
+
+    @Description( "Specify if the commands of transactions should be compressed, with zstd, when written to the transaction log. " +
+            "Compression makes the transaction logs smaller, and lowers the write bandwidth needed for large transactions, at the cost " +
+            "of some CPU time when committing and recovering. Transaction logs written with compression enabled cannot be read by " +
+            "Neo4j versions that do not support it. Small transactions are written uncompressed." )
+    public static final Setting<Boolean> compress_tx_log_commands = newBuilder( "dbms.tx_log.compress_commands", BOOL, false ).build();
+
+    @Description( "If `true`, transactions commit as soon as they have been written to the transaction log, without waiting for the " +
+            "transaction log to be forced to disk. The transaction log is instead forced in the background, every " +
+            "`dbms.tx_log.relaxed_durability.force_interval`, and before any store page with changes from such transactions is " +
+            "written. Transactions committed since the last force survive a crash of the Neo4j process, but a crash of the " +
+            "operating system or a loss of power loses them. The store files are never written ahead of the transaction log, so " +
+            "such a crash does not leave the database inconsistent: it recovers to the last transaction that was forced. Does not " +
+            "apply to the system database, and cannot be combined with `dbms.memory.pagecache.memory_mapped_read_only`." )
+    public static final Setting<Boolean> relaxed_durability = newBuilder( "dbms.tx_log.relaxed_durability", BOOL, false ).build();
+
+    @Description( "How often the transaction log is forced in the background, when `dbms.tx_log.relaxed_durability` is enabled. " +
+            "This bounds how much of the most recently committed work can be lost if the operating system crashes." )
+    public static final Setting<Duration> relaxed_durability_force_interval =
+            newBuilder( "dbms.tx_log.relaxed_durability.force_interval", DURATION, ofMillis( 100 ) ).addConstraint( min( ofMillis( 1 ) ) ).build();
+
     @Description( "If `true`, Neo4j will abort recovery if any errors are encountered in the logical log. Setting " +
             "this to `false` will allow Neo4j to restore as much as possible from the corrupted log files and ignore " +
             "the rest, but, the integrity of the database might be compromised." )
@@ -755,6 +826,21 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "the integrity of the database might be compromised." )
     public static final Setting<Boolean> fail_on_missing_files = newBuilder( "dbms.recovery.fail_on_missing_files", BOOL, true ).build();
 
+    @Description( "Commit transactions through a pipeline, where one thread appends the transactions to the transaction log, " +
+            "another forces the log, and a third applies the forced transactions to the store. Committing threads still wait until " +
+            "their transactions have been applied, but the log append, log force and store apply of different transactions overlap. " +
+            "Not used if snapshot queries are enabled." )
+    @Internal
+    public static final Setting<Boolean> pipelined_commit = newBuilder( "unsupported.dbms.tx.pipelined_commit", BOOL, false ).build();
+
+    @Description( "The number of threads that write the records of recovered transactions to the store during recovery. Recovered " +
+            "transactions are grouped into runs that do not touch the same records or entities, and the records of each run are written " +
+            "by this many threads, before the index and counts updates of the run are applied in transaction order. " +
+            "A value of 1 applies every transaction on its own, on a single thread." )
+    @Internal
+    public static final Setting<Integer> recovery_apply_parallelism =
+            newBuilder( "unsupported.dbms.recovery.apply_parallelism", INT, 4 ).addConstraint( min( 1 ) ).build();
+
     @Description( "Specifies if engine should run cypher query based on a snapshot of accessed data. " +
             "Query will be restarted in case if concurrent modification of data will be detected." )
     @Internal
@@ -778,19 +864,94 @@ public class GraphDatabaseSettings implements SettingsDeclaration
             "This is only used when integrating with proprietary storage technology." )
     public static final Setting<String> pagecache_swapper = newBuilder( "dbms.memory.pagecache.swapper", STRING, null ).build();
 
+    public enum PageCacheEvictionPolicy
+    {
+        CLOCK, SCAN_RESISTANT
+    }
+    @Description( "Specify the policy the page cache uses for deciding which pages to evict. `CLOCK` considers a page " +
+            "hotter the more often it is accessed. `SCAN_RESISTANT` only considers a page hot once it has been accessed " +
+            "more than once while in memory, which prevents large scans from pushing the working set out of the page cache." )
+    public static final Setting<PageCacheEvictionPolicy> pagecache_eviction_policy =
+            newBuilder( "dbms.memory.pagecache.eviction_policy", ofEnum( PageCacheEvictionPolicy.class ), PageCacheEvictionPolicy.CLOCK ).build();
+
+    @Description( "Back the page cache memory with explicit huge pages, which reduces the cost of translating virtual memory " +
+            "addresses. The huge pages must be reserved by the operating system, for instance with the `vm.nr_hugepages` " +
+            "kernel parameter on Linux. Memory that cannot be backed by explicit huge pages is made eligible for transparent " +
+            "huge pages instead." )
+    public static final Setting<Boolean> pagecache_huge_pages = newBuilder( "dbms.memory.pagecache.huge_pages", BOOL, false ).build();
+
+    @Description( "Serve the store files of read-only databases straight from memory mappings of the files, instead of " +
+            "copying their pages into the page cache. This relies on the page cache of the operating system, and leaves " +
+            "the memory of the page cache to the databases that can be written to. It only has an effect when " +
+            "`dbms.read_only` is enabled, and only for the record store files. The consistency checker also honours it, since it " +
+            "always opens the store read-only. Other offline tools, like the importer and store copy, are not covered and always " +
+            "use the regular page cache." )
+    public static final Setting<Boolean> pagecache_memory_mapped_read_only =
+            newBuilder( "dbms.memory.pagecache.memory_mapped_read_only", BOOL, false ).build();
+
+    public enum PageCacheNumaPolicy
+    {
+        DEFAULT, INTERLEAVE, LOCAL
+    }
+    @Description( "Specify how the page cache memory is placed on the NUMA nodes of the system. `DEFAULT` leaves placement " +
+            "to the operating system. `INTERLEAVE` spreads the memory evenly over all nodes, which balances the memory " +
+            "traffic of threads running on different nodes. `LOCAL` places memory on the node of the thread that first " +
+            "touches it, regardless of the memory policy the process was started with. This is only supported on Linux." )
+    public static final Setting<PageCacheNumaPolicy> pagecache_numa_policy =
+            newBuilder( "dbms.memory.pagecache.numa_policy", ofEnum( PageCacheNumaPolicy.class ), PageCacheNumaPolicy.DEFAULT ).build();
+
+    private static final SettingValueParser<PageQuotaEntry> PAGE_QUOTA = new SettingValueParser<>()
+    {
+        @Override
+        public PageQuotaEntry parse( String value )
+        {
+            return PageQuotaEntry.parse( value );
+        }
+
+        @Override
+        public String getDescription()
+        {
+            return "<category or file name>=<size> entry, where the size is a percentage or a byte size";
+        }
+
+        @Override
+        public Class<PageQuotaEntry> getType()
+        {
+            return PageQuotaEntry.class;
+        }
+    };
+
+    @Description( "Reserve page cache memory for store files, as a comma separated list of `<category or file name>=<size>` entries. " +
+            "The categories are `record_stores`, `indexes`, `counts_store` and `id_files`, and the entry of a category applies to each " +
+            "file in that category, unless the file has an entry of its own. The size is either a percentage of the page cache, like " +
+            "`30%`, or an amount of memory, like `2g`. When the page cache needs to evict pages, it leaves the pages of a file alone " +
+            "while the file has no more than its reserved memory in the page cache, for as long as other pages can be evicted instead." )
+    public static final Setting<List<PageQuotaEntry>> pagecache_quota_reserved =
+            newBuilder( "dbms.memory.pagecache.quota.reserved", listOf( PAGE_QUOTA ), emptyList() ).build();
+
+    @Description( "Limit the page cache memory of store files, as a comma separated list of `<category or file name>=<size>` entries, " +
+            "in the same format as `dbms.memory.pagecache.quota.reserved`. When the page cache needs to evict pages, it first evicts " +
+            "the pages of files that have more than their limit in the page cache, regardless of how recently those pages were used. " +
+            "A reservation larger than the limit of the same file is capped by the limit." )
+    public static final Setting<List<PageQuotaEntry>> pagecache_quota_max =
+            newBuilder( "dbms.memory.pagecache.quota.max", listOf( PAGE_QUOTA ), emptyList() ).build();
+
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
-            "warmup after a restart, reducing the mean time to performance. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "warmup after a restart, reducing the mean time to performance." )
     public static final Setting<Duration> pagecache_warmup_profiling_interval =
             newBuilder( "dbms.memory.pagecache.warmup.profile.interval", DURATION, ofMinutes( 1 ) ).build();
 
     @Description( "Page cache can be configured to perform usage sampling of loaded pages that can be used to construct active load profile. " +
             "According to that profile pages can be reloaded on the restart, replication, etc. " +
-            "This setting allows disabling that behavior. " +
-            "This feature available in Neo4j Enterprise Edition." )
+            "This setting allows disabling that behavior. Read-only databases are warmed up, but never profiled." )
     public static final Setting<Boolean> pagecache_warmup_enabled =
             newBuilder( "dbms.memory.pagecache.warmup.enable", BOOL, true ).build();
 
+    @Description( "Perform the page cache warmup in the background, while the database is serving requests. " +
+            "By default the warmup completes before the database becomes available." )
+    public static final Setting<Boolean> pagecache_warmup_background =
+            newBuilder( "dbms.memory.pagecache.warmup.background", BOOL, false ).build();
+
     @Description( "Page cache warmup can be configured to prefetch files, preferably when cache size is bigger than store size. " +
             "Files to be prefetched can be filtered by 'dbms.memory.pagecache.warmup.preload.whitelist'. " +
             "Enabling this disables warmup by profile " )
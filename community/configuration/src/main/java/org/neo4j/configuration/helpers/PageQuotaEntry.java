@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.configuration.helpers;
+
+import java.util.Objects;
+
+import static org.neo4j.configuration.SettingValueParsers.BYTES;
+
+/**
+ * An entry of the {@code dbms.memory.pagecache.quota.*} settings, of the form {@code <category or file name>=<size>}.
+ * The size is either a percentage of the page cache, like {@code 30%}, or an amount of memory, like {@code 2g}.
+ */
+public final class PageQuotaEntry
+{
+    private final String target;
+    private final String size;
+    private final double percent;
+    private final long bytes;
+
+    private PageQuotaEntry( String target, String size, double percent, long bytes )
+    {
+        this.target = target;
+        this.size = size;
+        this.percent = percent;
+        this.bytes = bytes;
+    }
+
+    /**
+     * @param entry the textual form of the entry.
+     * @return the parsed entry.
+     * @throws IllegalArgumentException if the entry is malformed, or its size is invalid.
+     */
+    public static PageQuotaEntry parse( String entry )
+    {
+        int separator = entry.indexOf( '=' );
+        if ( separator <= 0 || separator == entry.length() - 1 )
+        {
+            throw new IllegalArgumentException( "Expected an entry of the form '<category or file name>=<size>', but got '" + entry + "'." );
+        }
+        String target = entry.substring( 0, separator ).trim();
+        String size = entry.substring( separator + 1 ).trim();
+        if ( !size.endsWith( "%" ) )
+        {
+            return new PageQuotaEntry( target, size, -1, BYTES.parse( size ) );
+        }
+        double percent;
+        try
+        {
+            percent = Double.parseDouble( size.substring( 0, size.length() - 1 ).trim() );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IllegalArgumentException( "'" + size + "' is not a valid percentage.", e );
+        }
+        if ( !(percent >= 0 && percent <= 100) )
+        {
+            throw new IllegalArgumentException( "'" + size + "' is not a percentage between 0 and 100." );
+        }
+        return new PageQuotaEntry( target, size, percent, 0 );
+    }
+
+    /**
+     * @return the category or file name that this entry is for.
+     */
+    public String target()
+    {
+        return target;
+    }
+
+    /**
+     * @param maxCachedPages the number of pages in the page cache, which percentages are relative to.
+     * @param cachePageSize the size of the pages in the page cache, which amounts of memory are divided by.
+     * @return the number of pages this entry amounts to.
+     */
+    public long pages( long maxCachedPages, int cachePageSize )
+    {
+        return percent >= 0 ? (long) (maxCachedPages * percent / 100) : bytes / cachePageSize;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PageQuotaEntry that = (PageQuotaEntry) o;
+        return target.equals( that.target ) && size.equals( that.size );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( target, size );
+    }
+
+    @Override
+    public String toString()
+    {
+        return target + "=" + size;
+    }
+}
@@ -122,6 +122,9 @@ class QueryCollector extends CollectorStateMachine<Iterator<TruncatedQuerySnapsh
                                                 snapshot.elapsedTimeMicros(),
                                                 snapshot.compilationTimeMicros(),
                                                 snapshot.startTimestampMillis(),
+                                                snapshot.pageHits(),
+                                                snapshot.pageFaults(),
+                                                snapshot.pageFaultTimeMicros(),
                                                 maxQueryTextSize ) );
         }
     }
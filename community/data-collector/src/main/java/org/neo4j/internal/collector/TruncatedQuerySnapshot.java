@@ -58,6 +58,9 @@ class TruncatedQuerySnapshot
     final Long elapsedTimeMicros;
     final Long compilationTimeMicros;
     final Long startTimestampMillis;
+    final Long pageHits;
+    final Long pageFaults;
+    final Long pageFaultTimeMicros;
 
     TruncatedQuerySnapshot( String fullQueryText,
                             Supplier<ExecutionPlanDescription> queryPlanSupplier,
@@ -65,6 +68,9 @@ class TruncatedQuerySnapshot
                             Long elapsedTimeMicros,
                             Long compilationTimeMicros,
                             Long startTimestampMillis,
+                            Long pageHits,
+                            Long pageFaults,
+                            Long pageFaultTimeMicros,
                             int maxQueryTextLength )
     {
         this.fullQueryTextHash = fullQueryText.hashCode();
@@ -74,6 +80,9 @@ class TruncatedQuerySnapshot
         this.elapsedTimeMicros = elapsedTimeMicros;
         this.compilationTimeMicros = compilationTimeMicros;
         this.startTimestampMillis = startTimestampMillis;
+        this.pageHits = pageHits;
+        this.pageFaults = pageFaults;
+        this.pageFaultTimeMicros = pageFaultTimeMicros;
     }
 
     private static String truncateQueryText( String queryText, int maxLength )
@@ -39,7 +39,10 @@ object QueriesSection {
   case class SingleInvocation(queryParameters: MapValue,
                               elapsedTimeMicros: Long,
                               compilationTimeMicros: Long,
-                              startTimestampMillis: Long) extends InvocationData
+                              startTimestampMillis: Long,
+                              pageHits: Long,
+                              pageFaults: Long,
+                              pageFaultTimeMicros: Long) extends InvocationData
 
   case class ProfileData(dbHits: util.ArrayList[Long], rows: util.ArrayList[Long], params: util.Map[String, AnyRef])
 
@@ -65,7 +68,10 @@ object QueriesSection {
         snapshotList.invocations += SingleInvocation(snapshot.queryParameters,
                                                      snapshot.elapsedTimeMicros,
                                                      snapshot.compilationTimeMicros,
-                                                     snapshot.startTimestampMillis)
+                                                     snapshot.startTimestampMillis,
+                                                     snapshot.pageHits,
+                                                     snapshot.pageFaults,
+                                                     snapshot.pageFaultTimeMicros)
       }
     }
 
@@ -107,7 +113,8 @@ object QueriesSection {
                           anonymizer: QueryAnonymizer
                          ): util.ArrayList[util.Map[String, AnyRef]] = {
     val result = new util.ArrayList[util.Map[String, AnyRef]]()
-    for (SingleInvocation(queryParameters, elapsedTimeMicros, compilationTimeMicros, startTimestampMillis) <- invocations) {
+    for (SingleInvocation(queryParameters, elapsedTimeMicros, compilationTimeMicros, startTimestampMillis,
+                          pageHits, pageFaults, pageFaultTimeMicros) <- invocations) {
       val data = new util.HashMap[String, AnyRef]()
       if (queryParameters.size() > 0)
         data.put("params", anonymizer.queryParams(queryParameters))
@@ -120,6 +127,9 @@ object QueriesSection {
       } else
         data.put("elapsedExecutionTimeInUs", Long.box(elapsed))
       data.put("startTimestampMillis", Long.box(startTimestampMillis))
+      data.put("pageHits", Long.box(pageHits))
+      data.put("pageFaults", Long.box(pageFaults))
+      data.put("pageFaultTimeInUs", Long.box(pageFaultTimeMicros))
       result.add(data)
     }
 
@@ -131,13 +141,16 @@ object QueriesSection {
     val result = new util.HashMap[String, AnyRef]()
     val compileTime = new Stats
     val executionTime = new Stats
+    val pageFaultTime = new Stats
     for (invocation <- invocations) {
       compileTime.onValue(invocation.compilationTimeMicros)
       executionTime.onValue(invocation.elapsedTimeMicros - invocation.compilationTimeMicros)
+      pageFaultTime.onValue(invocation.pageFaultTimeMicros)
     }
 
     result.put("compileTimeInUs", compileTime.asMap())
     result.put("executionTimeInUs", executionTime.asMap())
+    result.put("pageFaultTimeInUs", pageFaultTime.asMap())
     result.put("invocationCount", Long.box(invocations.size))
     result
   }
@@ -55,6 +55,9 @@ class TruncatedQuerySnapshotTest
                                                                -1L,
                                                                -1L,
                                                                -1L,
+                                                               -1L,
+                                                               -1L,
+                                                               -1L,
                                                                100 );
 
         // then
@@ -73,6 +76,9 @@ class TruncatedQuerySnapshotTest
                                                                -1L,
                                                                -1L,
                                                                -1L,
+                                                               -1L,
+                                                               -1L,
+                                                               -1L,
                                                                100 );
 
         // then
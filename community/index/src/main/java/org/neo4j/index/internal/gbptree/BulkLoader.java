@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.Closeable;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds the contents of an empty {@link GBPTree} from key/value pairs that are {@link #add(Object, Object) added} in strictly ascending
+ * key order. Leaves are filled one after another and the internal levels are built on top of them, bottom-up, instead of inserting
+ * each entry from the root like a {@link Writer} does. The loaded entries become visible when the bulk loader is {@link #close() closed},
+ * typically using try-with-resource clause.
+ *
+ * @param <KEY> type of keys
+ * @param <VALUE> type of values
+ */
+public interface BulkLoader<KEY,VALUE> extends Closeable
+{
+    /**
+     * Fill factor which fills each tree node as much as possible.
+     */
+    double DEFAULT_FILL_FACTOR = 1.0;
+
+    /**
+     * Adds {@code key} with its associated {@code value} after all keys added before it.
+     *
+     * @param key key to add, must be greater than the key added before it.
+     * @param value value to associate with key.
+     * @throws IllegalArgumentException if {@code key} is not greater than the key added before it.
+     * @throws UncheckedIOException on index access error.
+     */
+    void add( KEY key, VALUE value );
+}
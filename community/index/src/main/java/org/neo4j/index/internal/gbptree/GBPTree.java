@@ -21,6 +21,7 @@ package org.neo4j.index.internal.gbptree;
 
 import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.apache.commons.lang3.tuple.Pair;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
 
 import java.io.Closeable;
 import java.io.File;
@@ -34,10 +35,12 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
+import org.neo4j.index.internal.gbptree.TreeNode.Overflow;
 import org.neo4j.index.internal.gbptree.TreeNode.Type;
 import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.io.IOUtils;
@@ -270,6 +273,12 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
     {
     };
 
+    /**
+     * Number of subtrees {@link #partitionedSeek(Object, Object, int)} aims to have for each partition before forming the partitions,
+     * to have some room for balancing subtrees of different sizes between the partitions.
+     */
+    private static final int SUBTREES_PER_PARTITION = 4;
+
     /**
      * Paged file in a {@link PageCache} providing the means of storage.
      */
@@ -304,6 +313,11 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      */
     private final SingleWriter writer;
 
+    /**
+     * Latches shared by all {@link #parallelWriter() parallel writers}, created when the first one is.
+     */
+    private volatile WriterLatches writerLatches;
+
     /**
      * Tells whether or not there have been made changes (using {@link #writer()}) to this tree
      * since last call to {@link #checkpoint(IOLimiter)}. This variable is set when calling {@link #writer()}
@@ -312,7 +326,7 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
     private volatile boolean changesSinceLastCheckpoint;
 
     /**
-     * Lock with two individual parts. Writer lock and cleaner lock.
+     * Lock with two individual parts. Writer lock and cleaner lock. Parallel writers share the writer part between them.
      * <p>
      * There are a few different scenarios that involve writing or flushing that can not be happen concurrently:
      * <ul>
@@ -961,8 +975,11 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      * Partitions the provided key range into {@code numberOfPartitions} partitions and instantiates a {@link Seeker} for each.
      * Caller can seek through the partitions in parallel. Caller is responsible for closing the returned {@link Seeker seekers}.
      *
-     * To keep implementation (much) simpler the partitioning is done on the root only, which means that the partitioning will be less granular
-     * the bigger keys there are in the root. There can only be returned max numberOfRootKeys+1 partitions from this method.
+     * Partitioning starts at the root and descends level by level until there are a handful of subtrees per desired partition,
+     * or until reaching the leaves. The key count of each of those subtrees is used as an estimate of its size and partitions
+     * are formed from consecutive subtrees so that they end up roughly equal in size. Concurrent changes to the tree may skew
+     * this balance, but never the correctness of the partitions: collectively they always seek across the whole provided range.
+     * There can only be returned max as many partitions as there are nodes on the level above the leaves that overlap the range.
      *
      * @param fromInclusive lower bound of the range to seek (inclusive).
      * @param toExclusive higher bound of the range to seek (exclusive).
@@ -974,20 +991,59 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
      */
     public Collection<Seeker<KEY,VALUE>> partitionedSeek( KEY fromInclusive, KEY toExclusive, int numberOfPartitions ) throws IOException
     {
-        return partitionedSeekInternal( fromInclusive, toExclusive, numberOfPartitions, this );
+        List<Seeker<KEY,VALUE>> seekers = new ArrayList<>();
+        boolean success = false;
+        try
+        {
+            for ( Pair<KEY,KEY> partition : partitionInternal( fromInclusive, toExclusive, numberOfPartitions, true ) )
+            {
+                seekers.add( seek( partition.getLeft(), partition.getRight() ) );
+            }
+            success = true;
+        }
+        finally
+        {
+            if ( !success )
+            {
+                IOUtils.closeAll( seekers );
+            }
+        }
+        return seekers;
     }
 
-    private Collection<Seeker<KEY,VALUE>> partitionedSeekInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions,
-            Seeker.Factory<KEY,VALUE> seekerFactory )
-            throws IOException
+    /**
+     * Partitions the provided key range like {@link #partitionedSeek(Object, Object, int)} does, but leaves it to the caller to
+     * {@link #seek(Object, Object) seek} each partition. This way no resources are held for a partition until it's actually seeked.
+     *
+     * @param fromInclusive lower bound of the range to partition (inclusive).
+     * @param toExclusive higher bound of the range to partition (exclusive).
+     * @param numberOfPartitions number of partitions desired by the caller. If the tree is small a lower number of partitions may be returned.
+     * The number of partitions will never be higher than the provided {@code numberOfPartitions}.
+     * @return the key ranges, as pairs of inclusive lower bound and exclusive higher bound, of the partitions. Collectively they cover
+     * the whole provided range.
+     * @throws IOException on error reading from index.
+     */
+    public List<Pair<KEY,KEY>> partition( KEY fromInclusive, KEY toExclusive, int numberOfPartitions ) throws IOException
+    {
+        return partitionInternal( fromInclusive, toExclusive, numberOfPartitions, true );
+    }
+
+    private List<Pair<KEY,KEY>> partitionInternal( KEY fromInclusive, KEY toExclusive, int numberOfPartitions, boolean descend ) throws IOException
     {
         Preconditions.checkArgument( layout.compare( fromInclusive, toExclusive ) <= 0, "Partitioned seek only supports forward seeking for the time being" );
 
-        // Read the root w/ all its keys
-        List<KEY> rootKeys;
+        long generation = this.generation;
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+
+        // Read the root w/ all its keys, and the children overlapping the range
+        List<KEY> splitKeys;
+        LongArrayList subtrees = new LongArrayList();
+        long[] subtreeWeights = null;
         try ( PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK ) )
         {
             boolean goodRead;
+            boolean goodChildren = false;
             RootCatchup rootCatchup = rootCatchupSupplier.get();
             Root root = this.root;
             boolean didRetry = true;
@@ -999,7 +1055,8 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                     // Only do a new root catchup if we made a clean and uninterrupted read from the page cursor
                     root = rootCatchup.catchupFrom( root.id() );
                 }
-                rootKeys = new ArrayList<>();
+                splitKeys = new ArrayList<>();
+                subtrees.clear();
                 root.goTo( cursor );
                 byte nodeType = TreeNode.nodeType( cursor );
                 boolean isLeaf = TreeNode.isLeaf( cursor );
@@ -1016,36 +1073,156 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
                     break;
                 }
 
-                // Read the internal keys from the root into rootKeys list
-                for ( int pos = 0; pos < keyCount; pos++ )
-                {
-                    rootKeys.add( bTreeNode.keyAt( cursor, layout.newKey(), pos, Type.INTERNAL ) );
-                }
+                // Read the internal keys from the root into splitKeys list
+                goodChildren = readKeysAndChildren( cursor, keyCount, fromInclusive, toExclusive, splitKeys, subtrees, stableGeneration, unstableGeneration );
                 goodRead = true;
             }
             while ( (didRetry = cursor.shouldRetry()) || !goodRead );
+
+            if ( descend && goodChildren )
+            {
+                descend( cursor, fromInclusive, toExclusive, splitKeys, subtrees, numberOfPartitions * SUBTREES_PER_PARTITION,
+                        stableGeneration, unstableGeneration );
+                subtreeWeights = weighSubtrees( cursor, subtrees );
+            }
         }
 
         KeyPartitioning<KEY> partitioning = new KeyPartitioning<>( layout );
-        List<Seeker<KEY,VALUE>> seekers = new ArrayList<>();
-        boolean success = false;
-        try
+        return subtreeWeights != null
+               ? partitioning.partition( splitKeys, subtreeWeights, fromInclusive, toExclusive, numberOfPartitions )
+               : partitioning.partition( splitKeys, fromInclusive, toExclusive, numberOfPartitions );
+    }
+
+    /**
+     * Reads the keys strictly inside {@code (fromInclusive, toExclusive)} from the internal node the cursor is placed at,
+     * as well as the child pointers of all children having key ranges overlapping {@code [fromInclusive, toExclusive)}.
+     *
+     * @return {@code true} if all child pointers could be read, i.e. there's one more child than there are keys,
+     * otherwise {@code false}.
+     */
+    private boolean readKeysAndChildren( PageCursor cursor, int keyCount, KEY fromInclusive, KEY toExclusive, List<KEY> keys, LongArrayList children,
+            long stableGeneration, long unstableGeneration )
+    {
+        // Skip the keys, and children, to the left of the range
+        KEY key = layout.newKey();
+        int pos = 0;
+        while ( pos < keyCount && layout.compare( bTreeNode.keyAt( cursor, key, pos, Type.INTERNAL ), fromInclusive ) <= 0 )
+        {
+            pos++;
+        }
+
+        boolean goodChildren = true;
+        while ( true )
         {
-            for ( Pair<KEY,KEY> partition : partitioning.partition( rootKeys, fromInclusive, toExclusive, numberOfPartitions ) )
+            long child = bTreeNode.childAt( cursor, pos, stableGeneration, unstableGeneration );
+            if ( GenerationSafePointerPair.isSuccess( child ) )
             {
-                seekers.add( seekerFactory.seek( partition.getLeft(), partition.getRight() ) );
+                children.add( GenerationSafePointerPair.pointer( child ) );
+            }
+            else
+            {
+                goodChildren = false;
+            }
+            if ( pos == keyCount || layout.compare( key, toExclusive ) >= 0 )
+            {
+                return goodChildren;
+            }
+            keys.add( key );
+            key = layout.newKey();
+            pos++;
+            if ( pos < keyCount )
+            {
+                bTreeNode.keyAt( cursor, key, pos, Type.INTERNAL );
             }
-            success = true;
         }
-        finally
-        {
-            if ( !success )
+    }
+
+    /**
+     * Replaces the internal nodes among {@code subtrees} by their children, level by level, until there are at least {@code targetNumberOfSubtrees}
+     * subtrees or only leaves left. {@code splitKeys} are kept as the keys separating the subtrees. A node which cannot be read consistently,
+     * e.g. because it was concurrently freed, is simply left as it is.
+     */
+    private void descend( PageCursor cursor, KEY fromInclusive, KEY toExclusive, List<KEY> splitKeys, LongArrayList subtrees, int targetNumberOfSubtrees,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        boolean expanded = true;
+        while ( expanded && subtrees.size() < targetNumberOfSubtrees )
+        {
+            expanded = false;
+            List<KEY> levelKeys = new ArrayList<>();
+            LongArrayList levelSubtrees = new LongArrayList();
+            List<KEY> childKeys = new ArrayList<>();
+            LongArrayList children = new LongArrayList();
+            for ( int i = 0; i < subtrees.size(); i++ )
             {
-                IOUtils.closeAll( seekers );
+                KEY low = i == 0 ? fromInclusive : splitKeys.get( i - 1 );
+                KEY high = i == subtrees.size() - 1 ? toExclusive : splitKeys.get( i );
+                if ( i > 0 )
+                {
+                    levelKeys.add( low );
+                }
+
+                long subtree = subtrees.get( i );
+                boolean goodRead;
+                do
+                {
+                    childKeys.clear();
+                    children.clear();
+                    TreeNode.goTo( cursor, "subtree", subtree );
+                    int keyCount = TreeNode.keyCount( cursor );
+                    goodRead = TreeNode.nodeType( cursor ) == TreeNode.NODE_TYPE_TREE_NODE && TreeNode.isInternal( cursor ) &&
+                            bTreeNode.reasonableKeyCount( keyCount ) &&
+                            readKeysAndChildren( cursor, keyCount, low, high, childKeys, children, stableGeneration, unstableGeneration );
+                }
+                while ( cursor.shouldRetry() );
+                goodRead &= !cursor.checkAndClearBoundsFlag();
+                try
+                {
+                    cursor.checkAndClearCursorException();
+                }
+                catch ( CursorException e )
+                {
+                    // Read something which wasn't a sane node, leave it as it is
+                    goodRead = false;
+                }
+
+                if ( goodRead )
+                {
+                    levelKeys.addAll( childKeys );
+                    levelSubtrees.addAll( children );
+                    expanded = true;
+                }
+                else
+                {
+                    levelSubtrees.add( subtree );
+                }
             }
+            splitKeys.clear();
+            splitKeys.addAll( levelKeys );
+            subtrees.clear();
+            subtrees.addAll( levelSubtrees );
         }
+    }
 
-        return seekers;
+    /**
+     * Estimates the size of each subtree by the key count of its top node, i.e. number of keys for a leaf and number of children for an internal node.
+     */
+    private long[] weighSubtrees( PageCursor cursor, LongArrayList subtrees ) throws IOException
+    {
+        long[] weights = new long[subtrees.size()];
+        for ( int i = 0; i < weights.length; i++ )
+        {
+            int weight;
+            do
+            {
+                TreeNode.goTo( cursor, "subtree", subtrees.get( i ) );
+                int keyCount = TreeNode.keyCount( cursor );
+                weight = TreeNode.isInternal( cursor ) ? keyCount + 1 : keyCount;
+            }
+            while ( cursor.shouldRetry() );
+            weights[i] = bTreeNode.reasonableKeyCount( weight ) ? Math.max( weight, 1 ) : 1;
+        }
+        return weights;
     }
 
     /**
@@ -1065,11 +1242,13 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         do
         {
             monitor.clear();
-            Seeker.Factory<KEY,VALUE> monitoredSeeks = ( fromInclusive, toExclusive ) -> seekInternal( fromInclusive, toExclusive, 1, monitor );
-            for ( Seeker<KEY,VALUE> partition : partitionedSeekInternal( low, high, sampleSize, monitoredSeeks ) )
+            for ( Pair<KEY,KEY> partition : partitionInternal( low, high, sampleSize, false ) )
             {
-                // Simply make sure the first one is found so that the supplied monitor have been notified about the path down to it
-                partition.next();
+                try ( Seeker<KEY,VALUE> seeker = seekInternal( partition.getLeft(), partition.getRight(), 1, monitor ) )
+                {
+                    // Simply make sure the first one is found so that the supplied monitor have been notified about the path down to it
+                    seeker.next();
+                }
             }
         }
         while ( !monitor.isConsistent() );
@@ -1281,6 +1460,88 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         return writer;
     }
 
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @see GBPTree#parallelWriter(double)
+     */
+    public Writer<KEY,VALUE> parallelWriter() throws IOException
+    {
+        return parallelWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index, like {@link #writer(double)}, but which can be used at the same time as
+     * other parallel writers of this tree. Each thread should use its own parallel writer. After usage the returned writer must be closed,
+     * typically by using try-with-resource clause.
+     * <p>
+     * A change that only touches a single leaf, that has already been changed since the last checkpoint, is made while only holding a
+     * latch on that leaf, so changes to different parts of the tree are made in parallel. Any other change, like a split, is made while
+     * holding all other parallel writers off. The {@link ValueMerger} of a change may be called more than once, if the change turns out
+     * to need more than a single leaf. Parallel writers can not be used at the same time as the {@link #writer() single writer}, and
+     * checkpoints wait for all parallel writers to be closed.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @return a new parallel {@link Writer} for this index.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> parallelWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        assertNotReadOnly( "Open parallel tree writer." );
+        ParallelWriter parallelWriter = new ParallelWriter( writerLatches(), ratioToKeepInLeftOnSplit );
+        parallelWriter.initialize();
+        changesSinceLastCheckpoint = true;
+        return parallelWriter;
+    }
+
+    /**
+     * Use default value for fillFactor
+     * @see GBPTree#bulkLoader(double)
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader() throws IOException
+    {
+        return bulkLoader( BulkLoader.DEFAULT_FILL_FACTOR );
+    }
+
+    /**
+     * Returns a {@link BulkLoader} able to build the contents of this index from key/value pairs given in strictly ascending key order.
+     * The index must be empty. Leaves are written one after another and the internal nodes above them are written as the leaves fill up,
+     * so that no key is searched for and no node is split. The loaded entries replace the empty root when the bulk loader is closed.
+     * The bulk loader excludes writers and checkpoints like {@link #writer()} does, and must be closed after usage, typically by using
+     * try-with-resource clause.
+     *
+     * @param fillFactor how full each tree node is made before continuing in a new one, 0 exclusive to 1 inclusive.
+     * Leaving room in the nodes makes later inserts less likely to split them.
+     * @return a {@link BulkLoader} for this index.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if this index is not empty.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor ) throws IOException
+    {
+        assertNotReadOnly( "Open tree bulk loader." );
+        Preconditions.checkArgument( fillFactor > 0 && fillFactor <= 1, "Fill factor must be larger than 0 and at most 1, but was %s", fillFactor );
+        TreeBulkLoader bulkLoader = new TreeBulkLoader( fillFactor );
+        bulkLoader.initialize();
+        return bulkLoader;
+    }
+
+    private WriterLatches writerLatches()
+    {
+        WriterLatches latches = writerLatches;
+        if ( latches == null )
+        {
+            synchronized ( this )
+            {
+                latches = writerLatches;
+                if ( latches == null )
+                {
+                    latches = new WriterLatches();
+                    writerLatches = latches;
+                }
+            }
+        }
+        return latches;
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1469,6 +1730,42 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         Exceptions.withMessage( e, e.getMessage() + " | " + toString() );
     }
 
+    /**
+     * Handles the structure changes of a writer that have propagated all the way up to the root, i.e. a split of the root or a
+     * successor of the root. Clears the {@link StructurePropagation}.
+     *
+     * @return {@code true} if there is a new root, in which case the cursor is left at it, otherwise {@code false}.
+     * @throws IOException on cursor failure.
+     */
+    private boolean handleRootChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation, long stableGeneration,
+            long unstableGeneration ) throws IOException
+    {
+        boolean newRoot = false;
+        if ( structurePropagation.hasRightKeyInsert )
+        {
+            // New root
+            long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new root", newRootId );
+
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                    stableGeneration, unstableGeneration );
+            bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, 1 );
+            setRoot( newRootId, unstableGeneration );
+            monitor.treeGrowth();
+            newRoot = true;
+        }
+        else if ( structurePropagation.hasMidChildUpdate )
+        {
+            setRoot( GenerationSafePointerPair.pointer( structurePropagation.midChild ), unstableGeneration );
+            newRoot = true;
+        }
+        structurePropagation.clear();
+        return newRoot;
+    }
+
     private class SingleWriter implements Writer<KEY,VALUE>
     {
         /**
@@ -1589,13 +1886,6 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
             checkOutOfBounds( cursor );
         }
 
-        private void setRoot( long rootPointer )
-        {
-            long rootId = GenerationSafePointerPair.pointer( rootPointer );
-            GBPTree.this.setRoot( rootId, unstableGeneration );
-            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
-        }
-
         @Override
         public VALUE remove( KEY key )
         {
@@ -1624,26 +1914,10 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
 
         private void handleStructureChanges() throws IOException
         {
-            if ( structurePropagation.hasRightKeyInsert )
-            {
-                // New root
-                long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
-                PageCursorUtil.goTo( cursor, "new root", newRootId );
-
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
-                        stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
-                        stableGeneration, unstableGeneration );
-                TreeNode.setKeyCount( cursor, 1 );
-                setRoot( newRootId );
-                monitor.treeGrowth();
-            }
-            else if ( structurePropagation.hasMidChildUpdate )
+            if ( handleRootChanges( cursor, structurePropagation, stableGeneration, unstableGeneration ) )
             {
-                setRoot( structurePropagation.midChild );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
             }
-            structurePropagation.clear();
         }
 
         @Override
@@ -1668,6 +1942,500 @@ public class GBPTree<KEY,VALUE> implements Closeable, Seeker.Factory<KEY,VALUE>
         }
     }
 
+    /**
+     * A {@link Writer} that can be used at the same time as other parallel writers of this tree, see {@link WriterLatches}.
+     * Changes are first tried on a single leaf, and fall back to {@link InternalTreeLogic} with all other writers held off.
+     */
+    private class ParallelWriter implements Writer<KEY,VALUE>
+    {
+        private final WriterLatches latches;
+        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        private final StructurePropagation<KEY> structurePropagation;
+        private final double ratioToKeepInLeftOnSplit;
+        private PageCursor cursor;
+        private boolean locked;
+
+        // Writer can't live past a checkpoint because it holds the shared writer lock,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        // The structure version for which the path down the tree that the tree logic remembers is known to be valid
+        private long structureVersion = -1;
+
+        ParallelWriter( WriterLatches latches, double ratioToKeepInLeftOnSplit )
+        {
+            this.latches = latches;
+            this.treeLogic = new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor );
+            this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+            this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+        }
+
+        void initialize() throws IOException
+        {
+            boolean success = false;
+            try
+            {
+                // Block here until cleaning has completed, if cleaning was required
+                lock.sharedWriterLock();
+                locked = true;
+                assertRecoveryCleanSuccessful();
+                cursor = pagedFile.io( 0L /*Ignored*/, PagedFile.PF_SHARED_WRITE_LOCK );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            internalMerge( key, value, valueMerger, true );
+        }
+
+        @Override
+        public void mergeIfExists( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            internalMerge( key, value, valueMerger, false );
+        }
+
+        private void internalMerge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+        {
+            try
+            {
+                if ( tryMergeInLeaf( key, value, valueMerger, createIfNotExists ) == InternalTreeLogic.LeafChange.STRUCTURE_CHANGE_NEEDED )
+                {
+                    Lock structureLatch = latches.structureExclusive();
+                    structureLatch.lock();
+                    try
+                    {
+                        goToPath();
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger, createIfNotExists,
+                                stableGeneration, unstableGeneration );
+                        handleStructureChanges();
+                    }
+                    finally
+                    {
+                        structureLatch.unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                forgetPath();
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                forgetPath();
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        private InternalTreeLogic.LeafChange tryMergeInLeaf( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists )
+                throws IOException
+        {
+            Lock structureLatch = latches.structureShared();
+            structureLatch.lock();
+            try
+            {
+                goToPath();
+                treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+                Lock leafLatch = latches.leaf( cursor.getCurrentPageId() );
+                leafLatch.lock();
+                try
+                {
+                    return treeLogic.tryInsertInLeaf( cursor, key, value, valueMerger, createIfNotExists, stableGeneration, unstableGeneration );
+                }
+                finally
+                {
+                    leafLatch.unlock();
+                }
+            }
+            finally
+            {
+                structureLatch.unlock();
+            }
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result = layout.newValue();
+            try
+            {
+                InternalTreeLogic.LeafChange change = tryRemoveFromLeaf( key, result );
+                if ( change == InternalTreeLogic.LeafChange.NOT_FOUND )
+                {
+                    result = null;
+                }
+                else if ( change == InternalTreeLogic.LeafChange.STRUCTURE_CHANGE_NEEDED )
+                {
+                    Lock structureLatch = latches.structureExclusive();
+                    structureLatch.lock();
+                    try
+                    {
+                        goToPath();
+                        result = treeLogic.remove( cursor, structurePropagation, key, result, stableGeneration, unstableGeneration );
+                        handleStructureChanges();
+                    }
+                    finally
+                    {
+                        structureLatch.unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                forgetPath();
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                forgetPath();
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        private InternalTreeLogic.LeafChange tryRemoveFromLeaf( KEY key, VALUE into ) throws IOException
+        {
+            Lock structureLatch = latches.structureShared();
+            structureLatch.lock();
+            try
+            {
+                goToPath();
+                treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+                Lock leafLatch = latches.leaf( cursor.getCurrentPageId() );
+                leafLatch.lock();
+                try
+                {
+                    return treeLogic.tryRemoveFromLeaf( cursor, key, into, stableGeneration, unstableGeneration );
+                }
+                finally
+                {
+                    leafLatch.unlock();
+                }
+            }
+            finally
+            {
+                structureLatch.unlock();
+            }
+        }
+
+        /**
+         * Makes sure that the tree logic has a valid path down the tree to start from, which is the path of the previous change
+         * unless the structure of the tree has changed since. Called while holding the structure latch.
+         */
+        private void goToPath() throws IOException
+        {
+            long currentStructureVersion = latches.structureVersion();
+            if ( structureVersion != currentStructureVersion )
+            {
+                root.goTo( cursor );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+                structureVersion = currentStructureVersion;
+            }
+        }
+
+        /**
+         * The cursor may be anywhere after a failed change, so start over from the root on the next change.
+         */
+        private void forgetPath()
+        {
+            structureVersion = -1;
+        }
+
+        /**
+         * Called while holding the structure latch exclusively, after a change that may have changed the structure of the tree.
+         */
+        private void handleStructureChanges() throws IOException
+        {
+            if ( handleRootChanges( cursor, structurePropagation, stableGeneration, unstableGeneration ) )
+            {
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+            }
+            // The paths that other writers remember may no longer be valid, but the path of this writer is
+            structureVersion = latches.structureChanged();
+        }
+
+        @Override
+        public void close()
+        {
+            if ( !locked )
+            {
+                throw new IllegalStateException( "Tried to close parallel writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            if ( cursor != null )
+            {
+                cursor.close();
+                cursor = null;
+            }
+            locked = false;
+            lock.sharedWriterUnlock();
+        }
+    }
+
+    /**
+     * A {@link BulkLoader} that builds the tree bottom-up. Each level of the tree has one node open at a time, which is where the next
+     * key goes. When a node is filled it gets a right sibling and the key separating the two is added to the level above, which is
+     * created when the level below gets its second node. All nodes are written in the unstable generation and only become reachable
+     * when the root is set on close.
+     */
+    private class TreeBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final List<BulkLoadLevel> levels = new ArrayList<>();
+        private final KEY lastKey = layout.newKey();
+        private final KEY splitter = layout.newKey();
+        private final LongArrayList acquiredIds = new LongArrayList();
+        private boolean hasLastKey;
+        private boolean locked;
+        private boolean failed;
+
+        // Bulk loader can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        TreeBulkLoader( double fillFactor )
+        {
+            this.fillFactor = fillFactor;
+        }
+
+        void initialize() throws IOException
+        {
+            boolean success = false;
+            try
+            {
+                // Block here until cleaning has completed, if cleaning was required
+                lock.writerAndCleanerLock();
+                locked = true;
+                assertRecoveryCleanSuccessful();
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+                {
+                    if ( !TreeNode.isLeaf( cursor ) || TreeNode.keyCount( cursor ) != 0 )
+                    {
+                        throw new IllegalStateException( "Can only bulk load into an empty tree, but " + GBPTree.this + " has entries" );
+                    }
+                }
+                levels.add( new BulkLoadLevel( Type.LEAF ) );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    close();
+                }
+            }
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            if ( hasLastKey && layout.compare( lastKey, key ) >= 0 )
+            {
+                throw new IllegalArgumentException( "Keys must be added in strictly ascending order, but " + key + " was added after " + lastKey );
+            }
+            try
+            {
+                bTreeNode.validateKeyValueSize( key, value );
+                BulkLoadLevel leaves = levels.get( 0 );
+                if ( leaves.keyCount > 0 && (bTreeNode.reachedFillFactor( leaves.cursor, leaves.keyCount, Type.LEAF, fillFactor ) ||
+                        bTreeNode.leafOverflow( leaves.cursor, leaves.keyCount, key, value ) != Overflow.NO) )
+                {
+                    layout.minimalSplitter( lastKey, key, splitter );
+                    addChild( 1, splitter, leaves.nextNode() );
+                }
+                bTreeNode.insertKeyValueAt( leaves.cursor, key, value, leaves.keyCount, leaves.keyCount, stableGeneration, unstableGeneration );
+                leaves.incrementKeyCount();
+                layout.copyKey( key, lastKey );
+                hasLastKey = true;
+            }
+            catch ( IOException e )
+            {
+                failed = true;
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                failed = true;
+                appendTreeInformation( t );
+                throw t;
+            }
+        }
+
+        /**
+         * Adds {@code child}, preceded by {@code separator}, to the open node on the given level, or to a new node on that level if the open
+         * node is full. A new node starts out with {@code child} as its only child and {@code separator} goes to the level above instead.
+         */
+        private void addChild( int levelIndex, KEY separator, long child ) throws IOException
+        {
+            if ( levelIndex == levels.size() )
+            {
+                BulkLoadLevel level = new BulkLoadLevel( Type.INTERNAL );
+                levels.add( level );
+                bTreeNode.setChildAt( level.cursor, levels.get( levelIndex - 1 ).firstNodeId, 0, stableGeneration, unstableGeneration );
+                monitor.treeGrowth();
+            }
+            BulkLoadLevel level = levels.get( levelIndex );
+            if ( level.keyCount > 0 && (bTreeNode.reachedFillFactor( level.cursor, level.keyCount, Type.INTERNAL, fillFactor ) ||
+                    bTreeNode.internalOverflow( level.cursor, level.keyCount, separator ) != Overflow.NO) )
+            {
+                long newNodeId = level.nextNode();
+                bTreeNode.setChildAt( level.cursor, child, 0, stableGeneration, unstableGeneration );
+                addChild( levelIndex + 1, separator, newNodeId );
+            }
+            else
+            {
+                bTreeNode.insertKeyAndRightChildAt( level.cursor, separator, child, level.keyCount, level.keyCount, stableGeneration, unstableGeneration );
+                level.incrementKeyCount();
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( !locked )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but bulk loader is already closed." );
+            }
+            try
+            {
+                IOUtils.closeAll( levels );
+                if ( hasLastKey && !failed )
+                {
+                    // The top level has a single node, which becomes the new root in place of the empty one
+                    long oldRootId = root.id();
+                    setRoot( levels.get( levels.size() - 1 ).firstNodeId, unstableGeneration );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+                    changesSinceLastCheckpoint = true;
+                }
+                else
+                {
+                    // Nothing was loaded, or loading failed, so none of the nodes became reachable and they would leak unless released
+                    for ( int i = 0; i < acquiredIds.size(); i++ )
+                    {
+                        freeList.releaseId( stableGeneration, unstableGeneration, acquiredIds.get( i ) );
+                    }
+                    if ( !acquiredIds.isEmpty() )
+                    {
+                        changesSinceLastCheckpoint = true;
+                    }
+                }
+            }
+            finally
+            {
+                levels.clear();
+                acquiredIds.clear();
+                locked = false;
+                lock.writerAndCleanerUnlock();
+            }
+        }
+
+        /**
+         * The node currently being filled on one level of the tree.
+         */
+        private class BulkLoadLevel implements Closeable
+        {
+            private final Type type;
+            private final PageCursor cursor;
+            private final long firstNodeId;
+            private long nodeId;
+            private int keyCount;
+
+            BulkLoadLevel( Type type ) throws IOException
+            {
+                this.type = type;
+                this.nodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+                this.firstNodeId = nodeId;
+                acquiredIds.add( nodeId );
+                this.cursor = pagedFile.io( nodeId, PagedFile.PF_SHARED_WRITE_LOCK );
+                PageCursorUtil.goTo( cursor, "bulk load", nodeId );
+                initializeNode();
+            }
+
+            /**
+             * Links a new node as right sibling of the open node and continues in the new node.
+             * @return id of the new node.
+             */
+            long nextNode() throws IOException
+            {
+                long newNodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+                acquiredIds.add( newNodeId );
+                TreeNode.setRightSibling( cursor, newNodeId, stableGeneration, unstableGeneration );
+                long leftSiblingId = nodeId;
+                PageCursorUtil.goTo( cursor, "bulk load", newNodeId );
+                initializeNode();
+                TreeNode.setLeftSibling( cursor, leftSiblingId, stableGeneration, unstableGeneration );
+                nodeId = newNodeId;
+                keyCount = 0;
+                return newNodeId;
+            }
+
+            void incrementKeyCount()
+            {
+                keyCount++;
+                TreeNode.setKeyCount( cursor, keyCount );
+                checkOutOfBounds( cursor );
+            }
+
+            private void initializeNode()
+            {
+                if ( type == Type.LEAF )
+                {
+                    bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+                }
+                else
+                {
+                    bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+                }
+            }
+
+            @Override
+            public void close()
+            {
+                cursor.close();
+            }
+        }
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
@@ -25,11 +25,20 @@ import java.util.concurrent.locks.LockSupport;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.util.VisibleForTesting;
 
+/**
+ * Guards a {@link GBPTree} against concurrent writers, checkpoints and cleaning.
+ * <p>
+ * The writer and cleaner locks are exclusive. Any number of shared writers can hold the lock at the same time, as long as
+ * neither the writer nor the cleaner lock is held. Taking the writer or cleaner lock keeps new shared writers out, and then
+ * waits for the shared writers that already hold the lock to let go of it.
+ */
 class GBPTreeLock
 {
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    private static final long sharedWriterUnit = 0x00000000_00000004L;
+    private static final long sharedWriterMask = ~(writerLockBit | cleanerLockBit);
     private volatile long state;
 
     // Used for testing
@@ -70,6 +79,35 @@ class GBPTreeLock
         doUnlock( writerLockBit | cleanerLockBit );
     }
 
+    void sharedWriterLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( !canLock( currentState, writerLockBit | cleanerLockBit ) )
+            {
+                sleep();
+                currentState = state;
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + sharedWriterUnit ) );
+    }
+
+    void sharedWriterUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( (currentState & sharedWriterMask) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock shared writer lock that is not locked" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - sharedWriterUnit ) );
+    }
+
     private void doLock( long targetLockBit )
     {
         long currentState;
@@ -85,6 +123,12 @@ class GBPTreeLock
             }
             newState = currentState | targetLockBit;
         } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
+
+        // New shared writers are kept out from here on, wait for the ones that are already in to leave
+        while ( (state & sharedWriterMask) != 0 )
+        {
+            sleep();
+        }
     }
 
     private void doUnlock( long targetLockBit )
@@ -34,6 +34,7 @@ import static org.neo4j.index.internal.gbptree.StructurePropagation.KeyReplaceSt
 import static org.neo4j.index.internal.gbptree.StructurePropagation.UPDATE_LEFT_CHILD;
 import static org.neo4j.index.internal.gbptree.StructurePropagation.UPDATE_MID_CHILD;
 import static org.neo4j.index.internal.gbptree.StructurePropagation.UPDATE_RIGHT_CHILD;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.NO;
 import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.NO_NEED_DEFRAG;
 import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.YES;
 import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
@@ -756,6 +757,144 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Outcome of a change that is made to a single leaf only, see {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger, boolean, long, long)}
+     * and {@link #tryRemoveFromLeaf(PageCursor, Object, Object, long, long)}.
+     */
+    enum LeafChange
+    {
+        /**
+         * The change was made to the leaf, or the leaf did not need to change.
+         */
+        DONE,
+        /**
+         * The key to remove does not exist in the leaf.
+         */
+        NOT_FOUND,
+        /**
+         * The change needs a successor of the leaf, a split, a rebalance or the offload store. Nothing was changed.
+         */
+        STRUCTURE_CHANGE_NEEDED
+    }
+
+    /**
+     * Moves the cursor to the leaf where {@code key} belongs, without making any changes to the tree.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree (if first move since {@link #initialize(PageCursor)})
+     * or at where last insert/remove left it.
+     * @param key key to find the leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * Like {@link #insert(PageCursor, StructurePropagation, Object, Object, ValueMerger, boolean, long, long)}, but only changes the leaf
+     * the cursor is at, see {@link #moveToLeaf(PageCursor, Object, long, long)}. The leaf is left untouched if the change would need
+     * any other tree node or the id provider to change, so that changes to different leaves can be made concurrently.
+     * <p>
+     * The {@code valueMerger} may have been called even if the change could not be made here.
+     *
+     * @return {@link LeafChange#DONE} if the change was made, otherwise {@link LeafChange#STRUCTURE_CHANGE_NEEDED}.
+     * @throws IOException on cursor failure
+     */
+    LeafChange tryInsertInLeaf( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger, boolean createIfNotExists,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            // A successor would be needed, which changes the parent and the siblings
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            if ( bTreeNode.offloadIdAt( cursor, pos, LEAF ) != TreeNode.NO_OFFLOAD_ID )
+            {
+                return LeafChange.STRUCTURE_CHANGE_NEEDED;
+            }
+            bTreeNode.valueAt( cursor, readValue, pos );
+            ValueMerger.MergeResult mergeResult = valueMerger.merge( readKey, key, readValue, value );
+            if ( mergeResult == ValueMerger.MergeResult.UNCHANGED )
+            {
+                return LeafChange.DONE;
+            }
+            if ( mergeResult == ValueMerger.MergeResult.REPLACED || mergeResult == ValueMerger.MergeResult.MERGED )
+            {
+                // Only values of the same size can be overwritten in place, other sizes may need a split
+                VALUE mergedValue = mergeResult == ValueMerger.MergeResult.REPLACED ? value : readValue;
+                return bTreeNode.setValueAt( cursor, mergedValue, pos ) ? LeafChange.DONE : LeafChange.STRUCTURE_CHANGE_NEEDED;
+            }
+            if ( mergeResult == ValueMerger.MergeResult.REMOVED )
+            {
+                if ( bTreeNode.leafUnderflowAfterRemove( cursor, keyCount, pos ) )
+                {
+                    return LeafChange.STRUCTURE_CHANGE_NEEDED;
+                }
+                bTreeNode.removeKeyValueAt( cursor, pos, keyCount, stableGeneration, unstableGeneration );
+                TreeNode.setKeyCount( cursor, keyCount - 1 );
+                return LeafChange.DONE;
+            }
+            throw new UnsupportedOperationException( "Unexpected merge result " + mergeResult );
+        }
+
+        if ( !createIfNotExists )
+        {
+            return LeafChange.DONE;
+        }
+        int inlineKeyValueSizeCap = bTreeNode.inlineKeyValueSizeCap();
+        if ( inlineKeyValueSizeCap != TreeNode.NO_KEY_VALUE_SIZE_CAP && layout.keySize( key ) + layout.valueSize( value ) > inlineKeyValueSizeCap )
+        {
+            // Would be written to the offload store
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        if ( bTreeNode.leafOverflow( cursor, keyCount, key, value ) != NO )
+        {
+            // Defragmenting uses buffers in the tree node that are shared by all writers, so it is left to the exclusive path, like splits
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return LeafChange.DONE;
+    }
+
+    /**
+     * Like {@link #remove(PageCursor, StructurePropagation, Object, Object, long, long)}, but only changes the leaf the cursor is at,
+     * see {@link #moveToLeaf(PageCursor, Object, long, long)}. The leaf is left untouched if the removal would need any other tree node
+     * or the id provider to change, so that changes to different leaves can be made concurrently.
+     *
+     * @return {@link LeafChange#DONE} if the key was removed and its value stored in {@code into}, {@link LeafChange#NOT_FOUND} if the key
+     * does not exist, otherwise {@link LeafChange#STRUCTURE_CHANGE_NEEDED}.
+     * @throws IOException on cursor failure
+     */
+    LeafChange tryRemoveFromLeaf( PageCursor cursor, KEY key, VALUE into, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( !isHit( search ) )
+        {
+            return LeafChange.NOT_FOUND;
+        }
+        if ( TreeNode.generation( cursor ) != unstableGeneration ||
+             bTreeNode.offloadIdAt( cursor, pos, LEAF ) != TreeNode.NO_OFFLOAD_ID ||
+             bTreeNode.leafUnderflowAfterRemove( cursor, keyCount, pos ) )
+        {
+            return LeafChange.STRUCTURE_CHANGE_NEEDED;
+        }
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos, stableGeneration, unstableGeneration );
+        return LeafChange.DONE;
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration ) throws IOException
     {
@@ -22,9 +22,12 @@ package org.neo4j.index.internal.gbptree;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.neo4j.util.Preconditions;
+
 class KeyPartitioning<KEY>
 {
     private final Layout<KEY,?> layout;
@@ -34,19 +37,64 @@ class KeyPartitioning<KEY>
         this.layout = layout;
     }
 
+    /**
+     * Partitions the range between {@code fromInclusive} and {@code toExclusive} into {@code numberOfPartitions} partitions,
+     * using those of the {@code keyCandidates} which are inside the range as partition boundaries.
+     * The ranges between the keys are assumed to be equally large.
+     */
     public List<Pair<KEY,KEY>> partition( List<KEY> keyCandidates, KEY fromInclusive, KEY toExclusive, int numberOfPartitions )
     {
         List<KEY> keys = keyCandidates.stream()
                 .filter( key -> layout.compare( key, fromInclusive ) > 0 && layout.compare( key, toExclusive ) < 0 )
                 .collect( Collectors.toList() );
+        long[] weights = new long[keys.size() + 1];
+        Arrays.fill( weights, 1 );
+        return partition( keys, weights, fromInclusive, toExclusive, numberOfPartitions );
+    }
+
+    /**
+     * Partitions the range between {@code fromInclusive} and {@code toExclusive} into {@code numberOfPartitions} partitions of roughly equal weight.
+     * The range is made up of consecutive sub-ranges, separated by {@code splitKeys} and having the weights {@code subRangeWeights}.
+     * Partitions are formed by whole sub-ranges, so there can only be as many partitions as there are sub-ranges.
+     *
+     * @param splitKeys keys strictly inside the range, in ascending order, separating the sub-ranges.
+     * @param subRangeWeights weights of the sub-ranges, one more than the number of split keys.
+     * @param fromInclusive lower bound of the range (inclusive).
+     * @param toExclusive higher bound of the range (exclusive).
+     * @param numberOfPartitions desired number of partitions.
+     * @return list of partitions, each one a pair of its lower (inclusive) and higher (exclusive) bound.
+     */
+    public List<Pair<KEY,KEY>> partition( List<KEY> splitKeys, long[] subRangeWeights, KEY fromInclusive, KEY toExclusive, int numberOfPartitions )
+    {
+        Preconditions.checkArgument( splitKeys.size() + 1 == subRangeWeights.length,
+                "Expected one more sub-range weight than split keys, but was %d split keys and %d weights", splitKeys.size(), subRangeWeights.length );
+
+        int numberOfSubRanges = subRangeWeights.length;
+        int partitionCount = Math.min( numberOfPartitions, numberOfSubRanges );
+        long totalWeight = 0;
+        for ( long weight : subRangeWeights )
+        {
+            totalWeight += weight;
+        }
 
         List<Pair<KEY,KEY>> partitions = new ArrayList<>();
-        float stride = keys.size() < numberOfPartitions ? 1 : (1f + keys.size()) / numberOfPartitions;
-        float pos = stride;
         KEY prev = fromInclusive;
-        for ( int i = 0; i < numberOfPartitions - 1 && i < keys.size(); i++, pos += stride )
+        int subRange = 0;
+        long accumulatedWeight = 0;
+        for ( int partition = 1; partition < partitionCount; partition++ )
         {
-            KEY split = keys.get( Math.round( pos ) - 1 );
+            // Each partition gets at least one sub-range and then more as long as that brings the partition end closer to its ideal position,
+            // while making sure to leave at least one sub-range for each of the remaining partitions
+            double idealWeight = (double) totalWeight * partition / partitionCount;
+            int lastPossibleEnd = numberOfSubRanges - (partitionCount - partition);
+            accumulatedWeight += subRangeWeights[subRange++];
+            while ( subRange < lastPossibleEnd &&
+                    Math.abs( accumulatedWeight + subRangeWeights[subRange] - idealWeight ) < Math.abs( accumulatedWeight - idealWeight ) )
+            {
+                accumulatedWeight += subRangeWeights[subRange++];
+            }
+
+            KEY split = splitKeys.get( subRange - 1 );
             partitions.add( Pair.of( prev, split ) );
             prev = layout.newKey();
             layout.copyKey( split, prev );
@@ -40,6 +40,7 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
 {
     int FIXED_SIZE_KEY = -1;
     int FIXED_SIZE_VALUE = -1;
+    int NO_KEY_PREFIX_COMPRESSION = -1;
 
     /**
      * @return new key instance.
@@ -122,6 +123,31 @@ public interface Layout<KEY, VALUE> extends Comparator<KEY>
         copyKey( right, into );
     }
 
+    /**
+     * Keys in leaves of dynamically sized trees can be prefix compressed, i.e. the bytes that all keys in a leaf have in common
+     * are stored once for the leaf instead of once for every key. Serialized keys often start with bytes which are specific to each key,
+     * like entity id or length, which would prevent keys from having any prefix in common. Prefix compression therefore starts at the offset
+     * returned from this method and bytes before it are stored as they are for every key.
+     *
+     * @return offset into serialized keys where prefix compression starts, or {@link #NO_KEY_PREFIX_COMPRESSION} if keys of this layout
+     * can not be prefix compressed.
+     */
+    default int keyPrefixCompressionOffset()
+    {
+        return NO_KEY_PREFIX_COMPRESSION;
+    }
+
+    /**
+     * Decides whether or not new trees using this layout will have prefix compressed leaves, see {@link #keyPrefixCompressionOffset()}.
+     * Existing trees keep the format they were created with, regardless of what this method returns.
+     *
+     * @return {@code true} if new trees should compress key prefixes in leaves, otherwise {@code false}.
+     */
+    default boolean compressKeyPrefixes()
+    {
+        return false;
+    }
+
     /**
      * Used as verification when loading an index after creation, to verify that the same layout is used,
      * as the one it was initially created with.
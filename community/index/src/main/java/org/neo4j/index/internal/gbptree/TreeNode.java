@@ -353,6 +353,18 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Will leaf underflow if removing the key and value at the given position?
+     * @return true if leaf will underflow, else false.
+     */
+    abstract boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos );
+
+    /**
+     * Is the node filled to at least the given fill factor, so that a bulk load should continue in a new node?
+     * @return true if node is filled to at least {@code fillFactor} of its capacity, else false.
+     */
+    abstract boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -94,6 +94,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
 
     private static final int LEAST_NUMBER_OF_ENTRIES_PER_PAGE = 2;
     private static final int MINIMUM_ENTRY_SIZE_CAP = Long.SIZE;
+    private final int headerLength;
     private final int inlineKeyValueSizeCap;
     private final int keyValueSizeCap;
     private final MutableIntStack deadKeysOffset = new IntArrayStack();
@@ -101,19 +102,25 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private final int maxKeyCount = pageSize / (bytesKeyOffset() + SIZE_KEY_SIZE + SIZE_VALUE_SIZE);
     private final int[] oldOffset = new int[maxKeyCount];
     private final int[] newOffset = new int[maxKeyCount];
-    private final int totalSpace;
-    private final int halfSpace;
+    final int totalSpace;
+    final int halfSpace;
     private final KEY tmpKeyLeft;
     private final KEY tmpKeyRight;
-    private final OffloadStore<KEY,VALUE> offloadStore;
+    final OffloadStore<KEY,VALUE> offloadStore;
 
     TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+    {
+        this( pageSize, layout, offloadStore, HEADER_LENGTH_DYNAMIC );
+    }
+
+    TreeNodeDynamicSize( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore, int headerLength )
     {
         super( pageSize, layout );
         this.offloadStore = offloadStore;
-        totalSpace = pageSize - HEADER_LENGTH_DYNAMIC;
+        this.headerLength = headerLength;
+        totalSpace = pageSize - headerLength;
         halfSpace = totalSpace / 2;
-        inlineKeyValueSizeCap = inlineKeyValueSizeCap( pageSize );
+        inlineKeyValueSizeCap = totalSpace / LEAST_NUMBER_OF_ENTRIES_PER_PAGE - SIZE_TOTAL_OVERHEAD;
         keyValueSizeCap = offloadStore.maxEntrySize();
 
         if ( inlineKeyValueSizeCap < MINIMUM_ENTRY_SIZE_CAP )
@@ -192,7 +199,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
                 readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
                 return into;
             }
-            layout.readKey( cursor, into, keySize );
+            readKey( cursor, into, keySize, type );
         }
         return into;
     }
@@ -225,11 +232,19 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
                 readUnreliableKeyValueSize( cursor, keySize, valueSize, keyValueSize, pos );
                 return;
             }
-            layout.readKey( cursor, intoKey, keySize );
+            readKey( cursor, intoKey, keySize, LEAF );
             layout.readValue( cursor, intoValue, valueSize );
         }
     }
 
+    /**
+     * Reads an inline key, the cursor is placed right after the key-value size header of the entry.
+     */
+    void readKey( PageCursor cursor, KEY into, int keySize, Type type )
+    {
+        layout.readKey( cursor, into, keySize );
+    }
+
     @Override
     void insertKeyAndRightChildAt( PageCursor cursor, KEY key, long child, int pos, int keyCount, long stableGeneration,
             long unstableGeneration ) throws IOException
@@ -731,6 +746,27 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos )
+    {
+        // The removed key and value become dead space, and the slot in the offset array is given back to alloc space
+        int allocSpace = getAllocSpace( cursor, keyCount - 1, LEAF );
+        int deadSpace = getDeadSpace( cursor ) + totalSpaceOfKeyValue( cursor, pos ) - bytesKeyOffset();
+        int availableSpace = allocSpace + deadSpace;
+
+        return availableSpace > halfSpace;
+    }
+
+    @Override
+    boolean reachedFillFactor( PageCursor cursor, int keyCount, Type type, double fillFactor )
+    {
+        int allocSpace = getAllocSpace( cursor, keyCount, type );
+        int deadSpace = getDeadSpace( cursor );
+        int usedSpace = totalSpace - allocSpace - deadSpace;
+
+        return usedSpace >= totalSpace * fillFactor;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -1036,7 +1072,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return newRightAllocSpace;
     }
 
-    private int getAllocSpace( PageCursor cursor, int keyCount, Type type )
+    int getAllocSpace( PageCursor cursor, int keyCount, Type type )
     {
         int allocOffset = getAllocOffset( cursor );
         int endOfOffsetArray = type == LEAF ? keyPosOffsetLeaf( keyCount ) : keyPosOffsetInternal( keyCount );
@@ -1129,7 +1165,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         zeroPad( fromCursor, childFromOffset, lengthInBytes );
     }
 
-    private void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
+    void zeroPad( PageCursor fromCursor, int fromOffset, int lengthInBytes )
     {
         fromCursor.setOffset( fromOffset );
         fromCursor.putBytes( lengthInBytes, (byte) 0 );
@@ -1362,7 +1398,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_DEADSPACE );
     }
 
-    private void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
+    void placeCursorAtActualKey( PageCursor cursor, int pos, Type type )
     {
         // Set cursor to correct place in offset array
         int keyPosOffset = keyPosOffset( pos, type );
@@ -1372,10 +1408,10 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         int keyOffset = readKeyOffset( cursor );
 
         // Verify offset is reasonable
-        if ( keyOffset >= pageSize || keyOffset < HEADER_LENGTH_DYNAMIC )
+        if ( keyOffset >= pageSize || keyOffset < headerLength )
         {
             cursor.setCursorException( format( "Tried to read key on offset=%d, headerLength=%d, pageSize=%d, pos=%d",
-                    keyOffset, HEADER_LENGTH_DYNAMIC, pageSize, pos ) );
+                    keyOffset, headerLength, pageSize, pos ) );
             return;
         }
 
@@ -1406,15 +1442,15 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         }
     }
 
-    private int keyPosOffsetLeaf( int pos )
+    int keyPosOffsetLeaf( int pos )
     {
-        return HEADER_LENGTH_DYNAMIC + pos * bytesKeyOffset();
+        return headerLength + pos * bytesKeyOffset();
     }
 
     private int keyPosOffsetInternal( int pos )
     {
         // header + childPointer + pos * (keyPosOffsetSize + childPointer)
-        return HEADER_LENGTH_DYNAMIC + childSize() + pos * keyChildSize();
+        return headerLength + childSize() + pos * keyChildSize();
     }
 
     private int keyChildSize()
@@ -1427,7 +1463,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return SIZE_PAGE_REFERENCE;
     }
 
-    private static int bytesKeyOffset()
+    static int bytesKeyOffset()
     {
         return SIZE_OFFSET;
     }
@@ -1508,7 +1544,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
             }
             else
             {
-                layout.readKey( cursor, readKey, keySize );
+                readKey( cursor, readKey, keySize, type );
                 if ( type == LEAF )
                 {
                     layout.readValue( cursor, readValue, valueSize );
@@ -1626,7 +1662,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
     private int totalActiveSpaceRaw( PageCursor cursor, int keyCount, Type type )
     {
         // Offset array
-        int offsetArrayStart = HEADER_LENGTH_DYNAMIC;
+        int offsetArrayStart = headerLength;
         int offsetArrayEnd = keyPosOffset( keyCount, type );
         int offsetArraySize = offsetArrayEnd - offsetArrayStart;
 
@@ -1690,7 +1726,7 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return offsetArray.toString();
     }
 
-    private boolean canInline( int entrySize )
+    boolean canInline( int entrySize )
     {
         return entrySize <= inlineKeyValueSizeCap;
     }
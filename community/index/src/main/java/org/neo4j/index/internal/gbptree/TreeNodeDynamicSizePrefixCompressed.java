@@ -0,0 +1,697 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+import static java.lang.String.format;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.SIZE_OFFSET;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractKeySize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractOffload;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.extractValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.getOverhead;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyOffset;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.putOffloadId;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readKeyValueSize;
+import static org.neo4j.index.internal.gbptree.DynamicSizeUtil.readOffloadId;
+import static org.neo4j.index.internal.gbptree.PageCursorUtil.putUnsignedShort;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+/**
+ * A {@link TreeNodeDynamicSize} where keys in leaves are prefix compressed. The bytes that all inline keys in a leaf have in common are
+ * stored once, in a prefix entry which is referenced from the header, and every key only stores the rest of its bytes. Compression starts
+ * at {@link Layout#keyPrefixCompressionOffset()}, bytes before that offset are stored for every key.
+ *
+ * LEAF
+ * [                                   HEADER   88B                                                                 ]|[KEY_OFFSETS]####[KEYS_VALUES,PREFIX]
+ * [NODETYPE][TYPE][GENERATION][KEYCOUNT][RIGHTSIBLING][LEFTSIBLING][SUCCESSOR][ALLOCOFFSET][DEADSPACE][PREFIXOFFSET]|[K0*,K1*,K2*]->  <-[KV0,KV2,KV1,P]
+ *  0         1     2           6         10            34           58         82           84         86            88
+ *
+ * Example, with compression offset 2 and prefix "neo4j.com/"
+ * Full keys   [1,3|neo4j.com/a] [2,3|neo4j.com/b]
+ * Stored keys [1,3|a]           [2,3|b]
+ *
+ * The prefix entry has the same format as a key, it has no value and is never referenced from the offset array.
+ * Internal nodes look like they do in {@link TreeNodeDynamicSize}, except for the larger header. Their keys are kept short by
+ * {@link Layout#minimalSplitter(Object, Object, Object)} already.
+ * <p>
+ * Inserting a key which doesn't share the prefix of a leaf, or which doesn't fit in alloc space, rewrites the whole leaf with the longest
+ * prefix that all keys, including the new one, have in common. The prefix is also recalculated whenever a leaf is defragmented, split,
+ * merged or rebalanced. A leaf only stores a prefix if doing so takes less space than storing all keys in full, which means that entries
+ * fitting in a leaf without prefix compression always fit with it too. Offloaded entries are never prefix compressed.
+ */
+public class TreeNodeDynamicSizePrefixCompressed<KEY, VALUE> extends TreeNodeDynamicSize<KEY,VALUE>
+{
+    static final byte FORMAT_IDENTIFIER = 4;
+    static final byte FORMAT_VERSION = 0;
+
+    private static final int BYTE_POS_PREFIXOFFSET = HEADER_LENGTH_DYNAMIC;
+    static final int HEADER_LENGTH_PREFIX_COMPRESSED = BYTE_POS_PREFIXOFFSET + SIZE_OFFSET;
+    private static final int NO_PREFIX = 0;
+
+    private final int compressionOffset;
+    private final ThreadLocal<KeyBuffer> readBuffer;
+    private final ThreadLocal<KeyBuffer> writeBuffer;
+    private final KEY leftInSplit;
+    private final KEY rightInSplit;
+
+    TreeNodeDynamicSizePrefixCompressed( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+    {
+        super( pageSize, layout, offloadStore, HEADER_LENGTH_PREFIX_COMPRESSED );
+        compressionOffset = layout.keyPrefixCompressionOffset();
+        if ( compressionOffset < 0 )
+        {
+            throw new IllegalArgumentException( "Layout " + layout + " doesn't support key prefix compression" );
+        }
+        readBuffer = ThreadLocal.withInitial( () -> new KeyBuffer( pageSize ) );
+        writeBuffer = ThreadLocal.withInitial( () -> new KeyBuffer( pageSize ) );
+        leftInSplit = layout.newKey();
+        rightInSplit = layout.newKey();
+    }
+
+    @Override
+    void writeAdditionalHeader( PageCursor cursor )
+    {
+        super.writeAdditionalHeader( cursor );
+        setPrefixOffset( cursor, NO_PREFIX );
+    }
+
+    @Override
+    void readKey( PageCursor cursor, KEY into, int keySize, Type type )
+    {
+        int prefixOffset = type == LEAF ? getPrefixOffset( cursor ) : NO_PREFIX;
+        if ( prefixOffset == NO_PREFIX )
+        {
+            super.readKey( cursor, into, keySize, type );
+            return;
+        }
+
+        int keyOffset = cursor.getOffset();
+        cursor.setOffset( prefixOffset );
+        int prefixLength = extractKeySize( readKeyValueSize( cursor, true ) );
+        int prefixBytesOffset = cursor.getOffset();
+        KeyBuffer buffer = readBuffer.get();
+        if ( keySize <= compressionOffset || prefixLength <= 0 || prefixBytesOffset + prefixLength > pageSize ||
+             keySize + prefixLength > buffer.bytes.length )
+        {
+            cursor.setCursorException( format( "Read unreliable prefix compressed key, id=%d, keySize=%d, prefixOffset=%d, prefixLength=%d",
+                    cursor.getCurrentPageId(), keySize, prefixOffset, prefixLength ) );
+            return;
+        }
+
+        // Put the complete key together and let layout read it from there
+        cursor.setOffset( keyOffset );
+        cursor.getBytes( buffer.bytes, 0, compressionOffset );
+        cursor.setOffset( prefixBytesOffset );
+        cursor.getBytes( buffer.bytes, compressionOffset, prefixLength );
+        cursor.setOffset( keyOffset + compressionOffset );
+        cursor.getBytes( buffer.bytes, compressionOffset + prefixLength, keySize - compressionOffset );
+        try
+        {
+            buffer.cursor.setOffset( 0 );
+            layout.readKey( buffer.cursor, into, keySize + prefixLength );
+            buffer.cursor.checkAndClearCursorException();
+        }
+        catch ( CursorException | IndexOutOfBoundsException | BufferUnderflowException e )
+        {
+            cursor.setCursorException( "Failed to read prefix compressed key, cause: " + e.getMessage() );
+        }
+    }
+
+    @Override
+    void insertKeyValueAt( PageCursor cursor, KEY key, VALUE value, int pos, int keyCount, long stableGeneration, long unstableGeneration )
+            throws IOException
+    {
+        int keySize = layout.keySize( key );
+        int valueSize = layout.valueSize( value );
+        if ( !canInline( keySize + valueSize ) )
+        {
+            // Offloaded entries are not affected by the prefix
+            super.insertKeyValueAt( cursor, key, value, pos, keyCount, stableGeneration, unstableGeneration );
+            return;
+        }
+
+        byte[] keyBytes = serializeKey( key );
+        int prefixLength = prefixLength( cursor );
+        if ( fitsWithCurrentPrefix( cursor, keyCount, keyBytes, keySize, valueSize, prefixLength ) )
+        {
+            int storedKeySize = keySize - prefixLength;
+            int newKeyValueOffset = getAllocOffset( cursor ) - storedKeySize - valueSize - getOverhead( storedKeySize, valueSize, false );
+
+            // Write key and value
+            cursor.setOffset( newKeyValueOffset );
+            putKeyValueSize( cursor, storedKeySize, valueSize, false );
+            writeKeyBytes( cursor, keyBytes, keySize, prefixLength );
+            layout.writeValue( cursor, value );
+
+            // Update alloc space
+            setAllocOffset( cursor, newKeyValueOffset );
+
+            // Write to offset array
+            insertSlotsAt( cursor, pos, 1, keyCount, keyPosOffsetLeaf( 0 ), bytesKeyOffset() );
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            putKeyOffset( cursor, newKeyValueOffset );
+        }
+        else
+        {
+            List<Entry> entries = readEntries( cursor, keyCount );
+            entries.add( pos, Entry.inline( Arrays.copyOf( keyBytes, keySize ), serializeValue( value, valueSize ) ) );
+            writeLeaf( cursor, entries, 0, entries.size() );
+        }
+    }
+
+    @Override
+    Overflow leafOverflow( PageCursor cursor, int currentKeyCount, KEY newKey, VALUE newValue )
+    {
+        int keySize = layout.keySize( newKey );
+        int valueSize = layout.valueSize( newValue );
+        if ( !canInline( keySize + valueSize ) )
+        {
+            return super.leafOverflow( cursor, currentKeyCount, newKey, newValue );
+        }
+
+        byte[] keyBytes = serializeKey( newKey );
+        if ( fitsWithCurrentPrefix( cursor, currentKeyCount, keyBytes, keySize, valueSize, prefixLength( cursor ) ) )
+        {
+            return Overflow.NO;
+        }
+
+        // Insert will rewrite the leaf with a new prefix, see if all entries fit then
+        List<Entry> entries = readEntries( cursor, currentKeyCount );
+        entries.add( Entry.inline( Arrays.copyOf( keyBytes, keySize ), new byte[valueSize] ) );
+        return space( entries, 0, entries.size() ) <= totalSpace ? Overflow.NO : Overflow.YES;
+    }
+
+    @Override
+    void defragmentLeaf( PageCursor cursor )
+    {
+        List<Entry> entries = readEntries( cursor, keyCount( cursor ) );
+        writeLeaf( cursor, entries, 0, entries.size() );
+    }
+
+    @Override
+    int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        List<Entry> entries = readEntries( leftCursor, leftKeyCount );
+        entries.addAll( readEntries( rightCursor, rightKeyCount ) );
+        int[] leftSpaces = rangeSpaces( entries, true );
+        int[] rightSpaces = rangeSpaces( entries, false );
+
+        if ( leftSpaces[entries.size()] <= totalSpace )
+        {
+            // We can merge
+            return -1;
+        }
+        if ( leftSpaces[leftKeyCount] < rightSpaces[leftKeyCount] )
+        {
+            // Moving keys to the right will only create more imbalance
+            return 0;
+        }
+
+        // Move keys to the right for as long as it brings the two leaves closer to equal in size
+        int newLeftKeyCount = leftKeyCount;
+        int currentDelta = Math.abs( leftSpaces[leftKeyCount] - rightSpaces[leftKeyCount] );
+        for ( int candidate = leftKeyCount - 1; candidate > 0 && rightSpaces[candidate] <= totalSpace; candidate-- )
+        {
+            int delta = Math.abs( leftSpaces[candidate] - rightSpaces[candidate] );
+            if ( delta >= currentDelta )
+            {
+                break;
+            }
+            currentDelta = delta;
+            newLeftKeyCount = candidate;
+        }
+
+        boolean canRebalance = leftSpaces[newLeftKeyCount] > halfSpace && rightSpaces[newLeftKeyCount] > halfSpace;
+        return canRebalance ? leftKeyCount - newLeftKeyCount : 0;
+    }
+
+    @Override
+    boolean canMergeLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        List<Entry> entries = readEntries( leftCursor, leftKeyCount );
+        entries.addAll( readEntries( rightCursor, rightKeyCount ) );
+        return space( entries, 0, entries.size() ) <= totalSpace;
+    }
+
+    @Override
+    void doSplitLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int insertPos, KEY newKey, VALUE newValue, KEY newSplitter,
+            double ratioToKeepInLeftOnSplit, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        List<Entry> entries = readEntries( leftCursor, leftKeyCount );
+        int keySize = layout.keySize( newKey );
+        int valueSize = layout.valueSize( newValue );
+        boolean inline = canInline( keySize + valueSize );
+        entries.add( insertPos, inline ? Entry.inline( Arrays.copyOf( serializeKey( newKey ), keySize ), serializeValue( newValue, valueSize ) )
+                                       : offload( newKey, newValue, stableGeneration, unstableGeneration ) );
+
+        int splitPos = splitPos( entries, ratioToKeepInLeftOnSplit );
+        if ( splitPos == -1 && inline )
+        {
+            // The new key has too little in common with the keys around it for both halves to fit. Offloading it means that it
+            // doesn't affect the prefix of the leaf it ends up in, and both halves fit since each one on its own fitted before.
+            entries.set( insertPos, offload( newKey, newValue, stableGeneration, unstableGeneration ) );
+            splitPos = splitPos( entries, ratioToKeepInLeftOnSplit );
+        }
+        if ( splitPos == -1 )
+        {
+            throw new IllegalStateException( format( "There's not enough space to insert new key, even when splitting the leaf. Key count:%d, insert pos:%d",
+                    leftKeyCount, insertPos ) );
+        }
+
+        writeLeaf( leftCursor, entries, 0, splitPos );
+        writeLeaf( rightCursor, entries, splitPos, entries.size() );
+        TreeNode.setKeyCount( leftCursor, splitPos );
+        TreeNode.setKeyCount( rightCursor, entries.size() - splitPos );
+
+        keyAt( leftCursor, leftInSplit, splitPos - 1, LEAF );
+        keyAt( rightCursor, rightInSplit, 0, LEAF );
+        layout.minimalSplitter( leftInSplit, rightInSplit, newSplitter );
+    }
+
+    @Override
+    void moveKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount, int fromPosInLeftNode )
+    {
+        List<Entry> entries = readEntries( leftCursor, leftKeyCount );
+        entries.addAll( readEntries( rightCursor, rightKeyCount ) );
+        writeLeaf( leftCursor, entries, 0, fromPosInLeftNode );
+        writeLeaf( rightCursor, entries, fromPosInLeftNode, entries.size() );
+        setKeyCount( leftCursor, fromPosInLeftNode );
+        setKeyCount( rightCursor, entries.size() - fromPosInLeftNode );
+    }
+
+    @Override
+    void copyKeyValuesFromLeftToRight( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
+    {
+        List<Entry> entries = readEntries( leftCursor, leftKeyCount );
+        entries.addAll( readEntries( rightCursor, rightKeyCount ) );
+        writeLeaf( rightCursor, entries, 0, entries.size() );
+        setKeyCount( rightCursor, entries.size() );
+    }
+
+    @Override
+    String checkMetaConsistency( PageCursor cursor, int keyCount, Type type, GBPTreeConsistencyCheckVisitor<KEY> visitor )
+    {
+        String inconsistency = super.checkMetaConsistency( cursor, keyCount, type, visitor );
+        int prefixOffset = getPrefixOffset( cursor );
+        if ( prefixOffset != NO_PREFIX && (type != LEAF || prefixOffset < getAllocOffset( cursor ) || prefixOffset >= pageSize) )
+        {
+            String prefixInconsistency = format( "Prefix is misplaced, prefixOffset=%d, allocOffset=%d", prefixOffset, getAllocOffset( cursor ) );
+            return inconsistency.isEmpty()
+                   ? "Meta data for tree node is inconsistent, id=" + cursor.getCurrentPageId() + ": " + prefixInconsistency
+                   : inconsistency + ", " + prefixInconsistency;
+        }
+        return inconsistency;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TreeNodeDynamicSizePrefixCompressed[pageSize:" + pageSize + ", keyValueSizeCap:" + keyValueSizeCap() + ", inlineKeyValueSizeCap:" +
+                inlineKeyValueSizeCap() + ", compressionOffset:" + compressionOffset + "]";
+    }
+
+    private Entry offload( KEY key, VALUE value, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        long offloadId = offloadStore.writeKeyValue( key, value, stableGeneration, unstableGeneration );
+        return Entry.offloaded( layout.keySize( key ), layout.valueSize( value ), offloadId );
+    }
+
+    /**
+     * Finds the split position which leaves the left leaf filled closest to the given ratio, out of the ones where entries on both
+     * sides fit in their leaves.
+     *
+     * @return position to split at, or {@code -1} if there's no position where both sides fit.
+     */
+    private int splitPos( List<Entry> entries, double ratioToKeepInLeftOnSplit )
+    {
+        int[] leftSpaces = rangeSpaces( entries, true );
+        int[] rightSpaces = rangeSpaces( entries, false );
+        int targetLeftSpace = (int) (totalSpace * ratioToKeepInLeftOnSplit);
+        int splitPos = -1;
+        int bestDelta = Integer.MAX_VALUE;
+        for ( int candidate = 1; candidate < entries.size(); candidate++ )
+        {
+            int delta = Math.abs( leftSpaces[candidate] - targetLeftSpace );
+            if ( leftSpaces[candidate] <= totalSpace && rightSpaces[candidate] <= totalSpace && delta < bestDelta )
+            {
+                bestDelta = delta;
+                splitPos = candidate;
+            }
+        }
+        return splitPos;
+    }
+
+    /**
+     * Calculates the space needed by every range of entries starting at the first entry (ascending), or ending at the last entry (descending),
+     * if written to a leaf of its own. The prefix can only get shorter as a range grows and the space of the range is recalculated when it does,
+     * which in practice happens a couple of times only.
+     *
+     * @return space of entries [0,i) at index i if ascending, otherwise space of entries [i,size).
+     */
+    private int[] rangeSpaces( List<Entry> entries, boolean ascending )
+    {
+        int count = entries.size();
+        int[] spaces = new int[count + 1];
+        byte[] anchor = null;
+        int prefixLength = 0;
+        int spaceWithoutPrefix = 0;
+        int spaceWithPrefix = 0;
+        for ( int step = 0; step < count; step++ )
+        {
+            int index = ascending ? step : count - 1 - step;
+            Entry entry = entries.get( index );
+            if ( !entry.offload() )
+            {
+                int newPrefixLength = anchor == null ? maxPrefixLength( entry.key ) : Math.min( prefixLength, commonPrefixLength( anchor, entry.key ) );
+                anchor = anchor == null ? entry.key : anchor;
+                if ( newPrefixLength != prefixLength )
+                {
+                    prefixLength = newPrefixLength;
+                    spaceWithPrefix = 0;
+                    for ( int previousStep = 0; previousStep < step; previousStep++ )
+                    {
+                        spaceWithPrefix += entrySpace( entries.get( ascending ? previousStep : count - 1 - previousStep ), prefixLength );
+                    }
+                }
+            }
+            spaceWithoutPrefix += entrySpace( entry, 0 );
+            spaceWithPrefix += entrySpace( entry, prefixLength );
+            spaces[ascending ? step + 1 : index] = Math.min( spaceWithoutPrefix, spaceWithPrefix + prefixSpace( prefixLength ) );
+        }
+        return spaces;
+    }
+
+    private int space( List<Entry> entries, int from, int to )
+    {
+        return space( entries, from, to, bestPrefixLength( entries, from, to ) );
+    }
+
+    private int space( List<Entry> entries, int from, int to, int prefixLength )
+    {
+        int space = prefixSpace( prefixLength );
+        for ( int i = from; i < to; i++ )
+        {
+            space += entrySpace( entries.get( i ), prefixLength );
+        }
+        return space;
+    }
+
+    /**
+     * @return length of the longest prefix that inline keys in the given range have in common, or {@code 0} if storing the keys with that
+     * prefix wouldn't save any space.
+     */
+    private int bestPrefixLength( List<Entry> entries, int from, int to )
+    {
+        byte[] anchor = null;
+        int prefixLength = 0;
+        for ( int i = from; i < to; i++ )
+        {
+            Entry entry = entries.get( i );
+            if ( !entry.offload() )
+            {
+                prefixLength = anchor == null ? maxPrefixLength( entry.key ) : Math.min( prefixLength, commonPrefixLength( anchor, entry.key ) );
+                anchor = anchor == null ? entry.key : anchor;
+            }
+        }
+        return prefixLength > 0 && space( entries, from, to, prefixLength ) < space( entries, from, to, 0 ) ? prefixLength : 0;
+    }
+
+    /**
+     * A key always keeps at least one byte of its own after the prefix, an empty key of an entry without value would look like zero padding.
+     */
+    private int maxPrefixLength( byte[] key )
+    {
+        return Math.max( 0, key.length - compressionOffset - 1 );
+    }
+
+    private int commonPrefixLength( byte[] left, byte[] right )
+    {
+        int maxLength = Math.min( maxPrefixLength( left ), maxPrefixLength( right ) );
+        int length = 0;
+        while ( length < maxLength && left[compressionOffset + length] == right[compressionOffset + length] )
+        {
+            length++;
+        }
+        return length;
+    }
+
+    private int entrySpace( Entry entry, int prefixLength )
+    {
+        if ( entry.offload() )
+        {
+            return bytesKeyOffset() + getOverhead( entry.keySize, entry.valueSize, true );
+        }
+        int storedKeySize = entry.keySize - prefixLength;
+        return bytesKeyOffset() + getOverhead( storedKeySize, entry.valueSize, false ) + storedKeySize + entry.valueSize;
+    }
+
+    private static int prefixSpace( int prefixLength )
+    {
+        return prefixLength == 0 ? 0 : getOverhead( prefixLength, 0, false ) + prefixLength;
+    }
+
+    private boolean fitsWithCurrentPrefix( PageCursor cursor, int keyCount, byte[] keyBytes, int keySize, int valueSize, int prefixLength )
+    {
+        if ( prefixLength > 0 )
+        {
+            if ( keySize - compressionOffset - 1 < prefixLength )
+            {
+                return false;
+            }
+            int prefixBytesOffset = getPrefixOffset( cursor ) + getOverhead( prefixLength, 0, false );
+            for ( int i = 0; i < prefixLength; i++ )
+            {
+                if ( cursor.getByte( prefixBytesOffset + i ) != keyBytes[compressionOffset + i] )
+                {
+                    return false;
+                }
+            }
+        }
+        int storedKeySize = keySize - prefixLength;
+        int neededSpace = bytesKeyOffset() + getOverhead( storedKeySize, valueSize, false ) + storedKeySize + valueSize;
+        return neededSpace <= getAllocSpace( cursor, keyCount, LEAF );
+    }
+
+    /**
+     * Reads all entries of a leaf, with complete keys.
+     */
+    private List<Entry> readEntries( PageCursor cursor, int keyCount )
+    {
+        byte[] prefix = readPrefix( cursor );
+        List<Entry> entries = new ArrayList<>( keyCount + 1 );
+        for ( int pos = 0; pos < keyCount; pos++ )
+        {
+            placeCursorAtActualKey( cursor, pos, LEAF );
+            long keyValueSize = readKeyValueSize( cursor, true );
+            int keySize = extractKeySize( keyValueSize );
+            int valueSize = extractValueSize( keyValueSize );
+            if ( extractOffload( keyValueSize ) )
+            {
+                entries.add( Entry.offloaded( keySize, valueSize, readOffloadId( cursor ) ) );
+            }
+            else
+            {
+                byte[] key = new byte[keySize + prefix.length];
+                if ( prefix.length == 0 )
+                {
+                    cursor.getBytes( key );
+                }
+                else
+                {
+                    cursor.getBytes( key, 0, compressionOffset );
+                    System.arraycopy( prefix, 0, key, compressionOffset, prefix.length );
+                    cursor.getBytes( key, compressionOffset + prefix.length, keySize - compressionOffset );
+                }
+                byte[] value = new byte[valueSize];
+                cursor.getBytes( value );
+                entries.add( Entry.inline( key, value ) );
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Writes the given range of entries to a leaf, replacing all its current entries. The leaf gets the best prefix for those entries.
+     * Does NOT update keyCount.
+     */
+    private void writeLeaf( PageCursor cursor, List<Entry> entries, int from, int to )
+    {
+        int prefixLength = bestPrefixLength( entries, from, to );
+        int allocOffset = pageSize;
+        if ( prefixLength > 0 )
+        {
+            byte[] anchor = entries.subList( from, to ).stream().filter( entry -> !entry.offload() ).findFirst().orElseThrow().key;
+            allocOffset -= prefixSpace( prefixLength );
+            cursor.setOffset( allocOffset );
+            putKeyValueSize( cursor, prefixLength, 0, false );
+            cursor.putBytes( anchor, compressionOffset, prefixLength );
+        }
+        setPrefixOffset( cursor, prefixLength > 0 ? allocOffset : NO_PREFIX );
+
+        for ( int i = from, pos = 0; i < to; i++, pos++ )
+        {
+            Entry entry = entries.get( i );
+            allocOffset -= entrySpace( entry, prefixLength ) - bytesKeyOffset();
+            cursor.setOffset( allocOffset );
+            if ( entry.offload() )
+            {
+                putKeyValueSize( cursor, entry.keySize, entry.valueSize, true );
+                putOffloadId( cursor, entry.offloadId );
+            }
+            else
+            {
+                putKeyValueSize( cursor, entry.keySize - prefixLength, entry.valueSize, false );
+                writeKeyBytes( cursor, entry.key, entry.keySize, prefixLength );
+                cursor.putBytes( entry.value );
+            }
+            cursor.setOffset( keyPosOffsetLeaf( pos ) );
+            putKeyOffset( cursor, allocOffset );
+        }
+
+        int endOfOffsetArray = keyPosOffsetLeaf( to - from );
+        zeroPad( cursor, endOfOffsetArray, allocOffset - endOfOffsetArray );
+        setAllocOffset( cursor, allocOffset );
+        setDeadSpace( cursor, 0 );
+    }
+
+    private void writeKeyBytes( PageCursor cursor, byte[] keyBytes, int keySize, int prefixLength )
+    {
+        if ( prefixLength == 0 )
+        {
+            cursor.putBytes( keyBytes, 0, keySize );
+        }
+        else
+        {
+            cursor.putBytes( keyBytes, 0, compressionOffset );
+            cursor.putBytes( keyBytes, compressionOffset + prefixLength, keySize - compressionOffset - prefixLength );
+        }
+    }
+
+    private byte[] readPrefix( PageCursor cursor )
+    {
+        int prefixLength = prefixLength( cursor );
+        byte[] prefix = new byte[prefixLength];
+        cursor.getBytes( prefix );
+        return prefix;
+    }
+
+    /**
+     * @return length of the prefix of this leaf, with the cursor placed at the first prefix byte.
+     */
+    private int prefixLength( PageCursor cursor )
+    {
+        int prefixOffset = getPrefixOffset( cursor );
+        if ( prefixOffset == NO_PREFIX )
+        {
+            return 0;
+        }
+        cursor.setOffset( prefixOffset );
+        return extractKeySize( readKeyValueSize( cursor, true ) );
+    }
+
+    /**
+     * @return array where the first {@link Layout#keySize(Object)} bytes hold the serialized key, it is reused by the next call from same thread.
+     */
+    private byte[] serializeKey( KEY key )
+    {
+        KeyBuffer buffer = writeBuffer.get();
+        buffer.cursor.setOffset( 0 );
+        layout.writeKey( buffer.cursor, key );
+        return buffer.bytes;
+    }
+
+    private byte[] serializeValue( VALUE value, int valueSize )
+    {
+        byte[] bytes = new byte[valueSize];
+        layout.writeValue( ByteArrayPageCursor.wrap( bytes ), value );
+        return bytes;
+    }
+
+    private static void setPrefixOffset( PageCursor cursor, int prefixOffset )
+    {
+        putUnsignedShort( cursor, BYTE_POS_PREFIXOFFSET, prefixOffset );
+    }
+
+    private static int getPrefixOffset( PageCursor cursor )
+    {
+        return PageCursorUtil.getUnsignedShort( cursor, BYTE_POS_PREFIXOFFSET );
+    }
+
+    /**
+     * Scratch space for serialized keys, one per thread since readers and writers use the same tree node instance.
+     */
+    private static class KeyBuffer
+    {
+        private final byte[] bytes;
+        private final PageCursor cursor;
+
+        KeyBuffer( int size )
+        {
+            bytes = new byte[size];
+            cursor = ByteArrayPageCursor.wrap( bytes );
+        }
+    }
+
+    /**
+     * Key and value of a leaf entry, where the key is complete, i.e. not prefix compressed.
+     */
+    private static class Entry
+    {
+        private final byte[] key;
+        private final byte[] value;
+        private final int keySize;
+        private final int valueSize;
+        private final long offloadId;
+
+        private Entry( byte[] key, byte[] value, int keySize, int valueSize, long offloadId )
+        {
+            this.key = key;
+            this.value = value;
+            this.keySize = keySize;
+            this.valueSize = valueSize;
+            this.offloadId = offloadId;
+        }
+
+        static Entry inline( byte[] key, byte[] value )
+        {
+            return new Entry( key, value, key.length, value.length, NO_OFFLOAD_ID );
+        }
+
+        static Entry offloaded( int keySize, int valueSize, long offloadId )
+        {
+            return new Entry( null, null, keySize, valueSize, offloadId );
+        }
+
+        boolean offload()
+        {
+            return key == null;
+        }
+    }
+}
@@ -75,6 +75,30 @@ class TreeNodeSelector
         }
     };
 
+    /**
+     * Creates {@link TreeNodeDynamicSizePrefixCompressed} instances.
+     */
+    private static final Factory PREFIX_COMPRESSED = new Factory()
+    {
+        @Override
+        public <KEY,VALUE> TreeNode<KEY,VALUE> create( int pageSize, Layout<KEY,VALUE> layout, OffloadStore<KEY,VALUE> offloadStore )
+        {
+            return new TreeNodeDynamicSizePrefixCompressed<>( pageSize, layout, offloadStore );
+        }
+
+        @Override
+        public byte formatIdentifier()
+        {
+            return TreeNodeDynamicSizePrefixCompressed.FORMAT_IDENTIFIER;
+        }
+
+        @Override
+        public byte formatVersion()
+        {
+            return TreeNodeDynamicSizePrefixCompressed.FORMAT_VERSION;
+        }
+    };
+
     /**
      * Selects a format based on the given {@link Layout}.
      *
@@ -83,8 +107,32 @@ class TreeNodeSelector
      */
     static Factory selectByLayout( Layout<?,?> layout )
     {
-        // For now the selection is done in a simple fashion, by looking at layout.fixedSize().
-        return layout.fixedSize() ? FIXED : DYNAMIC;
+        // For now the selection is done in a simple fashion, by looking at layout.fixedSize() and layout.compressKeyPrefixes().
+        if ( layout.fixedSize() )
+        {
+            return FIXED;
+        }
+        return layout.compressKeyPrefixes() && supportsKeyPrefixCompression( layout ) ? PREFIX_COMPRESSED : DYNAMIC;
+    }
+
+    /**
+     * Decides whether or not a tree of the given format can be opened with the given {@link Layout}. This is the case for the format
+     * the layout would select itself, but also for the other dynamic size format if the layout supports key prefix compression,
+     * so that turning {@link Layout#compressKeyPrefixes()} on or off doesn't make existing trees unreadable.
+     *
+     * @param layout {@link Layout} to open the tree with.
+     * @param formatIdentifier format identifier, see {@link Meta#getFormatIdentifier()}
+     * @param formatVersion format version, see {@link Meta#getFormatVersion()}.
+     * @return {@code true} if the tree can be opened with the given layout, otherwise {@code false}.
+     */
+    static boolean canOpen( Layout<?,?> layout, byte formatIdentifier, byte formatVersion )
+    {
+        if ( isFormat( selectByLayout( layout ), formatIdentifier, formatVersion ) )
+        {
+            return true;
+        }
+        return !layout.fixedSize() && supportsKeyPrefixCompression( layout ) &&
+                (isFormat( DYNAMIC, formatIdentifier, formatVersion ) || isFormat( PREFIX_COMPRESSED, formatIdentifier, formatVersion ));
     }
 
     /**
@@ -106,10 +154,25 @@ class TreeNodeSelector
         {
             return DYNAMIC;
         }
+        else if ( formatIdentifier == TreeNodeDynamicSizePrefixCompressed.FORMAT_IDENTIFIER &&
+                  formatVersion == TreeNodeDynamicSizePrefixCompressed.FORMAT_VERSION )
+        {
+            return PREFIX_COMPRESSED;
+        }
         throw new IllegalArgumentException(
                 format( "Unknown format identifier:%d and version:%d combination", formatIdentifier, formatVersion ) );
     }
 
+    private static boolean supportsKeyPrefixCompression( Layout<?,?> layout )
+    {
+        return layout.keyPrefixCompressionOffset() != Layout.NO_KEY_PREFIX_COMPRESSION;
+    }
+
+    private static boolean isFormat( Factory factory, byte formatIdentifier, byte formatVersion )
+    {
+        return factory.formatIdentifier() == formatIdentifier && factory.formatVersion() == formatVersion;
+    }
+
     /**
      * Able to instantiate {@link TreeNode} of a specific format and version.
      */
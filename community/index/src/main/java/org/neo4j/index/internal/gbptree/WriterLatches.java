@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * Latches that let a number of {@link GBPTree#parallelWriter() parallel writers} change a tree at the same time.
+ * <p>
+ * A change that only touches a single leaf is made while holding the {@link #structureShared() structure latch shared}
+ * and the {@link #leaf(long) latch of that leaf}. Internal nodes and sibling pointers do not change while the structure latch
+ * is held shared, so such changes to different leaves can be made concurrently. Any other change, like creating a successor,
+ * splitting, rebalancing or offloading, is made while holding the {@link #structureExclusive() structure latch exclusively}.
+ * <p>
+ * Leaf latches are striped over a fixed number of locks, so unrelated leaves may now and then wait for each other.
+ */
+class WriterLatches
+{
+    static final String LEAF_LATCH_STRIPES_NAME = "leafLatchStripes";
+    private static final int LEAF_LATCH_STRIPES = Integer.highestOneBit(
+            Math.max( 1, FeatureToggles.getInteger( WriterLatches.class, LEAF_LATCH_STRIPES_NAME, 128 ) ) );
+
+    private final ReentrantReadWriteLock structureLatch = new ReentrantReadWriteLock();
+    private final Lock[] leafLatches = new Lock[LEAF_LATCH_STRIPES];
+
+    /**
+     * Bumped by every change made while holding the structure latch exclusively. Writers remember the path down the tree from their
+     * previous change and can keep using it for as long as this has not changed. Only read and written while holding the structure latch.
+     */
+    private long structureVersion;
+
+    WriterLatches()
+    {
+        for ( int i = 0; i < leafLatches.length; i++ )
+        {
+            leafLatches[i] = new ReentrantLock();
+        }
+    }
+
+    Lock structureShared()
+    {
+        return structureLatch.readLock();
+    }
+
+    Lock structureExclusive()
+    {
+        return structureLatch.writeLock();
+    }
+
+    long structureVersion()
+    {
+        return structureVersion;
+    }
+
+    /**
+     * Called while holding the structure latch exclusively.
+     *
+     * @return the new structure version.
+     */
+    long structureChanged()
+    {
+        return ++structureVersion;
+    }
+
+    Lock leaf( long treeNodeId )
+    {
+        return leafLatches[(int) (treeNodeId & (leafLatches.length - 1))];
+    }
+}
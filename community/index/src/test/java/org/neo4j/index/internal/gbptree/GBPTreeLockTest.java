@@ -165,6 +165,49 @@ class GBPTreeLockTest
         assertTimeoutPreemptively( ofSeconds( 10 ), () -> assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock ) );
     }
 
+    @Test
+    void sharedWritersMustNotBlockEachOther() throws Throwable
+    {
+        assertBothSucceeds( lock::sharedWriterLock, lock::sharedWriterLock );
+        lock.sharedWriterUnlock();
+        lock.sharedWriterUnlock();
+        assertThrows( IllegalStateException.class, lock::sharedWriterUnlock );
+        assertUU();
+    }
+
+    @Test
+    void sharedWriterMustBeBlockedByWriterAndCleaner() throws Exception
+    {
+        copy = lock.copy();
+        copy.writerLock();
+        assertBlock( copy::sharedWriterLock, copy::writerUnlock, "sharedWriterLock" );
+        copy.sharedWriterUnlock();
+
+        copy = lock.copy();
+        copy.cleanerLock();
+        assertBlock( copy::sharedWriterLock, copy::cleanerUnlock, "sharedWriterLock" );
+        copy.sharedWriterUnlock();
+    }
+
+    @Test
+    void writerAndCleanerMustWaitForSharedWriters() throws Exception
+    {
+        copy = lock.copy();
+        copy.sharedWriterLock();
+        assertBlock( copy::writerLock, copy::sharedWriterUnlock );
+        copy.writerUnlock();
+
+        copy = lock.copy();
+        copy.sharedWriterLock();
+        assertBlock( copy::cleanerLock, copy::sharedWriterUnlock );
+        copy.cleanerUnlock();
+
+        copy = lock.copy();
+        copy.sharedWriterLock();
+        assertBlock( copy::writerAndCleanerLock, copy::sharedWriterUnlock );
+        copy.writerAndCleanerUnlock();
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
@@ -252,13 +295,18 @@ class GBPTreeLockTest
     }
 
     private void assertBlock( Runnable runLock, Runnable runUnlock ) throws Exception
+    {
+        assertBlock( runLock, runUnlock, "doLock", long.class );
+    }
+
+    private void assertBlock( Runnable runLock, Runnable runUnlock, String waitingInMethod, Class<?>... parameterTypes ) throws Exception
     {
         Future<Object> future = executor.submit( () ->
         {
             runLock.run();
             return null;
         } );
-        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "doLock", long.class ) );
+        executor.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( waitingInMethod, parameterTypes ) );
         runUnlock.run();
         future.get();
     }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.mutable.MutableLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.io.IOException;
+import java.util.concurrent.Future;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.test.Race;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.actors.Actor;
+import org.neo4j.test.extension.actors.ActorsExtension;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
+import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.test.Race.throwing;
+import static org.neo4j.test.rule.PageCacheConfig.config;
+
+@EphemeralTestDirectoryExtension
+@ActorsExtension
+class GBPTreeParallelWriterTest
+{
+    private static final int THREADS = 4;
+
+    @RegisterExtension
+    static final PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension();
+    @Inject
+    TestDirectory directory;
+    @Inject
+    FileSystemAbstraction fileSystem;
+    @Inject
+    Actor checkpointer;
+    private PageCache pageCache;
+    private SimpleLongLayout layout;
+
+    @BeforeEach
+    void createPageCache()
+    {
+        pageCache = pageCacheExtension.getPageCache( fileSystem, config().withPageSize( 256 ) );
+        layout = SimpleLongLayout.longLayout()
+                .withFixedSize( true )
+                .build();
+    }
+
+    @AfterEach
+    void tearDownPageCache()
+    {
+        pageCache.close();
+    }
+
+    @Test
+    void shouldPutFromParallelWriters() throws Throwable
+    {
+        int keysPerThread = 5_000;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // when
+            Race race = new Race();
+            race.addContestants( THREADS, thread -> throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                {
+                    // Interleave the keys of the threads so that they compete for the same leaves
+                    for ( long i = 0; i < keysPerThread; i++ )
+                    {
+                        long key = i * THREADS + thread;
+                        writer.put( layout.key( key ), layout.value( key ) );
+                    }
+                }
+            } ), 1 );
+            race.go();
+
+            // then
+            assertEntries( tree, 0, (long) keysPerThread * THREADS, 1 );
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldRemoveAndMergeFromParallelWriters() throws Throwable
+    {
+        int keys = 20_000;
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            try ( Writer<MutableLong,MutableLong> writer = tree.writer() )
+            {
+                for ( long key = 0; key < keys; key++ )
+                {
+                    writer.put( layout.key( key ), layout.value( key ) );
+                }
+            }
+            tree.checkpoint( IOLimiter.UNLIMITED );
+
+            // when
+            Race race = new Race();
+            race.addContestants( THREADS, thread -> throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+                {
+                    for ( long key = thread; key < keys; key += THREADS )
+                    {
+                        if ( key % 2 == 0 )
+                        {
+                            assertEquals( key, writer.remove( layout.key( key ) ).longValue() );
+                            assertNull( writer.remove( layout.key( key ) ) );
+                        }
+                        else
+                        {
+                            writer.merge( layout.key( key ), layout.value( 1 ), ( existingKey, newKey, existingValue, newValue ) ->
+                            {
+                                existingValue.add( newValue.longValue() );
+                                return ValueMerger.MergeResult.MERGED;
+                            } );
+                        }
+                    }
+                }
+            } ), 1 );
+            race.go();
+
+            // then
+            try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( layout.key( 0 ), layout.key( keys ) ) )
+            {
+                for ( long key = 1; key < keys; key += 2 )
+                {
+                    assertTrue( seeker.next() );
+                    assertEquals( key, seeker.key().longValue() );
+                    assertEquals( key + 1, seeker.value().longValue() );
+                }
+                assertFalse( seeker.next() );
+            }
+            assertTrue( tree.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void checkpointMustWaitForParallelWriters() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> tree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout ).build() )
+        {
+            // given
+            Future<Void> checkpoint;
+            try ( Writer<MutableLong,MutableLong> writer = tree.parallelWriter() )
+            {
+                writer.put( layout.key( 1 ), layout.value( 1 ) );
+
+                // when
+                checkpoint = checkpointer.submit( () ->
+                {
+                    tree.checkpoint( IOLimiter.UNLIMITED );
+                    return null;
+                } );
+                checkpointer.untilWaitingIn( GBPTreeLock.class.getDeclaredMethod( "doLock", long.class ) );
+                writer.put( layout.key( 2 ), layout.value( 2 ) );
+            }
+
+            // then
+            checkpoint.get();
+            assertEntries( tree, 1, 3, 1 );
+        }
+    }
+
+    private void assertEntries( GBPTree<MutableLong,MutableLong> tree, long fromInclusive, long toExclusive, long step ) throws IOException
+    {
+        try ( Seeker<MutableLong,MutableLong> seeker = tree.seek( layout.key( fromInclusive ), layout.key( toExclusive ) ) )
+        {
+            for ( long key = fromInclusive; key < toExclusive; key += step )
+            {
+                assertTrue( seeker.next() );
+                assertEquals( key, seeker.key().longValue() );
+                assertEquals( key, seeker.value().longValue() );
+            }
+            assertFalse( seeker.next() );
+        }
+    }
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.RandomExtension;
@@ -38,6 +39,7 @@ import org.neo4j.test.rule.TestDirectory;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -167,6 +169,109 @@ abstract class GBPTreeReadWriteTestBase<KEY,VALUE>
         }
     }
 
+    /* Bulk loading */
+
+    @Test
+    void shouldSeeBulkLoadedEntries() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            // given
+            int count = 10_000;
+            double fillFactor = random.nextDouble() * 0.5 + 0.5;
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader( fillFactor ) )
+            {
+                for ( int i = 0; i < count; i += 2 )
+                {
+                    bulkLoader.add( key( i ), value( i ) );
+                }
+            }
+
+            // when
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                for ( int i = 1; i < count; i += 2 )
+                {
+                    writer.put( key( i ), value( i ) );
+                }
+            }
+
+            // then
+            try ( Seeker<KEY,VALUE> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                for ( int i = 0; i < count; i++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEqualsKey( key( i ), cursor.key() );
+                    assertEquals( 0, layout.compareValue( value( i ), cursor.value() ) );
+                }
+                assertFalse( cursor.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldNotLeakPagesWhenBulkLoadingNothing() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader() )
+            {
+                // nothing to load
+            }
+            index.checkpoint( IOLimiter.UNLIMITED );
+
+            try ( Seeker<KEY,VALUE> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                assertFalse( cursor.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    void shouldNotBulkLoadIntoNonEmptyTree() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 0 ), value( 0 ) );
+            }
+
+            assertThrows( IllegalStateException.class, index::bulkLoader );
+            try ( Writer<KEY,VALUE> writer = index.writer() )
+            {
+                writer.put( key( 1 ), value( 1 ) );
+            }
+        }
+    }
+
+    @Test
+    void shouldNotBulkLoadKeysOutOfOrder() throws Exception
+    {
+        try ( GBPTree<KEY,VALUE> index = index() )
+        {
+            try ( BulkLoader<KEY,VALUE> bulkLoader = index.bulkLoader() )
+            {
+                bulkLoader.add( key( 1 ), value( 1 ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( key( 1 ), value( 1 ) ) );
+                assertThrows( IllegalArgumentException.class, () -> bulkLoader.add( key( 0 ), value( 0 ) ) );
+                bulkLoader.add( key( 2 ), value( 2 ) );
+            }
+
+            try ( Seeker<KEY,VALUE> cursor = index.seek( key( 0 ), key( Long.MAX_VALUE ) ) )
+            {
+                assertTrue( cursor.next() );
+                assertEqualsKey( key( 1 ), cursor.key() );
+                assertTrue( cursor.next() );
+                assertEqualsKey( key( 2 ), cursor.key() );
+                assertFalse( cursor.next() );
+            }
+        }
+    }
+
     private GBPTree<KEY,VALUE> index() throws IOException
     {
         return new GBPTreeBuilder<>( pageCache, indexFile, layout ).build();
@@ -23,58 +23,49 @@ import org.apache.commons.lang3.mutable.MutableLong;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
-import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.PageCache;
-import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
-import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
-import org.neo4j.io.pagecache.tracing.PageCacheTracer;
-import org.neo4j.memory.LocalMemoryTracker;
 import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.PageCacheSupportExtension;
 import org.neo4j.test.extension.testdirectory.EphemeralTestDirectoryExtension;
 import org.neo4j.test.rule.TestDirectory;
-import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.neo4j.io.IOUtils.closeAll;
-import static org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier.NULL;
-import static org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier.EMPTY;
+import static org.neo4j.test.rule.PageCacheConfig.config;
 
 @EphemeralTestDirectoryExtension
 class GBPTreeSingleWriterTest
 {
+    @RegisterExtension
+    static final PageCacheSupportExtension pageCacheExtension = new PageCacheSupportExtension();
     @Inject
     TestDirectory directory;
     @Inject
     FileSystemAbstraction fileSystem;
     private PageCache pageCache;
     private SimpleLongLayout layout;
-    private ThreadPoolJobScheduler jobScheduler;
 
     @BeforeEach
     void createPageCache()
     {
-        SingleFilePageSwapperFactory factory = new SingleFilePageSwapperFactory();
-        factory.open( fileSystem );
-        MemoryAllocator mman = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker() );
-        jobScheduler = new ThreadPoolJobScheduler();
-        pageCache =
-                new MuninnPageCache( factory, mman, 256, PageCacheTracer.NULL, NULL, EMPTY, jobScheduler );
+        pageCache = pageCacheExtension.getPageCache( fileSystem, config().withPageSize( 256 ) );
         layout = SimpleLongLayout.longLayout()
                 .withFixedSize( true )
                 .build();
     }
 
     @AfterEach
-    void tearDownPageCache() throws Exception
+    void tearDownPageCache()
     {
-        closeAll( pageCache, jobScheduler );
+        pageCache.close();
     }
 
     @Test
@@ -133,6 +124,48 @@ class GBPTreeSingleWriterTest
         }
     }
 
+    @Test
+    void shouldBulkLoadTreeOfSeveralLevelsWithNodesFilledToFillFactor() throws IOException
+    {
+        TreeHeightTracker treeHeightTracker = new TreeHeightTracker();
+        try ( GBPTree<MutableLong,MutableLong> gbpTree = new GBPTreeBuilder<>( pageCache, directory.file( "index" ), layout )
+                .with( treeHeightTracker )
+                .build() )
+        {
+            TreeNodeFixedSize<MutableLong,MutableLong> treeNode = new TreeNodeFixedSize<>( pageCache.pageSize(), layout );
+            double fillFactor = 0.5;
+            int count = 10_000;
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = gbpTree.bulkLoader( fillFactor ) )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    bulkLoader.add( layout.key( i ), layout.value( i ) );
+                }
+            }
+
+            // Every node but the rightmost one on each level is filled to the fill factor
+            assertTrue( treeHeightTracker.treeHeight >= 2 );
+            KeyCountingVisitor keyCountingVisitor = new KeyCountingVisitor();
+            gbpTree.visit( keyCountingVisitor );
+            assertEquals( (int) (treeNode.leafMaxKeyCount() * fillFactor), keyCountingVisitor.keyCountOnLeftmostPerLevel.get( treeHeightTracker.treeHeight ) );
+            for ( int level = 1; level < treeHeightTracker.treeHeight; level++ )
+            {
+                assertEquals( (int) (treeNode.internalMaxKeyCount() * fillFactor), keyCountingVisitor.keyCountOnLeftmostPerLevel.get( level ) );
+            }
+            try ( Seeker<MutableLong,MutableLong> seeker = gbpTree.seek( layout.key( 0 ), layout.key( count ) ) )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    assertTrue( seeker.next() );
+                    assertEquals( i, seeker.key().longValue() );
+                    assertEquals( i, seeker.value().longValue() );
+                }
+                assertFalse( seeker.next() );
+            }
+            assertTrue( gbpTree.consistencyCheck() );
+        }
+    }
+
     private static class KeyCountingVisitor extends GBPTreeVisitor.Adaptor<MutableLong,MutableLong>
     {
         private boolean newLevel;
@@ -233,6 +233,39 @@ class GBPTreeTest
         }
     }
 
+    @Test
+    void shouldOpenPrefixCompressedTreeWithLayoutNotCompressingNewTrees() throws Exception
+    {
+        // GIVEN
+        PageCache pageCache = createPageCache( defaultPageSize );
+        SimpleByteArrayLayout compressingLayout = new SimpleByteArrayLayout( Long.BYTES, 0, true );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, indexFile, compressingLayout ).build() )
+        {
+            try ( Writer<RawBytes,RawBytes> writer = tree.writer() )
+            {
+                for ( long i = 0; i < 1_000; i++ )
+                {
+                    writer.put( compressingLayout.key( i ), compressingLayout.value( i ) );
+                }
+            }
+            tree.checkpoint( UNLIMITED );
+        }
+
+        // WHEN
+        SimpleByteArrayLayout otherLayout = new SimpleByteArrayLayout( Long.BYTES, 0, false );
+        try ( GBPTree<RawBytes,RawBytes> tree = new GBPTreeBuilder<>( pageCache, indexFile, otherLayout ).build();
+              Seeker<RawBytes,RawBytes> seeker = tree.seek( otherLayout.key( 0 ), otherLayout.key( 1_000 ) ) )
+        {
+            // THEN
+            for ( long i = 0; i < 1_000; i++ )
+            {
+                assertTrue( seeker.next() );
+                assertEquals( i, otherLayout.keySeed( seeker.key() ) );
+            }
+            assertFalse( seeker.next() );
+        }
+    }
+
     @Test
     void shouldFailOnOpenWithDifferentPageSize() throws Exception
     {
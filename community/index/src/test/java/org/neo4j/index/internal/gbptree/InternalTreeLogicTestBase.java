@@ -1284,6 +1284,100 @@ abstract class InternalTreeLogicTestBase<KEY, VALUE>
         assertTrue( expectedKeys.isEmpty() );
     }
 
+    /* CHANGES TO A SINGLE LEAF */
+
+    @Test
+    void tryInsertInLeafMustInsertAndMergeInLeafOfUnstableGeneration() throws IOException
+    {
+        // given
+        initialize();
+        insert( key( 1 ), value( 1 ) );
+
+        // when
+        InternalTreeLogic.LeafChange inserted = tryInsertInLeaf( key( 2 ), value( 2 ), overwrite() );
+        InternalTreeLogic.LeafChange merged = tryInsertInLeaf( key( 1 ), value( 8 ), adder );
+
+        // then
+        assertEquals( InternalTreeLogic.LeafChange.DONE, inserted );
+        assertEquals( InternalTreeLogic.LeafChange.DONE, merged );
+        root.goTo( readCursor );
+        assertEquals( 2, keyCount() );
+        assertKeyAssociatedWithValue( key( 2 ), value( 2 ) );
+        assertKeyAssociatedWithValue( key( 1 ), value( 9 ) );
+    }
+
+    @Test
+    void tryInsertInLeafMustNotChangeLeafThatNeedsSuccessor() throws IOException
+    {
+        // given
+        initialize();
+        insert( key( 1 ), value( 1 ) );
+        GenerationManager.DEFAULT.checkpoint();
+
+        // when
+        InternalTreeLogic.LeafChange change = tryInsertInLeaf( key( 2 ), value( 2 ), overwrite() );
+
+        // then
+        assertEquals( InternalTreeLogic.LeafChange.STRUCTURE_CHANGE_NEEDED, change );
+        root.goTo( readCursor );
+        assertEquals( 1, keyCount() );
+    }
+
+    @Test
+    void tryInsertInLeafMustNotSplitFullLeaf() throws IOException
+    {
+        // given
+        initialize();
+        int keyCount = 0;
+        while ( node.leafOverflow( cursor, keyCount, key( keyCount ), value( keyCount ) ) == NO )
+        {
+            insert( key( keyCount ), value( keyCount ) );
+            keyCount++;
+        }
+        long rootId = root.id();
+
+        // when
+        InternalTreeLogic.LeafChange change = tryInsertInLeaf( key( keyCount ), value( keyCount ), overwrite() );
+
+        // then
+        assertEquals( InternalTreeLogic.LeafChange.STRUCTURE_CHANGE_NEEDED, change );
+        assertEquals( rootId, root.id() );
+        root.goTo( readCursor );
+        assertEquals( keyCount, keyCount() );
+    }
+
+    @Test
+    void tryRemoveFromLeafMustRemoveUnlessLeafUnderflows() throws IOException
+    {
+        // given
+        initialize();
+        int keyCount = 0;
+        while ( node.leafOverflow( cursor, keyCount, key( keyCount ), value( keyCount ) ) == NO )
+        {
+            insert( key( keyCount ), value( keyCount ) );
+            keyCount++;
+        }
+
+        // when/then
+        VALUE into = layout.newValue();
+        treeLogic.moveToLeaf( cursor, key( keyCount ), stableGeneration, unstableGeneration );
+        assertEquals( InternalTreeLogic.LeafChange.NOT_FOUND, treeLogic.tryRemoveFromLeaf( cursor, key( keyCount ), into, stableGeneration,
+                unstableGeneration ) );
+        InternalTreeLogic.LeafChange change;
+        do
+        {
+            keyCount--;
+            boolean underflow = node.leafUnderflowAfterRemove( cursor, keyCount + 1, keyCount );
+            treeLogic.moveToLeaf( cursor, key( keyCount ), stableGeneration, unstableGeneration );
+            change = treeLogic.tryRemoveFromLeaf( cursor, key( keyCount ), into, stableGeneration, unstableGeneration );
+            assertEquals( underflow ? InternalTreeLogic.LeafChange.STRUCTURE_CHANGE_NEEDED : InternalTreeLogic.LeafChange.DONE, change );
+        }
+        while ( change == InternalTreeLogic.LeafChange.DONE );
+        root.goTo( readCursor );
+        assertEquals( keyCount + 1, keyCount() );
+        assertFalse( node.leafUnderflow( readCursor, keyCount() ) );
+    }
+
     /* CREATE NEW VERSION ON UPDATE */
 
     @ParameterizedTest
@@ -1974,6 +2068,12 @@ abstract class InternalTreeLogicTestBase<KEY, VALUE>
         handleAfterChange();
     }
 
+    private InternalTreeLogic.LeafChange tryInsertInLeaf( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger ) throws IOException
+    {
+        treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+        return treeLogic.tryInsertInLeaf( cursor, key, value, valueMerger, true, stableGeneration, unstableGeneration );
+    }
+
     private void handleAfterChange() throws IOException
     {
         if ( structurePropagation.hasRightKeyInsert )
@@ -1996,7 +2096,7 @@ abstract class InternalTreeLogicTestBase<KEY, VALUE>
         return result;
     }
 
-    private interface GenerationManager
+    interface GenerationManager
     {
         void checkpoint();
 
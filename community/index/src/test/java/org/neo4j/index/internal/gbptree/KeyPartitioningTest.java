@@ -73,6 +73,49 @@ class KeyPartitioningTest
         }
     }
 
+    @Test
+    void shouldPartitionByWeight()
+    {
+        // given sub-ranges [0,1), [1,2), ... [n-1,n) with random weights
+        Layout<PartitionKey,?> layout = layout();
+        int numberOfSubRanges = random.nextInt( 20, 200 );
+        List<PartitionKey> splitKeys = keys( numberOfSubRanges ).subList( 1, numberOfSubRanges );
+        int maxWeight = 4;
+        long[] weights = new long[numberOfSubRanges];
+        long totalWeight = 0;
+        for ( int i = 0; i < numberOfSubRanges; i++ )
+        {
+            weights[i] = random.nextInt( 1, maxWeight + 1 );
+            totalWeight += weights[i];
+        }
+        KeyPartitioning<PartitionKey> partitioning = new KeyPartitioning<>( layout );
+
+        // when
+        int numberOfPartitions = random.nextInt( 1, numberOfSubRanges / maxWeight );
+        List<Pair<PartitionKey,PartitionKey>> partitions =
+                partitioning.partition( splitKeys, weights, new PartitionKey( 0 ), new PartitionKey( numberOfSubRanges ), numberOfPartitions );
+
+        // then verify that the partitions have no seams in between them and that they have roughly the same weight
+        assertEquals( numberOfPartitions, partitions.size() );
+        assertEquals( 0, partitions.get( 0 ).getLeft().value );
+        assertEquals( numberOfSubRanges, partitions.get( partitions.size() - 1 ).getRight().value );
+        double idealWeight = (double) totalWeight / numberOfPartitions;
+        for ( int i = 0; i < partitions.size(); i++ )
+        {
+            Pair<PartitionKey,PartitionKey> partition = partitions.get( i );
+            if ( i > 0 )
+            {
+                assertEquals( partitions.get( i - 1 ).getRight().value, partition.getLeft().value );
+            }
+            long weight = 0;
+            for ( int subRange = partition.getLeft().value; subRange < partition.getRight().value; subRange++ )
+            {
+                weight += weights[subRange];
+            }
+            assertTrue( abs( idealWeight - weight ) <= 2 * maxWeight, "Partition " + partition + " has weight " + weight + " ideal is " + idealWeight );
+        }
+    }
+
     private static int diff( Pair<PartitionKey,PartitionKey> partition )
     {
         return partition.getRight().value - partition.getLeft().value;
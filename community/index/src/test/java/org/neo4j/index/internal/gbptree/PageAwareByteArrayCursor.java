@@ -356,6 +356,8 @@ class PageAwareByteArrayCursor extends PageCursor
         if ( shouldRetry )
         {
             shouldRetry = false;
+            // Like a real page cursor, a retry clears exceptions from the read being retried
+            current.clearCursorException();
 
             // To reset shouldRetry for linked cursor as well
             if ( linkedCursor != null )
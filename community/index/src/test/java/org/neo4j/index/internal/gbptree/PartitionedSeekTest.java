@@ -129,6 +129,35 @@ class PartitionedSeekTest
         }
     }
 
+    @Test
+    void shouldDescendAndPartitionEvenlyWhenRootHasFewChildren() throws IOException
+    {
+        layout = SimpleLongLayout.longLayout().withKeyPadding( 200 ).build();
+        try ( GBPTree<MutableLong,MutableLong> tree = instantiateTree() )
+        {
+            // given a tree of depth 2 where the root has only a couple of children
+            int high = 0;
+            while ( depthOf( tree ) < 2 )
+            {
+                high = insertEntries( tree, high, 100, 1 );
+            }
+            assertTrue( numberOfRootChildren( tree ) < 4 );
+
+            // when
+            int numberOfDesiredPartitions = 8;
+            Collection<Seeker<MutableLong,MutableLong>> seekers = tree.partitionedSeek( layout.key( 0 ), layout.key( high ), numberOfDesiredPartitions );
+
+            // then all partitions should have roughly the same number of entries
+            assertEquals( numberOfDesiredPartitions, seekers.size() );
+            IntList counts = assertEntries( 0, high, seekers );
+            int idealCount = high / numberOfDesiredPartitions;
+            for ( int i = 0; i < counts.size(); i++ )
+            {
+                assertTrue( abs( idealCount - counts.get( i ) ) <= idealCount / 2, "Partition counts " + counts + " differ too much from " + idealCount );
+            }
+        }
+    }
+
     @Test
     void shouldPartitionSeekersDuringTreeModifications() throws IOException
     {
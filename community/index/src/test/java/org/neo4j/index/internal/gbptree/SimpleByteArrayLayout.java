@@ -48,6 +48,7 @@ public class SimpleByteArrayLayout extends TestLayout<RawBytes,RawBytes>
     private final boolean useFirstLongAsSeed;
     private final int largeEntriesSize;
     private final long largeEntryModulo;
+    private final boolean compressKeyPrefixes;
 
     /**
      * This should be default constructor unless you want to exactly control entry size from outside
@@ -86,15 +87,31 @@ public class SimpleByteArrayLayout extends TestLayout<RawBytes,RawBytes>
      */
     SimpleByteArrayLayout( int largeEntriesSize, long largeEntryModulo )
     {
-        this( true, largeEntriesSize, largeEntryModulo );
+        this( true, largeEntriesSize, largeEntryModulo, false );
+    }
+
+    /**
+     * Same as {@link #SimpleByteArrayLayout(int, long)}, but also controls whether or not new trees get prefix compressed leaves.
+     *
+     * @param compressKeyPrefixes whether or not new trees should get prefix compressed leaves, see {@link Layout#compressKeyPrefixes()}.
+     */
+    SimpleByteArrayLayout( int largeEntriesSize, long largeEntryModulo, boolean compressKeyPrefixes )
+    {
+        this( true, largeEntriesSize, largeEntryModulo, compressKeyPrefixes );
     }
 
     private SimpleByteArrayLayout( boolean useFirstLongAsSeed, int largeEntriesSize, long largeEntryModulo )
+    {
+        this( useFirstLongAsSeed, largeEntriesSize, largeEntryModulo, false );
+    }
+
+    private SimpleByteArrayLayout( boolean useFirstLongAsSeed, int largeEntriesSize, long largeEntryModulo, boolean compressKeyPrefixes )
     {
         super( false, 666, 0, 0 );
         this.useFirstLongAsSeed = useFirstLongAsSeed;
         this.largeEntriesSize = largeEntriesSize;
         this.largeEntryModulo = largeEntryModulo;
+        this.compressKeyPrefixes = compressKeyPrefixes;
     }
 
     @Override
@@ -195,6 +212,18 @@ public class SimpleByteArrayLayout extends TestLayout<RawBytes,RawBytes>
         }
     }
 
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return compressKeyPrefixes;
+    }
+
     @Override
     public int compare( RawBytes o1, RawBytes o2 )
     {
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
+
+class TreeNodeDynamicSizePrefixCompressedTest extends TreeNodeDynamicSizeTest
+{
+    private static final long STABLE_GENERATION = 3;
+    private static final long UNSTABLE_GENERATION = 4;
+
+    private final SimpleByteArrayLayout layout = new SimpleByteArrayLayout();
+
+    @Override
+    protected TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> getNode( int pageSize, Layout<RawBytes,RawBytes> layout,
+            OffloadStore<RawBytes,RawBytes> offloadStore )
+    {
+        return new TreeNodeDynamicSizePrefixCompressed<>( pageSize, layout, offloadStore );
+    }
+
+    @Test
+    void shouldStoreCommonPrefixOnce() throws IOException
+    {
+        // given
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout, createOffloadStore() );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 10;
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            node.insertKeyValueAt( cursor, layout.key( i ), layout.value( i ), i, i, STABLE_GENERATION, UNSTABLE_GENERATION );
+        }
+        TreeNode.setKeyCount( cursor, keyCount );
+        int allocOffsetBefore = node.getAllocOffset( cursor );
+
+        // when
+        node.defragmentLeaf( cursor );
+
+        // then
+        // All keys share their 7 first bytes, stored once instead of in every key
+        int allocOffsetAfter = node.getAllocOffset( cursor );
+        int prefixSpace = 1 + Long.BYTES - 1;
+        assertEquals( allocOffsetBefore + keyCount * (Long.BYTES - 1) - prefixSpace, allocOffsetAfter );
+        assertKeysAndValues( node, keyCount );
+        assertEquals( "", node.checkMetaConsistency( cursor, keyCount, LEAF, new GBPTreeConsistencyCheckVisitor.Adaptor<>() ) );
+    }
+
+    @Test
+    void shouldShortenPrefixWhenInsertingKeyNotSharingIt() throws IOException
+    {
+        // given
+        TreeNodeDynamicSizePrefixCompressed<RawBytes,RawBytes> node = getNode( PAGE_SIZE, layout, createOffloadStore() );
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 10;
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            node.insertKeyValueAt( cursor, layout.key( i ), layout.value( i ), i, i, STABLE_GENERATION, UNSTABLE_GENERATION );
+        }
+        TreeNode.setKeyCount( cursor, keyCount );
+        node.defragmentLeaf( cursor );
+        int compressedAllocOffset = node.getAllocOffset( cursor );
+
+        // when
+        long seed = 1L << 40;
+        RawBytes key = layout.key( seed );
+        RawBytes value = layout.value( seed );
+        assertEquals( TreeNode.Overflow.NO, node.leafOverflow( cursor, keyCount, key, value ) );
+        node.insertKeyValueAt( cursor, key, value, keyCount, keyCount, STABLE_GENERATION, UNSTABLE_GENERATION );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+
+        // then
+        // Prefix now is the 2 first bytes, the new key and the 5 bytes more of every other key takes more space than before
+        assertTrue( node.getAllocOffset( cursor ) < compressedAllocOffset - layout.keySize( key ) - layout.valueSize( value ) );
+        assertKeysAndValues( node, keyCount );
+        assertArrayEquals( key.bytes, node.keyAt( cursor, layout.newKey(), keyCount, LEAF ).bytes );
+        assertEquals( "", node.checkMetaConsistency( cursor, keyCount + 1, LEAF, new GBPTreeConsistencyCheckVisitor.Adaptor<>() ) );
+    }
+
+    private void assertKeysAndValues( TreeNode<RawBytes,RawBytes> node, int keyCount )
+    {
+        RawBytes readKey = layout.newKey();
+        RawBytes readValue = layout.newValue();
+        for ( int i = 0; i < keyCount; i++ )
+        {
+            node.keyValueAt( cursor, readKey, readValue, i );
+            assertArrayEquals( layout.key( i ).bytes, readKey.bytes );
+            assertArrayEquals( layout.value( i ).bytes, readValue.bytes );
+        }
+    }
+}
@@ -580,6 +580,58 @@ public abstract class TreeNodeTestBase<KEY,VALUE>
         assertContent( expectedKeys, expectedValues, expectedKeyCount );
     }
 
+    @Test
+    void leafUnderflowAfterRemoveMustPredictLeafUnderflow() throws IOException
+    {
+        // GIVEN
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 0;
+        KEY newKey = key( random.nextLong() );
+        VALUE newValue = value( random.nextLong() );
+        while ( node.leafOverflow( cursor, keyCount, newKey, newValue ) == Overflow.NO )
+        {
+            node.insertKeyValueAt( cursor, newKey, newValue, keyCount, keyCount, STABLE_GENERATION, UNSTABLE_GENERATION );
+            TreeNode.setKeyCount( cursor, ++keyCount );
+            newKey = key( random.nextLong() );
+            newValue = value( random.nextLong() );
+        }
+
+        // WHEN/THEN
+        while ( keyCount > 0 )
+        {
+            int position = random.nextInt( keyCount );
+            boolean predictedUnderflow = node.leafUnderflowAfterRemove( cursor, keyCount, position );
+            node.removeKeyValueAt( cursor, position, keyCount, STABLE_GENERATION, UNSTABLE_GENERATION );
+            TreeNode.setKeyCount( cursor, --keyCount );
+            assertEquals( node.leafUnderflow( cursor, keyCount ), predictedUnderflow, "Key count after remove " + keyCount );
+        }
+    }
+
+    @Test
+    void reachedFillFactorMustLeaveRoomInLeaf() throws IOException
+    {
+        // GIVEN
+        node.initializeLeaf( cursor, STABLE_GENERATION, UNSTABLE_GENERATION );
+        int keyCount = 0;
+        KEY newKey = key( random.nextLong() );
+        VALUE newValue = value( random.nextLong() );
+
+        // WHEN
+        while ( !node.reachedFillFactor( cursor, keyCount, LEAF, 0.5 ) )
+        {
+            assertEquals( Overflow.NO, node.leafOverflow( cursor, keyCount, newKey, newValue ) );
+            node.insertKeyValueAt( cursor, newKey, newValue, keyCount, keyCount, STABLE_GENERATION, UNSTABLE_GENERATION );
+            TreeNode.setKeyCount( cursor, ++keyCount );
+            newKey = key( random.nextLong() );
+            newValue = value( random.nextLong() );
+        }
+
+        // THEN
+        assertTrue( keyCount > 0 );
+        assertFalse( node.reachedFillFactor( cursor, keyCount, LEAF, 1.0 ) );
+        assertTrue( node.reachedFillFactor( cursor, keyCount, LEAF, 0.1 ) );
+    }
+
     private void assertContent( List<KEY> expectedKeys, List<VALUE> expectedValues, int expectedKeyCount )
     {
         KEY actualKey = layout.newKey();
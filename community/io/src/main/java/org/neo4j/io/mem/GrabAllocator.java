@@ -21,6 +21,8 @@ package org.neo4j.io.mem;
 
 import java.lang.ref.Cleaner;
 
+import org.neo4j.internal.nativeimpl.AnonymousMemory;
+import org.neo4j.internal.nativeimpl.AnonymousMemory.NumaPolicy;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.memory.MemoryAllocationTracker;
 
@@ -30,6 +32,10 @@ import static org.neo4j.util.FeatureToggles.getInteger;
 /**
  * This memory allocator is allocating memory in large segments, called "grabs", and the memory returned by the memory
  * manager is page aligned, and plays well with transparent huge pages and other operating system optimisations.
+ * <p>
+ * The grabs can also be mapped directly from the operating system, to have them backed by explicit huge pages, which
+ * saves TLB misses when accessing the memory, and to place them on NUMA nodes by a given {@link NumaPolicy}. If the
+ * memory cannot be mapped that way, the grabs are allocated as usual.
  */
 public final class GrabAllocator implements MemoryAllocator
 {
@@ -48,7 +54,23 @@ public final class GrabAllocator implements MemoryAllocator
      */
     GrabAllocator( long expectedMaxMemory, MemoryAllocationTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this( expectedMaxMemory, memoryTracker, false, NumaPolicy.DEFAULT );
+    }
+
+    /**
+     * Create a new GrabAllocator that will allocate the given amount of memory, to pointers that are aligned to the
+     * given alignment size.
+     *
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate. The
+     * actual amount of memory used can end up greater than this value, if some of it gets wasted on alignment padding.
+     * @param memoryTracker memory usage tracker
+     * @param hugePages {@code true} if the memory should be backed by huge pages. The grabs are then made in multiples
+     * of the huge page size.
+     * @param numaPolicy the placement of the memory on the NUMA nodes of the system.
+     */
+    GrabAllocator( long expectedMaxMemory, MemoryAllocationTracker memoryTracker, boolean hugePages, NumaPolicy numaPolicy )
+    {
+        this.grabs = new Grabs( expectedMaxMemory, new GrabMemory( memoryTracker, hugePages, numaPolicy ) );
         this.cleanable = globalCleaner.register( this, new GrabsDeallocator( grabs ) );
     }
 
@@ -81,25 +103,30 @@ public final class GrabAllocator implements MemoryAllocator
         public final Grab next;
         private final long address;
         private final long limit;
-        private final MemoryAllocationTracker memoryTracker;
+        private final GrabMemory memory;
+        private final boolean mapped;
         private long nextPointer;
 
-        Grab( Grab next, long size, MemoryAllocationTracker memoryTracker )
+        Grab( Grab next, long size, GrabMemory memory )
         {
             this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
+            size = memory.roundUp( size );
+            long mappedAddress = memory.map( size );
+            this.mapped = mappedAddress != 0;
+            this.address = mapped ? mappedAddress : UnsafeUtil.allocateMemory( size, memory.memoryTracker );
             this.limit = address + size;
-            this.memoryTracker = memoryTracker;
+            this.memory = memory;
             nextPointer = address;
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryAllocationTracker memoryTracker )
+        Grab( Grab next, long address, long limit, long nextPointer, GrabMemory memory, boolean mapped )
         {
             this.next = next;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
-            this.memoryTracker = memoryTracker;
+            this.memory = memory;
+            this.mapped = mapped;
         }
 
         private long nextAligned( long pointer, long alignment )
@@ -125,7 +152,14 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            if ( mapped )
+            {
+                memory.unmap( address, limit - address );
+            }
+            else
+            {
+                UnsafeUtil.free( address, limit - address, memory.memoryTracker );
+            }
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -135,7 +169,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, address, limit, nextPointer, memory, mapped );
         }
 
         @Override
@@ -155,14 +189,14 @@ public final class GrabAllocator implements MemoryAllocator
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
 
-        private final MemoryAllocationTracker memoryTracker;
+        private final GrabMemory memory;
         private long expectedMaxMemory;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryAllocationTracker memoryTracker )
+        Grabs( long expectedMaxMemory, GrabMemory memory )
         {
             this.expectedMaxMemory = expectedMaxMemory;
-            this.memoryTracker = memoryTracker;
+            this.memory = memory;
         }
 
         long usedMemory()
@@ -212,12 +246,12 @@ public final class GrabAllocator implements MemoryAllocator
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = new Grab( nextGrab, grabSize, memory );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = bytes + alignment;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = new Grab( nextGrab, grabSize, memory );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -230,7 +264,7 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < bytes )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = new Grab( head, grabSize, memory );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
@@ -240,13 +274,66 @@ public final class GrabAllocator implements MemoryAllocator
                     grab.free();
                     grabSize = bytes + alignment;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = new Grab( head, grabSize, memory );
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
         }
     }
 
+    /**
+     * Where the memory of the grabs comes from.
+     */
+    private static final class GrabMemory
+    {
+        private final MemoryAllocationTracker memoryTracker;
+        private final boolean hugePages;
+        private final NumaPolicy numaPolicy;
+        private final boolean useMappings;
+
+        GrabMemory( MemoryAllocationTracker memoryTracker, boolean hugePages, NumaPolicy numaPolicy )
+        {
+            this.memoryTracker = memoryTracker;
+            this.hugePages = hugePages;
+            this.numaPolicy = numaPolicy;
+            this.useMappings = (hugePages || numaPolicy != NumaPolicy.DEFAULT) && AnonymousMemory.isAvailable();
+        }
+
+        long roundUp( long size )
+        {
+            if ( !useMappings || !hugePages )
+            {
+                return size;
+            }
+            // Any remainder of the last huge page would otherwise be wasted.
+            long hugePageSize = AnonymousMemory.hugePageSize();
+            return (size + hugePageSize - 1) / hugePageSize * hugePageSize;
+        }
+
+        /**
+         * @return the address of the mapped memory, or zero if the memory should be allocated as usual.
+         */
+        long map( long size )
+        {
+            if ( !useMappings )
+            {
+                return 0;
+            }
+            long address = AnonymousMemory.map( size, hugePages, numaPolicy );
+            if ( address != 0 )
+            {
+                UnsafeUtil.allocatedExternalMemory( address, size, memoryTracker );
+            }
+            return address;
+        }
+
+        void unmap( long address, long size )
+        {
+            UnsafeUtil.releasedExternalMemory( address, size, memoryTracker );
+            AnonymousMemory.unmap( address, size );
+        }
+    }
+
     private static Cleaner globalCleaner()
     {
         return Cleaner.create();
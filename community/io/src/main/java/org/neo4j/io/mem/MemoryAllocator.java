@@ -19,6 +19,7 @@
  */
 package org.neo4j.io.mem;
 
+import org.neo4j.internal.nativeimpl.AnonymousMemory.NumaPolicy;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.memory.MemoryAllocationTracker;
 
@@ -32,6 +33,15 @@ public interface MemoryAllocator
         return new GrabAllocator( ByteUnit.parse( expectedMemory ), memoryTracker );
     }
 
+    /**
+     * Create an allocator whose memory is backed by huge pages, and placed on NUMA nodes by the given policy, as far as
+     * the operating system allows. Memory that cannot be allocated that way is allocated as usual.
+     */
+    static MemoryAllocator createAllocator( String expectedMemory, MemoryAllocationTracker memoryTracker, boolean hugePages, NumaPolicy numaPolicy )
+    {
+        return new GrabAllocator( ByteUnit.parse( expectedMemory ), memoryTracker, hugePages, numaPolicy );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
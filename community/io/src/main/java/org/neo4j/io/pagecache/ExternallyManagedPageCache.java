@@ -84,6 +84,18 @@ public class ExternallyManagedPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public void flushAndForce( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        delegate.flushAndForce( files, limiter );
+    }
+
+    @Override
+    public void flush( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        delegate.flush( files, limiter );
+    }
+
     @Override
     public int pageSize()
     {
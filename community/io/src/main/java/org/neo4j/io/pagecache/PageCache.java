@@ -59,6 +59,7 @@ public interface PageCache extends AutoCloseable
      * the {@link StandardOpenOption#TRUNCATE_EXISTING} will truncate any existing file <em>iff</em> it has not already
      * been mapped.
      * The {@link StandardOpenOption#DELETE_ON_CLOSE} will cause the file to be deleted after the last unmapping.
+     * A {@link PageWriteBarrier} will be called before any page of the file is written.
      * All other options are either silently ignored, or will cause an exception to be thrown.
      * @throws java.nio.file.NoSuchFileException if the given file does not exist, and the
      * {@link StandardOpenOption#CREATE} option was not specified.
@@ -86,6 +87,7 @@ public interface PageCache extends AutoCloseable
      * the {@link StandardOpenOption#TRUNCATE_EXISTING} will truncate any existing file <em>iff</em> it has not already
      * been mapped.
      * The {@link StandardOpenOption#DELETE_ON_CLOSE} will cause the file to be deleted after the last unmapping.
+     * A {@link PageWriteBarrier} will be called before any page of the file is written.
      * All other options are either silently ignored, or will cause an exception to be thrown.
      * @throws java.nio.file.NoSuchFileException if the given file does not exist, and the
      * {@link StandardOpenOption#CREATE} option was not specified.
@@ -138,6 +140,43 @@ public interface PageCache extends AutoCloseable
      */
     void flushAndForce( IOLimiter limiter ) throws IOException;
 
+    /**
+     * Flush all dirty pages of the given files, which must have been mapped by this page cache, and force them to
+     * storage. The rate of IO is limited as advised by the given IOPSLimiter.
+     * <p>
+     * Page cache implementations are free to flush several of the files, or several parts of a large file, at the same
+     * time. The default implementation flushes the files one after another.
+     *
+     * @param files The {@link PagedFile}s to flush.
+     * @param limiter The {@link IOLimiter} that determines if pauses or sleeps should be injected into the flushing
+     * process to keep the IO rate down. The limiter may be called concurrently by multiple flushing threads.
+     */
+    default void flushAndForce( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        for ( PagedFile file : files )
+        {
+            file.flushAndForce( limiter );
+        }
+    }
+
+    /**
+     * Write all dirty pages of the given files, which must have been mapped by this page cache, without forcing the
+     * files to storage. The rate of IO is limited as advised by the given IOPSLimiter.
+     * <p>
+     * This lets the writes of dirty pages be spread out over time, ahead of a later {@link #flushAndForce(List, IOLimiter)}
+     * that then has less left to do. Pages that are dirtied while the files are flushed may or may not be written.
+     * Page cache implementations that cannot write pages without forcing them, flush and force the files instead, which
+     * is what the default implementation does.
+     *
+     * @param files The {@link PagedFile}s to flush.
+     * @param limiter The {@link IOLimiter} that determines if pauses or sleeps should be injected into the flushing
+     * process to keep the IO rate down. The limiter may be called concurrently by multiple flushing threads.
+     */
+    default void flush( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        flushAndForce( files, limiter );
+    }
+
     /**
      * Close the page cache to prevent any future mapping of files.
      * This also releases any internal resources, including the {@link PageSwapperFactory} through its
@@ -38,5 +38,13 @@ public enum PageCacheOpenOptions implements OpenOption
     /**
      * Mapped file will only use a single channel, overriding the otherwise configured striping amount, e.g. one channel per core.
      */
-    NO_CHANNEL_STRIPING
+    NO_CHANNEL_STRIPING,
+
+    /**
+     * The file will only be read through the returned {@link PagedFile}, and is not expected to change while it is
+     * mapped. Page caches that support it, may then serve reads straight from a memory mapping of the file, instead of
+     * copying its pages into memory of their own. Page caches that do not, will map the file as usual.
+     * Write locks cannot be taken on pages of files that are mapped read-only by such a page cache.
+     */
+    READ_ONLY
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.util.Objects;
+
+/**
+ * The share of the page cache that a mapped file is entitled to, counted in cache pages.
+ * <p>
+ * When the page cache is under eviction pressure, the pages of a file that has no more than its reserved number of
+ * pages in memory are passed over by eviction, for as long as other pages can be evicted instead. The pages of a file
+ * that has more than its maximum number of pages in memory are evicted first, regardless of how recently they were used.
+ * <p>
+ * Both bounds are enforced by page eviction, rather than by page faults, so a file can briefly go beyond its maximum,
+ * and a reservation is given up when nothing else can be evicted.
+ */
+public final class PageQuota
+{
+    /**
+     * No reservation, and no limit.
+     */
+    public static final PageQuota NONE = new PageQuota( 0, Long.MAX_VALUE );
+
+    private final long reservedPages;
+    private final long maxPages;
+
+    private PageQuota( long reservedPages, long maxPages )
+    {
+        this.reservedPages = reservedPages;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * @param reservedPages The number of pages that eviction will try to leave in memory for the file.
+     * @param maxPages The number of pages that the file can have in memory, before its pages are evicted first.
+     * @return the page quota.
+     */
+    public static PageQuota of( long reservedPages, long maxPages )
+    {
+        if ( reservedPages < 0 )
+        {
+            throw new IllegalArgumentException( "Reserved pages cannot be negative, but was " + reservedPages );
+        }
+        if ( maxPages < 1 || maxPages < reservedPages )
+        {
+            throw new IllegalArgumentException(
+                    "Max pages must be positive and no less than the reserved pages (" + reservedPages + "), but was " + maxPages );
+        }
+        return reservedPages == 0 && maxPages == Long.MAX_VALUE ? NONE : new PageQuota( reservedPages, maxPages );
+    }
+
+    public long reservedPages()
+    {
+        return reservedPages;
+    }
+
+    public long maxPages()
+    {
+        return maxPages;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PageQuota that = (PageQuota) o;
+        return reservedPages == that.reservedPages && maxPages == that.maxPages;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( reservedPages, maxPages );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageQuota{reservedPages=" + reservedPages + ", maxPages=" + maxPages + "}";
+    }
+}
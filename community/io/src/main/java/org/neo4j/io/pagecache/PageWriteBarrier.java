@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.OpenOption;
+
+/**
+ * An {@link OpenOption} for {@link PageCache#map(File, int, OpenOption...)}, that the page cache calls right before it
+ * writes any page of the mapped file to the file, whether to evict the page or to flush it.
+ * <p>
+ * This lets a write-ahead log make sure that the changes it holds are durable, before any pages with those changes
+ * can reach storage, even if the log is not forced when the changes are made. The barrier is called while the page
+ * that is about to be written is exclusively locked, so no changes can be made to the page between the barrier and
+ * the page write. The barrier must therefore be cheap when it has nothing to do, and it must not access the page
+ * cache. If the file is already mapped, the barrier of the existing mapping is kept. Page caches that never write
+ * pages of the file ignore the barrier.
+ */
+public interface PageWriteBarrier extends OpenOption
+{
+    /**
+     * Called before pages of the mapped file are written.
+     *
+     * @throws IOException if the barrier could not be passed, in which case the pages are not written.
+     */
+    void beforePageWrite() throws IOException;
+}
@@ -21,6 +21,9 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.LongConsumer;
+
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 
 /**
  * The representation of a file that has been mapped into the associated page cache.
@@ -59,9 +62,11 @@ public interface PagedFile extends AutoCloseable
      */
     int PF_NO_GROW = 1 << 2;
     /**
-     * Read-ahead hint for sequential forward scanning.
+     * Read-ahead hint for sequential forward scanning. Read cursors will fault in the pages that follow the current
+     * page, in batches, from the very first call to {@link PageCursor#next()}. Without this flag, read cursors only
+     * start doing read-ahead once they have visited a number of consecutive pages.
      */
-    int PF_READ_AHEAD = 1 << 3; // TBD
+    int PF_READ_AHEAD = 1 << 3;
     /**
      * Do not load in the page if it is not loaded already. The methods {@link PageCursor#next()} and
      * {@link PageCursor#next(long)} will always return {@code true} for pages that are within the range of the file,
@@ -73,9 +78,11 @@ public interface PagedFile extends AutoCloseable
      */
     int PF_NO_FAULT = 1 << 4;
     /**
-     * Do not update page access statistics.
+     * Do not update page access statistics. This marks the accesses as low-priority, such that the pages touched by
+     * large scans do not push more frequently used pages out of the page cache. Pages that are faulted in by transient
+     * cursors are the first candidates for eviction.
      */
-    int PF_TRANSIENT = 1 << 5; // TBD
+    int PF_TRANSIENT = 1 << 5;
     /**
      * Flush pages more aggressively, after they have been dirtied by a write cursor.
      */
@@ -174,6 +181,37 @@ public interface PagedFile extends AutoCloseable
      */
     long getLastPageId() throws IOException;
 
+    /**
+     * Load the given range of pages into the page cache, if they are not already in memory, without pinning them.
+     * <p>
+     * Runs of consecutive pages that are not in memory are read from the file with vectored IO, which makes this a lot
+     * cheaper than faulting the same pages in one at a time through a {@link PageCursor}. Pages beyond the end of the
+     * file are ignored, and so are pages that are concurrently being faulted in by another thread.
+     *
+     * @param pageId The file-page-id of the first page to load.
+     * @param count The number of pages to load.
+     * @return The number of pages that were faulted in by this call.
+     * @throws IOException if there was an error accessing the underlying file.
+     */
+    int touch( long pageId, int count ) throws IOException;
+
+    /**
+     * Visit the file-page-ids, in ascending order, of the pages of this file that are currently in memory and that
+     * have been accessed since they were last considered for eviction.
+     * <p>
+     * The result is a racy snapshot: pages can be faulted in or evicted concurrently with the visit.
+     *
+     * @param visitor The consumer of the file-page-ids.
+     * @throws IOException if this file has been unmapped.
+     */
+    void visitResidentPages( LongConsumer visitor ) throws IOException;
+
+    /**
+     * Get the live page counters of this file, such as the number of its pages that are currently in memory, and the
+     * {@link PageQuota} that the page cache gave it when it was mapped.
+     */
+    PageFileCounters pageFileCounters();
+
     /**
      * Release a handle to a paged file.
      * <p>
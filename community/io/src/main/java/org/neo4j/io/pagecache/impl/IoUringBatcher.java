@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.neo4j.internal.nativeimpl.IoUring;
+
+/**
+ * Submits the single page reads and writes of all {@link IoUringPageSwapper swappers} of a factory, in batches.
+ * <p>
+ * Every thread puts its operation in a shared queue, and then takes the combiner lock. The thread that holds the lock
+ * submits everything that has been queued up, with one system call per batch, and hands the results back to the
+ * threads that queued the operations. Threads that find their operation already completed, once they get the lock,
+ * just return the result. This way, single page IO from concurrent threads is submitted to the kernel together,
+ * without any added latency when there is no concurrency.
+ */
+class IoUringBatcher
+{
+    private final IoUringPageSwapperFactory factory;
+    private final ReentrantLock combinerLock = new ReentrantLock();
+    private final ConcurrentLinkedQueue<Operation> queue = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Operation> operations = ThreadLocal.withInitial( Operation::new );
+
+    // The batch being submitted. Only accessed while holding the combiner lock.
+    private final Operation[] batch;
+    private final boolean[] writes;
+    private final int[] fds;
+    private final long[] fileOffsets;
+    private final long[] bufferAddresses;
+    private final int[] bufferSizes;
+    private final long[] results;
+
+    IoUringBatcher( IoUringPageSwapperFactory factory, int batchSize )
+    {
+        this.factory = factory;
+        batch = new Operation[batchSize];
+        writes = new boolean[batchSize];
+        fds = new int[batchSize];
+        fileOffsets = new long[batchSize];
+        bufferAddresses = new long[batchSize];
+        bufferSizes = new int[batchSize];
+        results = new long[batchSize];
+    }
+
+    /**
+     * Read or write a single buffer, together with the operations of any other threads that are doing the same.
+     *
+     * @return the number of bytes transferred.
+     * @throws IOException if the operation failed.
+     */
+    long submit( boolean write, int fd, long fileOffset, long bufferAddress, int bufferSize ) throws IOException
+    {
+        // A thread only has one operation in flight at a time, so it can reuse the same operation object.
+        Operation operation = operations.get();
+        operation.prepare( write, fd, fileOffset, bufferAddress, bufferSize );
+        queue.offer( operation );
+        combinerLock.lock();
+        try
+        {
+            // An operation is either still in the queue, or has been completed by a previous holder of the lock.
+            while ( !operation.completed )
+            {
+                submitQueued();
+            }
+        }
+        finally
+        {
+            combinerLock.unlock();
+        }
+        return operation.result();
+    }
+
+    private void submitQueued()
+    {
+        int count = 0;
+        Operation operation;
+        while ( count < batch.length && (operation = queue.poll()) != null )
+        {
+            batch[count] = operation;
+            writes[count] = operation.write;
+            fds[count] = operation.fd;
+            fileOffsets[count] = operation.fileOffset;
+            bufferAddresses[count] = operation.bufferAddress;
+            bufferSizes[count] = operation.bufferSize;
+            count++;
+        }
+        try
+        {
+            IoUring ring = factory.acquireRing();
+            try
+            {
+                ring.submitBatch( count, writes, fds, fileOffsets, bufferAddresses, bufferSizes, results );
+            }
+            catch ( Throwable t )
+            {
+                factory.discardRing( ring );
+                throw t;
+            }
+            factory.releaseRing( ring );
+            for ( int i = 0; i < count; i++ )
+            {
+                batch[i].complete( results[i], null );
+            }
+        }
+        catch ( Throwable t )
+        {
+            // Every operation we took from the queue must be completed, or its thread would wait for it forever.
+            for ( int i = 0; i < count; i++ )
+            {
+                batch[i].complete( 0, t );
+            }
+        }
+        finally
+        {
+            Arrays.fill( batch, 0, count, null );
+        }
+    }
+
+    private static class Operation
+    {
+        private boolean write;
+        private int fd;
+        private long fileOffset;
+        private long bufferAddress;
+        private int bufferSize;
+        private long result;
+        private Throwable failure;
+        private boolean completed;
+
+        void prepare( boolean write, int fd, long fileOffset, long bufferAddress, int bufferSize )
+        {
+            this.write = write;
+            this.fd = fd;
+            this.fileOffset = fileOffset;
+            this.bufferAddress = bufferAddress;
+            this.bufferSize = bufferSize;
+            result = 0;
+            failure = null;
+            completed = false;
+        }
+
+        void complete( long result, Throwable failure )
+        {
+            this.result = result;
+            this.failure = failure;
+            completed = true;
+        }
+
+        long result() throws IOException
+        {
+            if ( failure != null )
+            {
+                // The failure may be shared by every operation of the batch, so each thread gets an exception of its own.
+                throw new IOException( failure.getMessage(), failure );
+            }
+            if ( result < 0 )
+            {
+                throw new IOException( (write ? "writev" : "readv") + " through io_uring failed with error number " + -result + "." );
+            }
+            return result;
+        }
+    }
+}
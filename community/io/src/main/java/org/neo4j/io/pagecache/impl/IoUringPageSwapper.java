@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.internal.nativeimpl.IoUring;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+
+/**
+ * A {@link SingleFilePageSwapper} that does its reads, writes and syncs through io_uring. Vectored reads and writes
+ * are split into a number of entries, that are all submitted to the kernel with a single system call, and may be
+ * processed by the kernel in parallel. Single page reads and writes are batched with those of other threads, by the
+ * {@link IoUringBatcher} of the factory.
+ * <p>
+ * The io_uring operations work on a file descriptor of a channel that is dedicated to this purpose. Unlike the channels
+ * used by the {@link SingleFilePageSwapper}, this channel is never closed by thread interrupts, so its file descriptor
+ * stays valid for the life time of the swapper.
+ * <p>
+ * Reads that go beyond the end of the file, reads or writes that come up short, and any operation after the swapper
+ * has been closed, are left to the {@link SingleFilePageSwapper}, which knows how to deal with those.
+ */
+class IoUringPageSwapper extends SingleFilePageSwapper
+{
+    private final IoUringPageSwapperFactory factory;
+    private final StoreChannel ringChannel;
+    private final int fd;
+    private final int filePageSize;
+    private volatile boolean ringChannelClosed;
+
+    IoUringPageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction, boolean noChannelStriping,
+            IoUringPageSwapperFactory factory, StoreChannel ringChannel, int fd ) throws IOException
+    {
+        super( file, fs, filePageSize, onEviction, noChannelStriping, false );
+        this.factory = factory;
+        this.ringChannel = ringChannel;
+        this.fd = fd;
+        this.filePageSize = filePageSize;
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        long fileOffset = pageIdToPosition( filePageId );
+        if ( !ringChannelClosed && fileOffset + filePageSize <= getCurrentFileSize() &&
+                factory.submitSinglePage( false, fd, fileOffset, bufferAddress, filePageSize ) == filePageSize )
+        {
+            return filePageSize;
+        }
+        return super.read( filePageId, bufferAddress );
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        long fileOffset = pageIdToPosition( startFilePageId );
+        long expectedBytes = (long) length * filePageSize;
+        if ( !ringChannelClosed && fileOffset + expectedBytes <= getCurrentFileSize() )
+        {
+            IoUring ring = factory.acquireRing();
+            long bytesRead;
+            try
+            {
+                bytesRead = ring.read( fd, fileOffset, bufferAddresses, arrayOffset, length, filePageSize );
+            }
+            catch ( Throwable t )
+            {
+                factory.discardRing( ring );
+                throw t;
+            }
+            factory.releaseRing( ring );
+            if ( bytesRead == expectedBytes )
+            {
+                return bytesRead;
+            }
+        }
+        return super.read( startFilePageId, bufferAddresses, arrayOffset, length );
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        if ( ringChannelClosed )
+        {
+            return super.write( filePageId, bufferAddress );
+        }
+        long fileOffset = pageIdToPosition( filePageId );
+        increaseFileSizeTo( fileOffset + filePageSize );
+        if ( factory.submitSinglePage( true, fd, fileOffset, bufferAddress, filePageSize ) == filePageSize )
+        {
+            return filePageSize;
+        }
+        return super.write( filePageId, bufferAddress );
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        if ( ringChannelClosed )
+        {
+            return super.write( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+        long fileOffset = pageIdToPosition( startFilePageId );
+        long expectedBytes = (long) length * filePageSize;
+        increaseFileSizeTo( fileOffset + expectedBytes );
+        IoUring ring = factory.acquireRing();
+        long bytesWritten;
+        try
+        {
+            bytesWritten = ring.write( fd, fileOffset, bufferAddresses, arrayOffset, length, filePageSize );
+        }
+        catch ( Throwable t )
+        {
+            factory.discardRing( ring );
+            throw t;
+        }
+        factory.releaseRing( ring );
+        if ( bytesWritten == expectedBytes )
+        {
+            return bytesWritten;
+        }
+        // Writing the pages again is harmless, and the fallback knows how to deal with short writes.
+        return super.write( startFilePageId, bufferAddresses, arrayOffset, length );
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        if ( ringChannelClosed )
+        {
+            super.force();
+            return;
+        }
+        IoUring ring = factory.acquireRing();
+        try
+        {
+            ring.dataSync( fd );
+        }
+        catch ( Throwable t )
+        {
+            factory.discardRing( ring );
+            throw t;
+        }
+        factory.releaseRing( ring );
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        ringChannelClosed = true;
+        try
+        {
+            super.close();
+        }
+        finally
+        {
+            ringChannel.close();
+        }
+    }
+}
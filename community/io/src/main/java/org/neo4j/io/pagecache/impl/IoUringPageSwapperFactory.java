@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.internal.nativeimpl.IoUring;
+import org.neo4j.io.IOUtils;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+
+import static org.neo4j.io.fs.FileSystemAbstraction.INVALID_FILE_DESCRIPTOR;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A factory for {@link IoUringPageSwapper} instances.
+ * <p>
+ * If io_uring is not available on this system, or if the file system does not give us file descriptors, or if direct
+ * IO is requested, then this factory creates plain {@link SingleFilePageSwapper} instances instead.
+ * <p>
+ * An io_uring instance can only be used by one thread at a time, so the factory keeps a pool of them, that all the
+ * swappers share. The pool grows to the number of threads that concurrently do IO through the swappers. A ring that
+ * failed an operation may have entries in flight that were never completed, so it is closed instead of going back
+ * into the pool.
+ * <p>
+ * Single page reads and writes, from all swappers, go through a shared {@link IoUringBatcher}, so that those of
+ * concurrent threads are submitted together.
+ */
+@ServiceProvider
+public class IoUringPageSwapperFactory extends SingleFilePageSwapperFactory
+{
+    private static final int ringEntries = getInteger( IoUringPageSwapperFactory.class, "ringEntries", 16 );
+
+    private final ConcurrentLinkedQueue<IoUring> rings = new ConcurrentLinkedQueue<>();
+    private final IoUringBatcher batcher = new IoUringBatcher( this, ringEntries );
+    private FileSystemAbstraction fs;
+    private volatile boolean closed;
+
+    @Override
+    public void open( FileSystemAbstraction fs )
+    {
+        super.open( fs );
+        this.fs = fs;
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean noChannelStriping,
+            boolean useDirectIO ) throws IOException
+    {
+        if ( useDirectIO || !IoUring.isAvailable() )
+        {
+            return super.createPageSwapper( file, filePageSize, onEviction, createIfNotExist, noChannelStriping, useDirectIO );
+        }
+        if ( !fs.fileExists( file ) && !createIfNotExist )
+        {
+            throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+        }
+        // Opening the channel for the io_uring operations also creates the file, if it does not already exist.
+        StoreChannel ringChannel = fs.write( file );
+        int fd = fs.getFileDescriptor( ringChannel );
+        if ( fd == INVALID_FILE_DESCRIPTOR )
+        {
+            ringChannel.close();
+            return super.createPageSwapper( file, filePageSize, onEviction, createIfNotExist, noChannelStriping, false );
+        }
+        try
+        {
+            return new IoUringPageSwapper( file, fs, filePageSize, onEviction, noChannelStriping, this, ringChannel, fd );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            IOUtils.closeAllSilently( ringChannel );
+            throw e;
+        }
+    }
+
+    IoUring acquireRing() throws IOException
+    {
+        if ( closed )
+        {
+            throw new IOException( "The page swapper factory has been closed." );
+        }
+        IoUring ring = rings.poll();
+        return ring != null ? ring : IoUring.create( ringEntries );
+    }
+
+    void releaseRing( IoUring ring )
+    {
+        rings.offer( ring );
+        if ( closed )
+        {
+            closeRings();
+        }
+    }
+
+    void discardRing( IoUring ring )
+    {
+        ring.close();
+    }
+
+    long submitSinglePage( boolean write, int fd, long fileOffset, long bufferAddress, int bufferSize ) throws IOException
+    {
+        return batcher.submit( write, fd, fileOffset, bufferAddress, bufferSize );
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        closeRings();
+        super.close();
+    }
+
+    private void closeRings()
+    {
+        IoUring ring;
+        while ( (ring = rings.poll()) != null )
+        {
+            ring.close();
+        }
+    }
+
+    @Override
+    public String getName()
+    {
+        return "io_uring";
+    }
+}
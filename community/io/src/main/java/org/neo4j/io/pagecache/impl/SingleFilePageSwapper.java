@@ -240,7 +240,7 @@ public class SingleFilePageSwapper implements PageSwapper
         }
     }
 
-    private void increaseFileSizeTo( long newFileSize )
+    void increaseFileSizeTo( long newFileSize )
     {
         long currentFileSize;
         do
@@ -251,7 +251,7 @@ public class SingleFilePageSwapper implements PageSwapper
                 this, FILE_SIZE_OFFSET, currentFileSize, newFileSize ) );
     }
 
-    private long getCurrentFileSize()
+    long getCurrentFileSize()
     {
         return UnsafeUtil.getLongVolatile( this, FILE_SIZE_OFFSET );
     }
@@ -429,9 +429,9 @@ public class SingleFilePageSwapper implements PageSwapper
         long bytesRead = lockPositionReadVectorAndRetryIfInterrupted( startFilePageId, channel, fileOffset, srcs, MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
         if ( bytesRead == -1 )
         {
-            for ( long address : bufferAddresses )
+            for ( int i = 0; i < length; i++ )
             {
-                UnsafeUtil.setMemory( address, filePageSize, MuninnPageCache.ZERO_BYTE );
+                UnsafeUtil.setMemory( bufferAddresses[arrayOffset + i], filePageSize, MuninnPageCache.ZERO_BYTE );
             }
             return 0;
         }
@@ -670,7 +670,7 @@ public class SingleFilePageSwapper implements PageSwapper
         return file;
     }
 
-    private long pageIdToPosition( long pageId )
+    long pageIdToPosition( long pageId )
     {
         return filePageSize * pageId;
     }
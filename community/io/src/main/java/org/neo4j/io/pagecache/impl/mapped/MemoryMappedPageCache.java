@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
+
+import static org.neo4j.io.fs.FileSystemAbstraction.INVALID_FILE_DESCRIPTOR;
+
+/**
+ * A PageCache that serves the files that are mapped with {@link PageCacheOpenOptions#READ_ONLY} straight from memory
+ * mappings of those files, and leaves all other files to another page cache.
+ * <p>
+ * Reads of memory mapped files go through the page cache of the operating system, without a page fault or a copy into
+ * memory of our own. This is a good fit for read-only databases and offline tools, that would otherwise have to pay
+ * for both the memory and the copying, to hold the same pages in two places.
+ * <p>
+ * A file is only memory mapped if it exists, is not also requested to be created, truncated or deleted, is not
+ * already mapped by the other page cache, and the file system gives us a file descriptor for it. Otherwise the file is
+ * left to the other page cache, even if it is mapped read-only.
+ * <p>
+ * Memory mapped files cannot be written to. Page cursors that ask for write locks are refused, and so are attempts to
+ * map a file for writing, while it is memory mapped. The memory mappings are released by the garbage collector once
+ * the files have been unmapped, and all their page cursors are gone.
+ */
+public class MemoryMappedPageCache implements PageCache
+{
+    private final PageCache delegate;
+    private final FileSystemAbstraction fs;
+    // Guarded by 'this'.
+    private final Map<File,MemoryMappedPagedFile> mappedFiles = new HashMap<>();
+
+    public MemoryMappedPageCache( PageCache delegate, FileSystemAbstraction fs )
+    {
+        this.delegate = delegate;
+        this.fs = fs;
+    }
+
+    @Override
+    public synchronized PagedFile map( File file, VersionContextSupplier versionContextSupplier, int pageSize, OpenOption... openOptions )
+            throws IOException
+    {
+        File canonicalFile = file.getCanonicalFile();
+        boolean readOnly = false;
+        boolean anyPageSize = false;
+        boolean changesFile = false;
+        for ( OpenOption option : openOptions )
+        {
+            if ( option.equals( PageCacheOpenOptions.READ_ONLY ) )
+            {
+                readOnly = true;
+            }
+            else if ( option.equals( PageCacheOpenOptions.ANY_PAGE_SIZE ) )
+            {
+                anyPageSize = true;
+            }
+            else if ( option.equals( StandardOpenOption.CREATE ) || option.equals( StandardOpenOption.TRUNCATE_EXISTING ) ||
+                      option.equals( StandardOpenOption.DELETE_ON_CLOSE ) )
+            {
+                changesFile = true;
+            }
+        }
+
+        MemoryMappedPagedFile pagedFile = mappedFiles.get( canonicalFile );
+        if ( pagedFile != null )
+        {
+            if ( !readOnly || changesFile )
+            {
+                throw new UnsupportedOperationException( "Cannot map file " + canonicalFile + " for writing, because it is already memory mapped " +
+                        "read-only." );
+            }
+            if ( pagedFile.pageSize() != pageSize && !anyPageSize )
+            {
+                throw new IllegalArgumentException( "Cannot map file " + canonicalFile + " with filePageSize " + pageSize + " bytes, because it " +
+                        "has already been mapped with a filePageSize of " + pagedFile.pageSize() + " bytes." );
+            }
+            pagedFile.incrementRefCount();
+            return pagedFile;
+        }
+
+        if ( readOnly && !changesFile && !isMappedByDelegate( canonicalFile ) )
+        {
+            pagedFile = tryMemoryMap( canonicalFile, pageSize );
+            if ( pagedFile != null )
+            {
+                pagedFile.incrementRefCount();
+                mappedFiles.put( canonicalFile, pagedFile );
+                return pagedFile;
+            }
+        }
+        return delegate.map( file, versionContextSupplier, pageSize, openOptions );
+    }
+
+    private boolean isMappedByDelegate( File file ) throws IOException
+    {
+        Optional<PagedFile> existingMapping = delegate.getExistingMapping( file );
+        if ( existingMapping.isPresent() )
+        {
+            existingMapping.get().close();
+            return true;
+        }
+        return false;
+    }
+
+    private MemoryMappedPagedFile tryMemoryMap( File file, int pageSize ) throws IOException
+    {
+        if ( pageSize < Long.BYTES || !fs.fileExists( file ) )
+        {
+            // Let the other page cache deal with the error.
+            return null;
+        }
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            if ( fs.getFileDescriptor( channel ) == INVALID_FILE_DESCRIPTOR )
+            {
+                // This is not a file that the operating system can map for us.
+                return null;
+            }
+            return new MemoryMappedPagedFile( this, file, pageSize, channel.fileChannel() );
+        }
+    }
+
+    synchronized void unmap( MemoryMappedPagedFile pagedFile ) throws IOException
+    {
+        if ( pagedFile.decrementRefCount() )
+        {
+            mappedFiles.remove( pagedFile.file() );
+            if ( pagedFile.isDeleteOnClose() )
+            {
+                fs.deleteFileOrThrow( pagedFile.file() );
+            }
+        }
+    }
+
+    @Override
+    public synchronized Optional<PagedFile> getExistingMapping( File file ) throws IOException
+    {
+        MemoryMappedPagedFile pagedFile = mappedFiles.get( file.getCanonicalFile() );
+        if ( pagedFile != null )
+        {
+            pagedFile.incrementRefCount();
+            return Optional.of( pagedFile );
+        }
+        return delegate.getExistingMapping( file );
+    }
+
+    @Override
+    public synchronized List<PagedFile> listExistingMappings() throws IOException
+    {
+        List<PagedFile> list = new ArrayList<>( delegate.listExistingMappings() );
+        list.addAll( mappedFiles.values() );
+        return list;
+    }
+
+    @Override
+    public void flushAndForce() throws IOException
+    {
+        // Memory mapped files are never written to, so only the other page cache can have anything to flush.
+        delegate.flushAndForce();
+    }
+
+    @Override
+    public void flushAndForce( IOLimiter limiter ) throws IOException
+    {
+        delegate.flushAndForce( limiter );
+    }
+
+    @Override
+    public void flushAndForce( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        delegate.flushAndForce( files, limiter );
+    }
+
+    @Override
+    public void flush( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        delegate.flush( files, limiter );
+    }
+
+    @Override
+    public void close()
+    {
+        synchronized ( this )
+        {
+            if ( !mappedFiles.isEmpty() )
+            {
+                throw new IllegalStateException( "Cannot close the PageCache while files are still mapped: " + mappedFiles.values() );
+            }
+        }
+        delegate.close();
+    }
+
+    @Override
+    public int pageSize()
+    {
+        return delegate.pageSize();
+    }
+
+    @Override
+    public long maxCachedPages()
+    {
+        return delegate.maxCachedPages();
+    }
+
+    @Override
+    public void reportEvents()
+    {
+        delegate.reportEvents();
+    }
+
+    @Override
+    public VersionContextSupplier versionContextSupplier()
+    {
+        return delegate.versionContextSupplier();
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.internal.helpers.Exceptions;
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+
+/**
+ * A read-only {@link PageCursor} over a {@link MemoryMappedPagedFile}.
+ * <p>
+ * Like the page cursors of other page caches, accesses outside of the current page raise the bounds flag instead of
+ * throwing, and read zeros. The part of the last page of the file that lies beyond the end of the file also reads as
+ * zeros. The file never changes while it is mapped, so {@link #shouldRetry()} always returns {@code false}.
+ */
+final class MemoryMappedPageCursor extends PageCursor
+{
+    private final MemoryMappedPagedFile pagedFile;
+    private final long initialPageId;
+    private final int filePageSize;
+    private ByteBuffer segment;
+    private int segmentIndex = -1;
+    private long currentPageId = UNBOUND_PAGE_ID;
+    private long nextPageId;
+    private int pageStart;
+    private int pageSize;
+    private int offset;
+    private int mark;
+    private boolean outOfBounds;
+    private boolean closed;
+    private CursorException cursorException;
+    private MemoryMappedPageCursor linkedCursor;
+
+    MemoryMappedPageCursor( MemoryMappedPagedFile pagedFile, long pageId )
+    {
+        this.pagedFile = pagedFile;
+        this.initialPageId = pageId;
+        this.nextPageId = pageId;
+        this.filePageSize = pagedFile.pageSize();
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        unbind();
+        if ( closed )
+        {
+            return false;
+        }
+        pagedFile.assertMapped();
+        if ( nextPageId > pagedFile.getLastPageId() || nextPageId < 0 )
+        {
+            return false;
+        }
+        currentPageId = nextPageId;
+        nextPageId++;
+        int pageSegmentIndex = pagedFile.segmentIndex( currentPageId );
+        if ( pageSegmentIndex != segmentIndex )
+        {
+            // We take a duplicate, so the bulk reads can move its position without getting in the way of other cursors.
+            segment = pagedFile.segment( pageSegmentIndex ).duplicate();
+            segmentIndex = pageSegmentIndex;
+        }
+        pageStart = pagedFile.offsetInSegment( currentPageId );
+        pageSize = filePageSize;
+        return true;
+    }
+
+    @Override
+    public boolean next( long pageId ) throws IOException
+    {
+        if ( currentPageId == pageId )
+        {
+            return true;
+        }
+        nextPageId = pageId;
+        return next();
+    }
+
+    private void unbind()
+    {
+        currentPageId = UNBOUND_PAGE_ID;
+        // Make all accesses go out of bounds until we are bound to a page again.
+        pageSize = 0;
+        offset = 0;
+        cursorException = null;
+    }
+
+    /**
+     * @return the index into the segment of the given range of the page, or -1 and raise the bounds flag if the range
+     * is not within the page.
+     */
+    private int index( int offset, int size )
+    {
+        if ( offset < 0 || size < 0 || offset + size > pageSize )
+        {
+            outOfBounds = true;
+            return -1;
+        }
+        return pageStart + offset;
+    }
+
+    /**
+     * Read a big-endian value of the given number of bytes.
+     */
+    private long read( int offset, int size )
+    {
+        int index = index( offset, size );
+        if ( index == -1 )
+        {
+            return 0;
+        }
+        if ( index + size <= segment.limit() )
+        {
+            switch ( size )
+            {
+            case Byte.BYTES:
+                return segment.get( index );
+            case Short.BYTES:
+                return segment.getShort( index );
+            case Integer.BYTES:
+                return segment.getInt( index );
+            default:
+                return segment.getLong( index );
+            }
+        }
+        // We are reading past the end of the file, in the last page.
+        long value = 0;
+        for ( int i = 0; i < size; i++ )
+        {
+            value = (value << Byte.SIZE) | (byteAt( index + i ) & 0xFF);
+        }
+        return value;
+    }
+
+    private byte byteAt( int index )
+    {
+        return index < segment.limit() ? segment.get( index ) : 0;
+    }
+
+    @Override
+    public byte getByte()
+    {
+        byte value = (byte) read( offset, Byte.BYTES );
+        offset += Byte.BYTES;
+        return value;
+    }
+
+    @Override
+    public byte getByte( int offset )
+    {
+        return (byte) read( offset, Byte.BYTES );
+    }
+
+    @Override
+    public long getLong()
+    {
+        long value = read( offset, Long.BYTES );
+        offset += Long.BYTES;
+        return value;
+    }
+
+    @Override
+    public long getLong( int offset )
+    {
+        return read( offset, Long.BYTES );
+    }
+
+    @Override
+    public int getInt()
+    {
+        int value = (int) read( offset, Integer.BYTES );
+        offset += Integer.BYTES;
+        return value;
+    }
+
+    @Override
+    public int getInt( int offset )
+    {
+        return (int) read( offset, Integer.BYTES );
+    }
+
+    @Override
+    public short getShort()
+    {
+        short value = (short) read( offset, Short.BYTES );
+        offset += Short.BYTES;
+        return value;
+    }
+
+    @Override
+    public short getShort( int offset )
+    {
+        return (short) read( offset, Short.BYTES );
+    }
+
+    @Override
+    public void getBytes( byte[] data )
+    {
+        getBytes( data, 0, data.length );
+    }
+
+    @Override
+    public void getBytes( byte[] data, int arrayOffset, int length )
+    {
+        if ( arrayOffset + length > data.length )
+        {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        int index = index( offset, length );
+        if ( index != -1 )
+        {
+            int mapped = Math.max( 0, Math.min( length, segment.limit() - index ) );
+            segment.position( index );
+            segment.get( data, arrayOffset, mapped );
+            for ( int i = mapped; i < length; i++ )
+            {
+                data[arrayOffset + i] = 0;
+            }
+        }
+        offset += length;
+    }
+
+    @Override
+    public void putByte( byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putByte( int offset, byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putLong( long value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putLong( int offset, long value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putInt( int value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putInt( int offset, int value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( byte[] data )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( byte[] data, int arrayOffset, int length )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putBytes( int bytes, byte value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putShort( short value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void putShort( int offset, short value )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void shiftBytes( int sourceOffset, int length, int shift )
+    {
+        throw readOnly();
+    }
+
+    @Override
+    public void zapPage()
+    {
+        throw readOnly();
+    }
+
+    private UnsupportedOperationException readOnly()
+    {
+        return new UnsupportedOperationException( "Cannot write to " + pagedFile.file() + ", because it is memory mapped read-only." );
+    }
+
+    @Override
+    public void setOffset( int offset )
+    {
+        this.offset = offset;
+        if ( offset < 0 || offset > filePageSize )
+        {
+            this.offset = 0;
+            outOfBounds = true;
+        }
+    }
+
+    @Override
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public void mark()
+    {
+        mark = offset;
+    }
+
+    @Override
+    public void setOffsetToMark()
+    {
+        offset = mark;
+    }
+
+    @Override
+    public long getCurrentPageId()
+    {
+        return currentPageId;
+    }
+
+    @Override
+    public int getCurrentPageSize()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? UNBOUND_PAGE_SIZE : filePageSize;
+    }
+
+    @Override
+    public File getCurrentFile()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? null : pagedFile.file();
+    }
+
+    @Override
+    public void rewind()
+    {
+        nextPageId = initialPageId;
+        currentPageId = UNBOUND_PAGE_ID;
+    }
+
+    @Override
+    public void close()
+    {
+        MemoryMappedPageCursor cursor = this;
+        while ( cursor != null && !cursor.closed )
+        {
+            cursor.unbind();
+            cursor.closed = true;
+            cursor = cursor.linkedCursor;
+        }
+    }
+
+    @Override
+    public boolean shouldRetry()
+    {
+        return false;
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, PageCursor targetCursor, int targetOffset, int lengthInBytes )
+    {
+        int targetPageSize = targetCursor.getCurrentPageSize();
+        if ( sourceOffset < 0 || targetOffset < 0 || sourceOffset >= pageSize || targetOffset >= targetPageSize || lengthInBytes < 0 )
+        {
+            outOfBounds = true;
+            return 0;
+        }
+        int bytes = Math.min( lengthInBytes, Math.min( pageSize - sourceOffset, targetPageSize - targetOffset ) );
+        byte[] data = new byte[bytes];
+        int currentOffset = offset;
+        offset = sourceOffset;
+        getBytes( data );
+        offset = currentOffset;
+        int currentTargetOffset = targetCursor.getOffset();
+        targetCursor.setOffset( targetOffset );
+        targetCursor.putBytes( data );
+        targetCursor.setOffset( currentTargetOffset );
+        return bytes;
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer targetBuffer )
+    {
+        int bytesToCopy = Math.min( targetBuffer.remaining(), pageSize - sourceOffset );
+        for ( int i = 0; i < bytesToCopy; i++ )
+        {
+            targetBuffer.put( getByte( sourceOffset + i ) );
+        }
+        return bytesToCopy;
+    }
+
+    @Override
+    public boolean checkAndClearBoundsFlag()
+    {
+        MemoryMappedPageCursor cursor = this;
+        boolean result = false;
+        do
+        {
+            result |= cursor.outOfBounds;
+            cursor.outOfBounds = false;
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+        return result;
+    }
+
+    @Override
+    public void checkAndClearCursorException() throws CursorException
+    {
+        MemoryMappedPageCursor cursor = this;
+        do
+        {
+            CursorException exception = cursor.cursorException;
+            if ( exception != null )
+            {
+                clearCursorException();
+                throw exception;
+            }
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+    }
+
+    @Override
+    public void raiseOutOfBounds()
+    {
+        outOfBounds = true;
+    }
+
+    @Override
+    public void setCursorException( String message )
+    {
+        cursorException = Exceptions.chain( cursorException, new CursorException( message ) );
+    }
+
+    @Override
+    public void clearCursorException()
+    {
+        MemoryMappedPageCursor cursor = this;
+        while ( cursor != null )
+        {
+            cursor.cursorException = null;
+            cursor = cursor.linkedCursor;
+        }
+    }
+
+    @Override
+    public PageCursor openLinkedCursor( long pageId )
+    {
+        if ( closed )
+        {
+            throw new IllegalStateException( "Cannot open linked cursor on closed page cursor" );
+        }
+        if ( linkedCursor != null )
+        {
+            linkedCursor.close();
+        }
+        linkedCursor = new MemoryMappedPageCursor( pagedFile, pageId );
+        return linkedCursor;
+    }
+
+    @Override
+    public boolean isWriteLocked()
+    {
+        return false;
+    }
+}
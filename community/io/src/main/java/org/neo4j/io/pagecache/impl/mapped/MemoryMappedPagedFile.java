@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.mapped;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.function.LongConsumer;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
+
+/**
+ * A read-only {@link PagedFile} whose pages are read straight from a memory mapping of the file.
+ * <p>
+ * The file is mapped in its entirety when the paged file is created, and is expected not to change size after that.
+ * A {@link ByteBuffer} can map at most 2 GiB, so larger files are mapped as a number of segments, that each hold a
+ * whole number of pages.
+ */
+final class MemoryMappedPagedFile implements PagedFile
+{
+    private static final int MAX_SEGMENT_SIZE = 1 << 30;
+    private static final PageFileCounters NO_COUNTERS = new PageFileCounters()
+    {
+        @Override
+        public long residentPages()
+        {
+            // The pages are in the page cache of the operating system, not in ours.
+            return 0;
+        }
+
+        @Override
+        public long reservedPages()
+        {
+            return 0;
+        }
+
+        @Override
+        public long maxPages()
+        {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public long hits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long faults()
+        {
+            return 0;
+        }
+
+        @Override
+        public double hitRatio()
+        {
+            return 0;
+        }
+    };
+
+    private final MemoryMappedPageCache pageCache;
+    private final File file;
+    private final int filePageSize;
+    private final int pagesPerSegment;
+    private final ByteBuffer[] segments;
+    private final long fileSize;
+    private final long lastPageId;
+    // Guarded by the page cache.
+    private int refCount;
+    private volatile boolean closed;
+    private volatile boolean deleteOnClose;
+
+    MemoryMappedPagedFile( MemoryMappedPageCache pageCache, File file, int filePageSize, FileChannel channel ) throws IOException
+    {
+        this.pageCache = pageCache;
+        this.file = file;
+        this.filePageSize = filePageSize;
+        this.pagesPerSegment = Math.max( 1, MAX_SEGMENT_SIZE / filePageSize );
+        this.fileSize = channel.size();
+        long segmentSize = (long) pagesPerSegment * filePageSize;
+        int segmentCount = Math.toIntExact( (fileSize + segmentSize - 1) / segmentSize );
+        this.segments = new ByteBuffer[segmentCount];
+        for ( int i = 0; i < segmentCount; i++ )
+        {
+            long position = i * segmentSize;
+            // The last segment ends at the end of the file, which may be in the middle of a page.
+            segments[i] = channel.map( FileChannel.MapMode.READ_ONLY, position, Math.min( segmentSize, fileSize - position ) );
+        }
+        this.lastPageId = (fileSize + filePageSize - 1) / filePageSize - 1;
+    }
+
+    @Override
+    public PageCursor io( long pageId, int pf_flags ) throws IOException
+    {
+        int lockFlags = pf_flags & (PF_SHARED_READ_LOCK | PF_SHARED_WRITE_LOCK);
+        if ( lockFlags == PF_SHARED_WRITE_LOCK )
+        {
+            throw new UnsupportedOperationException( "Cannot write to " + file + ", because it is memory mapped read-only." );
+        }
+        if ( lockFlags != PF_SHARED_READ_LOCK )
+        {
+            throw new IllegalArgumentException( "Must specify either PF_SHARED_WRITE_LOCK or PF_SHARED_READ_LOCK" );
+        }
+        assertMapped();
+        return new MemoryMappedPageCursor( this, pageId );
+    }
+
+    void assertMapped() throws FileIsNotMappedException
+    {
+        if ( closed )
+        {
+            throw new FileIsNotMappedException( file );
+        }
+    }
+
+    /**
+     * @return the index of the segment that holds the given page, which must be within the file.
+     */
+    int segmentIndex( long pageId )
+    {
+        return (int) (pageId / pagesPerSegment);
+    }
+
+    ByteBuffer segment( int segmentIndex )
+    {
+        return segments[segmentIndex];
+    }
+
+    /**
+     * @return the offset of the given page into its segment.
+     */
+    int offsetInSegment( long pageId )
+    {
+        return (int) (pageId % pagesPerSegment) * filePageSize;
+    }
+
+    @Override
+    public int pageSize()
+    {
+        return filePageSize;
+    }
+
+    @Override
+    public long fileSize()
+    {
+        return fileSize;
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    @Override
+    public void flushAndForce()
+    {
+        // Nothing is ever written to a read-only file.
+    }
+
+    @Override
+    public void flushAndForce( IOLimiter limiter )
+    {
+        // Nothing is ever written to a read-only file.
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        assertMapped();
+        return lastPageId;
+    }
+
+    @Override
+    public int touch( long pageId, int count ) throws IOException
+    {
+        assertMapped();
+        // The pages are read straight from the file mapping, so there is nothing for us to fault in.
+        return 0;
+    }
+
+    @Override
+    public void visitResidentPages( LongConsumer visitor )
+    {
+        // None of the pages are held in memory of our own.
+    }
+
+    @Override
+    public PageFileCounters pageFileCounters()
+    {
+        return NO_COUNTERS;
+    }
+
+    void incrementRefCount()
+    {
+        refCount++;
+    }
+
+    /**
+     * @return {@code true} if this was the last reference to the file, which is now unmapped.
+     */
+    boolean decrementRefCount()
+    {
+        if ( refCount <= 0 )
+        {
+            throw new IllegalStateException( "File has already been closed and unmapped. It cannot be closed any further." );
+        }
+        refCount--;
+        if ( refCount == 0 )
+        {
+            closed = true;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            pageCache.unmap( this );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public void setDeleteOnClose( boolean deleteOnClose )
+    {
+        this.deleteOnClose = deleteOnClose;
+    }
+
+    @Override
+    public boolean isDeleteOnClose()
+    {
+        return deleteOnClose;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MemoryMappedPagedFile[" + file + "]";
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageWriteBarrier;
+
+/**
+ * A {@link PageSwapper} that passes the {@link PageWriteBarrier} of its file before every write, so that the barrier
+ * covers evictions, flushes and the flush on close alike.
+ */
+final class BarrierPageSwapper implements PageSwapper
+{
+    private final PageSwapper delegate;
+    private final PageWriteBarrier barrier;
+
+    BarrierPageSwapper( PageSwapper delegate, PageWriteBarrier barrier )
+    {
+        this.delegate = delegate;
+        this.barrier = barrier;
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress ) throws IOException
+    {
+        return delegate.read( filePageId, bufferAddress );
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        return delegate.read( startFilePageId, bufferAddresses, arrayOffset, length );
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        barrier.beforePageWrite();
+        return delegate.write( filePageId, bufferAddress );
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        barrier.beforePageWrite();
+        return delegate.write( startFilePageId, bufferAddresses, arrayOffset, length );
+    }
+
+    @Override
+    public void evicted( long pageId )
+    {
+        delegate.evicted( pageId );
+    }
+
+    @Override
+    public File file()
+    {
+        return delegate.file();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        delegate.closeAndDelete();
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        delegate.force();
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        return delegate.getLastPageId();
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        delegate.truncate();
+    }
+
+    @Override
+    public String toString()
+    {
+        return delegate.toString();
+    }
+}
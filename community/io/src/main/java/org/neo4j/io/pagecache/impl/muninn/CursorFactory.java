@@ -64,7 +64,7 @@ final class CursorFactory
         return cursor;
     }
 
-    private PageCursorTracer getPageCursorTracer()
+    PageCursorTracer getPageCursorTracer()
     {
         PageCursorTracer pageCursorTracer = pageCursorTracerSupplier.get();
         pageCursorTracer.init( pageCacheTracer );
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The eviction policy decides how page accesses are recorded in the usage counters of the {@link PageList}.
+ * <p>
+ * The clock sweep of the {@link MuninnPageCache} decrements the usage counter of every page it passes, and evicts the
+ * pages whose counter has reached zero. The policy therefore decides which pages are considered hot, and how long
+ * they get to stay in memory after they were last accessed.
+ * <p>
+ * Accesses made through cursors that were opened with {@link org.neo4j.io.pagecache.PagedFile#PF_TRANSIENT} are not
+ * recorded at all, regardless of the policy.
+ */
+public enum EvictionPolicy
+{
+    /**
+     * Every access increments the usage counter, up to a maximum of 4. This means that a page needs to be passed by the
+     * clock arm between one and four times, depending on how often it was accessed, before it can be evicted.
+     */
+    CLOCK
+    {
+        @Override
+        void accessed( PageList pages, long pageRef )
+        {
+            pages.incrementUsage( pageRef );
+        }
+    },
+    /**
+     * A scan resistant variant of {@link #CLOCK}, in the spirit of 2Q. The first access to a page only puts it on
+     * probation, where it will be evicted the first time it is passed by the clock arm. It is only when a page is
+     * accessed again, while it is still in memory, that it is considered hot and given a usage count of 7, the highest
+     * the counter can hold. Hot pages thus survive more passes of the clock arm than they would with {@link #CLOCK}.
+     * <p>
+     * Pages that are touched only once, like those read by a large scan, are evicted long before the hot pages.
+     */
+    SCAN_RESISTANT
+    {
+        @Override
+        void accessed( PageList pages, long pageRef )
+        {
+            pages.promoteUsage( pageRef );
+        }
+    };
+
+    /**
+     * Record an access to the given page.
+     */
+    abstract void accessed( PageList pages, long pageRef );
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.internal.helpers.MathUtil;
+import org.neo4j.io.pagecache.PageQuota;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
+
+/**
+ * Keeps count of the pages that a {@link MuninnPagedFile} has in memory, and compares that to its {@link PageQuota}.
+ * <p>
+ * The count goes up when a page fault publishes a page in the translation table of the file, and down when eviction
+ * removes it again. The eviction machinery looks at the budget of the file that a page is bound to, to decide if the
+ * page is protected by a reservation, or should go first because the file is over its limit.
+ * <p>
+ * The budget also counts the hits and faults of the file. Faults are counted as they happen, while hits are summed up
+ * by the page cursors, and added here when they are closed, to keep the pin path free of shared writes.
+ */
+final class FilePageBudget implements PageFileCounters
+{
+    private final AtomicLong residentPages = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder faults = new LongAdder();
+    private final long reservedPages;
+    private final long maxPages;
+
+    FilePageBudget( PageQuota quota )
+    {
+        this.reservedPages = quota.reservedPages();
+        this.maxPages = quota.maxPages();
+    }
+
+    void pageFaulted()
+    {
+        residentPages.incrementAndGet();
+        faults.increment();
+    }
+
+    void pageHits( long count )
+    {
+        hits.add( count );
+    }
+
+    void pageEvicted()
+    {
+        residentPages.decrementAndGet();
+    }
+
+    /**
+     * @return {@code true} if the file has no more pages in memory than it has reserved, and its pages should be left
+     * alone by eviction.
+     */
+    boolean isWithinReservation()
+    {
+        return reservedPages > 0 && residentPages.get() <= reservedPages;
+    }
+
+    /**
+     * @return {@code true} if the file has more pages in memory than its limit, and its pages should be evicted first.
+     */
+    boolean isOverLimit()
+    {
+        return residentPages.get() > maxPages;
+    }
+
+    @Override
+    public long residentPages()
+    {
+        return residentPages.get();
+    }
+
+    @Override
+    public long reservedPages()
+    {
+        return reservedPages;
+    }
+
+    @Override
+    public long maxPages()
+    {
+        return maxPages;
+    }
+
+    @Override
+    public long hits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public double hitRatio()
+    {
+        return MathUtil.portion( hits(), faults() );
+    }
+}
@@ -28,10 +28,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.LockSupport;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
@@ -39,10 +39,12 @@ import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageQuota;
+import org.neo4j.io.pagecache.PageQuotas;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
-import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
@@ -50,10 +52,10 @@ import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.memory.EmptyMemoryTracker;
 import org.neo4j.scheduler.Group;
-import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
 
 import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
 import static org.neo4j.internal.helpers.Numbers.isPowerOfTwo;
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
@@ -121,11 +123,38 @@ public class MuninnPageCache implements PageCache
     private static final int pagesToKeepFree = getInteger(
             MuninnPageCache.class, "pagesToKeepFree", 30 );
 
+    // The background eviction raises the number of pages it keeps free, above pagesToKeepFree, when page faults take
+    // free pages at a higher rate, but it never keeps more than this many pages free. This will also be truncated to be
+    // no more than half of the number of pages in the cache. Setting it to pagesToKeepFree disables the adaptation.
+    private static final int maxPagesToKeepFree = getInteger(
+            MuninnPageCache.class, "maxPagesToKeepFree", 4096 );
+
+    // While there are enough free pages, the background eviction writes out the cold dirty pages just ahead of its clock
+    // arm, so page faults that evict them later do not have to flush them first. It looks at this many times the number
+    // of pages it keeps free. Zero disables the pre-flushing.
+    private static final int preFlushLookAheadFactor = getInteger(
+            MuninnPageCache.class, "preFlushLookAheadFactor", 4 );
+
     // This is how many times that, during cooperative eviction, we'll iterate through the entire set of pages looking
     // for a page to evict, before we give up and throw CacheLiveLockException. This MUST be greater than 1.
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // When flushing, files are split into stripes of this many translation table chunks, which can be flushed in parallel.
+    private static final int flushStripeChunks = getInteger( MuninnPageCache.class, "flushStripeChunks", 16 );
+
+    // The maximum number of threads to use for flushing, unless configured otherwise with setFlushParallelism.
+    public static final int DEFAULT_FLUSH_PARALLELISM = 4;
+
+    // This is how many times eviction will go around the clock, passing over the pages of files that are within their
+    // page reservation, before it gives up on the reservations and evicts those pages as well.
+    // This MUST be less than the cooperativeEvictionLiveLockThreshold.
+    private static final int reservationLaps = getInteger( MuninnPageCache.class, "reservationLaps", 8 );
+
+    // The eviction policy to use, when none is given explicitly.
+    private static final EvictionPolicy defaultEvictionPolicy = flag(
+            MuninnPageCache.class, "evictionPolicy", EvictionPolicy.CLOCK );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -148,19 +177,24 @@ public class MuninnPageCache implements PageCache
     private final JobScheduler scheduler;
 
     private static final List<OpenOption> ignoredOpenOptions = Arrays.asList( StandardOpenOption.APPEND,
-            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE );
+            StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.SPARSE, PageCacheOpenOptions.READ_ONLY );
 
     // Used when trying to figure out number of available pages in a page cache. Could be returned from tryGetNumberOfAvailablePages.
     private static final int UNKNOWN_AVAILABLE_PAGES = -1;
 
+    // The eviction thread parks for this long at a time, when there are enough free pages.
+    private static final long EVICTOR_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
-    private final int keepFree;
+    private final int minKeepFree;
+    private final int maxKeepFree;
     private final PageCacheTracer pageCacheTracer;
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
     final PageList pages;
+    final EvictionPolicy evictionPolicy;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
@@ -189,6 +223,15 @@ public class MuninnPageCache implements PageCache
     private volatile boolean evictorParked;
     private volatile IOException evictorException;
 
+    // The number of pages the eviction thread currently tries to keep free. Only written by the eviction thread.
+    private volatile int keepFree;
+    // Counts the pages that page faults have taken, either from the freelist, or by evicting them cooperatively.
+    private final LongAdder pagesTaken = new LongAdder();
+    // The state of the free page demand estimate. Only accessed by the eviction thread.
+    private long lastPagesTaken;
+    private long lastDemandSampleNanos;
+    private double pageDemand;
+
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
@@ -198,6 +241,12 @@ public class MuninnPageCache implements PageCache
     // 'true' (the default) if we should print any exceptions we get when unmapping a file.
     private boolean printExceptionsOnClose;
 
+    // The maximum number of threads used by flushAndForce, including the calling thread.
+    private volatile int flushParallelism = DEFAULT_FLUSH_PARALLELISM;
+
+    // Decides the page quota of files as they are mapped. Eviction only looks at the quotas when this is not NONE.
+    private volatile PageQuotas pageQuotas = PageQuotas.NONE;
+
     /**
      * Compute the amount of memory needed for a page cache with the given number of 8 KiB pages.
      * @param pageCount The number of pages
@@ -257,6 +306,30 @@ public class MuninnPageCache implements PageCache
         this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler );
     }
 
+    /**
+     * Create page cache.
+     * @param swapperFactory page cache swapper factory
+     * @param memoryAllocator the source of native memory the page cache should use
+     * @param pageCacheTracer global page cache tracer
+     * @param pageCursorTracerSupplier supplier of thread local (transaction local) page cursor tracer that will provide
+     * thread local page cache statistics
+     * @param versionContextSupplier supplier of thread local (transaction local) version context that will provide
+     *        access to thread local version context
+     * @param evictionPolicy the policy that decides which pages are hot, and which pages can be evicted
+     */
+    public MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler,
+            EvictionPolicy evictionPolicy )
+    {
+        this( swapperFactory, memoryAllocator, PAGE_SIZE, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                evictionPolicy );
+    }
+
     /**
      * Constructor variant that allows setting a non-standard cache page size.
      * Only ever use this for testing.
@@ -271,6 +344,20 @@ public class MuninnPageCache implements PageCache
             PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier,
             JobScheduler jobScheduler )
+    {
+        this( swapperFactory, memoryAllocator, cachePageSize, pageCacheTracer, pageCursorTracerSupplier, versionContextSupplier, jobScheduler,
+                defaultEvictionPolicy );
+    }
+
+    private MuninnPageCache(
+            PageSwapperFactory swapperFactory,
+            MemoryAllocator memoryAllocator,
+            int cachePageSize,
+            PageCacheTracer pageCacheTracer,
+            PageCursorTracerSupplier pageCursorTracerSupplier,
+            VersionContextSupplier versionContextSupplier,
+            JobScheduler jobScheduler,
+            EvictionPolicy evictionPolicy )
     {
         verifyHacks();
         verifyCachePageSizeIsPowerOfTwo( cachePageSize );
@@ -282,7 +369,9 @@ public class MuninnPageCache implements PageCache
         this.pageCacheId = pageCacheIdCounter.incrementAndGet();
         this.swapperFactory = swapperFactory;
         this.cachePageSize = cachePageSize;
-        this.keepFree = Math.min( pagesToKeepFree, maxPages / 2 );
+        this.minKeepFree = Math.min( pagesToKeepFree, maxPages / 2 );
+        this.maxKeepFree = Math.max( minKeepFree, Math.min( maxPagesToKeepFree, maxPages / 2 ) );
+        this.keepFree = minKeepFree;
         this.pageCacheTracer = pageCacheTracer;
         this.pageCursorTracerSupplier = pageCursorTracerSupplier;
         this.versionContextSupplier = versionContextSupplier;
@@ -291,6 +380,7 @@ public class MuninnPageCache implements PageCache
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
         this.scheduler = jobScheduler;
+        this.evictionPolicy = evictionPolicy;
 
         setFreelistHead( new AtomicInteger() );
     }
@@ -343,6 +433,7 @@ public class MuninnPageCache implements PageCache
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean noChannelStriping = false;
+        PageWriteBarrier writeBarrier = null;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -365,6 +456,10 @@ public class MuninnPageCache implements PageCache
             {
                 noChannelStriping = true;
             }
+            else if ( option instanceof PageWriteBarrier )
+            {
+                writeBarrier = (PageWriteBarrier) option;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
@@ -417,7 +512,9 @@ public class MuninnPageCache implements PageCache
                 versionContextSupplier,
                 createIfNotExists,
                 truncateExisting,
-                noChannelStriping );
+                noChannelStriping,
+                writeBarrier,
+                pageQuotas.quotaFor( file ) );
         pagedFile.incrementRefCount();
         pagedFile.setDeleteOnClose( deleteOnClose );
         current = new FileMapping( file, pagedFile );
@@ -577,6 +674,28 @@ public class MuninnPageCache implements PageCache
         this.printExceptionsOnClose = enabled;
     }
 
+    /**
+     * Set the maximum number of threads that {@link #flushAndForce(List, IOLimiter)} uses for flushing files, including
+     * the thread that calls it. A value of 1 means that files are flushed one after another, by the calling thread.
+     */
+    public void setFlushParallelism( int flushParallelism )
+    {
+        if ( flushParallelism < 1 )
+        {
+            throw new IllegalArgumentException( "Flush parallelism must be at least 1, but was " + flushParallelism );
+        }
+        this.flushParallelism = flushParallelism;
+    }
+
+    /**
+     * Set the {@link PageQuotas} that decide the {@link PageQuota} of files that are mapped from now on. Files that are
+     * already mapped keep the quota they were given.
+     */
+    public void setPageQuotas( PageQuotas pageQuotas )
+    {
+        this.pageQuotas = requireNonNull( pageQuotas );
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
@@ -585,75 +704,36 @@ public class MuninnPageCache implements PageCache
 
     @Override
     public void flushAndForce( IOLimiter limiter ) throws IOException
+    {
+        flushAndForce( listExistingMappings(), limiter );
+    }
+
+    @Override
+    public void flushAndForce( List<PagedFile> files, IOLimiter limiter ) throws IOException
     {
         if ( limiter == null )
         {
             throw new IllegalArgumentException( "IOLimiter cannot be null" );
         }
-        List<PagedFile> files = listExistingMappings();
 
         try ( MajorFlushEvent ignored = pageCacheTracer.beginCacheFlush() )
         {
-            if ( limiter.isLimited() )
-            {
-                flushAllPages( files, limiter );
-            }
-            else
-            {
-                flushAllPagesParallel( files, limiter );
-            }
+            ParallelFlush.flush( files, limiter, flushParallelism, flushStripeChunks, scheduler, pageCacheTracer, true );
         }
         clearEvictorException();
     }
 
-    private void flushAllPages( List<PagedFile> files, IOLimiter limiter ) throws IOException
-    {
-        for ( PagedFile file : files )
-        {
-            flushFile( (MuninnPagedFile) file, limiter );
-        }
-    }
-
-    private void flushAllPagesParallel( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    @Override
+    public void flush( List<PagedFile> files, IOLimiter limiter ) throws IOException
     {
-        List<JobHandle> flushes = new ArrayList<>( files.size() );
-
-        // Submit all flushes to the background thread
-        for ( PagedFile file : files )
-        {
-            flushes.add( scheduler.schedule( Group.PAGE_CACHE, () ->
-            {
-                try
-                {
-                    flushFile( (MuninnPagedFile) file, limiter );
-                }
-                catch ( IOException e )
-                {
-                    throw new UncheckedIOException( e );
-                }
-            } ) );
-        }
-
-        // Wait for all to complete
-        for ( JobHandle flush : flushes )
+        if ( limiter == null )
         {
-            try
-            {
-                flush.waitTermination();
-            }
-            catch ( InterruptedException | ExecutionException e )
-            {
-                throw new IOException( e );
-            }
+            throw new IllegalArgumentException( "IOLimiter cannot be null" );
         }
-    }
 
-    private void flushFile( MuninnPagedFile muninnPagedFile,  IOLimiter limiter ) throws IOException
-    {
-        try ( MajorFlushEvent fileFlush = pageCacheTracer.beginFileFlush( muninnPagedFile.swapper ) )
+        try ( MajorFlushEvent ignored = pageCacheTracer.beginCacheFlush() )
         {
-            FlushEventOpportunity flushOpportunity = fileFlush.flushEventOpportunity();
-            muninnPagedFile.flushAndForceInternal( flushOpportunity, false, limiter );
+            ParallelFlush.flush( files, limiter, flushParallelism, flushStripeChunks, scheduler, pageCacheTracer, false );
         }
     }
 
@@ -786,6 +866,8 @@ public class MuninnPageCache implements PageCache
                 long pageRef = cooperativelyEvict( faultEvent );
                 if ( pageRef != 0 )
                 {
+                    pagesTaken.increment();
+                    pageCacheTracer.cooperativeEvictions( 1 );
                     return pageRef;
                 }
             }
@@ -796,6 +878,7 @@ public class MuninnPageCache implements PageCache
                 int pageId = counter.get();
                 if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
                 {
+                    pagesTaken.increment();
                     return pages.deref( pageId );
                 }
                 if ( pageId >= pageCount )
@@ -813,6 +896,7 @@ public class MuninnPageCache implements PageCache
 
                 if ( compareAndSetFreelistHead( freePage, freePage.next ) )
                 {
+                    pagesTaken.increment();
                     return freePage.pageRef;
                 }
             }
@@ -845,7 +929,7 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && shouldEvict( pageRef, iterations < reservationLaps ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -855,6 +939,32 @@ public class MuninnPageCache implements PageCache
         return pageRef;
     }
 
+    /**
+     * Decide if the given loaded page should be evicted. This decrements the usage counter of the page, unless the
+     * {@link FilePageBudget} of its file decides the matter: pages of files that are over their limit are evicted
+     * regardless of their usage, and pages of files that are within their reservation are passed over, as long as
+     * reservations are honoured.
+     */
+    private boolean shouldEvict( long pageRef, boolean honourReservations )
+    {
+        if ( pageQuotas != PageQuotas.NONE )
+        {
+            FilePageBudget budget = pages.getBudget( pageRef );
+            if ( budget != null )
+            {
+                if ( budget.isOverLimit() )
+                {
+                    return true;
+                }
+                if ( honourReservations && budget.isWithinReservation() )
+                {
+                    return false;
+                }
+            }
+        }
+        return pages.decrementUsage( pageRef );
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -909,15 +1019,20 @@ public class MuninnPageCache implements PageCache
      * we evict the page. If we don't, we move on to the next page.
      * Once we have enough free pages, we park our thread. Page-faulting will
      * unpark our thread as needed.
+     * <p>
+     * The number of pages we keep free follows the rate at which page faults take them, and while we are parked, we
+     * write out the dirty pages that are next in line for eviction. This way, page faults rarely have to evict pages
+     * themselves, and when they do, the pages they evict are rarely dirty.
      */
     void continuouslySweepPages()
     {
         evictionThread = Thread.currentThread();
         int clockArm = 0;
+        lastDemandSampleNanos = System.nanoTime();
 
         while ( !closed )
         {
-            int pageCountToEvict = parkUntilEvictionRequired( keepFree );
+            int pageCountToEvict = parkUntilEvictionRequired( clockArm );
             try ( EvictionRunEvent evictionRunEvent = pageCacheTracer.beginPageEvictions( pageCountToEvict ) )
             {
                 clockArm = evictPages( pageCountToEvict, clockArm, evictionRunEvent );
@@ -929,27 +1044,100 @@ public class MuninnPageCache implements PageCache
         setFreelistHead( shutdownSignal );
     }
 
-    private int parkUntilEvictionRequired( int keepFree )
+    private int parkUntilEvictionRequired( int clockArm )
     {
         // Park until we're either interrupted, or the number of free pages drops
         // bellow keepFree.
-        long parkNanos = TimeUnit.MILLISECONDS.toNanos( 10 );
         for (;;)
         {
-            parkEvictor( parkNanos );
+            parkEvictor( EVICTOR_PARK_NANOS );
             if ( Thread.interrupted() || closed )
             {
                 return 0;
             }
 
+            int keepFree = adaptKeepFree( System.nanoTime() );
             int availablePages = tryGetNumberOfAvailablePages( keepFree );
             if ( availablePages != UNKNOWN_AVAILABLE_PAGES )
             {
                 return availablePages;
             }
+
+            if ( preFlushLookAheadFactor > 0 )
+            {
+                try
+                {
+                    preFlushPages( clockArm, keepFree * preFlushLookAheadFactor, keepFree );
+                }
+                catch ( IOException e )
+                {
+                    // Nothing lost. Eviction flushes the page again, and reports the problem if it persists.
+                }
+            }
         }
     }
 
+    /**
+     * Update the estimate of how many free pages the page faults will take, before the eviction thread next wakes up,
+     * and adjust the number of pages to keep free accordingly. The estimate rises right away to meet a burst of page
+     * faults, but falls back slowly, so that the next burst will also find free pages waiting.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}.
+     * @return the new number of pages to keep free.
+     */
+    int adaptKeepFree( long nowNanos )
+    {
+        long taken = pagesTaken.sum();
+        long elapsedNanos = Math.max( 1, nowNanos - lastDemandSampleNanos );
+        double demand = (taken - lastPagesTaken) * (double) EVICTOR_PARK_NANOS / elapsedNanos;
+        lastPagesTaken = taken;
+        lastDemandSampleNanos = nowNanos;
+
+        pageDemand = demand >= pageDemand ? demand : pageDemand - (pageDemand - demand) / 8;
+        // Keep twice the expected demand free, because the eviction thread needs time to catch up after it wakes up.
+        int target = (int) Math.min( maxKeepFree, Math.max( minKeepFree, 2 * pageDemand ) );
+        keepFree = target;
+        return target;
+    }
+
+    /**
+     * @return the number of pages the background eviction currently tries to keep free.
+     */
+    int keepFree()
+    {
+        return keepFree;
+    }
+
+    /**
+     * Write out the modified pages, among the given number of pages from the clock arm and onwards, whose usage
+     * counters have reached zero. Those are the pages that will be evicted when the clock arm next comes by.
+     *
+     * @param clockArm the page id to start from.
+     * @param lookAhead the number of pages to look at.
+     * @param maxFlushes the maximum number of pages to write.
+     * @return the number of pages that were written.
+     * @throws IOException if a page could not be written.
+     */
+    int preFlushPages( int clockArm, int lookAhead, int maxFlushes ) throws IOException
+    {
+        int pageCount = pages.getPageCount();
+        int pagesToCheck = Math.min( lookAhead, pageCount );
+        int flushed = 0;
+        try ( MajorFlushEvent flushEvent = pageCacheTracer.beginCacheFlush() )
+        {
+            for ( int i = 0; i < pagesToCheck && flushed < maxFlushes && !closed; i++ )
+            {
+                long pageRef = pages.deref( (clockArm + i) % pageCount );
+                if ( pages.getUsageCounter( pageRef ) == 0 && pages.isModified( pageRef ) &&
+                        pages.tryFlush( pageRef, flushEvent.flushEventOpportunity() ) )
+                {
+                    flushed++;
+                }
+            }
+        }
+        return flushed;
+    }
+
     private int tryGetNumberOfAvailablePages( int keepFree )
     {
         Object freelistHead = getFreelistHead();
@@ -980,6 +1168,9 @@ public class MuninnPageCache implements PageCache
 
     int evictPages( int pageCountToEvict, int clockArm, EvictionRunEvent evictionRunEvent )
     {
+        // Reservations are given up when we have gone this many laps around the clock without finding a page to evict.
+        long reservationScanLimit = (long) reservationLaps * pages.getPageCount();
+        long pagesWithoutEviction = 0;
         while ( pageCountToEvict > 0 && !closed )
         {
             if ( clockArm == pages.getPageCount() )
@@ -994,8 +1185,9 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && shouldEvict( pageRef, pagesWithoutEviction < reservationScanLimit ) )
             {
+                pagesWithoutEviction = 0;
                 try
                 {
                     pageCountToEvict--;
@@ -1019,6 +1211,10 @@ public class MuninnPageCache implements PageCache
                             "Eviction thread encountered a problem", th );
                 }
             }
+            else
+            {
+                pagesWithoutEviction++;
+            }
 
             clockArm++;
         }
@@ -59,7 +59,7 @@ public abstract class MuninnPageCursor extends PageCursor
     private static final int SIZE_OF_LONG = Long.BYTES;
 
     private final long victimPage;
-    private final PageCursorTracer tracer;
+    protected final PageCursorTracer tracer;
     protected MuninnPagedFile pagedFile;
     protected PageSwapper swapper;
     protected int swapperId;
@@ -70,6 +70,7 @@ public abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean transientAccess;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
@@ -81,6 +82,8 @@ public abstract class MuninnPageCursor extends PageCursor
     private int mark;
     private boolean outOfBounds;
     private boolean isLinkedCursor;
+    // The number of page hits of this cursor, that have not yet been added to the budget of the paged file.
+    private long pageHits;
     // This is a String with the exception message if usePreciseCursorErrorStackTraces is false, otherwise it is a
     // CursorExceptionWithPreciseStackTrace with the message and stack trace pointing more or less directly at the
     // offending code.
@@ -105,6 +108,8 @@ public abstract class MuninnPageCursor extends PageCursor
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault || isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.transientAccess = isFlagRaised( pf_flags, PagedFile.PF_TRANSIENT );
+        this.pageHits = 0;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -183,6 +188,11 @@ public abstract class MuninnPageCursor extends PageCursor
         while ( cursor != null && cursor.pagedFile != null )
         {
             cursor.unpinCurrentPage();
+            if ( cursor.pageHits > 0 )
+            {
+                cursor.pagedFile.budget.pageHits( cursor.pageHits );
+                cursor.pageHits = 0;
+            }
             // We null out the pagedFile field to allow it and its (potentially big) translation table to be garbage
             // collected when the file is unmapped, since the cursors can stick around in thread local caches, etc.
             cursor.pagedFile = null;
@@ -300,6 +310,7 @@ public abstract class MuninnPageCursor extends PageCursor
                 {
                     pinCursorToPage( pageRef, filePageId, swapper );
                     pinEvent.hit();
+                    pageHits++;
                     return;
                 }
                 if ( locked )
@@ -405,6 +416,7 @@ public abstract class MuninnPageCursor extends PageCursor
         // Put the page in the translation table before we undo the exclusive lock, as we could otherwise race with
         // eviction, and the onEvict callback expects to find a MuninnPage object in the table.
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, pagedFile.toId( pageRef ) );
+        pagedFile.budget.pageFaulted();
         // Once we page has been published to the translation table, we can convert our exclusive lock to whatever we
         // need for the page cursor.
         convertPageFaultLock( pageRef );
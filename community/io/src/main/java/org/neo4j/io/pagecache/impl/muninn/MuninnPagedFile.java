@@ -24,24 +24,31 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.function.LongConsumer;
 
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageQuota;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+import org.neo4j.io.pagecache.tracing.PinEvent;
+import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 {
@@ -49,7 +56,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final boolean USE_DIRECT_IO = flag( MuninnPagedFile.class, "useDirectIO", false );
     private static final int translationTableChunkSizePower = Integer.getInteger(
             "org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.translationTableChunkSizePower", 12 );
-    private static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
+    static final int translationTableChunkSize = 1 << translationTableChunkSizePower;
     private static final long translationTableChunkSizeMask = translationTableChunkSize - 1;
     private static final int translationTableChunkArrayBase = UnsafeUtil.arrayBaseOffset( int[].class );
     private static final int translationTableChunkArrayScale = UnsafeUtil.arrayIndexScale( int[].class );
@@ -61,6 +68,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final long headerStateRefCountMask = 0x7FFF_0000_0000_0000L;
     private static final long headerStateLastPageIdMask = 0x8000_FFFF_FFFF_FFFFL;
     private static final int PF_LOCK_MASK = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
+    // The maximum number of pages that are faulted in with a single vectored read, when pre-fetching pages.
+    private static final int vectoredFaultMaxPages = getInteger( MuninnPagedFile.class, "vectoredFaultMaxPages", 32 );
 
     final MuninnPageCache pageCache;
     final int filePageSize;
@@ -73,6 +82,10 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
 
     final PageSwapper swapper;
     final int swapperId;
+    // Pages of files with a write barrier are flushed under the exclusive lock, because the flush lock lets writes
+    // overlap with the page write, and those writes could come from transactions that the barrier has not covered.
+    final boolean exclusiveFlush;
+    final FilePageBudget budget;
     private final CursorFactory cursorFactory;
 
     private volatile boolean deleteOnClose;
@@ -117,12 +130,14 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * @param truncateExisting should truncate file if it exists
      * @param noChannelStriping when true, overrides channel striping behaviour,
      * setting it to a single channel per mapped file.
+     * @param writeBarrier the barrier to pass before writing pages of the file, or {@code null} if there is none.
+     * @param quota the share of the page cache that this file is entitled to.
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( File file, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory,
             PageCacheTracer pageCacheTracer, PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting,
-            boolean noChannelStriping ) throws IOException
+            boolean noChannelStriping, PageWriteBarrier writeBarrier, PageQuota quota ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
@@ -130,6 +145,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.cursorFactory = new CursorFactory( this, pageCursorTracerSupplier, pageCacheTracer, versionContextSupplier );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
+        this.budget = new FilePageBudget( quota );
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -148,7 +164,9 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         // filled with UNMAPPED_TTE values, and then finally assigns the new outer array to the translationTable field
         // and releases the resize lock.
         PageEvictionCallback onEviction = this::evictPage;
-        swapper = swapperFactory.createPageSwapper( file, filePageSize, onEviction, createIfNotExists, noChannelStriping, USE_DIRECT_IO );
+        PageSwapper fileSwapper = swapperFactory.createPageSwapper( file, filePageSize, onEviction, createIfNotExists, noChannelStriping, USE_DIRECT_IO );
+        swapper = writeBarrier == null ? fileSwapper : new BarrierPageSwapper( fileSwapper, writeBarrier );
+        exclusiveFlush = writeBarrier != null;
         if ( truncateExisting )
         {
             swapper.truncate();
@@ -164,7 +182,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         translationTable = tt;
 
         initialiseLastPageId( lastPageId );
-        this.swapperId = getSwappers().allocate( swapper );
+        this.swapperId = getSwappers().allocate( swapper, budget );
     }
 
     @Override
@@ -286,7 +304,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
         try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
         {
-            flushAndForceInternal( flushEvent.flushEventOpportunity(), false, limiter );
+            long bytesWritten = flushAndForceInternal( flushEvent.flushEventOpportunity(), false, limiter );
+            pageCacheTracer.flushedFile( file(), bytesWritten );
         }
         pageCache.clearEvictorException();
     }
@@ -355,45 +374,104 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
-    void flushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
+    /**
+     * @return the number of bytes written to the file.
+     */
+    long flushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
             throws IOException
     {
         try
         {
-            doFlushAndForceInternal( flushes, forClosing, limiter );
+            long bytesWritten = flushChunks( flushes, forClosing, limiter, 0, Integer.MAX_VALUE );
+            swapper.force();
+            return bytesWritten;
         }
         catch ( ClosedChannelException e )
         {
-            if ( getRefCount() > 0 )
-            {
-                // The file is not supposed to be closed, since we have a positive ref-count, yet we got a
-                // ClosedChannelException anyway? It's an odd situation, so let's tell the outside world about
-                // this failure.
-                e.addSuppressed( closeStackTrace );
-                throw e;
-            }
-            // Otherwise: The file was closed while we were trying to flush it. Since unmapping implies a flush
-            // anyway, we can safely assume that this is not a problem. The file was flushed, and it doesn't
-            // really matter how that happened. We'll ignore this exception.
+            rethrowIfStillMapped( e );
+            return 0;
+        }
+    }
+
+    /**
+     * Flush the dirty pages in the given range of translation table chunks, without forcing the file. This allows
+     * different parts of a large file to be flushed by different threads, after which the file must be forced with
+     * {@link #forceAfterFlush()}.
+     *
+     * @param fromChunk the index of the first translation table chunk to flush.
+     * @param toChunk the index of the translation table chunk to stop at, exclusive. Chunks that are added to the
+     * translation table while we flush, are only flushed if this is beyond the current end of the table.
+     * @return the number of bytes written to the file.
+     */
+    long flushStripe( FlushEventOpportunity flushes, IOLimiter limiter, int fromChunk, int toChunk ) throws IOException
+    {
+        try
+        {
+            return flushChunks( flushes, false, limiter, fromChunk, toChunk );
+        }
+        catch ( ClosedChannelException e )
+        {
+            rethrowIfStillMapped( e );
+            return 0;
+        }
+    }
+
+    void forceAfterFlush() throws IOException
+    {
+        try
+        {
+            swapper.force();
+        }
+        catch ( ClosedChannelException e )
+        {
+            rethrowIfStillMapped( e );
+        }
+    }
+
+    int translationTableChunkCount()
+    {
+        return translationTable.length;
+    }
+
+    private void rethrowIfStillMapped( ClosedChannelException e ) throws ClosedChannelException
+    {
+        if ( getRefCount() > 0 )
+        {
+            // The file is not supposed to be closed, since we have a positive ref-count, yet we got a
+            // ClosedChannelException anyway? It's an odd situation, so let's tell the outside world about
+            // this failure.
+            e.addSuppressed( closeStackTrace );
+            throw e;
         }
+        // Otherwise: The file was closed while we were trying to flush it. Since unmapping implies a flush
+        // anyway, we can safely assume that this is not a problem. The file was flushed, and it doesn't
+        // really matter how that happened. We'll ignore this exception.
     }
 
-    private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
+    private long flushChunks( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter, int fromChunk, int toChunk )
             throws IOException
     {
         // TODO it'd be awesome if, on Linux, we'd call sync_file_range(2) instead of fsync
         long[] pages = new long[translationTableChunkSize];
-        long[] flushStamps = forClosing ? null : new long[translationTableChunkSize];
+        boolean exclusive = forClosing || exclusiveFlush;
+        long[] flushStamps = exclusive ? null : new long[translationTableChunkSize];
         long[] bufferAddresses = new long[translationTableChunkSize];
-        long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
+        // Start one before the first page of the range, because we increment at the *start* of the chunk-loop iteration.
+        long filePageId = ((long) fromChunk << translationTableChunkSizePower) - 1;
         long limiterStamp = IOLimiter.INITIAL_STAMP;
+        long bytesWritten = 0;
         int[][] tt = this.translationTable;
-        for ( int[] chunk : tt )
+        int endChunk = Math.min( toChunk, tt.length );
+        // The vector of grabbed pages is allowed to span chunk boundaries, so adjacent dirty pages are written together
+        // even when they are in different chunks. We only write the vector when we reach a page that we cannot add to
+        // it, or when it is full.
+        int pagesGrabbed = 0;
+        for ( int chunkIndex = fromChunk; chunkIndex < endChunk; chunkIndex++ )
         {
+            int[] chunk = tt[chunkIndex];
             // TODO Look into if we can tolerate flushing a few clean pages if it means we can use larger vectors.
             // TODO The clean pages in question must still be loaded, though. Otherwise we'll end up writing
             // TODO garbage to the file.
-            int pagesGrabbed = 0;
             chunkLoop:
             for ( int i = 0; i < chunk.length; i++ )
             {
@@ -415,7 +493,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                         }
 
                         long flushStamp = 0;
-                        if ( !(forClosing ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
+                        if ( !(exclusive ? tryExclusiveLock( pageRef ) : ((flushStamp = tryFlushLock( pageRef )) != 0)) )
                         {
                             continue;
                         }
@@ -425,15 +503,21 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                             // so we didn't race with eviction and faulting, and the page is dirty.
                             // So we add it to our IO vector.
                             pages[pagesGrabbed] = pageRef;
-                            if ( !forClosing )
+                            if ( !exclusive )
                             {
                                 flushStamps[pagesGrabbed] = flushStamp;
                             }
                             bufferAddresses[pagesGrabbed] = getAddress( pageRef );
                             pagesGrabbed++;
+                            if ( pagesGrabbed == pages.length )
+                            {
+                                bytesWritten += vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, exclusive );
+                                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                                pagesGrabbed = 0;
+                            }
                             continue chunkLoop;
                         }
-                        else if ( forClosing )
+                        else if ( exclusive )
                         {
                             unlockExclusive( pageRef );
                         }
@@ -446,34 +530,34 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 }
                 if ( pagesGrabbed > 0 )
                 {
-                    vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
+                    bytesWritten += vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, exclusive );
                     limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
                     pagesGrabbed = 0;
                 }
             }
-            if ( pagesGrabbed > 0 )
-            {
-                vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, forClosing );
-                limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
-            }
         }
-
-        swapper.force();
+        if ( pagesGrabbed > 0 )
+        {
+            bytesWritten += vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, exclusive );
+            limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+        }
+        return bytesWritten;
     }
 
-    private void vectoredFlush(
+    private long vectoredFlush(
             long[] pages, long[] bufferAddresses, long[] flushStamps, int pagesGrabbed,
-            FlushEventOpportunity flushOpportunity, boolean forClosing ) throws IOException
+            FlushEventOpportunity flushOpportunity, boolean exclusive ) throws IOException
     {
         FlushEvent flush = null;
         boolean successful = false;
+        long bytesWritten = 0;
         try
         {
             // Write the pages vector
             long firstPageRef = pages[0];
             long startFilePageId = getFilePageId( firstPageRef );
             flush = flushOpportunity.beginFlush( startFilePageId, toId( firstPageRef ), swapper );
-            long bytesWritten = swapper.write( startFilePageId, bufferAddresses, 0, pagesGrabbed );
+            bytesWritten = swapper.write( startFilePageId, bufferAddresses, 0, pagesGrabbed );
 
             // Update the flush event
             flush.addBytesWritten( bytesWritten );
@@ -494,7 +578,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         finally
         {
             // Always unlock all the pages in the vector
-            if ( forClosing )
+            if ( exclusive )
             {
                 for ( int i = 0; i < pagesGrabbed; i++ )
                 {
@@ -514,6 +598,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
                 }
             }
         }
+        return bytesWritten;
     }
 
     boolean flushLockedPage( long pageRef, long filePageId )
@@ -539,6 +624,197 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         return success;
     }
 
+    /**
+     * Record an access to the given page, according to the {@link EvictionPolicy} of the page cache.
+     */
+    void markAccessed( long pageRef )
+    {
+        pageCache.evictionPolicy.accessed( this, pageRef );
+    }
+
+    @Override
+    public int touch( long pageId, int count ) throws IOException
+    {
+        return prefetch( pageId, count, cursorFactory.getPageCursorTracer(), true );
+    }
+
+    /**
+     * Fault in the pages in the given range that are not already in memory. Runs of consecutive absent pages are read
+     * with a single vectored read of at most {@link #vectoredFaultMaxPages} pages. Pages that are already being faulted
+     * in by another thread are skipped, and so are pages beyond the end of the file. The pages are not left pinned.
+     *
+     * @param startPageId the file page id of the first page in the range.
+     * @param count the number of pages in the range.
+     * @param tracer the page cursor tracer to report the page faults to.
+     * @param markAccessed {@code true} if the faulted pages should be marked as accessed, as if they had been pinned
+     * once. Otherwise they will be the first candidates for eviction.
+     * @return the number of pages that were faulted in.
+     */
+    int prefetch( long startPageId, int count, PageCursorTracer tracer, boolean markAccessed ) throws IOException
+    {
+        long endPageId = Math.min( startPageId + count, getLastPageId() + 1 );
+        if ( startPageId < 0 || startPageId >= endPageId )
+        {
+            return 0;
+        }
+        int vectorSize = (int) Math.min( vectoredFaultMaxPages, endPageId - startPageId );
+        LatchMap.Latch[] latches = new LatchMap.Latch[vectorSize];
+        long[] pageRefs = new long[vectorSize];
+        long[] bufferAddresses = new long[vectorSize];
+        int faulted = 0;
+        long filePageId = startPageId;
+        while ( filePageId < endPageId )
+        {
+            long runStartPageId = filePageId;
+            int length = 0;
+            while ( filePageId < endPageId && length < vectorSize )
+            {
+                int chunkId = computeChunkId( filePageId );
+                int[][] tt = translationTable;
+                if ( tt.length <= chunkId )
+                {
+                    tt = expandCapacity( chunkId );
+                }
+                int[] chunk = tt[chunkId];
+                long chunkOffset = computeChunkOffset( filePageId );
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    break;
+                }
+                LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+                if ( latch == null )
+                {
+                    break;
+                }
+                if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+                {
+                    // We raced with another page fault, that completed in-between our check and taking the latch.
+                    latch.release();
+                    break;
+                }
+                latches[length] = latch;
+                length++;
+                filePageId++;
+            }
+            if ( length == 0 )
+            {
+                // The page is either already in memory, or someone else is faulting it in. Either way, skip it.
+                filePageId++;
+            }
+            else
+            {
+                faultRun( runStartPageId, length, latches, pageRefs, bufferAddresses, tracer, markAccessed );
+                faulted += length;
+            }
+        }
+        return faulted;
+    }
+
+    private void faultRun( long startPageId, int length, LatchMap.Latch[] latches, long[] pageRefs, long[] bufferAddresses,
+            PageCursorTracer tracer, boolean markAccessed ) throws IOException
+    {
+        // We own the page fault latches for all the pages in the run. Much like MuninnPageCursor.pageFault, we MUST
+        // release those latches no matter what happens, and the free pages we grab must either end up in the
+        // translation table, or be handed back to the page cache.
+        PinEvent[] pinEvents = new PinEvent[length];
+        PageFaultEvent[] faultEvents = new PageFaultEvent[length];
+        int grabbed = 0;
+        boolean bound = false;
+        try
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                pinEvents[i] = tracer.beginPin( false, startPageId + i, swapper );
+                faultEvents[i] = pinEvents[i].beginPageFault();
+                pageRefs[i] = grabFreeAndExclusivelyLockedPage( faultEvents[i] );
+                grabbed++;
+                initBuffer( pageRefs[i] );
+            }
+            // Make sure we are not racing with unmapping, before we reopen the file channel with the read.
+            getLastPageId();
+            bound = true;
+            long bytesRead = fault( pageRefs, bufferAddresses, length, swapper, swapperId, startPageId );
+            for ( int i = 0; i < length; i++ )
+            {
+                long pageRef = pageRefs[i];
+                long filePageId = startPageId + i;
+                int[] chunk = translationTable[computeChunkId( filePageId )];
+                if ( markAccessed )
+                {
+                    markAccessed( pageRef );
+                }
+                UnsafeUtil.putIntVolatile( chunk, computeChunkOffset( filePageId ), toId( pageRef ) );
+                budget.pageFaulted();
+                unlockExclusive( pageRef );
+                latches[i].release();
+                long pageBytesRead = Math.max( 0, Math.min( filePageSize, bytesRead - (long) i * filePageSize ) );
+                faultEvents[i].addBytesRead( pageBytesRead );
+                faultEvents[i].setCachePageId( toId( pageRef ) );
+                faultEvents[i].done();
+                pinEvents[i].done();
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            for ( int i = 0; i < length; i++ )
+            {
+                if ( i < grabbed )
+                {
+                    if ( bound )
+                    {
+                        // The pages are now considered loaded, so the eviction thread will pick up our trash.
+                        unlockExclusive( pageRefs[i] );
+                    }
+                    else
+                    {
+                        pageCache.addFreePageToFreelist( pageRefs[i] );
+                    }
+                }
+                latches[i].release();
+                if ( faultEvents[i] != null )
+                {
+                    faultEvents[i].done( throwable );
+                    pinEvents[i].done();
+                }
+            }
+            throw throwable;
+        }
+    }
+
+    @Override
+    public void visitResidentPages( LongConsumer visitor ) throws IOException
+    {
+        long lastPageId = getLastPageId();
+        long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
+        int[][] tt = this.translationTable;
+        for ( int[] chunk : tt )
+        {
+            for ( int i = 0; i < chunk.length; i++ )
+            {
+                filePageId++;
+                if ( filePageId > lastPageId )
+                {
+                    return;
+                }
+                int pageId = UnsafeUtil.getIntVolatile( chunk, computeChunkOffset( filePageId ) );
+                if ( pageId != UNMAPPED_TTE )
+                {
+                    long pageRef = deref( pageId );
+                    if ( isBoundTo( pageRef, swapperId, filePageId ) && getUsageCounter( pageRef ) > 0 )
+                    {
+                        visitor.accept( filePageId );
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public PageFileCounters pageFileCounters()
+    {
+        return budget;
+    }
+
     @Override
     public void flush() throws IOException
     {
@@ -699,6 +975,11 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        if ( mappedPageId != UNMAPPED_TTE )
+        {
+            // Pages from failed page faults are never published in the translation table, and were never counted.
+            budget.pageEvicted();
+        }
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
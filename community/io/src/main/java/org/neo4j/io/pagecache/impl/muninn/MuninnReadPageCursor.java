@@ -22,12 +22,33 @@ package org.neo4j.io.pagecache.impl.muninn;
 import java.io.IOException;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 final class MuninnReadPageCursor extends MuninnPageCursor
 {
+    /**
+     * The maximum number of pages to fault in ahead of a sequential scan, in a single vectored read.
+     */
+    private static final int readAheadPages = getInteger( MuninnReadPageCursor.class, "readAheadPages", 32 );
+    /**
+     * The number of consecutive pages a cursor must visit, before it is considered to be doing a sequential scan.
+     * Cursors opened with {@link PagedFile#PF_READ_AHEAD} do read-ahead right away.
+     */
+    private static final int readAheadThreshold = getInteger( MuninnReadPageCursor.class, "readAheadThreshold", 4 );
+    /**
+     * The read-ahead window is never allowed to be more than this fraction of the page cache, so that a scan will
+     * never have to fight itself for free pages.
+     */
+    private static final int readAheadMaxCacheFraction = 16;
+
     private long lockStamp;
+    private long lastPageIdVisited = UNBOUND_PAGE_ID;
+    private int sequentialPageCount;
+    private long readAheadEndPageId;
 
     MuninnReadPageCursor( long victimPage, PageCursorTracer pageCursorTracer,
             VersionContextSupplier versionContextSupplier )
@@ -57,11 +78,53 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         }
         currentPageId = nextPageId;
         nextPageId++;
+        if ( !noFault )
+        {
+            readAhead();
+        }
         pin( currentPageId, false );
         verifyContext();
         return true;
     }
 
+    /**
+     * Fault in a window of pages ahead of the page we are about to pin, if this cursor looks to be scanning the file
+     * sequentially. The read-ahead is purely an optimisation: the pages are faulted in without being pinned, so the
+     * pin that follows will just find them in memory, and any failure will be left for the pin to discover.
+     */
+    private void readAhead()
+    {
+        if ( currentPageId == lastPageIdVisited + 1 )
+        {
+            sequentialPageCount++;
+        }
+        else
+        {
+            sequentialPageCount = 0;
+            readAheadEndPageId = currentPageId;
+        }
+        lastPageIdVisited = currentPageId;
+        if ( currentPageId < readAheadEndPageId ||
+             (sequentialPageCount < readAheadThreshold && (pf_flags & PagedFile.PF_READ_AHEAD) == 0) )
+        {
+            return;
+        }
+        int window = (int) Math.min( readAheadPages, pagedFile.pageCache.maxCachedPages() / readAheadMaxCacheFraction );
+        if ( window <= 1 )
+        {
+            return;
+        }
+        readAheadEndPageId = currentPageId + window;
+        try
+        {
+            pagedFile.prefetch( currentPageId, window, tracer, false );
+        }
+        catch ( IOException e )
+        {
+            // Ignore it. If the problem persists, then the pin will run into it as well, and report it.
+        }
+    }
+
     @Override
     protected boolean tryLockPage( long pageRef )
     {
@@ -78,7 +141,10 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        if ( !transientAccess )
+        {
+            pagedFile.markAccessed( pageRef );
+        }
     }
 
     @Override
@@ -56,6 +56,27 @@ final class MuninnWritePageCursor extends MuninnPageCursor
 
     private void eagerlyFlushAndUnlockPage()
     {
+        if ( pagedFile.exclusiveFlush )
+        {
+            // Writes must not overlap with the page write, so we cannot downgrade our write lock to a flush lock
+            pagedFile.unlockWrite( pinnedPageRef );
+            if ( pagedFile.tryExclusiveLock( pinnedPageRef ) )
+            {
+                try
+                {
+                    if ( pagedFile.isBoundTo( pinnedPageRef, pagedFile.swapperId, currentPageId ) && pagedFile.isModified( pinnedPageRef ) &&
+                            pagedFile.flushLockedPage( pinnedPageRef, currentPageId ) )
+                    {
+                        pagedFile.explicitlyMarkPageUnmodifiedUnderExclusiveLock( pinnedPageRef );
+                    }
+                }
+                finally
+                {
+                    pagedFile.unlockExclusive( pinnedPageRef );
+                }
+            }
+            return;
+        }
         long flushStamp = pagedFile.unlockWriteAndTryTakeFlushLock( pinnedPageRef );
         if ( flushStamp != 0 )
         {
@@ -121,7 +142,10 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // after the reset() call, which means that if we throw, the cursor will
         // be closed and the page lock will be released.
         assertPagedFileStillMappedAndGetIdOfLastPage();
-        pagedFile.incrementUsage( pageRef );
+        if ( !transientAccess )
+        {
+            pagedFile.markAccessed( pageRef );
+        }
         pagedFile.setLastModifiedTxId( pageRef, versionContextSupplier.getVersionContext().committingTransactionId() );
     }
 
@@ -28,6 +28,7 @@ import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionEventOpportunity;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
+import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.PageFaultEvent;
 
 import static java.lang.String.format;
@@ -57,6 +58,7 @@ class PageList
 
     private static final int UNBOUND_LAST_MODIFIED_TX_ID = -1;
     private static final long MAX_USAGE_COUNT = 4;
+    private static final long MAX_PROMOTED_USAGE_COUNT = 7;
     private static final int SHIFT_FILE_PAGE_ID = 24;
     private static final int SHIFT_SWAPPER_ID = 3;
     private static final int SHIFT_PARTIAL_FILE_PAGE_ID = SHIFT_FILE_PAGE_ID - SHIFT_SWAPPER_ID;
@@ -301,7 +303,7 @@ class PageList
         }
     }
 
-    private byte getUsageCounter( long pageRef )
+    byte getUsageCounter( long pageRef )
     {
         return (byte) (UnsafeUtil.getLongVolatile( offPageBinding( pageRef ) ) & MASK_USAGE_COUNT);
     }
@@ -327,6 +329,23 @@ class PageList
         }
     }
 
+    /**
+     * Set the usage stamp to 1 if the page has not been used yet, or straight to 7 if it has.
+     **/
+    void promoteUsage( long pageRef )
+    {
+        // This is intentionally left benignly racy for performance.
+        long address = offPageBinding( pageRef );
+        long value = UnsafeUtil.getLongVolatile( address );
+        long usage = value & MASK_USAGE_COUNT;
+        if ( usage < MAX_PROMOTED_USAGE_COUNT )
+        {
+            long update = usage == 0 ? value + 1 : value | MAX_PROMOTED_USAGE_COUNT;
+            // See `incrementUsage` about why we use `compareAndSwapLong`.
+            UnsafeUtil.compareAndSwapLong( null, address, value, update );
+        }
+    }
+
     /**
      * Decrement the usage stamp. Returns true if it reaches 0.
      **/
@@ -388,6 +407,22 @@ class PageList
         return (int) (v & MASK_SHIFTED_SWAPPER_ID); // 21 bits.
     }
 
+    /**
+     * Get the {@link FilePageBudget} of the file that the given page is bound to. This is a racy read, so the page may
+     * be evicted and bound to another file at any time.
+     * @return the budget, or {@code null} if the page is not bound, or its file has no budget or has been unmapped.
+     */
+    FilePageBudget getBudget( long pageRef )
+    {
+        int swapperId = getSwapperId( pageRef );
+        if ( swapperId == 0 )
+        {
+            return null;
+        }
+        SwapperSet.SwapperMapping swapperMapping = swappers.getAllocation( swapperId );
+        return swapperMapping == null ? null : swapperMapping.budget;
+    }
+
     private void setSwapperId( long pageRef, int swapperId )
     {
         swapperId = swapperId << SHIFT_SWAPPER_ID;
@@ -437,6 +472,46 @@ class PageList
         setSwapperId( pageRef, swapperId ); // Page now considered isBoundTo( swapper, filePageId )
     }
 
+    /**
+     * Fault a run of consecutive file pages, starting at the given {@code startFilePageId}, into the given pages with a
+     * single vectored read. All of the pages must be free and exclusively locked, exactly as for
+     * {@link #fault(long, PageSwapper, int, long, PageFaultEvent)}.
+     *
+     * @return the number of bytes read from the file.
+     */
+    long fault( long[] pageRefs, long[] bufferAddresses, int length, PageSwapper swapper, int swapperId, long startFilePageId )
+            throws IOException
+    {
+        if ( swapper == null )
+        {
+            throw swapperCannotBeNull();
+        }
+        for ( int i = 0; i < length; i++ )
+        {
+            long pageRef = pageRefs[i];
+            long filePageId = startFilePageId + i;
+            int currentSwapper = getSwapperId( pageRef );
+            long currentFilePageId = getFilePageId( pageRef );
+            if ( !isExclusivelyLocked( pageRef ) || currentSwapper != 0 || currentFilePageId != PageCursor.UNBOUND_PAGE_ID )
+            {
+                throw cannotFaultException( pageRef, swapper, swapperId, filePageId, currentSwapper, currentFilePageId );
+            }
+        }
+        // See the single page fault above, for why the file page id is assigned before, and the swapper id after,
+        // the read.
+        for ( int i = 0; i < length; i++ )
+        {
+            setFilePageId( pageRefs[i], startFilePageId + i );
+            bufferAddresses[i] = getAddress( pageRefs[i] );
+        }
+        long bytesRead = swapper.read( startFilePageId, bufferAddresses, 0, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            setSwapperId( pageRefs[i], swapperId );
+        }
+        return bytesRead;
+    }
+
     private static IllegalArgumentException swapperCannotBeNull()
     {
         return new IllegalArgumentException( "swapper cannot be null" );
@@ -520,6 +595,72 @@ class PageList
         }
     }
 
+    /**
+     * Write the given page to its file, if it is bound and modified, but leave it in memory. A later eviction of the page
+     * then does not have to flush it. The page is only marked as unmodified if nothing wrote to it during the flush.
+     * Pages of files with a write barrier are written under the exclusive lock instead of the flush lock, so that no
+     * writes can overlap with the page write.
+     *
+     * @return {@code true} if the page was written, or {@code false} if it was not modified, or could not be locked
+     * right away.
+     * @throws IOException if the page could not be written.
+     */
+    boolean tryFlush( long pageRef, FlushEventOpportunity flushOpportunity ) throws IOException
+    {
+        int swapperId = getSwapperId( pageRef );
+        SwapperSet.SwapperMapping swapperMapping = swapperId == 0 ? null : swappers.getAllocation( swapperId );
+        if ( swapperMapping == null )
+        {
+            return false;
+        }
+        boolean exclusive = swapperMapping.swapper instanceof BarrierPageSwapper;
+        long flushStamp = 0;
+        if ( exclusive ? !tryExclusiveLock( pageRef ) : (flushStamp = tryFlushLock( pageRef )) == 0 )
+        {
+            return false;
+        }
+        boolean success = false;
+        try
+        {
+            // The page may have been evicted and faulted into another file before we locked it
+            if ( getSwapperId( pageRef ) == swapperId && swappers.getAllocation( swapperId ) == swapperMapping && isModified( pageRef ) )
+            {
+                PageSwapper swapper = swapperMapping.swapper;
+                long filePageId = getFilePageId( pageRef );
+                FlushEvent flushEvent = flushOpportunity.beginFlush( filePageId, pageRef, swapper );
+                try
+                {
+                    long bytesWritten = swapper.write( filePageId, getAddress( pageRef ) );
+                    flushEvent.addBytesWritten( bytesWritten );
+                    flushEvent.addPagesFlushed( 1 );
+                    flushEvent.done();
+                    success = true;
+                }
+                catch ( IOException e )
+                {
+                    flushEvent.done( e );
+                    throw e;
+                }
+            }
+        }
+        finally
+        {
+            if ( !exclusive )
+            {
+                unlockFlush( pageRef, flushStamp, success );
+            }
+            else
+            {
+                if ( success )
+                {
+                    explicitlyMarkPageUnmodifiedUnderExclusiveLock( pageRef );
+                }
+                unlockExclusive( pageRef );
+            }
+        }
+        return success;
+    }
+
     private void clearBinding( long pageRef )
     {
         UnsafeUtil.putLong( offPageBinding( pageRef ), UNBOUND_PAGE_BINDING );
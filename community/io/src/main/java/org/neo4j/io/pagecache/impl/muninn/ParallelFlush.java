@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+/**
+ * Flushes a number of files on a bounded number of threads.
+ * <p>
+ * Every file is split into stripes of a fixed number of translation table chunks. The stripes of all the files are put
+ * on a shared queue, that is drained by the calling thread and a number of {@link Group#PAGE_CACHE} workers. This way
+ * small files are flushed side by side, and a large file is flushed by many threads at once. Each file is forced by the
+ * thread that completes its last stripe, unless the files are only to be written.
+ */
+final class ParallelFlush
+{
+    private final Queue<Stripe> stripes = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final IOLimiter limiter;
+    private final PageCacheTracer tracer;
+    private final boolean force;
+
+    private ParallelFlush( IOLimiter limiter, PageCacheTracer tracer, boolean force )
+    {
+        this.limiter = limiter;
+        this.tracer = tracer;
+        this.force = force;
+    }
+
+    /**
+     * Flush the given files, and force them if asked to, using at most the given number of threads, including the calling thread.
+     */
+    static void flush( List<PagedFile> files, IOLimiter limiter, int parallelism, int stripeChunks,
+            JobScheduler scheduler, PageCacheTracer tracer, boolean force ) throws IOException
+    {
+        ParallelFlush flush = new ParallelFlush( limiter, tracer, force );
+        for ( PagedFile file : files )
+        {
+            flush.addFile( file, stripeChunks );
+        }
+        flush.run( Math.min( parallelism, flush.stripes.size() ), scheduler );
+    }
+
+    private void addFile( PagedFile file, int stripeChunks )
+    {
+        if ( !(file instanceof MuninnPagedFile) )
+        {
+            // We know nothing of the internals of this file, so it will have to be flushed as a whole.
+            stripes.add( () -> file.flushAndForce( limiter ) );
+            return;
+        }
+        MuninnPagedFile muninnPagedFile = (MuninnPagedFile) file;
+        int chunks = muninnPagedFile.translationTableChunkCount();
+        int stripeCount = Math.max( 1, (chunks + stripeChunks - 1) / stripeChunks );
+        FileFlush fileFlush = new FileFlush( muninnPagedFile, stripeCount );
+        for ( int stripe = 0; stripe < stripeCount; stripe++ )
+        {
+            int fromChunk = stripe * stripeChunks;
+            // The last stripe also covers any chunks that are added to the file while we flush.
+            int toChunk = stripe == stripeCount - 1 ? Integer.MAX_VALUE : fromChunk + stripeChunks;
+            stripes.add( () -> flushStripe( fileFlush, fromChunk, toChunk ) );
+        }
+    }
+
+    private void run( int threads, JobScheduler scheduler ) throws IOException
+    {
+        List<JobHandle> workers = new ArrayList<>( threads );
+        for ( int i = 1; i < threads; i++ )
+        {
+            workers.add( scheduler.schedule( Group.PAGE_CACHE, this::drain ) );
+        }
+        drain();
+
+        for ( JobHandle worker : workers )
+        {
+            try
+            {
+                worker.waitTermination();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                throw new IOException( e );
+            }
+        }
+
+        Throwable throwable = failure.get();
+        if ( throwable instanceof IOException )
+        {
+            throw (IOException) throwable;
+        }
+        if ( throwable instanceof RuntimeException )
+        {
+            throw (RuntimeException) throwable;
+        }
+        if ( throwable != null )
+        {
+            throw (Error) throwable;
+        }
+    }
+
+    private void drain()
+    {
+        Stripe stripe;
+        while ( failure.get() == null && (stripe = stripes.poll()) != null )
+        {
+            try
+            {
+                stripe.flush();
+            }
+            catch ( Throwable throwable )
+            {
+                if ( !failure.compareAndSet( null, throwable ) )
+                {
+                    failure.get().addSuppressed( throwable );
+                }
+            }
+        }
+    }
+
+    private void flushStripe( FileFlush fileFlush, int fromChunk, int toChunk ) throws IOException
+    {
+        MuninnPagedFile file = fileFlush.file;
+        try ( MajorFlushEvent flushEvent = tracer.beginFileFlush( file.swapper ) )
+        {
+            fileFlush.bytesWritten.add( file.flushStripe( flushEvent.flushEventOpportunity(), limiter, fromChunk, toChunk ) );
+        }
+        if ( fileFlush.remainingStripes.decrementAndGet() == 0 )
+        {
+            if ( force )
+            {
+                file.forceAfterFlush();
+            }
+            tracer.flushedFile( file.file(), fileFlush.bytesWritten.sum() );
+        }
+    }
+
+    private interface Stripe
+    {
+        void flush() throws IOException;
+    }
+
+    private static final class FileFlush
+    {
+        private final MuninnPagedFile file;
+        private final AtomicInteger remainingStripes;
+        private final LongAdder bytesWritten = new LongAdder();
+
+        FileFlush( MuninnPagedFile file, int stripes )
+        {
+            this.file = file;
+            this.remainingStripes = new AtomicInteger( stripes );
+        }
+    }
+}
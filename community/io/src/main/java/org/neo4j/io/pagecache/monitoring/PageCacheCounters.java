@@ -19,6 +19,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import org.neo4j.io.pagecache.tracing.LatencyHistogram;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -80,6 +82,12 @@ public interface PageCacheCounters
      */
     long evictionExceptions();
 
+    /**
+     * @return The number of pages that were evicted by page faulting threads thus far, because the background eviction
+     * could not keep up, and there were no free pages left.
+     */
+    long cooperativeEvictions();
+
     /**
      * @return The cache hit ratio observed thus far.
      */
@@ -90,4 +98,14 @@ public interface PageCacheCounters
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The histogram of the latencies of the page faults observed thus far.
+     */
+    LatencyHistogram faultLatencies();
+
+    /**
+     * @return The histogram of the latencies of the page flushes observed thus far.
+     */
+    LatencyHistogram flushLatencies();
 }
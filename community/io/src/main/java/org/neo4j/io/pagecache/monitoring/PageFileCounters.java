@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import org.neo4j.io.pagecache.PageQuota;
+
+/**
+ * The PageFileCounters exposes the live page counters of a single mapped file.
+ * <p>
+ * Unlike the {@link PageCacheCounters}, which add up the events of all files, these tell which files are hot, and which
+ * files are thrashing the cache.
+ */
+public interface PageFileCounters
+{
+    /**
+     * @return The number of pages of the file that are currently in memory.
+     */
+    long residentPages();
+
+    /**
+     * @return The number of pages reserved for the file, as given by its {@link PageQuota}.
+     */
+    long reservedPages();
+
+    /**
+     * @return The maximum number of pages the file should have in memory, as given by its {@link PageQuota}.
+     */
+    long maxPages();
+
+    /**
+     * @return The number of pins of pages of the file, that found the page in memory.
+     * Hits are counted when the page cursor that observed them is closed.
+     */
+    long hits();
+
+    /**
+     * @return The number of pages of the file that have been faulted into memory.
+     */
+    long faults();
+
+    /**
+     * @return The ratio of hits to the sum of hits and faults of the file.
+     */
+    double hitRatio();
+}
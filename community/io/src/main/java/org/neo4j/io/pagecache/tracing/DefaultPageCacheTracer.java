@@ -21,6 +21,7 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -28,7 +29,8 @@ import org.neo4j.internal.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
 
 /**
- * The default PageCacheTracer implementation, that just increments counters.
+ * The default PageCacheTracer implementation, that just increments counters, and keeps histograms of the latencies
+ * of page faults and flushes.
  */
 public class DefaultPageCacheTracer implements PageCacheTracer
 {
@@ -43,35 +45,15 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder cooperativeEvictions = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    private final ConcurrentHashMap<File,LongAdder> fileBytesFlushed = new ConcurrentHashMap<>();
 
-    private final FlushEvent flushEvent = new FlushEvent()
-    {
-        @Override
-        public void addBytesWritten( long bytes )
-        {
-            bytesWritten.add( bytes );
-        }
-
-        @Override
-        public void done()
-        {
-            flushes.increment();
-        }
-
-        @Override
-        public void done( IOException exception )
-        {
-            done();
-        }
-
-        @Override
-        public void addPagesFlushed( int pageCount )
-        {
-        }
-    };
+    private final LatencyHistogram faultLatencies = new LatencyHistogram();
+    private final LatencyHistogram flushLatencies = new LatencyHistogram();
 
-    private final FlushEventOpportunity flushEventOpportunity = ( filePageId, cachePageId, swapper ) -> flushEvent;
+    // Flush events are timed, so every flush gets its own event. The allocation is dwarfed by the IO of the flush.
+    private final FlushEventOpportunity flushEventOpportunity = ( filePageId, cachePageId, swapper ) -> new DefaultFlushEvent();
 
     private final EvictionEvent evictionEvent = new EvictionEvent()
     {
@@ -141,12 +123,53 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     public void mappedFile( File file )
     {
         filesMapped.increment();
+        fileBytesFlushed.putIfAbsent( file, new LongAdder() );
     }
 
     @Override
     public void unmappedFile( File file )
     {
         filesUnmapped.increment();
+        fileBytesFlushed.remove( file );
+    }
+
+    @Override
+    public void flushedFile( File file, long bytesWritten )
+    {
+        // Only count files that are currently mapped, so that flushes that race with unmapping do not leave stale entries behind.
+        LongAdder bytesFlushed = fileBytesFlushed.get( file );
+        if ( bytesFlushed != null )
+        {
+            bytesFlushed.add( bytesWritten );
+        }
+    }
+
+    /**
+     * @return the number of bytes written to the given file by calls to {@code flush} and {@code flushAndForce}, since it was mapped.
+     * Zero if the file is not mapped.
+     */
+    public long bytesFlushed( File file )
+    {
+        LongAdder bytesFlushed = fileBytesFlushed.get( file );
+        return bytesFlushed == null ? 0 : bytesFlushed.sum();
+    }
+
+    /**
+     * @return the histogram of the latencies of the page faults, that have been reported by page cursor tracers.
+     */
+    @Override
+    public LatencyHistogram faultLatencies()
+    {
+        return faultLatencies;
+    }
+
+    /**
+     * @return the histogram of the latencies of the flushes done by page cursors, eviction, and {@code flushAndForce}.
+     */
+    @Override
+    public LatencyHistogram flushLatencies()
+    {
+        return flushLatencies;
     }
 
     @Override
@@ -233,6 +256,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         return evictionExceptions.sum();
     }
 
+    @Override
+    public long cooperativeEvictions()
+    {
+        return cooperativeEvictions.sum();
+    }
+
     @Override
     public double hitRatio()
     {
@@ -292,6 +321,12 @@ public class DefaultPageCacheTracer implements PageCacheTracer
         this.evictionExceptions.add( evictionExceptions );
     }
 
+    @Override
+    public void cooperativeEvictions( long cooperativeEvictions )
+    {
+        this.cooperativeEvictions.add( cooperativeEvictions );
+    }
+
     @Override
     public void bytesWritten( long bytesWritten )
     {
@@ -309,4 +344,45 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void faultLatency( long nanos )
+    {
+        faultLatencies.record( nanos );
+    }
+
+    @Override
+    public void flushLatency( long nanos )
+    {
+        flushLatencies.record( nanos );
+    }
+
+    private class DefaultFlushEvent implements FlushEvent
+    {
+        private final long startNanos = System.nanoTime();
+
+        @Override
+        public void addBytesWritten( long bytes )
+        {
+            bytesWritten.add( bytes );
+        }
+
+        @Override
+        public void done()
+        {
+            flushes.increment();
+            flushLatencies.record( System.nanoTime() - startNanos );
+        }
+
+        @Override
+        public void done( IOException exception )
+        {
+            done();
+        }
+
+        @Override
+        public void addPagesFlushed( int pageCount )
+        {
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.tracing;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of latencies, in nanoseconds.
+ * <p>
+ * The latencies are counted in buckets that are powers of two wide, so bucket {@code n} counts the latencies that are
+ * at least {@code 2^(n-1)} and less than {@code 2^n} nanoseconds, and bucket zero counts the latencies of zero. This
+ * makes recording cheap enough to do for every timed operation, like every page fault, page flush, and transaction log
+ * force, at the cost of percentiles only being precise to within a factor of two.
+ */
+public final class LatencyHistogram
+{
+    /**
+     * The number of buckets in the histogram. The last bucket counts all latencies of {@code 2^(BUCKETS-2)}
+     * nanoseconds or more, which is a little over a minute.
+     */
+    public static final int BUCKETS = 38;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder totalNanos = new LongAdder();
+
+    public LatencyHistogram()
+    {
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record the given latency. Negative latencies, which can be observed if the clock goes backwards, count as zero.
+     *
+     * @param nanos the latency in nanoseconds.
+     */
+    public void record( long nanos )
+    {
+        nanos = Math.max( 0, nanos );
+        buckets[bucketOf( nanos )].increment();
+        totalNanos.add( nanos );
+    }
+
+    /**
+     * @return the number of latencies recorded thus far.
+     */
+    public long count()
+    {
+        long count = 0;
+        for ( LongAdder bucket : buckets )
+        {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * @return the sum of all the latencies recorded thus far, in nanoseconds.
+     */
+    public long totalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    /**
+     * @return the mean of the latencies recorded thus far, in nanoseconds, or zero if nothing has been recorded.
+     */
+    public double meanNanos()
+    {
+        long count = count();
+        return count == 0 ? 0 : totalNanos() / (double) count;
+    }
+
+    /**
+     * @param bucket the index of the bucket, from zero and up to, but not including, {@link #BUCKETS}.
+     * @return the number of latencies that have been counted in the given bucket.
+     */
+    public long bucketCount( int bucket )
+    {
+        return buckets[bucket].sum();
+    }
+
+    /**
+     * @param bucket the index of the bucket, from zero and up to, but not including, {@link #BUCKETS}.
+     * @return the largest latency, in nanoseconds, that is counted in the given bucket.
+     */
+    public static long bucketUpperBoundNanos( int bucket )
+    {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    /**
+     * Estimate the latency that the given fraction of the recorded latencies are at or below.
+     *
+     * @param fraction the fraction of latencies, between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return the upper bound, in nanoseconds, of the bucket that holds the given percentile, or zero if nothing has
+     * been recorded.
+     */
+    public long percentileNanos( double fraction )
+    {
+        if ( fraction < 0 || fraction > 1 )
+        {
+            throw new IllegalArgumentException( "The fraction must be between 0 and 1, but was " + fraction + "." );
+        }
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if ( count == 0 )
+        {
+            return 0;
+        }
+        long rank = Math.max( 1, (long) Math.ceil( fraction * count ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                return bucketUpperBoundNanos( i );
+            }
+        }
+        return bucketUpperBoundNanos( BUCKETS - 1 );
+    }
+
+    static int bucketOf( long nanos )
+    {
+        return Math.min( BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros( nanos ) );
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "LatencyHistogram[count=%d, mean=%.0fns, p50=%dns, p99=%dns]",
+                count(), meanNanos(), percentileNanos( 0.5 ), percentileNanos( 0.99 ) );
+    }
+}
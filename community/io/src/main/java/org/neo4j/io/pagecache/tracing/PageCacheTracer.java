@@ -36,6 +36,8 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     PageCacheTracer NULL = new PageCacheTracer()
     {
+        private final LatencyHistogram noLatencies = new LatencyHistogram();
+
         @Override
         public void mappedFile( File file )
         {
@@ -46,6 +48,11 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void flushedFile( File file, long bytesWritten )
+        {
+        }
+
         @Override
         public EvictionRunEvent beginPageEvictions( int pageCountToEvict )
         {
@@ -130,6 +137,12 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0;
         }
 
+        @Override
+        public long cooperativeEvictions()
+        {
+            return 0;
+        }
+
         @Override
         public double hitRatio()
         {
@@ -142,6 +155,18 @@ public interface PageCacheTracer extends PageCacheCounters
             return 0d;
         }
 
+        @Override
+        public LatencyHistogram faultLatencies()
+        {
+            return noLatencies;
+        }
+
+        @Override
+        public LatencyHistogram flushLatencies()
+        {
+            return noLatencies;
+        }
+
         @Override
         public void pins( long pins )
         {
@@ -177,6 +202,11 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void cooperativeEvictions( long cooperativeEvictions )
+        {
+        }
+
         @Override
         public void bytesWritten( long bytesWritten )
         {
@@ -192,6 +222,16 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void faultLatency( long nanos )
+        {
+        }
+
+        @Override
+        public void flushLatency( long nanos )
+        {
+        }
+
         @Override
         public String toString()
         {
@@ -209,6 +249,15 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void unmappedFile( File file );
 
+    /**
+     * All the dirty pages of the given file have been flushed, as part of a call to {@code flush} on the page cache, or
+     * {@code flushAndForce} on either the page cache or the paged file. In the latter case the file has also been forced.
+     *
+     * @param file the file that was flushed.
+     * @param bytesWritten the number of bytes that were written to the file by the flush.
+     */
+    void flushedFile( File file, long bytesWritten );
+
     /**
      * A background eviction has begun. Called from the background eviction thread.
      *
@@ -270,6 +319,12 @@ public interface PageCacheTracer extends PageCacheCounters
      */
     void evictionExceptions( long evictionExceptions );
 
+    /**
+     * Report number of pages evicted by page faulting threads, because there were no free pages
+     * @param cooperativeEvictions number of cooperative evictions
+     */
+    void cooperativeEvictions( long cooperativeEvictions );
+
     /**
      * Report number of bytes written
      * @param bytesWritten number of written bytes
@@ -287,4 +342,16 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Report the time it took to complete a page fault, that was observed by a page cursor tracer.
+     * @param nanos the latency of the page fault, in nanoseconds
+     */
+    void faultLatency( long nanos );
+
+    /**
+     * Report the time it took to complete a flush, that was observed by a page cursor tracer.
+     * @param nanos the latency of the flush, in nanoseconds
+     */
+    void flushLatency( long nanos );
 }
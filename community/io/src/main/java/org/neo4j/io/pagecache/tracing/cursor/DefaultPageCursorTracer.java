@@ -36,12 +36,16 @@ public class DefaultPageCursorTracer implements PageCursorTracer
     private long unpins;
     private long hits;
     private long faults;
+    private long faultTimeNanos;
     private long bytesRead;
     private long bytesWritten;
     private long evictions;
     private long evictionExceptions;
     private long flushes;
 
+    private long faultStartNanos;
+    private long flushStartNanos;
+
     private PageCacheTracer pageCacheTracer = PageCacheTracer.NULL;
     private DefaultPinEvent pinTracingEvent = new DefaultPinEvent();
 
@@ -99,6 +103,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         unpins = 0;
         hits = 0;
         faults = 0;
+        faultTimeNanos = 0;
         bytesRead = 0;
         bytesWritten = 0;
         evictions = 0;
@@ -112,6 +117,12 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         return faults;
     }
 
+    @Override
+    public long faultTimeNanos()
+    {
+        return faultTimeNanos;
+    }
+
     @Override
     public long pins()
     {
@@ -222,6 +233,14 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public void done()
         {
             faults++;
+            // A cursor can begin several page faults before completing any of them, when it faults in a run of pages
+            // with a single read. We then count the time of the read for the first fault to complete, and nothing for
+            // the rest, so the fault time of the cursor adds up to the time it actually spent faulting.
+            long now = System.nanoTime();
+            long elapsed = now - faultStartNanos;
+            faultStartNanos = now;
+            faultTimeNanos += elapsed;
+            pageCacheTracer.faultLatency( elapsed );
         }
 
         @Override
@@ -247,6 +266,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         @Override
         public FlushEvent beginFlush( long filePageId, long cachePageId, PageSwapper swapper )
         {
+            flushStartNanos = System.nanoTime();
             return flushEvent;
         }
     };
@@ -263,6 +283,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public void done()
         {
             flushes++;
+            pageCacheTracer.flushLatency( System.nanoTime() - flushStartNanos );
         }
 
         @Override
@@ -290,6 +311,7 @@ public class DefaultPageCursorTracer implements PageCursorTracer
         public PageFaultEvent beginPageFault()
         {
             eventHits = 0;
+            faultStartNanos = System.nanoTime();
             return pageFaultEvent;
         }
 
@@ -34,6 +34,11 @@ public interface PageCursorCounters
      */
     long faults();
 
+    /**
+     * @return The total time spent in page faults thus far, in nanoseconds.
+     */
+    long faultTimeNanos();
+
     /**
      * @return The number of page pins observed thus far.
      */
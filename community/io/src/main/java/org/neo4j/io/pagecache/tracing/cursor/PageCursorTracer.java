@@ -43,6 +43,12 @@ public interface PageCursorTracer extends PageCursorCounters
             return 0;
         }
 
+        @Override
+        public long faultTimeNanos()
+        {
+            return 0;
+        }
+
         @Override
         public long pins()
         {
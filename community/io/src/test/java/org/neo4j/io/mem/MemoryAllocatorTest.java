@@ -22,6 +22,7 @@ package org.neo4j.io.mem;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import org.neo4j.internal.nativeimpl.AnonymousMemory.NumaPolicy;
 import org.neo4j.internal.unsafe.UnsafeUtil;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
@@ -175,6 +176,22 @@ class MemoryAllocatorTest
         assertEquals( 0, memoryTracker.usedDirectMemory() );
     }
 
+    @Test
+    void mustAllocateUsableMemoryWithHugePagesAndNumaPolicy()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        MemoryAllocator mman = MemoryAllocator.createAllocator( "4m", memoryTracker, true, NumaPolicy.INTERLEAVE );
+
+        long address = mman.allocateAligned( PageCache.PAGE_SIZE, UnsafeUtil.pageSize() );
+        assertThat( address % UnsafeUtil.pageSize(), is( 0L ) );
+        UnsafeUtil.putLong( address + PageCache.PAGE_SIZE - Long.BYTES, 42 );
+        assertEquals( 42, UnsafeUtil.getLong( address + PageCache.PAGE_SIZE - Long.BYTES ) );
+        assertThat( memoryTracker.usedDirectMemory(), is( greaterThanOrEqualTo( (long) PageCache.PAGE_SIZE ) ) );
+
+        mman.close();
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
@@ -119,6 +119,18 @@ public interface Read
      */
     void nodeIndexScan( IndexReadSession index, NodeValueIndexCursor cursor, IndexOrder indexOrder, boolean needsValues ) throws KernelException;
 
+    /**
+     * Scan all values in an index, in parallel. The index is split up into at most {@code desiredNumberOfPartitions} partitions
+     * of roughly equal size and each call to {@link Scan#reserveBatch(Cursor, int)} reserves one whole partition, i.e. the size hint is ignored.
+     * Results are not ordered. Parallel index scans are only supported in transactions without changes.
+     *
+     * @param index {@link IndexReadSession} index read session to query.
+     * @param desiredNumberOfPartitions number of partitions to split the index into. The index may be split into fewer partitions than this.
+     * @param needsValues if the index should fetch property values together with node ids for index queries
+     * @return a {@link Scan} which can be shared among threads to read the partitions of the index in parallel.
+     */
+    Scan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues ) throws KernelException;
+
     void nodeLabelScan( int label, NodeLabelIndexCursor cursor );
 
     Scan<NodeLabelIndexCursor> nodeLabelScan( int label );
@@ -19,6 +19,9 @@
  */
 package org.neo4j.kernel.api.index;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.neo4j.graphdb.Resource;
 import org.neo4j.internal.schema.IndexOrder;
 import org.neo4j.internal.kernel.api.IndexQuery;
@@ -76,6 +79,48 @@ public interface IndexReader extends Resource
      */
     void distinctValues( IndexProgressor.EntityValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues );
 
+    /**
+     * Splits a scan of all entries in this index, i.e. a query for {@link IndexQuery.ExistsPredicate existence} of the first property
+     * of the index, into at most {@code desiredNumberOfPartitions} partitions. The partitions cover distinct parts of the index and collectively
+     * all of it, such that they can be read in parallel. Readers not able to split up their index return a single partition.
+     *
+     * @param context the query context.
+     * @param desiredNumberOfPartitions number of partitions desired by the caller. Fewer partitions may be returned.
+     * @param needsValues if the index should fetch property values together with node ids.
+     * @param query the existence predicate for the first property of the index.
+     * @return the partitions of the scan.
+     */
+    default List<ScanPartition> partitionedScan( QueryContext context, int desiredNumberOfPartitions, boolean needsValues,
+            IndexQuery.ExistsPredicate query )
+    {
+        return Collections.singletonList( client ->
+        {
+            try
+            {
+                query( context, client, IndexOrder.NONE, needsValues, query );
+            }
+            catch ( IndexNotApplicableKernelException e )
+            {
+                throw new IllegalStateException( "Index scan not applicable for " + query, e );
+            }
+        } );
+    }
+
+    /**
+     * One of the partitions of a {@link #partitionedScan(QueryContext, int, boolean, IndexQuery.ExistsPredicate) partitioned scan}.
+     * A partition holds no resources until it is initialized, so partitions that are never initialized need no cleanup. The progressor
+     * it initializes the client with is closed by the client, as usual.
+     */
+    interface ScanPartition
+    {
+        /**
+         * Initializes {@code client} to be able to progress through the entries in this partition.
+         *
+         * @param client {@link IndexProgressor.EntityValueClient} to get initialized with the progression of this partition.
+         */
+        void initialize( IndexProgressor.EntityValueClient client );
+    }
+
     IndexReader EMPTY = new IndexReader()
     {
         // Used for checking index correctness
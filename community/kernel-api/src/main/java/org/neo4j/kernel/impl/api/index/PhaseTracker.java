@@ -23,6 +23,11 @@ public interface PhaseTracker
 {
     void enterPhase( Phase phase );
 
+    /**
+     * Note that the given phase is carried out by several threads, so that its reported time is wall-clock time for all of them.
+     */
+    void setParallelism( Phase phase, int parallelism );
+
     void stop();
 
     PhaseTracker nullInstance = new NullPhaseTracker();
@@ -46,6 +51,11 @@ public interface PhaseTracker
         {
         }
 
+        @Override
+        public void setParallelism( Phase phase, int parallelism )
+        {
+        }
+
         @Override
         public void stop()
         {
@@ -27,11 +27,16 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+import org.apache.commons.lang3.ArrayUtils;
 
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 
 import static java.util.Objects.requireNonNull;
@@ -41,26 +46,38 @@ import static java.util.Objects.requireNonNull;
  * by restricting access to files that mapped by other databases.
  * Any lookup or attempts to flush/close page file or cache itself will influence only files that were mapped by particular database over this wrapper.
  * Database specific page cache lifecycle tight to a individual database and it will be closed as soon as the particular database will be closed.
+ * Files mapped by the database can share a {@link PageWriteBarrier}, which is then passed before any of their pages are written.
  */
 public class DatabasePageCache implements PageCache
 {
     private final PageCache globalPageCache;
     private final CopyOnWriteArrayList<PagedFile> databasePagedFiles = new CopyOnWriteArrayList<>();
     private final VersionContextSupplier versionContextSupplier;
+    private final PageWriteBarrier writeBarrier;
     private boolean closed;
 
     public DatabasePageCache( PageCache globalPageCache, VersionContextSupplier versionContextSupplier )
+    {
+        this( globalPageCache, versionContextSupplier, null );
+    }
+
+    /**
+     * @param writeBarrier the barrier to map all the files of the database with, or {@code null} if they need none.
+     */
+    public DatabasePageCache( PageCache globalPageCache, VersionContextSupplier versionContextSupplier, PageWriteBarrier writeBarrier )
     {
         requireNonNull( globalPageCache );
         requireNonNull( versionContextSupplier );
         this.globalPageCache = globalPageCache;
         this.versionContextSupplier = versionContextSupplier;
+        this.writeBarrier = writeBarrier;
     }
 
     @Override
     public PagedFile map( File file, VersionContextSupplier versionContextSupplier, int pageSize, OpenOption... openOptions ) throws IOException
     {
-        PagedFile pagedFile = globalPageCache.map( file, versionContextSupplier, pageSize, openOptions );
+        OpenOption[] options = writeBarrier == null ? openOptions : ArrayUtils.add( openOptions, writeBarrier );
+        PagedFile pagedFile = globalPageCache.map( file, versionContextSupplier, pageSize, options );
         DatabasePageFile databasePageFile = new DatabasePageFile( pagedFile, databasePagedFiles );
         databasePagedFiles.add( databasePageFile );
         return databasePageFile;
@@ -83,19 +100,36 @@ public class DatabasePageCache implements PageCache
     @Override
     public void flushAndForce() throws IOException
     {
-        for ( PagedFile pagedFile : databasePagedFiles )
-        {
-            pagedFile.flushAndForce();
-        }
+        flushAndForce( IOLimiter.UNLIMITED );
     }
 
     @Override
     public void flushAndForce( IOLimiter limiter ) throws IOException
     {
+        // Let the global page cache flush the files of this database in parallel, if it can.
+        globalPageCache.flushAndForce( globalPagedFiles( databasePagedFiles ), limiter );
+    }
+
+    @Override
+    public void flushAndForce( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        globalPageCache.flushAndForce( globalPagedFiles( files ), limiter );
+    }
+
+    @Override
+    public void flush( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        globalPageCache.flush( globalPagedFiles( files ), limiter );
+    }
+
+    private static List<PagedFile> globalPagedFiles( List<PagedFile> databasePagedFiles )
+    {
+        List<PagedFile> globalPagedFiles = new ArrayList<>( databasePagedFiles.size() );
         for ( PagedFile pagedFile : databasePagedFiles )
         {
-            pagedFile.flushAndForce( limiter );
+            globalPagedFiles.add( ((DatabasePageFile) pagedFile).delegate );
         }
+        return globalPagedFiles;
     }
 
     @Override
@@ -190,6 +224,24 @@ public class DatabasePageCache implements PageCache
             return delegate.getLastPageId();
         }
 
+        @Override
+        public int touch( long pageId, int count ) throws IOException
+        {
+            return delegate.touch( pageId, count );
+        }
+
+        @Override
+        public void visitResidentPages( LongConsumer visitor ) throws IOException
+        {
+            delegate.visitResidentPages( visitor );
+        }
+
+        @Override
+        public PageFileCounters pageFileCounters()
+        {
+            return delegate.pageFileCounters();
+        }
+
         @Override
         public void close()
         {
@@ -25,10 +25,12 @@ class PageCounterValues
 {
     final long hits;
     final long faults;
+    final long faultTimeNanos;
 
-    PageCounterValues( LongSupplier hits, LongSupplier faults )
+    PageCounterValues( LongSupplier hits, LongSupplier faults, LongSupplier faultTimeNanos )
     {
         this.hits = hits.getAsLong();
         this.faults = faults.getAsLong();
+        this.faultTimeNanos = faultTimeNanos.getAsLong();
     }
 }
@@ -32,6 +32,8 @@ import org.neo4j.kernel.database.NamedDatabaseId;
 import org.neo4j.kernel.impl.locking.ActiveLock;
 import org.neo4j.values.virtual.MapValue;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public class QuerySnapshot
 {
     private final ExecutingQuery query;
@@ -225,6 +227,17 @@ public class QuerySnapshot
         return page.faults;
     }
 
+    /**
+     * The time spent page faulting by the query, which tells how much of its elapsed time was spent waiting for the
+     * store files to be read, rather than for the CPU or for locks.
+     *
+     * @return the time in microseconds that the query has spent in page faults.
+     */
+    public long pageFaultTimeMicros()
+    {
+        return NANOSECONDS.toMicros( page.faultTimeNanos );
+    }
+
     public List<ActiveLock> waitingLocks()
     {
         return waitingLocks;
@@ -36,6 +36,7 @@ import org.neo4j.common.DependencyResolver;
 import org.neo4j.common.TokenNameLookup;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.configuration.GraphDatabaseSettings.CheckpointPolicy;
 import org.neo4j.configuration.SettingChangeListener;
 import org.neo4j.counts.CountsAccessor;
 import org.neo4j.dbms.database.DatabaseConfig;
@@ -94,6 +95,7 @@ import org.neo4j.kernel.impl.locking.StatementLocksFactory;
 import org.neo4j.kernel.impl.pagecache.PageCacheLifecycle;
 import org.neo4j.kernel.impl.pagecache.PageCacheStartMetricsReporter;
 import org.neo4j.kernel.impl.pagecache.PageCacheStopMetricsReporter;
+import org.neo4j.kernel.impl.pagecache.PageCacheWarmer;
 import org.neo4j.kernel.impl.query.QueryEngineProvider;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.store.stats.DatabaseEntityCounters;
@@ -103,12 +105,14 @@ import org.neo4j.kernel.impl.transaction.log.LogVersionUpgradeChecker;
 import org.neo4j.kernel.impl.transaction.log.LoggingLogFileMonitor;
 import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
 import org.neo4j.kernel.impl.transaction.log.PhysicalLogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.RelaxedCommitLogForcer;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
 import org.neo4j.kernel.impl.transaction.log.TransactionMetadataCache;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointScheduler;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointThreshold;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckPointerImpl;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.CheckpointerLifecycle;
+import org.neo4j.kernel.impl.transaction.log.checkpoint.IncrementalPageFlusher;
 import org.neo4j.kernel.impl.transaction.log.checkpoint.StoreCopyCheckPointMutex;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
@@ -135,6 +139,7 @@ import org.neo4j.kernel.internal.event.GlobalTransactionEventListeners;
 import org.neo4j.kernel.internal.locker.FileLockerService;
 import org.neo4j.kernel.internal.locker.LockerLifecycleAdapter;
 import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.kernel.monitoring.tracing.Tracers;
 import org.neo4j.kernel.recovery.LogTailScanner;
@@ -235,6 +240,7 @@ public class Database extends LifecycleAdapter
     private volatile boolean started;
     private Monitors databaseMonitors;
     private DatabasePageCache databasePageCache;
+    private RelaxedCommitLogForcer relaxedCommitLogForcer;
     private CheckpointerLifecycle checkpointerLifecycle;
     private final GraphDatabaseFacade databaseFacade;
     private final FileLockerService fileLockerService;
@@ -305,7 +311,14 @@ public class Database extends LifecycleAdapter
         try
         {
             databaseDependencies = new Dependencies( globalDependencies );
-            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier );
+            // The system database always commits with full durability.
+            relaxedCommitLogForcer = null;
+            if ( databaseConfig.get( GraphDatabaseSettings.relaxed_durability ) && !isSystem() )
+            {
+                relaxedCommitLogForcer = new RelaxedCommitLogForcer( scheduler, databaseConfig.get( GraphDatabaseSettings.relaxed_durability_force_interval ),
+                        databaseTracer, internalLogProvider );
+            }
+            databasePageCache = new DatabasePageCache( globalPageCache, versionContextSupplier, relaxedCommitLogForcer );
             databaseMonitors = new Monitors( parentMonitors );
 
             life = new LifeSupport();
@@ -361,6 +374,7 @@ public class Database extends LifecycleAdapter
                     .withDependencies( databaseDependencies )
                     .withLogProvider( internalLogProvider )
                     .withDatabaseTracer( databaseTracer )
+                    .withJobScheduler( scheduler )
                     .build();
 
             databaseMonitors.addMonitorListener( new LoggingLogFileMonitor( msgLog ) );
@@ -388,7 +402,7 @@ public class Database extends LifecycleAdapter
 
             storageEngine = storageEngineFactory.instantiate( fs, databaseLayout, databaseConfig, databasePageCache, tokenHolders, databaseSchemaState,
                     constraintSemantics, indexProviderMap, lockService, idGeneratorFactory, idController, databaseHealth, internalLogProvider,
-                    recoveryCleanupWorkCollector, !storageExists );
+                    scheduler, recoveryCleanupWorkCollector, !storageExists );
 
             life.add( storageEngine );
             life.add( storageEngine.schemaAndTokensLifecycle() );
@@ -452,6 +466,7 @@ public class Database extends LifecycleAdapter
 
             this.checkpointerLifecycle = new CheckpointerLifecycle( transactionLogModule.checkPointer(), databaseHealth );
 
+            life.add( new PageCacheWarmer( fs, databasePageCache, scheduler, databaseLayout.databaseDirectory(), databaseConfig, internalLogProvider ) );
             life.add( databaseHealth );
             life.add( databaseAvailabilityGuard );
             life.add( databaseAvailability );
@@ -596,12 +611,31 @@ public class Database extends LifecycleAdapter
         final LogRotation logRotation =
                 new LogRotationImpl( logFiles, clock, databaseHealth, monitors.newMonitor( LogRotationMonitor.class ) );
 
-        final TransactionAppender appender = life.add( new BatchingTransactionAppender(
-                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth ) );
+        final BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender(
+                logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth,
+                TimeUnit.MICROSECONDS.toNanos( config.get( GraphDatabaseSettings.group_commit_delay_micros ) ),
+                config.get( GraphDatabaseSettings.group_commit_size ), config.get( GraphDatabaseSettings.compress_tx_log_commands ),
+                relaxedCommitLogForcer != null ) );
+        if ( relaxedCommitLogForcer != null )
+        {
+            relaxedCommitLogForcer.initialize( appender );
+            life.add( relaxedCommitLogForcer );
+        }
         final LogicalTransactionStore logicalTransactionStore =
                 new PhysicalLogicalTransactionStore( logFiles, transactionMetadataCache, logEntryReader, monitors, true );
 
-        CheckPointThreshold threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
+        CheckPointThreshold threshold;
+        if ( config.get( GraphDatabaseSettings.check_point_policy ) == CheckpointPolicy.INCREMENTAL )
+        {
+            long pauseMillis = config.get( GraphDatabaseSettings.check_point_incremental_interval ).toMillis();
+            IncrementalPageFlusher flusher =
+                    life.add( new IncrementalPageFlusher( databasePageCache, transactionIdStore, ioLimiter, scheduler, pauseMillis, logProvider ) );
+            threshold = flusher.checkPointThreshold();
+        }
+        else
+        {
+            threshold = CheckPointThreshold.createThreshold( config, clock, logPruning, logProvider );
+        }
 
         final CheckPointerImpl checkPointer =
                 new CheckPointerImpl( transactionIdStore, threshold, forceOperation, logPruning, appender, databaseHealth, logProvider, databaseTracer,
@@ -627,7 +661,11 @@ public class Database extends LifecycleAdapter
         AtomicReference<CpuClock> cpuClockRef = setupCpuClockAtomicReference();
         AtomicReference<HeapAllocation> heapAllocationRef = setupHeapAllocationAtomicReference();
 
-        TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine, databaseConfig );
+        TransactionCommitProcess transactionCommitProcess = commitProcessFactory.create( appender, storageEngine, databaseConfig, scheduler );
+        if ( transactionCommitProcess instanceof Lifecycle )
+        {
+            life.add( (Lifecycle) transactionCommitProcess );
+        }
 
         /*
          * This is used by explicit indexes and constraint indexes whenever a transaction is to be spawned
@@ -87,6 +87,7 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
     private final VersionContextSupplier versionContextSupplier;
     private long initialStatementHits;
     private long initialStatementFaults;
+    private long initialStatementFaultTimeNanos;
 
     public KernelStatement( KernelTransactionImplementation transaction, LockTracer systemLockTracer, ClockContext clockContext,
             VersionContextSupplier versionContextSupplier, AtomicReference<CpuClock> cpuClockRef, NamedDatabaseId namedDatabaseId )
@@ -159,6 +160,11 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
         return subtractExact( pageCursorTracer.faults(), initialStatementFaults );
     }
 
+    public long getFaultTimeNanos()
+    {
+        return subtractExact( pageCursorTracer.faultTimeNanos(), initialStatementFaultTimeNanos );
+    }
+
     public final void acquire()
     {
         if ( referenceCount++ == 0 )
@@ -166,6 +172,7 @@ public class KernelStatement extends CloseableResourceManager implements Stateme
             clockContext.initializeStatement();
             this.initialStatementHits = pageCursorTracer.hits();
             this.initialStatementFaults = pageCursorTracer.faults();
+            this.initialStatementFaultTimeNanos = pageCursorTracer.faultTimeNanos();
         }
         recordOpenCloseMethods();
     }
@@ -0,0 +1,418 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.kernel.impl.transaction.tracing.StoreApplyEvent;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+
+import static org.neo4j.kernel.api.exceptions.Status.Database.DatabaseUnavailable;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionCommitFailed;
+import static org.neo4j.kernel.api.exceptions.Status.Transaction.TransactionLogError;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A {@link TransactionCommitProcess} that commits transactions in a pipeline of three stages, each running in a thread
+ * of its own. The first stage appends transactions to the log, the second forces the log and marks the appended
+ * transactions as committed, and the third applies the committed transactions to the store. The stages hand the
+ * commits to each other through lock-free queues, so while one group of transactions is being forced, the next group
+ * is being appended, and the group before is being applied.
+ * <p>
+ * Every stage takes all the commits that have queued up for it at once. The force stage forces the log once for all
+ * the transactions that have been appended since its last force, and the apply stage links consecutive transactions
+ * together, and applies them to the store in batches of up to {@code applyBatchSize} transactions.
+ * <p>
+ * The committing threads wait until their transactions have been applied, so when {@link #commit(TransactionToApply,
+ * CommitEvent, TransactionApplicationMode) commit} returns, the transactions are as durable and as visible as they
+ * are with the {@link TransactionRepresentationCommitProcess}.
+ */
+public class PipelinedTransactionCommitProcess extends LifecycleAdapter implements TransactionCommitProcess
+{
+    private static final int applyBatchSize = getInteger( PipelinedTransactionCommitProcess.class, "applyBatchSize", 64 );
+    private static final long STAGE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 10 );
+
+    private final TransactionAppender appender;
+    private final StorageEngine storageEngine;
+    private final JobScheduler scheduler;
+    private final Stage appendStage = new Stage( "append", this::append );
+    private final Stage forceStage = new Stage( "force", this::force );
+    private final Stage applyStage = new Stage( "apply", this::apply );
+
+    public PipelinedTransactionCommitProcess( TransactionAppender appender, StorageEngine storageEngine, JobScheduler scheduler )
+    {
+        this.appender = appender;
+        this.storageEngine = storageEngine;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void start()
+    {
+        applyStage.start();
+        forceStage.start();
+        appendStage.start();
+    }
+
+    @Override
+    public void stop() throws Exception
+    {
+        // Stop the stages from the front of the pipeline, so every stage gets to finish the commits it is handed.
+        appendStage.stop();
+        forceStage.stop();
+        applyStage.stop();
+    }
+
+    @Override
+    public long commit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode ) throws TransactionFailureException
+    {
+        PendingCommit commit = new PendingCommit( batch, commitEvent, mode );
+        if ( !appendStage.offer( commit ) )
+        {
+            throw new TransactionFailureException( DatabaseUnavailable, "The transaction commit process has been stopped" );
+        }
+        return commit.awaitCompletion();
+    }
+
+    private void append( List<PendingCommit> commits )
+    {
+        for ( PendingCommit commit : commits )
+        {
+            commit.logAppendEvent = commit.commitEvent.beginLogAppend();
+            try
+            {
+                commit.lastTransactionId = appender.appendWithoutForce( commit.batch, commit.logAppendEvent );
+            }
+            catch ( Throwable cause )
+            {
+                commit.logAppendEvent.close();
+                commit.fail( new TransactionFailureException( TransactionLogError, cause, "Could not append transaction representation to log" ) );
+                continue;
+            }
+            forceStage.offer( commit );
+        }
+    }
+
+    private void force( List<PendingCommit> commits )
+    {
+        // One force makes all the transactions that have been appended so far durable.
+        Throwable failure = null;
+        try
+        {
+            appender.force( commits.get( commits.size() - 1 ).logAppendEvent );
+        }
+        catch ( Throwable cause )
+        {
+            failure = cause;
+        }
+
+        for ( PendingCommit commit : commits )
+        {
+            commit.logAppendEvent.close();
+            if ( failure != null )
+            {
+                commit.fail( new TransactionFailureException( TransactionLogError, failure, "Could not force transaction log" ) );
+                continue;
+            }
+            for ( TransactionToApply tx = commit.batch; tx != null; tx = tx.next() )
+            {
+                if ( !tx.commitment().markedAsCommitted() )
+                {
+                    tx.commitment().publishAsCommitted();
+                }
+            }
+            applyStage.offer( commit );
+        }
+    }
+
+    private void apply( List<PendingCommit> commits )
+    {
+        int from = 0;
+        while ( from < commits.size() )
+        {
+            TransactionApplicationMode mode = commits.get( from ).mode;
+            int transactions = commits.get( from ).transactionCount;
+            int to = from + 1;
+            while ( to < commits.size() && commits.get( to ).mode == mode && transactions + commits.get( to ).transactionCount <= applyBatchSize )
+            {
+                transactions += commits.get( to ).transactionCount;
+                to++;
+            }
+            applyBatch( commits.subList( from, to ), mode );
+            from = to;
+        }
+    }
+
+    private void applyBatch( List<PendingCommit> commits, TransactionApplicationMode mode )
+    {
+        StoreApplyEvent[] storeApplyEvents = new StoreApplyEvent[commits.size()];
+        for ( int i = 0; i < commits.size(); i++ )
+        {
+            storeApplyEvents[i] = commits.get( i ).commitEvent.beginStoreApply();
+        }
+
+        // Link the transactions of all the commits into one batch, and unlink them again when the batch has been applied,
+        // since the transactions are handed back to the committing threads.
+        for ( int i = 1; i < commits.size(); i++ )
+        {
+            commits.get( i - 1 ).lastTransaction.next( commits.get( i ).batch );
+        }
+        TransactionFailureException failure = null;
+        try
+        {
+            storageEngine.apply( commits.get( 0 ).batch, mode );
+        }
+        catch ( Throwable cause )
+        {
+            failure = new TransactionFailureException( TransactionCommitFailed, cause, "Could not apply the transaction to the store after written to log" );
+        }
+        finally
+        {
+            for ( int i = 0; i < commits.size(); i++ )
+            {
+                commits.get( i ).lastTransaction.next( null );
+                storeApplyEvents[i].close();
+            }
+        }
+
+        for ( PendingCommit commit : commits )
+        {
+            close( commit.batch );
+            if ( failure != null )
+            {
+                commit.fail( failure );
+            }
+            else
+            {
+                commit.complete();
+            }
+        }
+    }
+
+    private static void close( TransactionToApply batch )
+    {
+        while ( batch != null )
+        {
+            if ( batch.commitment().markedAsCommitted() )
+            {
+                batch.commitment().publishAsClosed();
+            }
+            batch.close();
+            batch = batch.next();
+        }
+    }
+
+    private interface StageWork
+    {
+        void process( List<PendingCommit> commits );
+    }
+
+    /**
+     * A stage of the pipeline, with a queue of commits that its thread takes in groups and processes. If processing a group
+     * throws, the commits of the group that the stage still holds are failed, and the stage carries on with the next group.
+     */
+    private class Stage implements Runnable
+    {
+        private final Queue<PendingCommit> queue = new ConcurrentLinkedQueue<>();
+        private final List<PendingCommit> drained = new ArrayList<>();
+        private final String name;
+        private final StageWork work;
+        private volatile Thread thread;
+        private volatile boolean stopped;
+        private JobHandle handle;
+
+        Stage( String name, StageWork work )
+        {
+            this.name = name;
+            this.work = work;
+        }
+
+        void start()
+        {
+            stopped = false;
+            handle = scheduler.schedule( Group.TRANSACTION_COMMIT, this );
+        }
+
+        /**
+         * @return {@code false} if the stage has stopped, and will not process the given commit.
+         */
+        boolean offer( PendingCommit commit )
+        {
+            commit.stage = this;
+            queue.offer( commit );
+            // The stage reads the stopped flag before it drains the queue for the last time, so if it is not yet set, the
+            // commit will be drained. Otherwise, we may or may not be in time, and whoever removes the commit decides.
+            if ( stopped && queue.remove( commit ) )
+            {
+                return false;
+            }
+            Thread stageThread = thread;
+            if ( stageThread != null )
+            {
+                LockSupport.unpark( stageThread );
+            }
+            return true;
+        }
+
+        void stop() throws InterruptedException, ExecutionException
+        {
+            stopped = true;
+            if ( handle != null )
+            {
+                LockSupport.unpark( thread );
+                handle.waitTermination();
+                handle = null;
+            }
+        }
+
+        @Override
+        public void run()
+        {
+            thread = Thread.currentThread();
+            try
+            {
+                boolean lastRound;
+                do
+                {
+                    lastRound = stopped;
+                    PendingCommit commit;
+                    while ( (commit = queue.poll()) != null )
+                    {
+                        drained.add( commit );
+                    }
+                    if ( !drained.isEmpty() )
+                    {
+                        process();
+                    }
+                    else if ( !lastRound )
+                    {
+                        LockSupport.parkNanos( this, STAGE_PARK_NANOS );
+                    }
+                }
+                while ( !lastRound );
+            }
+            finally
+            {
+                thread = null;
+            }
+        }
+
+        private void process()
+        {
+            try
+            {
+                work.process( drained );
+            }
+            catch ( Throwable cause )
+            {
+                // Commits that were handed on to the next stage, or already completed, are not ours to fail
+                for ( PendingCommit commit : drained )
+                {
+                    if ( commit.stage == this && !commit.done )
+                    {
+                        commit.fail( new TransactionFailureException( TransactionCommitFailed, cause,
+                                "Could not commit transaction, because the " + name + " stage of the commit pipeline failed" ) );
+                    }
+                }
+            }
+            finally
+            {
+                drained.clear();
+            }
+        }
+    }
+
+    private static final class PendingCommit
+    {
+        private final TransactionToApply batch;
+        private final TransactionToApply lastTransaction;
+        private final int transactionCount;
+        private final CommitEvent commitEvent;
+        private final TransactionApplicationMode mode;
+        private final Thread committer = Thread.currentThread();
+        private volatile Stage stage;
+        private LogAppendEvent logAppendEvent;
+        private long lastTransactionId;
+        private TransactionFailureException failure;
+        private volatile boolean done;
+
+        PendingCommit( TransactionToApply batch, CommitEvent commitEvent, TransactionApplicationMode mode )
+        {
+            this.batch = batch;
+            this.commitEvent = commitEvent;
+            this.mode = mode;
+            TransactionToApply last = batch;
+            int count = 1;
+            while ( last.next() != null )
+            {
+                last = last.next();
+                count++;
+            }
+            this.lastTransaction = last;
+            this.transactionCount = count;
+        }
+
+        void complete()
+        {
+            done = true;
+            LockSupport.unpark( committer );
+        }
+
+        void fail( TransactionFailureException failure )
+        {
+            this.failure = failure;
+            complete();
+        }
+
+        long awaitCompletion() throws TransactionFailureException
+        {
+            boolean interrupted = false;
+            while ( !done )
+            {
+                LockSupport.park( this );
+                interrupted |= Thread.interrupted();
+            }
+            if ( interrupted )
+            {
+                Thread.currentThread().interrupt();
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return lastTransactionId;
+        }
+    }
+}
@@ -68,7 +68,8 @@ public class StatementQueryRegistry implements QueryRegistry
         KernelTransactionImplementation transaction = statement.getTransaction();
         ExecutingQuery executingQuery =
                 new ExecutingQuery( queryId, transaction.clientInfo(), namedDatabaseId, statement.username(), queryText, queryParameters,
-                        transaction.getMetaData(), () -> statement.locks().activeLockCount(), statement::getHits, statement::getFaults,
+                        transaction.getMetaData(), () -> statement.locks().activeLockCount(),
+                        statement::getHits, statement::getFaults, statement::getFaultTimeNanos,
                         threadId, threadName, clock, cpuClockRef.get() );
         registerExecutingQuery( executingQuery );
         return executingQuery;
@@ -56,6 +56,9 @@ import static org.neo4j.internal.helpers.NamedThreadFactory.daemon;
  * the queue using {@link MultipleIndexUpdater}. If queue size never reaches {@link #QUEUE_THRESHOLD} than all queued
  * concurrent updates are flushed after the store scan in {@link MultipleIndexPopulator#flipAfterPopulation(boolean)}.
  * <p>
+ * The store scan itself can be split into id ranges that are scanned by {@link #scanParallelism() several threads}. Each scan thread
+ * then adds its own batches to the populators, see {@link MultipleIndexPopulator#scanParallelism()}.
+ * <p>
  * Inner {@link ExecutorService executor} is shut down after the store scan completes.
  */
 public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
@@ -77,6 +80,7 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
 
     private final AtomicLong activeTasks = new AtomicLong();
     private final ExecutorService executor;
+    private final int scanParallelism;
 
     /**
      * Creates a new multi-threaded populator for the given store view.
@@ -85,12 +89,14 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
      * @param logProvider the log provider
      * @param type entity type to populate
      * @param schemaState the schema state
+     * @param scanParallelism number of threads scanning the store
      */
     BatchingMultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
-            IndexStatisticsStore indexStatisticsStore )
+            IndexStatisticsStore indexStatisticsStore, int scanParallelism )
     {
         super( storeView, logProvider, type, schemaState, indexStatisticsStore );
         this.executor = createThreadPool();
+        this.scanParallelism = scanParallelism;
     }
 
     /**
@@ -108,6 +114,13 @@ public class BatchingMultipleIndexPopulator extends MultipleIndexPopulator
     {
         super( storeView, logProvider, EntityType.NODE, schemaState, indexStatisticsStore );
         this.executor = executor;
+        this.scanParallelism = 1;
+    }
+
+    @Override
+    int scanParallelism()
+    {
+        return scanParallelism;
     }
 
     @Override
@@ -89,6 +89,14 @@ public class LoggingPhaseTracker implements PhaseTracker
         }
     }
 
+    @Override
+    public void setParallelism( Phase phase, int parallelism )
+    {
+        Logger logger = times.get( phase );
+        logger.parallelism = parallelism;
+        logger.periodCounter.parallelism = parallelism;
+    }
+
     @Override
     public void stop()
     {
@@ -191,6 +199,7 @@ public class LoggingPhaseTracker implements PhaseTracker
         long nbrOfReports;
         long maxTime;
         long minTime;
+        int parallelism = 1;
 
         Counter( Phase phase )
         {
@@ -234,6 +243,10 @@ public class LoggingPhaseTracker implements PhaseTracker
                 addToString( "maxTime", maxTime, joiner, true );
                 addToString( "nbrOfReports", nbrOfReports, joiner, false );
             }
+            if ( parallelism > 1 )
+            {
+                addToString( "parallelism", parallelism, joiner, false );
+            }
             return joiner.toString();
         }
 
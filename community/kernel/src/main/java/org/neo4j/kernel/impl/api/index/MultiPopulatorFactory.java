@@ -31,6 +31,7 @@ import org.neo4j.logging.LogProvider;
  * depending on the given config.
  *
  * @see GraphDatabaseSettings#multi_threaded_schema_index_population_enabled
+ * @see GraphDatabaseSettings#index_population_scan_parallelism
  */
 public abstract class MultiPopulatorFactory
 {
@@ -44,7 +45,8 @@ public abstract class MultiPopulatorFactory
     public static MultiPopulatorFactory forConfig( Config config )
     {
         boolean multiThreaded = config.get( GraphDatabaseSettings.multi_threaded_schema_index_population_enabled );
-        return multiThreaded ? new MultiThreadedPopulatorFactory() : new SingleThreadedPopulatorFactory();
+        int scanParallelism = config.get( GraphDatabaseSettings.index_population_scan_parallelism );
+        return multiThreaded ? new MultiThreadedPopulatorFactory( scanParallelism ) : new SingleThreadedPopulatorFactory();
     }
 
     private static class SingleThreadedPopulatorFactory extends MultiPopulatorFactory
@@ -59,11 +61,18 @@ public abstract class MultiPopulatorFactory
 
     private static class MultiThreadedPopulatorFactory extends MultiPopulatorFactory
     {
+        private final int scanParallelism;
+
+        MultiThreadedPopulatorFactory( int scanParallelism )
+        {
+            this.scanParallelism = scanParallelism;
+        }
+
         @Override
         public MultipleIndexPopulator create( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
                 IndexStatisticsStore indexStatisticsStore )
         {
-            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState, indexStatisticsStore );
+            return new BatchingMultipleIndexPopulator( storeView, logProvider, type, schemaState, indexStatisticsStore, scanParallelism );
         }
     }
 }
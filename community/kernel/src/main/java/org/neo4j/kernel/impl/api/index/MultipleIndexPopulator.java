@@ -29,6 +29,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.IntPredicate;
 import java.util.stream.IntStream;
@@ -86,6 +87,11 @@ import static org.neo4j.kernel.impl.api.index.IndexPopulationFailure.failure;
  * <li>While all nodes are being indexed, calls to {@link #queueConcurrentUpdate(IndexEntryUpdate)} are accepted.</li>
  * <li>Call to {@link #flipAfterPopulation(boolean)} after successful population, or {@link #fail(Throwable)} if not</li>
  * </ol>
+ *
+ * If the store scan runs with more than one thread, see {@link #scanParallelism()}, each scan thread gathers its own batches of updates
+ * and adds them to the populators itself. There's then no single id up to which the scan has come, so once the queue of concurrent updates
+ * has reached its threshold the scan threads apply the queued updates up to the lowest id that all of them have passed, see {@link ParallelScanProgress}.
+ * Queued updates for entities above that id are kept, in order, until the scan threads have passed them or the scan has completed.
  */
 public class MultipleIndexPopulator implements IndexPopulator
 {
@@ -114,6 +120,20 @@ public class MultipleIndexPopulator implements IndexPopulator
     private final IndexStatisticsStore indexStatisticsStore;
     private final PhaseTracker phaseTracker;
     private StoreScan<IndexPopulationFailedKernelException> storeScan;
+    private volatile boolean parallelScan;
+
+    // Batches of updates from a parallel store scan, one map per scan thread. Each thread only ever touches its own map
+    // during the scan, the maps are read by the thread calling #indexAllEntities after all scan threads have completed.
+    private final List<Map<IndexPopulation,List<IndexEntryUpdate<?>>>> batchesFromParallelScan = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Map<IndexPopulation,List<IndexEntryUpdate<?>>>> threadBatchesFromParallelScan = ThreadLocal.withInitial( () ->
+    {
+        Map<IndexPopulation,List<IndexEntryUpdate<?>>> batches = new HashMap<>();
+        batchesFromParallelScan.add( batches );
+        return batches;
+    } );
+    // Queued updates for entities that the threads of a parallel store scan had not all passed when the queue was last drained.
+    // Only touched by the one thread draining the queue at a time, see ParallelScanProgress, and after the scan has completed.
+    private List<IndexEntryUpdate<?>> deferredConcurrentUpdates = new ArrayList<>();
 
     public MultipleIndexPopulator( IndexStoreView storeView, LogProvider logProvider, EntityType type, SchemaState schemaState,
             IndexStatisticsStore indexStatisticsStore )
@@ -184,6 +204,12 @@ public class MultipleIndexPopulator implements IndexPopulator
             storeScan = storeView.visitNodes( entityTokenIds, propertyKeyIdFilter, new EntityPopulationVisitor(), null, false );
         }
         storeScan.setPhaseTracker( phaseTracker );
+        int parallelism = storeScan.setParallelism( scanParallelism() );
+        parallelScan = parallelism > 1;
+        if ( parallelScan )
+        {
+            storeScan.setParallelScanListener( new ParallelScanProgress( parallelism ) );
+        }
         return new DelegatingStoreScan<>( storeScan )
         {
             @Override
@@ -195,6 +221,14 @@ public class MultipleIndexPopulator implements IndexPopulator
         };
     }
 
+    /**
+     * @return the number of threads the store scan should use, the store scan may decide to use fewer.
+     */
+    int scanParallelism()
+    {
+        return 1;
+    }
+
     /**
      * Queues an update to be fed into the index populators. These updates come from changes being made
      * to storage while a concurrent scan is happening to keep populators up to date with all latest changes.
@@ -377,9 +411,24 @@ public class MultipleIndexPopulator implements IndexPopulator
 
     void flushAll()
     {
+        flushBatchesFromParallelScan();
         populations.forEach( this::flush );
     }
 
+    private void flushBatchesFromParallelScan()
+    {
+        for ( Map<IndexPopulation,List<IndexEntryUpdate<?>>> batches : batchesFromParallelScan )
+        {
+            flushBatchesFromParallelScan( batches );
+        }
+    }
+
+    private static void flushBatchesFromParallelScan( Map<IndexPopulation,List<IndexEntryUpdate<?>>> batches )
+    {
+        batches.forEach( IndexPopulation::addBatchFromParallelScan );
+        batches.clear();
+    }
+
     protected final void flush( IndexPopulation population )
     {
         phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
@@ -406,7 +455,7 @@ public class MultipleIndexPopulator implements IndexPopulator
     private boolean applyConcurrentUpdateQueue( int queueThreshold, long currentlyIndexedNodeId )
     {
         int queueSize = concurrentUpdateQueue.size();
-        if ( queueSize > 0 && queueSize >= queueThreshold )
+        if ( (queueSize > 0 || !deferredConcurrentUpdates.isEmpty()) && queueSize >= queueThreshold )
         {
             if ( PRINT_DEBUG )
             {
@@ -418,7 +467,13 @@ public class MultipleIndexPopulator implements IndexPopulator
 
             try ( MultipleIndexUpdater updater = newPopulatingUpdater( propertyAccessor ) )
             {
-                do
+                // Updates deferred by a parallel scan were queued before the ones still in the queue
+                for ( IndexEntryUpdate<?> update : deferredConcurrentUpdates )
+                {
+                    storeScan.acceptUpdate( updater, update, currentlyIndexedNodeId );
+                }
+                deferredConcurrentUpdates.clear();
+                while ( !concurrentUpdateQueue.isEmpty() )
                 {
                     // no need to check for null as nobody else is emptying this queue
                     IndexEntryUpdate<?> update = concurrentUpdateQueue.poll();
@@ -428,7 +483,6 @@ public class MultipleIndexPopulator implements IndexPopulator
                         log.info( "Applied %s from queue" + update );
                     }
                 }
-                while ( !concurrentUpdateQueue.isEmpty() );
             }
             if ( PRINT_DEBUG )
             {
@@ -439,6 +493,44 @@ public class MultipleIndexPopulator implements IndexPopulator
         return false;
     }
 
+    /**
+     * Applies the deferred and queued updates for entities that all threads of the parallel store scan have passed, from one of the scan threads.
+     * Updates for entities above that id are deferred, in order, since the scan may still add them to the populators.
+     * Only the updates that were queued when this call started are taken from the queue, so that this scan thread can get back to scanning.
+     */
+    private void applyConcurrentUpdatesPassedByParallelScan( long passedEntityId )
+    {
+        if ( PRINT_DEBUG )
+        {
+            log.info( "Populating from queue at %d passed by all scan threads", passedEntityId );
+        }
+        List<IndexEntryUpdate<?>> stillDeferred = new ArrayList<>();
+        try ( MultipleIndexUpdater updater = newPopulatingUpdater( propertyAccessor ) )
+        {
+            for ( IndexEntryUpdate<?> update : deferredConcurrentUpdates )
+            {
+                applyOrDefer( updater, update, passedEntityId, stillDeferred );
+            }
+            for ( int queued = concurrentUpdateQueue.size(); queued > 0; queued-- )
+            {
+                applyOrDefer( updater, concurrentUpdateQueue.poll(), passedEntityId, stillDeferred );
+            }
+        }
+        deferredConcurrentUpdates = stillDeferred;
+    }
+
+    private void applyOrDefer( MultipleIndexUpdater updater, IndexEntryUpdate<?> update, long passedEntityId, List<IndexEntryUpdate<?>> stillDeferred )
+    {
+        if ( update.getEntityId() <= passedEntityId )
+        {
+            storeScan.acceptUpdate( updater, update, passedEntityId );
+        }
+        else
+        {
+            stillDeferred.add( update );
+        }
+    }
+
     private void forEachPopulation( ThrowingConsumer<IndexPopulation,Exception> action )
     {
         for ( IndexPopulation population : populations )
@@ -479,7 +571,11 @@ public class MultipleIndexPopulator implements IndexPopulator
 
                 try
                 {
-                    population.populator.includeSample( update );
+                    // Threads of a parallel store scan may include samples in the same populator concurrently
+                    synchronized ( population )
+                    {
+                        population.populator.includeSample( update );
+                    }
                     updater.process( update );
                 }
                 catch ( Throwable t )
@@ -609,6 +705,33 @@ public class MultipleIndexPopulator implements IndexPopulator
             }
         }
 
+        /**
+         * Adds a batch of updates gathered by one of the threads of a parallel store scan, from that same thread.
+         * Populators accept concurrent calls to {@link IndexPopulator#add(Collection)}, but not to {@link IndexPopulator#includeSample(IndexEntryUpdate)}.
+         */
+        private void addBatchFromParallelScan( List<IndexEntryUpdate<?>> batch )
+        {
+            if ( !populations.contains( this ) )
+            {
+                return;
+            }
+            try
+            {
+                synchronized ( this )
+                {
+                    for ( IndexEntryUpdate<?> update : batch )
+                    {
+                        populator.includeSample( update );
+                    }
+                }
+                populator.add( batch );
+            }
+            catch ( Throwable failure )
+            {
+                fail( this, failure );
+            }
+        }
+
         void flip( boolean verifyBeforeFlipping ) throws FlipFailedKernelException
         {
             phaseTracker.enterPhase( PhaseTracker.Phase.FLIP );
@@ -706,6 +829,11 @@ public class MultipleIndexPopulator implements IndexPopulator
         @Override
         public boolean visit( EntityUpdates updates )
         {
+            if ( parallelScan )
+            {
+                addFromParallelScan( updates );
+                return false;
+            }
             addFromScan( updates );
             if ( PRINT_DEBUG )
             {
@@ -723,6 +851,97 @@ public class MultipleIndexPopulator implements IndexPopulator
                 indexUpdate.indexKey().onUpdateFromScan( indexUpdate );
             }
         }
+
+        private void addFromParallelScan( EntityUpdates updates )
+        {
+            Map<IndexPopulation,List<IndexEntryUpdate<?>>> batches = threadBatchesFromParallelScan.get();
+            for ( IndexEntryUpdate<IndexPopulation> indexUpdate : updates.forIndexKeys( populations ) )
+            {
+                IndexPopulation population = indexUpdate.indexKey();
+                List<IndexEntryUpdate<?>> batch = batches.computeIfAbsent( population, p -> new ArrayList<>( BATCH_SIZE_SCAN ) );
+                batch.add( indexUpdate );
+                if ( batch.size() >= BATCH_SIZE_SCAN )
+                {
+                    batches.remove( population );
+                    population.addBatchFromParallelScan( batch );
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps track of how far each thread of a parallel store scan has come. When the queue of concurrent updates has reached its threshold
+     * a scan thread first adds what it has scanned to the populators, then publishes the id it has passed and, unless another scan thread
+     * is already at it, applies the queued updates up to the lowest id all scan threads have passed.
+     */
+    private class ParallelScanProgress implements ParallelScanListener
+    {
+        private final int parallelism;
+        // Per scan thread, the id up to which the thread has added all it has scanned to the populators
+        private final List<AtomicLong> passedEntityIds = new CopyOnWriteArrayList<>();
+        private final ThreadLocal<AtomicLong> threadPassedEntityId = new ThreadLocal<>();
+        private final ReentrantLock drainLock = new ReentrantLock();
+
+        ParallelScanProgress( int parallelism )
+        {
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        public void scanThreadStarted()
+        {
+            AtomicLong passedEntityId = new AtomicLong( -1 );
+            threadPassedEntityId.set( passedEntityId );
+            passedEntityIds.add( passedEntityId );
+        }
+
+        @Override
+        public void scanThreadPassed( long entityId )
+        {
+            if ( concurrentUpdateQueue.size() >= QUEUE_THRESHOLD )
+            {
+                flushBatchesFromParallelScan( threadBatchesFromParallelScan.get() );
+                threadPassedEntityId.get().set( entityId );
+                if ( drainLock.tryLock() )
+                {
+                    try
+                    {
+                        long passedByAll = passedByAllScanThreads();
+                        if ( passedByAll >= 0 )
+                        {
+                            applyConcurrentUpdatesPassedByParallelScan( passedByAll );
+                        }
+                    }
+                    finally
+                    {
+                        drainLock.unlock();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void scanThreadCompleted()
+        {
+            flushBatchesFromParallelScan( threadBatchesFromParallelScan.get() );
+            threadPassedEntityId.get().set( Long.MAX_VALUE );
+            threadPassedEntityId.remove();
+        }
+
+        private long passedByAllScanThreads()
+        {
+            if ( passedEntityIds.size() < parallelism )
+            {
+                // Some scan thread has not started yet and may still scan any of the entities not yet claimed
+                return -1;
+            }
+            long passedByAll = Long.MAX_VALUE;
+            for ( AtomicLong passedEntityId : passedEntityIds )
+            {
+                passedByAll = Math.min( passedByAll, passedEntityId.get() );
+            }
+            return passedByAll;
+        }
     }
 
     protected static class DelegatingStoreScan<E extends Exception> implements StoreScan<E>
@@ -763,5 +982,17 @@ public class MultipleIndexPopulator implements IndexPopulator
         {
             delegate.setPhaseTracker( phaseTracker );
         }
+
+        @Override
+        public int setParallelism( int parallelism )
+        {
+            return delegate.setParallelism( parallelism );
+        }
+
+        @Override
+        public void setParallelScanListener( ParallelScanListener listener )
+        {
+            delegate.setParallelScanListener( listener );
+        }
     }
 }
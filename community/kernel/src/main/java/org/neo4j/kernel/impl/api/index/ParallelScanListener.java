@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+/**
+ * Told by the threads of a parallel {@link StoreScan} how far each of them has come. Every scan thread claims its entities
+ * in increasing id order, so once all threads have passed an id every entity up to that id has been scanned.
+ * All methods are called from the scan thread itself.
+ */
+public interface ParallelScanListener
+{
+    ParallelScanListener NONE = new ParallelScanListener()
+    {
+        @Override
+        public void scanThreadStarted()
+        {   // no-op
+        }
+
+        @Override
+        public void scanThreadPassed( long entityId )
+        {   // no-op
+        }
+
+        @Override
+        public void scanThreadCompleted()
+        {   // no-op
+        }
+    };
+
+    /**
+     * Called by a scan thread before it scans its first entity.
+     */
+    void scanThreadStarted();
+
+    /**
+     * Called by a scan thread after it has processed the entity with the given id, and no longer holds its lock.
+     * @param entityId id of the entity just processed, the calling thread will only process entities with higher ids from now on.
+     */
+    void scanThreadPassed( long entityId );
+
+    /**
+     * Called by a scan thread when it will not scan any more entities, also if it failed.
+     */
+    void scanThreadCompleted();
+}
@@ -41,4 +41,24 @@ public interface StoreScan<FAILURE extends Exception>
     default void setPhaseTracker( PhaseTracker phaseTracker )
     {   // no-op
     }
+
+    /**
+     * Ask this {@link StoreScan} to split the scan into id ranges scanned by the given number of threads.
+     * Must not be called once scan has already started.
+     * @param parallelism desired number of threads scanning the store.
+     * @return the number of threads this store scan will actually use.
+     */
+    default int setParallelism( int parallelism )
+    {
+        return 1;
+    }
+
+    /**
+     * Give this {@link StoreScan} a {@link ParallelScanListener} that the threads of a parallel scan report their progress to.
+     * Must not be called once scan has already started.
+     * @param listener {@link ParallelScanListener} the scan threads shall report to.
+     */
+    default void setParallelScanListener( ParallelScanListener listener )
+    {   // no-op
+    }
 }
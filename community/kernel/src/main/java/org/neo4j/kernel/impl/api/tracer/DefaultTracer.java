@@ -19,8 +19,11 @@
  */
 package org.neo4j.kernel.impl.api.tracer;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.neo4j.io.pagecache.tracing.LatencyHistogram;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
@@ -28,6 +31,7 @@ import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogCheckPointEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvents;
 import org.neo4j.kernel.impl.transaction.tracing.LogForceWaitEvent;
 import org.neo4j.kernel.impl.transaction.tracing.LogRotateEvent;
 import org.neo4j.kernel.impl.transaction.tracing.SerializeTransactionEvent;
@@ -42,6 +46,11 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FO
 public class DefaultTracer implements DatabaseTracer
 {
     private final AtomicLong appendedBytes = new AtomicLong();
+    private final LongAdder logForces = new LongAdder();
+    private final LongAdder forcedAppends = new LongAdder();
+    private final LatencyHistogram logForceLatencies = new LatencyHistogram();
+    private final LongAdder relaxedCommits = new LongAdder();
+    private final LongAdder backgroundLogForces = new LongAdder();
 
     private final CountingLogRotateEvent countingLogRotateEvent = new CountingLogRotateEvent();
     private final LogFileCreateEvent logFileCreateEvent = () -> appendedBytes.addAndGet( CURRENT_FORMAT_LOG_HEADER_SIZE );
@@ -49,6 +58,7 @@ public class DefaultTracer implements DatabaseTracer
     private final LogAppendEvent logAppendEvent = new DefaultLogAppendEvent();
     private final CommitEvent commitEvent = new DefaultCommitEvent();
     private final TransactionEvent transactionEvent = new DefaultTransactionEvent();
+    private final LogForceEvents backgroundLogForceEvents = new BackgroundLogForceEvents();
 
     public DefaultTracer()
     {
@@ -85,6 +95,44 @@ public class DefaultTracer implements DatabaseTracer
         return countingLogRotateEvent.lastLogRotationTimeMillis();
     }
 
+    @Override
+    public long numberOfLogForces()
+    {
+        return logForces.sum();
+    }
+
+    @Override
+    public long forcedAppends()
+    {
+        return forcedAppends.sum();
+    }
+
+    @Override
+    public long logForceAccumulatedTotalTimeMicros()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( logForceLatencies.totalNanos() );
+    }
+
+    @Override
+    public long numberOfRelaxedCommits()
+    {
+        return relaxedCommits.sum();
+    }
+
+    @Override
+    public long numberOfBackgroundLogForces()
+    {
+        return backgroundLogForces.sum();
+    }
+
+    /**
+     * @return the histogram of the latencies of the transaction log forces done on behalf of committing transactions.
+     */
+    public LatencyHistogram logForceLatencies()
+    {
+        return logForceLatencies;
+    }
+
     @Override
     public long numberOfCheckPoints()
     {
@@ -124,6 +172,12 @@ public class DefaultTracer implements DatabaseTracer
         return logFileCreateEvent;
     }
 
+    @Override
+    public LogForceEvents backgroundLogForces()
+    {
+        return backgroundLogForceEvents;
+    }
+
     private class DefaultTransactionEvent implements TransactionEvent
     {
 
@@ -198,6 +252,12 @@ public class DefaultTracer implements DatabaseTracer
 
         }
 
+        @Override
+        public void setRelaxedCommits( int commits )
+        {
+            relaxedCommits.add( commits );
+        }
+
         @Override
         public LogRotateEvent beginLogRotate()
         {
@@ -219,7 +279,52 @@ public class DefaultTracer implements DatabaseTracer
         @Override
         public LogForceEvent beginLogForce()
         {
-            return LogForceEvent.NULL;
+            // Log forces are timed, so every force gets its own event. The allocation is dwarfed by the force itself.
+            return new DefaultLogForceEvent();
+        }
+    }
+
+    private class DefaultLogForceEvent implements LogForceEvent
+    {
+        private final long startNanos = System.nanoTime();
+
+        @Override
+        public void setBatchSize( int batchSize )
+        {
+            forcedAppends.add( batchSize );
+        }
+
+        @Override
+        public void close()
+        {
+            logForces.increment();
+            logForceLatencies.record( System.nanoTime() - startNanos );
+        }
+    }
+
+    private class BackgroundLogForceEvents implements LogForceEvents, LogForceEvent
+    {
+        @Override
+        public LogForceWaitEvent beginLogForceWait()
+        {
+            return LogForceWaitEvent.NULL;
+        }
+
+        @Override
+        public LogForceEvent beginLogForce()
+        {
+            return this;
+        }
+
+        @Override
+        public void setBatchSize( int batchSize )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+            backgroundLogForces.increment();
         }
     }
 }
@@ -22,21 +22,28 @@ package org.neo4j.kernel.impl.factory;
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
 import org.neo4j.kernel.impl.api.CommitProcessFactory;
+import org.neo4j.kernel.impl.api.PipelinedTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 
 public class CommunityCommitProcessFactory implements CommitProcessFactory
 {
     @Override
-    public TransactionCommitProcess create( TransactionAppender appender, StorageEngine storageEngine, Config config )
+    public TransactionCommitProcess create( TransactionAppender appender, StorageEngine storageEngine, Config config, JobScheduler scheduler )
     {
         if ( config.get( GraphDatabaseSettings.read_only ) )
         {
             return new ReadOnlyTransactionCommitProcess();
         }
+        // Snapshot queries need the store to be updated by the committing threads, which own the version contexts.
+        if ( config.get( GraphDatabaseSettings.pipelined_commit ) && !config.get( GraphDatabaseSettings.snapshot_query ) )
+        {
+            return new PipelinedTransactionCommitProcess( appender, storageEngine, scheduler );
+        }
         return new TransactionRepresentationCommitProcess( appender, storageEngine );
     }
 }
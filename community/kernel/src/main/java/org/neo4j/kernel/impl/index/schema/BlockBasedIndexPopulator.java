@@ -36,6 +36,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.Seeker;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.internal.helpers.Exceptions;
@@ -82,6 +83,10 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
 public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue> extends NativeIndexPopulator<KEY,VALUE>
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
+    /**
+     * How full the tree nodes are made when the tree is built from the scan updates. Lower values leave room for later updates.
+     */
+    private static final double FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "fillFactor", BulkLoader.DEFAULT_FILL_FACTOR );
 
     private final boolean archiveFailedIndex;
     /**
@@ -417,18 +422,53 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
-            int asMuchAsPossibleToTheLeft = 1;
-            try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
+            // The merged scan updates are sorted and the tree is still empty, so the tree is built bottom-up from them
+            try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( FILL_FACTOR ) )
             {
+                KEY previousKey = layout.newKey();
+                boolean hasPreviousKey = false;
                 while ( allEntries.next() && !cancellation.cancelled() )
                 {
-                    writeToTree( writer, recordingConflictDetector, allEntries.key(), allEntries.value() );
+                    KEY key = allEntries.key();
+                    if ( !hasPreviousKey || !isDuplicate( recordingConflictDetector, previousKey, key ) )
+                    {
+                        bulkLoader.add( key, allEntries.value() );
+                        layout.copyKey( key, previousKey );
+                        hasPreviousKey = true;
+                    }
                     numberOfAppliedScanUpdates++;
                 }
             }
         }
     }
 
+    /**
+     * Entries with the same value follow each other in the merged scan updates. For a uniqueness index, a key with the same value
+     * as the key before it is recorded as a conflict, like {@link #writeToTree(Writer, RecordingConflictDetector, NativeIndexKey, NativeIndexValue)}
+     * would, and is still added with a relaxed uniqueness constraint.
+     *
+     * @return whether or not {@code key} is exactly the same as {@code previousKey} and should not be added again.
+     */
+    private boolean isDuplicate( RecordingConflictDetector<KEY,VALUE> recordingConflictDetector, KEY previousKey, KEY key )
+            throws IndexEntryConflictException
+    {
+        if ( layout.compareValue( previousKey, key ) != 0 )
+        {
+            return false;
+        }
+        if ( previousKey.getEntityId() == key.getEntityId() )
+        {
+            return true;
+        }
+        if ( descriptor.isUnique() )
+        {
+            KEY copy = layout.newKey();
+            layout.copyKey( key, copy );
+            recordingConflictDetector.reportConflict( copy );
+        }
+        return false;
+    }
+
     @Override
     public IndexUpdater newPopulatingUpdater()
     {
@@ -22,9 +22,16 @@ package org.neo4j.kernel.impl.index.schema;
 import org.neo4j.index.internal.gbptree.Layout;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.util.FeatureToggles;
+
+import static org.neo4j.kernel.impl.index.schema.GenericKey.SIZE_STRING_LENGTH;
+import static org.neo4j.kernel.impl.index.schema.GenericKey.TYPE_ID_SIZE;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.ENTITY_ID_SIZE;
 
 class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
 {
+    private static final boolean COMPRESS_KEY_PREFIXES = FeatureToggles.flag( GenericLayout.class, "compressKeyPrefixes", false );
+
     private final int numberOfSlots;
     private final IndexSpecificSpaceFillingCurveSettings spatialSettings;
 
@@ -76,6 +83,22 @@ class GenericLayout extends IndexLayout<GenericKey,NativeIndexValue>
         right.minimalSplitter( left, right, into );
     }
 
+    /**
+     * Entity id differs between all keys and type and string length sit in front of the bytes that keys have in common,
+     * so compression starts right after them. For the first slot of a composite key the layout is the same.
+     */
+    @Override
+    public int keyPrefixCompressionOffset()
+    {
+        return ENTITY_ID_SIZE + TYPE_ID_SIZE + SIZE_STRING_LENGTH;
+    }
+
+    @Override
+    public boolean compressKeyPrefixes()
+    {
+        return COMPRESS_KEY_PREFIXES;
+    }
+
     IndexSpecificSpaceFillingCurveSettings getSpaceFillingCurveSettings()
     {
         return spatialSettings;
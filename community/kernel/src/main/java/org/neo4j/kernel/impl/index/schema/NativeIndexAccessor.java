@@ -64,12 +64,21 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         indexFiles.clear();
     }
 
+    /**
+     * Updaters of an online index each get their own {@link org.neo4j.index.internal.gbptree.GBPTree#parallelWriter() parallel writer},
+     * so updaters opened by different threads change the tree at the same time. Any other mode, like recovery, uses the single writer of
+     * the tree, which waits for the parallel writers to be closed.
+     */
     @Override
     public NativeIndexUpdater<KEY, VALUE> newUpdater( IndexUpdateMode mode )
     {
         assertOpen();
         try
         {
+            if ( mode == IndexUpdateMode.ONLINE )
+            {
+                return new NativeIndexUpdater<>( layout.newKey(), layout.newValue() ).initialize( tree.parallelWriter() );
+            }
             return singleUpdater.initialize( tree.writer() );
         }
         catch ( IOException e )
@@ -19,8 +19,12 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import org.apache.commons.lang3.tuple.Pair;
+
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.index.internal.gbptree.GBPTree;
 import org.neo4j.index.internal.gbptree.Seeker;
@@ -161,6 +165,33 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         }
     }
 
+    @Override
+    public List<ScanPartition> partitionedScan( QueryContext context, int desiredNumberOfPartitions, boolean needsValues, IndexQuery.ExistsPredicate query )
+    {
+        IndexQuery[] predicates = {query};
+        validateQuery( IndexOrder.NONE, predicates );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+        initializeFromToKeys( treeKeyFrom, treeKeyTo );
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, predicates );
+        try
+        {
+            // Each partition only opens its seeker when it's initialized, so partitions that are never reserved hold no resources
+            List<ScanPartition> partitions = new ArrayList<>();
+            for ( Pair<KEY,KEY> range : tree.partition( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions ) )
+            {
+                partitions.add( client -> startSeekForInitializedRange( client, range.getLeft(), range.getRight(), predicates, IndexOrder.NONE,
+                        needFilter, needsValues ) );
+            }
+            return partitions;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     abstract void validateQuery( IndexOrder indexOrder, IndexQuery[] predicates );
 
     /**
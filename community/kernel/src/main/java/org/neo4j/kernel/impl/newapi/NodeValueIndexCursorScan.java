@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.internal.kernel.api.NodeValueIndexCursor;
+import org.neo4j.internal.kernel.api.Scan;
+import org.neo4j.kernel.api.index.IndexReader;
+
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * Parallel scan of a node index, where each reserved batch is a whole partition of the index, see {@link IndexReader#partitionedScan}.
+ * The index is partitioned on the first reservation so that no partitions are held on to unless the scan is actually read.
+ */
+class NodeValueIndexCursorScan implements Scan<NodeValueIndexCursor>
+{
+    private final Read read;
+    private final DefaultIndexReadSession index;
+    private final int desiredNumberOfPartitions;
+    private final boolean needsValues;
+    private final IndexQuery.ExistsPredicate query;
+    private final AtomicInteger nextPartition = new AtomicInteger();
+    private volatile List<IndexReader.ScanPartition> partitions;
+
+    NodeValueIndexCursorScan( Read read, DefaultIndexReadSession index, int desiredNumberOfPartitions, boolean needsValues, IndexQuery.ExistsPredicate query )
+    {
+        this.read = read;
+        this.index = index;
+        this.desiredNumberOfPartitions = desiredNumberOfPartitions;
+        this.needsValues = needsValues;
+        this.query = query;
+    }
+
+    @Override
+    public boolean reserveBatch( NodeValueIndexCursor cursor, int sizeHint )
+    {
+        requirePositive( sizeHint );
+
+        List<IndexReader.ScanPartition> partitions = partitions();
+        int partition = nextPartition.getAndIncrement();
+        if ( partition >= partitions.size() )
+        {
+            return false;
+        }
+
+        DefaultNodeValueIndexCursor cursorImpl = (DefaultNodeValueIndexCursor) cursor;
+        cursorImpl.setRead( read );
+        partitions.get( partition ).initialize( read.injectSecurity( cursorImpl, read.ktx.securityContext().mode(), index.reference ) );
+        return true;
+    }
+
+    private List<IndexReader.ScanPartition> partitions()
+    {
+        List<IndexReader.ScanPartition> partitions = this.partitions;
+        if ( partitions == null )
+        {
+            synchronized ( this )
+            {
+                partitions = this.partitions;
+                if ( partitions == null )
+                {
+                    partitions = index.reader.partitionedScan( read, desiredNumberOfPartitions, needsValues, query );
+                    this.partitions = partitions;
+                }
+            }
+        }
+        return partitions;
+    }
+}
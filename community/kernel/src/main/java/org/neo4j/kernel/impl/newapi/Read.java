@@ -70,6 +70,7 @@ import static org.neo4j.kernel.impl.newapi.RelationshipReferenceEncoding.clearEn
 import static org.neo4j.storageengine.api.RelationshipDirection.INCOMING;
 import static org.neo4j.storageengine.api.RelationshipDirection.LOOP;
 import static org.neo4j.storageengine.api.RelationshipDirection.OUTGOING;
+import static org.neo4j.util.Preconditions.requirePositive;
 import static org.neo4j.values.storable.ValueGroup.GEOMETRY;
 import static org.neo4j.values.storable.ValueGroup.NUMBER;
 
@@ -142,7 +143,7 @@ abstract class Read implements TxStateHolder,
         reader.distinctValues( cursorImpl, accessor, needsValues );
     }
 
-    private IndexProgressor.EntityValueClient injectSecurity( IndexProgressor.EntityValueClient cursor, AccessMode accessMode,
+    IndexProgressor.EntityValueClient injectSecurity( IndexProgressor.EntityValueClient cursor, AccessMode accessMode,
             IndexDescriptor index )
     {
         SchemaDescriptor schema = index.schema();
@@ -305,6 +306,29 @@ abstract class Read implements TxStateHolder,
         indexSession.reader.query( this, withSecurity, indexOrder, needsValues, IndexQuery.exists( firstProperty ) );
     }
 
+    @Override
+    public final Scan<NodeValueIndexCursor> nodeIndexScan( IndexReadSession index, int desiredNumberOfPartitions, boolean needsValues )
+            throws KernelException
+    {
+        ktx.assertOpen();
+        requirePositive( desiredNumberOfPartitions );
+        DefaultIndexReadSession indexSession = (DefaultIndexReadSession) index;
+
+        if ( indexSession.reference.schema().entityType() != EntityType.NODE )
+        {
+            throw new IndexNotApplicableKernelException( "Node index scan can only be performed on node indexes: " + index );
+        }
+        if ( hasTxStateWithChanges() )
+        {
+            // The cursor of each partition would otherwise merge in all index changes from the transaction state
+            throw new IllegalStateException( "Parallel index scan is only supported in transactions without changes" );
+        }
+
+        // for a scan, we simply query for existence of the first property, which covers all entries in an index
+        int firstProperty = indexSession.reference.schema().getPropertyIds()[0];
+        return new NodeValueIndexCursorScan( this, indexSession, desiredNumberOfPartitions, needsValues, IndexQuery.exists( firstProperty ) );
+    }
+
     @Override
     public final void nodeLabelScan( int label, NodeLabelIndexCursor cursor )
     {
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.helpers.PageQuotaEntry;
+import org.neo4j.graphdb.config.Setting;
+import org.neo4j.io.layout.DatabaseFile;
+import org.neo4j.io.pagecache.PageQuota;
+import org.neo4j.io.pagecache.PageQuotas;
+
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_quota_max;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_quota_reserved;
+
+/**
+ * The {@link PageQuotas} given by the {@code dbms.memory.pagecache.quota.*} settings.
+ * <p>
+ * The settings have entries for either a file name, or a {@link Category} of files. The entry of a category applies to
+ * each file in the category, unless the file has an entry of its own.
+ */
+public class ConfiguredPageQuotas implements PageQuotas
+{
+    /**
+     * The categories of store files that can be given a quota, by their lower case name.
+     */
+    public enum Category
+    {
+        RECORD_STORES, INDEXES, COUNTS_STORE, ID_FILES;
+
+        private final String settingName = name().toLowerCase( Locale.ROOT );
+
+        /**
+         * @return the category of the given file, if it is a store file.
+         */
+        public static Optional<Category> of( File file )
+        {
+            String name = file.getName();
+            if ( name.endsWith( ".id" ) )
+            {
+                return Optional.of( ID_FILES );
+            }
+            if ( isInSchemaIndexDirectory( file ) )
+            {
+                return Optional.of( INDEXES );
+            }
+            return DatabaseFile.fileOf( name ).map( Category::of );
+        }
+
+        private static Category of( DatabaseFile databaseFile )
+        {
+            switch ( databaseFile )
+            {
+            case COUNTS_STORE:
+                return COUNTS_STORE;
+            case LABEL_SCAN_STORE:
+            case INDEX_STATISTICS_STORE:
+                return INDEXES;
+            default:
+                return RECORD_STORES;
+            }
+        }
+
+        private static boolean isInSchemaIndexDirectory( File file )
+        {
+            for ( File dir = file.getParentFile(); dir != null && dir.getParentFile() != null; dir = dir.getParentFile() )
+            {
+                if ( dir.getName().equals( "index" ) && dir.getParentFile().getName().equals( "schema" ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final Map<String,Long> reservedPages;
+    private final Map<String,Long> maxPages;
+
+    private ConfiguredPageQuotas( Map<String,Long> reservedPages, Map<String,Long> maxPages )
+    {
+        this.reservedPages = reservedPages;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * @param config The config with the quota settings.
+     * @param maxCachedPages The number of pages in the page cache, which percentages are relative to.
+     * @param cachePageSize The size of the pages in the page cache, which amounts of memory are divided by.
+     * @return the configured quotas, or {@link PageQuotas#NONE} if no quotas have been configured.
+     */
+    public static PageQuotas fromConfig( Config config, long maxCachedPages, int cachePageSize )
+    {
+        Map<String,Long> reservedPages = parse( config, pagecache_quota_reserved, maxCachedPages, cachePageSize, 0 );
+        // A file must be allowed to keep at least one page in memory, or it cannot be accessed at all.
+        Map<String,Long> maxPages = parse( config, pagecache_quota_max, maxCachedPages, cachePageSize, 1 );
+        if ( reservedPages.isEmpty() && maxPages.isEmpty() )
+        {
+            return PageQuotas.NONE;
+        }
+        return new ConfiguredPageQuotas( reservedPages, maxPages );
+    }
+
+    @Override
+    public PageQuota quotaFor( File file )
+    {
+        String name = file.getName();
+        String category = Category.of( file ).map( c -> c.settingName ).orElse( null );
+        long max = lookup( maxPages, name, category, Long.MAX_VALUE );
+        long reserved = Math.min( lookup( reservedPages, name, category, 0 ), max );
+        return PageQuota.of( reserved, max );
+    }
+
+    private static long lookup( Map<String,Long> pages, String name, String category, long defaultPages )
+    {
+        Long filePages = pages.get( name );
+        if ( filePages != null )
+        {
+            return filePages;
+        }
+        return category == null ? defaultPages : pages.getOrDefault( category, defaultPages );
+    }
+
+    private static Map<String,Long> parse( Config config, Setting<List<PageQuotaEntry>> setting, long maxCachedPages, int cachePageSize,
+            long minimumPages )
+    {
+        Map<String,Long> pages = new HashMap<>();
+        for ( PageQuotaEntry entry : config.get( setting ) )
+        {
+            pages.put( entry.target(), Math.max( minimumPages, entry.pages( maxCachedPages, cachePageSize ) ) );
+        }
+        return pages;
+    }
+}
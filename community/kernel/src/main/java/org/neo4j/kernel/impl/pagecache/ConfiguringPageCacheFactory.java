@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.pagecache;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.internal.nativeimpl.AnonymousMemory.NumaPolicy;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.mem.MemoryAllocator;
@@ -27,6 +28,8 @@ import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.impl.SingleFilePageSwapperFactory;
+import org.neo4j.io.pagecache.impl.mapped.MemoryMappedPageCache;
+import org.neo4j.io.pagecache.impl.muninn.EvictionPolicy;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
@@ -37,8 +40,14 @@ import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.service.Services;
 
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static org.neo4j.configuration.GraphDatabaseSettings.check_point_flush_parallelism;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_eviction_policy;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory_mapped_read_only;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_numa_policy;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_swapper;
+import static org.neo4j.configuration.GraphDatabaseSettings.relaxed_durability;
 import static org.neo4j.configuration.SettingValueParsers.BYTES;
 
 public class ConfiguringPageCacheFactory
@@ -89,9 +98,23 @@ public class ConfiguringPageCacheFactory
 
     protected PageCache createPageCache()
     {
+        if ( config.get( pagecache_memory_mapped_read_only ) && config.get( relaxed_durability ) )
+        {
+            // The memory mapped page cache ignores the page write barriers that relaxed durability relies on
+            throw new IllegalArgumentException( "The " + pagecache_memory_mapped_read_only.name() + " setting cannot be combined with " +
+                    relaxed_durability.name() + "." );
+        }
         MemoryAllocator memoryAllocator = buildMemoryAllocator( config );
-        return new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
-                versionContextSupplier, scheduler );
+        EvictionPolicy evictionPolicy = EvictionPolicy.valueOf( config.get( pagecache_eviction_policy ).name() );
+        MuninnPageCache muninnPageCache = new MuninnPageCache( swapperFactory, memoryAllocator, pageCacheTracer, pageCursorTracerSupplier,
+                versionContextSupplier, scheduler, evictionPolicy );
+        muninnPageCache.setFlushParallelism( config.get( check_point_flush_parallelism ) );
+        muninnPageCache.setPageQuotas( ConfiguredPageQuotas.fromConfig( config, muninnPageCache.maxCachedPages(), muninnPageCache.pageSize() ) );
+        if ( config.get( pagecache_memory_mapped_read_only ) )
+        {
+            return new MemoryMappedPageCache( muninnPageCache, fs );
+        }
+        return muninnPageCache;
     }
 
     private MemoryAllocator buildMemoryAllocator( Config config )
@@ -107,7 +130,8 @@ public class ConfiguringPageCacheFactory
             pageCacheMemorySetting = "" + heuristic;
         }
 
-        return MemoryAllocator.createAllocator( pageCacheMemorySetting, EmptyMemoryTracker.INSTANCE );
+        NumaPolicy numaPolicy = NumaPolicy.valueOf( config.get( pagecache_numa_policy ).name() );
+        return MemoryAllocator.createAllocator( pageCacheMemorySetting, EmptyMemoryTracker.INSTANCE, config.get( pagecache_huge_pages ), numaPolicy );
     }
 
     public static long defaultHeuristicPageCacheMemory()
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * The page cache warmer periodically writes a profile of the pages that are hot in the page cache, for every mapped
+ * file of a database. When the database starts up again, the pages in those profiles are loaded back into the page
+ * cache, with large vectored reads, before the database becomes available. This way the database does not have to
+ * fault its working set back in one page at a time, after a restart.
+ * <p>
+ * A profile is a gzip compressed bitmap, where bit {@code n} is set if file page {@code n} was hot. The profiles are
+ * kept in the {@value #PROFILES_DIRECTORY} sub-directory of the database directory, and are named after the path of
+ * the profiled file, relative to the database directory.
+ * <p>
+ * The warmup can alternatively be done in the background, while the database is serving requests.
+ * <p>
+ * Read-only databases are warmed up from their existing profiles, but are never profiled, since that would write to
+ * the database directory.
+ */
+public class PageCacheWarmer extends LifecycleAdapter
+{
+    static final String PROFILES_DIRECTORY = "profiles";
+    static final String SUFFIX_CACHEPROF = ".cacheprof";
+    private static final String SUFFIX_TMP = ".tmp";
+
+    private final FileSystemAbstraction fs;
+    private final PageCache pageCache;
+    private final JobScheduler scheduler;
+    private final File databaseDirectory;
+    private final File profilesDirectory;
+    private final Config config;
+    private final Log log;
+    private volatile boolean stopped;
+    private volatile JobHandle profileHandle;
+    private volatile JobHandle warmupHandle;
+
+    public PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory, Config config,
+            LogProvider logProvider )
+    {
+        this.fs = fs;
+        this.pageCache = pageCache;
+        this.scheduler = scheduler;
+        this.databaseDirectory = databaseDirectory;
+        this.profilesDirectory = new File( databaseDirectory, PROFILES_DIRECTORY );
+        this.config = config;
+        this.log = logProvider.getLog( getClass() );
+    }
+
+    @Override
+    public void start() throws IOException
+    {
+        if ( !config.get( GraphDatabaseSettings.pagecache_warmup_enabled ) )
+        {
+            return;
+        }
+        stopped = false;
+        if ( config.get( GraphDatabaseSettings.pagecache_warmup_background ) )
+        {
+            warmupHandle = scheduler.schedule( Group.FILE_IO_HELPER, this::warmUpQuietly );
+        }
+        else
+        {
+            warmUp();
+        }
+        if ( config.get( GraphDatabaseSettings.read_only ) )
+        {
+            return;
+        }
+        long intervalMillis = config.get( GraphDatabaseSettings.pagecache_warmup_profiling_interval ).toMillis();
+        profileHandle = scheduler.scheduleRecurring( Group.FILE_IO_HELPER, this::profileQuietly, intervalMillis, intervalMillis, MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        cancel( warmupHandle );
+        cancel( profileHandle );
+        warmupHandle = null;
+        profileHandle = null;
+    }
+
+    private static void cancel( JobHandle handle )
+    {
+        if ( handle != null )
+        {
+            handle.cancel();
+        }
+    }
+
+    private void warmUpQuietly()
+    {
+        try
+        {
+            warmUp();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache warmup failed.", e );
+        }
+    }
+
+    private void profileQuietly()
+    {
+        try
+        {
+            profile();
+        }
+        catch ( Exception e )
+        {
+            log.warn( "Page cache profiling failed.", e );
+        }
+    }
+
+    /**
+     * Load the pages of every mapped file into the page cache, either by the profiles of those files, or, if preloading
+     * is configured, by loading in the entire files. No more pages are touched than what fits in the page cache.
+     *
+     * @return the number of pages that were loaded.
+     */
+    synchronized long warmUp() throws IOException
+    {
+        long start = System.nanoTime();
+        boolean preload = config.get( GraphDatabaseSettings.pagecache_warmup_prefetch );
+        Pattern preloadWhitelist = Pattern.compile( config.get( GraphDatabaseSettings.pagecache_warmup_prefetch_whitelist ) );
+        PageBudget budget = new PageBudget( pageCache.maxCachedPages() );
+        long pagesLoaded = 0;
+        for ( PagedFile pagedFile : pageCache.listExistingMappings() )
+        {
+            if ( stopped || budget.isExhausted() )
+            {
+                break;
+            }
+            try
+            {
+                if ( preload )
+                {
+                    if ( preloadWhitelist.matcher( pagedFile.file().getName() ).matches() )
+                    {
+                        pagesLoaded += touch( pagedFile, 0, pagedFile.getLastPageId() + 1, budget );
+                    }
+                }
+                else
+                {
+                    pagesLoaded += reheat( pagedFile, budget );
+                }
+            }
+            catch ( IOException | IllegalStateException e )
+            {
+                // The file might have been unmapped concurrently, or its profile might be damaged. Neither of which
+                // is a reason to not warm up the other files.
+                log.debug( "Could not warm up " + pagedFile.file(), e );
+            }
+        }
+        log.info( "Page cache warmup completed. %d pages loaded in %d ms.", pagesLoaded, NANOSECONDS.toMillis( System.nanoTime() - start ) );
+        return pagesLoaded;
+    }
+
+    private long reheat( PagedFile pagedFile, PageBudget budget ) throws IOException
+    {
+        File profile = profileFile( pagedFile );
+        if ( profile == null || !fs.fileExists( profile ) )
+        {
+            return 0;
+        }
+        long pagesLoaded = 0;
+        try ( DataInputStream input = new DataInputStream( new BufferedInputStream( new GZIPInputStream( fs.openAsInputStream( profile ) ) ) ) )
+        {
+            long runStart = -1;
+            long pageId = 0;
+            for ( ; ; )
+            {
+                long word;
+                try
+                {
+                    word = input.readLong();
+                }
+                catch ( EOFException e )
+                {
+                    break;
+                }
+                for ( int bit = 0; bit < Long.SIZE; bit++, pageId++ )
+                {
+                    boolean hot = (word & (1L << bit)) != 0;
+                    if ( hot && runStart == -1 )
+                    {
+                        runStart = pageId;
+                    }
+                    else if ( !hot && runStart != -1 )
+                    {
+                        pagesLoaded += touch( pagedFile, runStart, pageId, budget );
+                        runStart = -1;
+                    }
+                }
+                if ( stopped || budget.isExhausted() )
+                {
+                    return pagesLoaded;
+                }
+            }
+            if ( runStart != -1 )
+            {
+                pagesLoaded += touch( pagedFile, runStart, pageId, budget );
+            }
+        }
+        return pagesLoaded;
+    }
+
+    private static long touch( PagedFile pagedFile, long fromPageId, long toPageId, PageBudget budget ) throws IOException
+    {
+        long pagesLoaded = 0;
+        long pageId = fromPageId;
+        while ( pageId < toPageId && !budget.isExhausted() )
+        {
+            int count = (int) Math.min( Math.min( toPageId - pageId, budget.remaining ), Integer.MAX_VALUE );
+            int loaded = pagedFile.touch( pageId, count );
+            // Pages that were already in memory count too. Otherwise a profile with more hot pages than fit in the page cache
+            // would keep faulting in pages, and evicting the ones it loaded earlier.
+            budget.remaining -= count;
+            pagesLoaded += loaded;
+            pageId += count;
+        }
+        return pagesLoaded;
+    }
+
+    /**
+     * Write a new profile for every mapped file, replacing any previous profiles for those files.
+     *
+     * @return the number of hot pages that were profiled.
+     */
+    synchronized long profile() throws IOException
+    {
+        List<PagedFile> files = pageCache.listExistingMappings();
+        long pagesProfiled = 0;
+        for ( PagedFile pagedFile : files )
+        {
+            if ( stopped )
+            {
+                break;
+            }
+            File profile = profileFile( pagedFile );
+            if ( profile == null )
+            {
+                continue;
+            }
+            try
+            {
+                pagesProfiled += writeProfile( pagedFile, profile );
+            }
+            catch ( IllegalStateException e )
+            {
+                // The file was unmapped concurrently with profiling. We'll simply keep its previous profile.
+                log.debug( "Could not profile " + pagedFile.file(), e );
+            }
+            catch ( IOException e )
+            {
+                // Failing to write the profile of one file is no reason to not profile the other files.
+                // We'll keep the previous profile of this file, and try again the next time around.
+                log.warn( "Could not write page cache profile for " + pagedFile.file(), e );
+            }
+        }
+        return pagesProfiled;
+    }
+
+    private long writeProfile( PagedFile pagedFile, File profile ) throws IOException
+    {
+        fs.mkdirs( profile.getParentFile() );
+        File tmpProfile = new File( profile.getParentFile(), profile.getName() + SUFFIX_TMP );
+        ProfileWriter writer;
+        try ( DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream( new GZIPOutputStream( fs.openAsOutputStream( tmpProfile, false ) ) ) ) )
+        {
+            writer = new ProfileWriter( output );
+            pagedFile.visitResidentPages( writer );
+            writer.finish();
+        }
+        catch ( UncheckedIOException e )
+        {
+            throw e.getCause();
+        }
+        fs.renameFile( tmpProfile, profile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+        return writer.pagesProfiled;
+    }
+
+    /**
+     * @return the profile file for the given paged file, or {@code null} if the paged file is not a database file.
+     */
+    private File profileFile( PagedFile pagedFile )
+    {
+        File file = pagedFile.file();
+        String relativePath = databaseDirectory.toPath().relativize( file.toPath() ).toString();
+        if ( relativePath.startsWith( ".." ) || relativePath.startsWith( PROFILES_DIRECTORY ) )
+        {
+            return null;
+        }
+        return new File( profilesDirectory, relativePath + SUFFIX_CACHEPROF );
+    }
+
+    private static class PageBudget
+    {
+        private long remaining;
+
+        PageBudget( long pages )
+        {
+            this.remaining = pages;
+        }
+
+        boolean isExhausted()
+        {
+            return remaining <= 0;
+        }
+    }
+
+    /**
+     * Writes the visited page ids, which must come in ascending order, as a bitmap of longs.
+     */
+    private static class ProfileWriter implements LongConsumer
+    {
+        private final DataOutputStream output;
+        private long wordIndex;
+        private long word;
+        private long pagesProfiled;
+
+        ProfileWriter( DataOutputStream output )
+        {
+            this.output = output;
+        }
+
+        @Override
+        public void accept( long pageId )
+        {
+            try
+            {
+                long index = pageId >>> 6;
+                while ( wordIndex < index )
+                {
+                    output.writeLong( word );
+                    word = 0;
+                    wordIndex++;
+                }
+                word |= 1L << (pageId & 63);
+                pagesProfiled++;
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        void finish() throws IOException
+        {
+            output.writeLong( word );
+        }
+    }
+}
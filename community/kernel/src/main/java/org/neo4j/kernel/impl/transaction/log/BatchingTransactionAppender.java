@@ -23,6 +23,8 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.LockSupport;
@@ -30,6 +32,7 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.entry.CompressingLogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryWriter;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
@@ -50,6 +53,16 @@ import static org.neo4j.kernel.impl.api.TransactionToApply.TRANSACTION_ID_NOT_SP
 /**
  * Concurrently appends transactions to the transaction log, while coordinating with the log rotation and forcing the
  * log file in batches for higher throughput in a concurrent scenario.
+ * <p>
+ * Committing threads that arrive while the log is being forced wait for the force to finish, and then share the next
+ * force. Optionally, the thread that is about to force the log can also hold off the force for a bounded amount of
+ * time, to let more committing threads join the force. It forces the log when either the group commit delay has
+ * passed, or the given number of threads are waiting for the force, whichever comes first.
+ * <p>
+ * With relaxed durability, committing threads do not wait for the log to be forced at all. They only write the appended
+ * transactions out to the log file, which is enough for them to survive a crash of the process, but not of the operating
+ * system. The log is then forced by {@link #forceRelaxedCommits(LogForceEvents)}, which is called in the background, and
+ * before any page with changes from those transactions is written to the store.
  */
 public class BatchingTransactionAppender extends LifecycleAdapter implements TransactionAppender
 {
@@ -61,6 +74,17 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
     private final LogPositionMarker positionMarker = new LogPositionMarker();
     private final Health databaseHealth;
     private final Lock forceLock = new ReentrantLock();
+    private final AtomicInteger waitingForForce = new AtomicInteger();
+    private final long groupCommitDelayNanos;
+    private final int groupCommitSize;
+    private final boolean compressCommands;
+    private final boolean relaxedDurability;
+    private final AtomicLong forcedRelaxedWrites = new AtomicLong();
+    private final Lock relaxedForceLock = new ReentrantLock();
+    private volatile Thread groupCommitLeader;
+    // Only change under the logFile monitor. They count the times that the log was written out for relaxed commits, and tell what to force.
+    private volatile long relaxedWrites;
+    private volatile Flushable relaxedWriteFlushable;
 
     private FlushablePositionAwareChecksumChannel writer;
     private TransactionLogWriter transactionLogWriter;
@@ -68,6 +92,22 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
 
     public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
             TransactionIdStore transactionIdStore, Health databaseHealth )
+    {
+        this( logFiles, logRotation, transactionMetadataCache, transactionIdStore, databaseHealth, 0, 1, false, false );
+    }
+
+    /**
+     * @param groupCommitDelayNanos the longest time to hold off a log force, waiting for more committing threads to share it,
+     * or zero to force the log right away.
+     * @param groupCommitSize the number of committing threads, that will have the log forced right away, without waiting for
+     * the group commit delay to pass.
+     * @param compressCommands whether to write the commands of transactions compressed, with a {@link CompressingLogEntryWriter}.
+     * @param relaxedDurability whether committing transactions should not wait for the log to be forced. If so, the log must be forced
+     * with {@link #forceRelaxedCommits(LogForceEvents)}.
+     */
+    public BatchingTransactionAppender( LogFiles logFiles, LogRotation logRotation, TransactionMetadataCache transactionMetadataCache,
+            TransactionIdStore transactionIdStore, Health databaseHealth, long groupCommitDelayNanos, int groupCommitSize,
+            boolean compressCommands, boolean relaxedDurability )
     {
         this.logFile = logFiles.getLogFile();
         this.logRotation = logRotation;
@@ -75,6 +115,10 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
         this.previousChecksum = transactionIdStore.getLastCommittedTransaction().checksum();
+        this.groupCommitDelayNanos = groupCommitDelayNanos;
+        this.groupCommitSize = groupCommitSize;
+        this.compressCommands = compressCommands;
+        this.relaxedDurability = relaxedDurability;
     }
 
     @VisibleForTesting
@@ -87,20 +131,42 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         this.databaseHealth = databaseHealth;
         this.transactionMetadataCache = transactionMetadataCache;
         this.previousChecksum = previousChecksum;
+        this.groupCommitDelayNanos = 0;
+        this.groupCommitSize = 1;
+        this.compressCommands = false;
+        this.relaxedDurability = false;
     }
 
     @Override
     public void start()
     {
         this.writer = logFile.getWriter();
-        this.transactionLogWriter = new TransactionLogWriter( new LogEntryWriter( writer ) );
+        this.transactionLogWriter = new TransactionLogWriter( compressCommands ? new CompressingLogEntryWriter( writer ) : new LogEntryWriter( writer ) );
     }
 
     @Override
     public long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        long lastTransactionId = appendWithoutForce( batch, logAppendEvent );
+
+        // At this point we've appended all transactions in this batch, but we can't mark any of them
+        // as committed since they haven't been forced to disk yet. So here we force, or potentially
+        // piggy-back on another force, but anyway after this call below we can be sure that all our transactions
+        // in this batch exist durably on disk.
+        force( logAppendEvent );
+
+        // Mark all transactions as committed
+        publishAsCommitted( batch );
+
+        return lastTransactionId;
+    }
+
+    @Override
+    public long appendWithoutForce( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
     {
         // Assigned base tx id just to make compiler happy
         long lastTransactionId = TransactionIdStore.BASE_TX_ID;
+        int transactions = 0;
         // Synchronized with logFile to get absolute control over concurrent rotations happening
         synchronized ( logFile )
         {
@@ -126,26 +192,104 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
                     tx.logPosition( commitment.logPosition() );
                     tx = tx.next();
                     lastTransactionId = transactionId;
+                    transactions++;
                 }
             }
         }
+        if ( relaxedDurability )
+        {
+            logAppendEvent.setRelaxedCommits( transactions );
+        }
+        return lastTransactionId;
+    }
 
-        // At this point we've appended all transactions in this batch, but we can't mark any of them
-        // as committed since they haven't been forced to disk yet. So here we force, or potentially
-        // piggy-back on another force, but anyway after this call below we can be sure that all our transactions
-        // in this batch exist durably on disk.
-        if ( forceAfterAppend( logAppendEvent ) )
+    @Override
+    public void force( LogAppendEvent logAppendEvent ) throws IOException
+    {
+        if ( relaxedDurability )
+        {
+            // Nobody forces the log on behalf of the committing threads, so they all check the need for log rotation.
+            writeRelaxedCommits();
+            rotateLogIfNeeded( logAppendEvent );
+        }
+        else if ( forceAfterAppend( logAppendEvent ) )
         {
             // We got lucky and were the one forcing the log. It's enough if ones of all doing concurrent committers
             // checks the need for log rotation.
-            boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
-            logAppendEvent.setLogRotated( logRotated );
+            rotateLogIfNeeded( logAppendEvent );
         }
+    }
 
-        // Mark all transactions as committed
-        publishAsCommitted( batch );
+    /**
+     * Forces the log, if transactions have been committed with relaxed durability since it was last forced. This does not take the
+     * log file monitor, so it can be called by threads that hold locks that a log rotation may wait for, such as the locks of pages
+     * that are about to be written.
+     * <p>
+     * Only one relaxed force runs at a time. A caller that has to wait for another force, skips its own force if the other one
+     * already covered everything that had been written out when the caller came in. So when many pages are written at once, they
+     * share a few forces, rather than forcing the log once each.
+     *
+     * @param logForceEvents the trace events of the force.
+     * @return {@code true} if the log was forced, or {@code false} if there was nothing to force.
+     * @throws IOException if there was a problem forcing the log, in which case a kernel panic will have been raised.
+     */
+    public boolean forceRelaxedCommits( LogForceEvents logForceEvents ) throws IOException
+    {
+        long writesToForce = relaxedWrites;
+        if ( writesToForce <= forcedRelaxedWrites.get() )
+        {
+            return false;
+        }
+        relaxedForceLock.lock();
+        try
+        {
+            long forcedWrites = forcedRelaxedWrites.get();
+            if ( writesToForce <= forcedWrites )
+            {
+                // Forced by someone else while we waited for the lock.
+                return false;
+            }
+            // Take along anything written since we came in. The flushable was updated before the write count, so it covers at least
+            // the writes we counted.
+            long writes = relaxedWrites;
+            Flushable flushable = relaxedWriteFlushable;
+            try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
+            {
+                logForceEvent.setBatchSize( (int) Math.min( Integer.MAX_VALUE, writes - forcedWrites ) );
+                flushable.flush();
+            }
+            catch ( ClosedChannelException ignored )
+            {
+                // The log was rotated, which forces the log file before it is closed.
+            }
+            catch ( final Throwable panic )
+            {
+                databaseHealth.panic( panic );
+                throw panic;
+            }
+            forcedRelaxedWrites.accumulateAndGet( writes, Math::max );
+            return true;
+        }
+        finally
+        {
+            relaxedForceLock.unlock();
+        }
+    }
 
-        return lastTransactionId;
+    private void writeRelaxedCommits() throws IOException
+    {
+        synchronized ( logFile )
+        {
+            databaseHealth.assertHealthy( IOException.class );
+            relaxedWriteFlushable = writer.prepareForFlush();
+            relaxedWrites++;
+        }
+    }
+
+    private void rotateLogIfNeeded( LogAppendEvent logAppendEvent ) throws IOException
+    {
+        boolean logRotated = logRotation.rotateLogIfNeeded( logAppendEvent );
+        logAppendEvent.setLogRotated( logRotated );
     }
 
     private void matchAgainstExpectedTransactionIdIfAny( long transactionId, TransactionToApply tx )
@@ -217,6 +361,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             logAppendEvent.appendToLogFile( logPositionBeforeCommit, logPositionAfterCommit );
 
             transactionMetadataCache.cacheTransactionMetadata( transactionId, logPositionBeforeCommit, checksum, transaction.getTimeCommitted() );
+            logFile.transactionAppended( transactionId, logPositionBeforeCommit );
 
             return new TransactionCommitment( transactionId, checksum, transaction.getTimeCommitted(), logPositionAfterCommit, transactionIdStore );
         }
@@ -239,6 +384,15 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         // This is okay, however, because unparkAll() spins when it sees a null next pointer.
         ThreadLink threadLink = new ThreadLink( Thread.currentThread() );
         threadLink.next = threadLinkHead.getAndSet( threadLink );
+        if ( waitingForForce.incrementAndGet() >= groupCommitSize && groupCommitDelayNanos > 0 )
+        {
+            // The group is complete, so there is no reason for the group leader to hold off the force any longer.
+            Thread leader = groupCommitLeader;
+            if ( leader != null )
+            {
+                LockSupport.unpark( leader );
+            }
+        }
         boolean attemptedForce = false;
 
         try ( LogForceWaitEvent logForceWaitEvent = logForceEvents.beginLogForceWait() )
@@ -247,11 +401,17 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             {
                 if ( forceLock.tryLock() )
                 {
-                    attemptedForce = true;
                     try
                     {
-                        forceLog( logForceEvents );
-                        // In the event of any failure a database panic will be raised and thrown here
+                        // The force that just let go of the lock may have covered us. If so, leading a new group would hold
+                        // us off for the whole group commit delay, waiting for threads that may never come.
+                        if ( !threadLink.done )
+                        {
+                            attemptedForce = true;
+                            awaitGroupCommit();
+                            forceLog( logForceEvents );
+                            // In the event of any failure a database panic will be raised and thrown here
+                        }
                     }
                     finally
                     {
@@ -283,11 +443,40 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         return attemptedForce;
     }
 
+    /**
+     * Called by the thread that holds the force lock, to hold off the force until either the group commit delay has passed, or
+     * enough threads are waiting for the force.
+     */
+    private void awaitGroupCommit()
+    {
+        if ( groupCommitDelayNanos == 0 )
+        {
+            return;
+        }
+        groupCommitLeader = Thread.currentThread();
+        try
+        {
+            long deadline = System.nanoTime() + groupCommitDelayNanos;
+            long remainingNanos;
+            while ( waitingForForce.get() < groupCommitSize && (remainingNanos = deadline - System.nanoTime()) > 0 )
+            {
+                LockSupport.parkNanos( this, remainingNanos );
+            }
+        }
+        finally
+        {
+            groupCommitLeader = null;
+        }
+    }
+
     private void forceLog( LogForceEvents logForceEvents ) throws IOException
     {
         ThreadLink links = threadLinkHead.getAndSet( ThreadLink.END );
+        int batchSize = countLinks( links );
+        waitingForForce.addAndGet( -batchSize );
         try ( LogForceEvent logForceEvent = logForceEvents.beginLogForce() )
         {
+            logForceEvent.setBatchSize( batchSize );
             force();
         }
         catch ( final Throwable panic )
@@ -301,6 +490,24 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         }
     }
 
+    private static int countLinks( ThreadLink links )
+    {
+        int count = 0;
+        while ( links != ThreadLink.END )
+        {
+            count++;
+            ThreadLink tmp;
+            do
+            {
+                // Spin because of the race:y update when consing.
+                tmp = links.next;
+            }
+            while ( tmp == null );
+            links = tmp;
+        }
+        return count;
+    }
+
     private void unparkAll( ThreadLink links )
     {
         do
@@ -332,10 +539,12 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
         // on logFile because it would cause deadlocks. Synchronizing on writer assumes that appenders
         // also synchronize on writer.
         Flushable flushable;
+        long writes;
         synchronized ( logFile )
         {
             databaseHealth.assertHealthy( IOException.class );
             flushable = writer.prepareForFlush();
+            writes = relaxedWrites;
         }
         // Force the writer outside of the lock.
         // This allows other threads access to the buffer while the writer is being forced.
@@ -350,5 +559,7 @@ public class BatchingTransactionAppender extends LifecycleAdapter implements Tra
             // successful in emptying the buffer *UNDER THE LOCK* we know that the rotating thread included the changes
             // we emptied into the channel, and thus it is already flushed by that thread.
         }
+        // Everything that was written out for relaxed commits before we emptied the buffer has now been forced as well.
+        forcedRelaxedWrites.accumulateAndGet( writes, Math::max );
     }
 }
@@ -20,19 +20,27 @@
 package org.neo4j.kernel.impl.transaction.log;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.cursor.IOCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntry;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommand;
+import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommandBlock;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 
 /**
  * {@link IOCursor} abstraction on top of a {@link LogEntryReader}
+ * <p>
+ * The commands of a {@link LogEntryCommandBlock compressed command block} are returned one by one, as if they had been
+ * written as separate {@link LogEntryCommand} entries.
  */
 public class LogEntryCursor implements IOCursor<LogEntry>
 {
     private final LogEntryReader logEntryReader;
     private final ReadableClosablePositionAwareChecksumChannel channel;
     private final LogPositionMarker position = new LogPositionMarker();
+    private final Deque<LogEntryCommand> blockCommands = new ArrayDeque<>();
     private LogEntry entry;
 
     public LogEntryCursor( LogEntryReader logEntryReader, ReadableClosablePositionAwareChecksumChannel channel )
@@ -50,7 +58,17 @@ public class LogEntryCursor implements IOCursor<LogEntry>
     @Override
     public boolean next() throws IOException
     {
-        entry = logEntryReader.readLogEntry( channel );
+        entry = blockCommands.poll();
+        while ( entry == null )
+        {
+            entry = logEntryReader.readLogEntry( channel );
+            if ( !(entry instanceof LogEntryCommandBlock) )
+            {
+                break;
+            }
+            blockCommands.addAll( ((LogEntryCommandBlock) entry).commands() );
+            entry = blockCommands.poll();
+        }
 
         return entry != null;
     }
@@ -28,14 +28,26 @@ import java.nio.channels.FileLock;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.kernel.impl.transaction.log.files.ChannelNativeAccessor;
 
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
 public class PhysicalLogVersionedStoreChannel implements LogVersionedStoreChannel
 {
+    /**
+     * When the logs are configured for direct I/O, forced log data is evicted from the OS page cache in chunks of this many bytes,
+     * so that it does not push out store data that we will actually read again. This also covers file systems where the logs
+     * fall back to buffered I/O. Zero disables the eviction.
+     */
+    private static final long FORCED_EVICTION_CHUNK_SIZE = getInteger( PhysicalLogVersionedStoreChannel.class, "forcedEvictionChunkSize",
+            (int) mebiBytes( 4 ) );
+
     private final StoreChannel delegateChannel;
     private final long version;
     private final byte formatVersion;
     private long position;
     private final File file;
     private final ChannelNativeAccessor nativeChannelAccessor;
+    private long evictedPosition;
 
     public PhysicalLogVersionedStoreChannel( StoreChannel delegateChannel, long version, byte formatVersion, File file,
             ChannelNativeAccessor nativeChannelAccessor ) throws IOException
@@ -87,7 +99,25 @@ public class PhysicalLogVersionedStoreChannel implements LogVersionedStoreChanne
     @Override
     public void force( boolean metaData ) throws IOException
     {
+        long forcedPosition = position;
         delegateChannel.force( metaData );
+        evictForcedData( forcedPosition );
+    }
+
+    private void evictForcedData( long forcedPosition )
+    {
+        if ( FORCED_EVICTION_CHUNK_SIZE <= 0 )
+        {
+            return;
+        }
+        // Only whole chunks are evicted, so we never evict the page that we are still appending to
+        long evictTo = forcedPosition - forcedPosition % FORCED_EVICTION_CHUNK_SIZE;
+        long evictFrom = evictedPosition;
+        if ( evictTo > evictFrom )
+        {
+            evictedPosition = evictTo;
+            nativeChannelAccessor.evictFromSystemCache( delegateChannel, version, evictFrom, evictTo - evictFrom );
+        }
     }
 
     @Override
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.pagecache.PageWriteBarrier;
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvents;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Forces the transaction log of a database whose transactions commit with
+ * {@link GraphDatabaseSettings#relaxed_durability relaxed durability}. The log is forced at a fixed interval, which bounds how
+ * much committed work a crash of the operating system can lose. It is also forced before any page of the database is written,
+ * as the {@link PageWriteBarrier} of the files that the database maps, so that the store never gets ahead of the log.
+ * <p>
+ * The database maps files before its transaction log is opened, so the appender that does the forcing is only
+ * {@link #initialize(BatchingTransactionAppender) given} to the forcer later. Until then, there is nothing to force.
+ */
+public class RelaxedCommitLogForcer extends LifecycleAdapter implements PageWriteBarrier
+{
+    private final JobScheduler scheduler;
+    private final long forceIntervalMillis;
+    private final LogForceEvents logForceEvents;
+    private final Log log;
+
+    private volatile BatchingTransactionAppender appender;
+    private JobHandle handle;
+
+    public RelaxedCommitLogForcer( JobScheduler scheduler, Duration forceInterval, DatabaseTracer databaseTracer, LogProvider logProvider )
+    {
+        this.scheduler = scheduler;
+        this.forceIntervalMillis = forceInterval.toMillis();
+        this.logForceEvents = databaseTracer.backgroundLogForces();
+        this.log = logProvider.getLog( RelaxedCommitLogForcer.class );
+    }
+
+    /**
+     * @param appender the appender of the transaction log to force, which must have been created with relaxed durability.
+     */
+    public void initialize( BatchingTransactionAppender appender )
+    {
+        this.appender = appender;
+    }
+
+    @Override
+    public void start()
+    {
+        handle = scheduler.scheduleRecurring( Group.TRANSACTION_LOG_FORCE, this::forceInBackground, forceIntervalMillis, MILLISECONDS );
+    }
+
+    @Override
+    public void stop() throws IOException
+    {
+        if ( handle != null )
+        {
+            handle.cancel();
+            handle = null;
+        }
+        beforePageWrite();
+    }
+
+    @Override
+    public void beforePageWrite() throws IOException
+    {
+        BatchingTransactionAppender transactionAppender = appender;
+        if ( transactionAppender != null )
+        {
+            transactionAppender.forceRelaxedCommits( logForceEvents );
+        }
+    }
+
+    void forceInBackground()
+    {
+        try
+        {
+            beforePageWrite();
+        }
+        catch ( Throwable t )
+        {
+            // The appender has raised a kernel panic, so the database will not accept any more commits.
+            log.error( "Failed to force the transaction log in the background.", t );
+        }
+    }
+}
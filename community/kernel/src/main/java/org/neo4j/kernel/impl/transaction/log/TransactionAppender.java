@@ -56,6 +56,37 @@ public interface TransactionAppender
      */
     long append( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException;
 
+    /**
+     * Appends a batch of transactions to a log, like {@link #append(TransactionToApply, LogAppendEvent)}, but without
+     * making sure that they are durable. The transactions are only committed once a subsequent call to
+     * {@link #force(LogAppendEvent)} has returned, and the caller must then
+     * {@link Commitment#publishAsCommitted() mark them as committed}, unless they already are.
+     * <p>
+     * This allows the next batch to be appended while the log is being forced. The default implementation simply
+     * delegates to {@link #append(TransactionToApply, LogAppendEvent)}, which forces the log and marks the transactions
+     * as committed.
+     *
+     * @param batch transactions to append to the log.
+     * @param logAppendEvent A trace event for the given log append operation.
+     * @return last appended transaction in this batch.
+     * @throws IOException if there was a problem appending the transaction.
+     */
+    default long appendWithoutForce( TransactionToApply batch, LogAppendEvent logAppendEvent ) throws IOException
+    {
+        return append( batch, logAppendEvent );
+    }
+
+    /**
+     * Forces everything that has been appended to the log so far, and rotates the log if needed. After this method has
+     * returned, all transactions appended with {@link #appendWithoutForce(TransactionToApply, LogAppendEvent)} are durable.
+     *
+     * @param logAppendEvent A trace event for the log append operation that the force is done on behalf of.
+     * @throws IOException if there was a problem forcing the log, in which case a kernel panic will have been raised.
+     */
+    default void force( LogAppendEvent logAppendEvent ) throws IOException
+    {
+    }
+
     /**
      * Appends a check point to a log which marks a starting point for recovery in the event of failure.
      * After this method have returned the check point mark must have been flushed to disk.
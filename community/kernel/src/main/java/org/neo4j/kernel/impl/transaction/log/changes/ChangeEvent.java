@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.changes;
+
+import org.neo4j.values.storable.Value;
+
+/**
+ * A change that a committed transaction made, as streamed by a {@link ChangeEventStream}.
+ * <p>
+ * Which of the fields are set depends on the {@link Type} of the event. Fields that do not apply are {@code -1} or {@code null}.
+ */
+public final class ChangeEvent
+{
+    public enum Type
+    {
+        NODE_CREATED,
+        NODE_DELETED,
+        LABEL_ADDED,
+        LABEL_REMOVED,
+        NODE_PROPERTY_SET,
+        NODE_PROPERTY_REMOVED,
+        RELATIONSHIP_CREATED,
+        RELATIONSHIP_DELETED,
+        RELATIONSHIP_PROPERTY_SET,
+        RELATIONSHIP_PROPERTY_REMOVED,
+        /**
+         * The last event of every transaction, also of transactions that did not change any nodes or relationships.
+         */
+        COMMIT
+    }
+
+    private final Type type;
+    private final long transactionId;
+    private final long commitTime;
+    private final long entityId;
+    private final int tokenId;
+    private final long startNodeId;
+    private final long endNodeId;
+    private final Value before;
+    private final Value after;
+
+    ChangeEvent( Type type, long transactionId, long commitTime, long entityId, int tokenId, long startNodeId, long endNodeId,
+            Value before, Value after )
+    {
+        this.type = type;
+        this.transactionId = transactionId;
+        this.commitTime = commitTime;
+        this.entityId = entityId;
+        this.tokenId = tokenId;
+        this.startNodeId = startNodeId;
+        this.endNodeId = endNodeId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public Type type()
+    {
+        return type;
+    }
+
+    public long transactionId()
+    {
+        return transactionId;
+    }
+
+    /**
+     * @return the commit time of the transaction, in milliseconds since the epoch.
+     */
+    public long commitTime()
+    {
+        return commitTime;
+    }
+
+    /**
+     * @return the id of the changed node or relationship.
+     */
+    public long entityId()
+    {
+        return entityId;
+    }
+
+    /**
+     * @return the id of the label, relationship type, or property key, that the event is about.
+     */
+    public int tokenId()
+    {
+        return tokenId;
+    }
+
+    public long startNodeId()
+    {
+        return startNodeId;
+    }
+
+    public long endNodeId()
+    {
+        return endNodeId;
+    }
+
+    /**
+     * @return the value of the property before the change, or {@code null} if it was added, or if the value is not known.
+     */
+    public Value before()
+    {
+        return before;
+    }
+
+    /**
+     * @return the value of the property after the change, or {@code null} if it was removed.
+     */
+    public Value after()
+    {
+        return after;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ChangeEvent{" + "type=" + type + ", transactionId=" + transactionId + ", entityId=" + entityId + ", tokenId=" + tokenId +
+               ", startNodeId=" + startNodeId + ", endNodeId=" + endNodeId + ", before=" + before + ", after=" + after + '}';
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.changes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import org.neo4j.internal.helpers.collection.PrefetchingIterator;
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.storageengine.api.EntityChangeDecoder;
+import org.neo4j.storageengine.api.EntityChangeVisitor;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.COMMIT;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.LABEL_ADDED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.LABEL_REMOVED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.NODE_CREATED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.NODE_DELETED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.NODE_PROPERTY_REMOVED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.NODE_PROPERTY_SET;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.RELATIONSHIP_CREATED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.RELATIONSHIP_DELETED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.RELATIONSHIP_PROPERTY_REMOVED;
+import static org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent.Type.RELATIONSHIP_PROPERTY_SET;
+
+/**
+ * Streams the changes that committed transactions made to nodes and relationships, as {@link ChangeEvent change events}, by
+ * reading the transactions from the transaction log and decoding their commands with an {@link EntityChangeDecoder}.
+ * <p>
+ * The stream is pulled by its consumer. A transaction is only read from the log once all the events of the previous transaction
+ * have been consumed, so a slow consumer holds back the reading, and at most one transaction worth of events is kept in memory.
+ * <p>
+ * The stream starts at the given transaction, and ends after the given number of transactions, or at the last transaction that was
+ * closed when the stream was opened, whichever comes first. The events of every transaction end with a {@link ChangeEvent.Type#COMMIT}
+ * event, so a consumer can follow the changes by opening a new stream from the transaction after the last one it has seen committed.
+ */
+public class ChangeEventStream extends PrefetchingIterator<ChangeEvent> implements AutoCloseable
+{
+    private final EntityChangeDecoder decoder;
+    private final long lastTransactionId;
+    private final TransactionCursor transactions;
+    private final Queue<ChangeEvent> events = new ArrayDeque<>();
+    private final Collector collector = new Collector();
+    private long transactionsLeft;
+
+    /**
+     * @throws org.neo4j.kernel.impl.transaction.log.NoSuchTransactionException if the transaction to start from is no longer in the log.
+     * @throws IOException if the log could not be read.
+     */
+    public ChangeEventStream( LogicalTransactionStore transactionStore, TransactionIdStore transactionIdStore, EntityChangeDecoder decoder,
+            long fromTransactionId, long maxTransactions ) throws IOException
+    {
+        this.decoder = decoder;
+        this.lastTransactionId = transactionIdStore.getLastClosedTransactionId();
+        long firstTransactionId = Math.max( fromTransactionId, TransactionIdStore.BASE_TX_ID + 1 );
+        this.transactions = firstTransactionId <= lastTransactionId && maxTransactions > 0 ? transactionStore.getTransactions( firstTransactionId ) : null;
+        this.transactionsLeft = maxTransactions;
+    }
+
+    @Override
+    protected ChangeEvent fetchNextOrNull()
+    {
+        try
+        {
+            while ( events.isEmpty() )
+            {
+                if ( transactions == null || transactionsLeft == 0 || !transactions.next() )
+                {
+                    return null;
+                }
+                CommittedTransactionRepresentation committed = transactions.get();
+                long transactionId = committed.getCommitEntry().getTxId();
+                if ( transactionId > lastTransactionId )
+                {
+                    return null;
+                }
+                TransactionRepresentation transaction = committed.getTransactionRepresentation();
+                collector.transactionId = transactionId;
+                collector.commitTime = transaction.getTimeCommitted();
+                decoder.decode( transaction, collector );
+                collector.add( COMMIT, -1, -1, -1, -1, null, null );
+                transactionsLeft--;
+            }
+            return events.poll();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        events.clear();
+        if ( transactions != null )
+        {
+            transactions.close();
+        }
+    }
+
+    private class Collector implements EntityChangeVisitor
+    {
+        private long transactionId;
+        private long commitTime;
+
+        @Override
+        public void nodeCreated( long nodeId )
+        {
+            add( NODE_CREATED, nodeId, -1, -1, -1, null, null );
+        }
+
+        @Override
+        public void nodeDeleted( long nodeId )
+        {
+            add( NODE_DELETED, nodeId, -1, -1, -1, null, null );
+        }
+
+        @Override
+        public void nodeLabelAdded( long nodeId, int labelId )
+        {
+            add( LABEL_ADDED, nodeId, labelId, -1, -1, null, null );
+        }
+
+        @Override
+        public void nodeLabelRemoved( long nodeId, int labelId )
+        {
+            add( LABEL_REMOVED, nodeId, labelId, -1, -1, null, null );
+        }
+
+        @Override
+        public void nodePropertySet( long nodeId, int propertyKeyId, Value before, Value after )
+        {
+            add( NODE_PROPERTY_SET, nodeId, propertyKeyId, -1, -1, before, after );
+        }
+
+        @Override
+        public void nodePropertyRemoved( long nodeId, int propertyKeyId, Value before )
+        {
+            add( NODE_PROPERTY_REMOVED, nodeId, propertyKeyId, -1, -1, before, null );
+        }
+
+        @Override
+        public void relationshipCreated( long relationshipId, int typeId, long startNodeId, long endNodeId )
+        {
+            add( RELATIONSHIP_CREATED, relationshipId, typeId, startNodeId, endNodeId, null, null );
+        }
+
+        @Override
+        public void relationshipDeleted( long relationshipId, int typeId, long startNodeId, long endNodeId )
+        {
+            add( RELATIONSHIP_DELETED, relationshipId, typeId, startNodeId, endNodeId, null, null );
+        }
+
+        @Override
+        public void relationshipPropertySet( long relationshipId, int propertyKeyId, Value before, Value after )
+        {
+            add( RELATIONSHIP_PROPERTY_SET, relationshipId, propertyKeyId, -1, -1, before, after );
+        }
+
+        @Override
+        public void relationshipPropertyRemoved( long relationshipId, int propertyKeyId, Value before )
+        {
+            add( RELATIONSHIP_PROPERTY_REMOVED, relationshipId, propertyKeyId, -1, -1, before, null );
+        }
+
+        private void add( ChangeEvent.Type type, long entityId, int tokenId, long startNodeId, long endNodeId, Value before, Value after )
+        {
+            events.add( new ChangeEvent( type, transactionId, commitTime, entityId, tokenId, startNodeId, endNodeId, before, after ) );
+        }
+    }
+}
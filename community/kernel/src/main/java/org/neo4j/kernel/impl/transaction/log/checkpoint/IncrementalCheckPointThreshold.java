@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+/**
+ * The threshold of the {@code incremental} check point policy, which asks for a check point every time the
+ * {@link IncrementalPageFlusher} has written the changes of transactions that came after the last check point. The
+ * check points thereby follow the background flushing, and each of them only has a little left to flush.
+ */
+class IncrementalCheckPointThreshold extends AbstractCheckPointThreshold
+{
+    private final IncrementalPageFlusher flusher;
+
+    private volatile long lastCheckPointedTransactionId;
+
+    IncrementalCheckPointThreshold( IncrementalPageFlusher flusher )
+    {
+        super( "incremental flush threshold" );
+        this.flusher = flusher;
+    }
+
+    @Override
+    public void initialize( long transactionId )
+    {
+        lastCheckPointedTransactionId = transactionId;
+    }
+
+    @Override
+    protected boolean thresholdReached( long lastCommittedTransactionId )
+    {
+        return flusher.flushedTransactionId() > lastCheckPointedTransactionId;
+    }
+
+    @Override
+    public void checkPointHappened( long transactionId )
+    {
+        lastCheckPointedTransactionId = transactionId;
+    }
+
+    @Override
+    public long checkFrequencyMillis()
+    {
+        return flusher.pauseMillis();
+    }
+}
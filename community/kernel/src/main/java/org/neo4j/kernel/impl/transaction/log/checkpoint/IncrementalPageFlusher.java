@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import java.util.function.BooleanSupplier;
+
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.function.Predicates;
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.TransactionIdStore;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Writes the dirty pages of a database in the background, for the
+ * {@link GraphDatabaseSettings.CheckpointPolicy#INCREMENTAL incremental} check point policy. The check points then only
+ * have to force the store files, and write the few pages that were dirtied since.
+ * <p>
+ * Every round first takes note of the last closed transaction, and then writes all the pages that are dirty, without
+ * forcing them. Every page that was dirtied by that transaction, or by the ones before it, has then been written, either
+ * by this round or by eviction. The page cache does not know when a page was dirtied, so pages are written in file order
+ * rather than oldest first, but any page that was dirty when a round started has been written when that round ends.
+ * The rounds are paced by the {@link IOLimiter} of the check pointer.
+ * <p>
+ * Finding the dirty pages means going over every page of every mapped file, so the rounds are spaced
+ * {@link GraphDatabaseSettings#check_point_incremental_interval} apart, and a round is skipped when no transaction has
+ * closed since the last one.
+ */
+public class IncrementalPageFlusher extends LifecycleAdapter
+{
+    private final PageCache pageCache;
+    private final TransactionIdStore transactionIdStore;
+    private final IOLimiter ioLimiter;
+    private final JobScheduler scheduler;
+    private final long pauseMillis;
+    private final Log log;
+    private final Runnable job = this::flushRound;
+
+    private volatile long flushedTransactionId = TransactionIdStore.BASE_TX_ID;
+    private volatile JobHandle handle;
+    private volatile boolean stopped;
+    private volatile boolean flushing;
+    private final BooleanSupplier notFlushing = () -> !flushing;
+
+    /**
+     * @param pauseMillis the time to wait between rounds, and the time between checks of whether to check point.
+     */
+    public IncrementalPageFlusher( PageCache pageCache, TransactionIdStore transactionIdStore, IOLimiter ioLimiter, JobScheduler scheduler,
+            long pauseMillis, LogProvider logProvider )
+    {
+        this.pageCache = pageCache;
+        this.transactionIdStore = transactionIdStore;
+        this.ioLimiter = ioLimiter;
+        this.scheduler = scheduler;
+        this.pauseMillis = pauseMillis;
+        this.log = logProvider.getLog( IncrementalPageFlusher.class );
+    }
+
+    @Override
+    public void start()
+    {
+        handle = scheduler.schedule( Group.CHECKPOINT, job, pauseMillis, MILLISECONDS );
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        if ( handle != null )
+        {
+            handle.cancel();
+        }
+        ioLimiter.disableLimit();
+        try
+        {
+            Predicates.awaitForever( notFlushing, 100, MILLISECONDS );
+        }
+        finally
+        {
+            ioLimiter.enableLimit();
+        }
+    }
+
+    /**
+     * @return the id of the last transaction whose changes, and the changes of all the transactions before it, have been
+     * written to the store files. They have not necessarily been forced. {@link TransactionIdStore#BASE_TX_ID} if no
+     * round has completed yet.
+     */
+    public long flushedTransactionId()
+    {
+        return flushedTransactionId;
+    }
+
+    long pauseMillis()
+    {
+        return pauseMillis;
+    }
+
+    /**
+     * @return a threshold that asks for a check point whenever a round has written the changes of transactions that came
+     * after the last check point.
+     */
+    public CheckPointThreshold checkPointThreshold()
+    {
+        return new IncrementalCheckPointThreshold( this );
+    }
+
+    void flushRound()
+    {
+        try
+        {
+            flushing = true;
+            if ( stopped )
+            {
+                return;
+            }
+            long transactionId = transactionIdStore.getLastClosedTransactionId();
+            if ( transactionId != flushedTransactionId )
+            {
+                pageCache.flush( pageCache.listExistingMappings(), ioLimiter );
+                flushedTransactionId = transactionId;
+            }
+        }
+        catch ( Throwable t )
+        {
+            // The next check point flushes and forces all the pages anyway, and deals with the failure if it persists.
+            log.warn( "Failed to write dirty pages in the background.", t );
+        }
+        finally
+        {
+            flushing = false;
+        }
+
+        if ( !stopped )
+        {
+            handle = scheduler.schedule( Group.CHECKPOINT, job, pauseMillis, MILLISECONDS );
+        }
+    }
+}
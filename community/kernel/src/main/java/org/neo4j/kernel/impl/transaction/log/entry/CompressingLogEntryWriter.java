@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.neo4j.io.fs.WritableChannel;
+import org.neo4j.io.fs.WritableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMPRESSED_COMMANDS;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommandBlock.MAX_BLOCK_SIZE;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A {@link LogEntryWriter} that writes entries of {@link LogEntryVersion#V4_0_COMPRESSED}, where the commands of a
+ * transaction are gathered into blocks, that are written zstd compressed in a single log entry each.
+ * <p>
+ * Blocks that are too small to be worth compressing, or that do not get any smaller by compressing them, are written
+ * as plain command entries instead. A transaction never shares a block with another transaction, so the compressed
+ * entries fit in the log like any other command entries.
+ */
+public class CompressingLogEntryWriter extends LogEntryWriter
+{
+    private static final int blockSize = Math.min( getInteger( CompressingLogEntryWriter.class, "blockSize", MAX_BLOCK_SIZE ), MAX_BLOCK_SIZE );
+    private static final int minimumBlockSize = getInteger( CompressingLogEntryWriter.class, "minimumBlockSize", 512 );
+    private static final int compressionLevel = getInteger( CompressingLogEntryWriter.class, "compressionLevel", 1 );
+
+    private final BlockChannel block = new BlockChannel();
+    private final List<StorageCommand> blockCommands = new ArrayList<>();
+    private byte[] compressed = new byte[0];
+
+    public CompressingLogEntryWriter( WritableChecksumChannel channel )
+    {
+        super( channel, LogEntryVersion.V4_0_COMPRESSED );
+    }
+
+    @Override
+    public void serialize( TransactionRepresentation tx ) throws IOException
+    {
+        try
+        {
+            tx.accept( command ->
+            {
+                addToBlock( command );
+                return false;
+            } );
+            writeBlock();
+        }
+        finally
+        {
+            clearBlock();
+        }
+    }
+
+    @Override
+    public void serialize( Collection<StorageCommand> commands ) throws IOException
+    {
+        try
+        {
+            for ( StorageCommand command : commands )
+            {
+                addToBlock( command );
+            }
+            writeBlock();
+        }
+        finally
+        {
+            clearBlock();
+        }
+    }
+
+    private void addToBlock( StorageCommand command ) throws IOException
+    {
+        int sizeBefore = block.size();
+        command.serialize( block );
+        if ( block.size() > MAX_BLOCK_SIZE && !blockCommands.isEmpty() )
+        {
+            // The command doesn't fit in this block, so it starts the next one
+            block.truncate( sizeBefore );
+            writeBlock();
+            clearBlock();
+            command.serialize( block );
+        }
+        blockCommands.add( command );
+        if ( block.size() >= blockSize )
+        {
+            writeBlock();
+            clearBlock();
+        }
+    }
+
+    private void writeBlock() throws IOException
+    {
+        if ( blockCommands.isEmpty() )
+        {
+            return;
+        }
+        int size = block.size();
+        // A single command larger than a block is written uncompressed, so readers can rely on the block size bound
+        if ( size >= minimumBlockSize && size <= MAX_BLOCK_SIZE )
+        {
+            int bound = (int) Zstd.compressBound( size );
+            if ( compressed.length < bound )
+            {
+                compressed = new byte[bound];
+            }
+            long compressedSize = Zstd.compressByteArray( compressed, 0, bound, block.array(), 0, size, compressionLevel );
+            if ( !Zstd.isError( compressedSize ) && compressedSize < size )
+            {
+                writeLogEntryHeader( version, COMPRESSED_COMMANDS, channel );
+                channel.putInt( size )
+                        .putInt( (int) compressedSize )
+                        .put( compressed, (int) compressedSize );
+                return;
+            }
+        }
+        for ( StorageCommand command : blockCommands )
+        {
+            writeLogEntryHeader( version, COMMAND, channel );
+            command.serialize( channel );
+        }
+    }
+
+    private void clearBlock()
+    {
+        block.clear();
+        blockCommands.clear();
+    }
+
+    /**
+     * A growable, in-memory {@link WritableChannel} that the commands of a block are serialized into.
+     */
+    private static class BlockChannel implements WritableChannel
+    {
+        private ByteBuffer buffer = ByteBuffer.allocate( 8192 );
+
+        int size()
+        {
+            return buffer.position();
+        }
+
+        byte[] array()
+        {
+            return buffer.array();
+        }
+
+        void clear()
+        {
+            buffer.clear();
+        }
+
+        void truncate( int size )
+        {
+            buffer.position( size );
+        }
+
+        @Override
+        public WritableChannel put( byte value )
+        {
+            ensure( Byte.BYTES ).put( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putShort( short value )
+        {
+            ensure( Short.BYTES ).putShort( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putInt( int value )
+        {
+            ensure( Integer.BYTES ).putInt( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putLong( long value )
+        {
+            ensure( Long.BYTES ).putLong( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putFloat( float value )
+        {
+            ensure( Float.BYTES ).putFloat( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel putDouble( double value )
+        {
+            ensure( Double.BYTES ).putDouble( value );
+            return this;
+        }
+
+        @Override
+        public WritableChannel put( byte[] value, int length )
+        {
+            ensure( length ).put( value, 0, length );
+            return this;
+        }
+
+        private ByteBuffer ensure( int bytes )
+        {
+            if ( buffer.remaining() < bytes )
+            {
+                ByteBuffer grown = ByteBuffer.allocate( Math.max( buffer.capacity() * 2, buffer.position() + bytes ) );
+                buffer.flip();
+                grown.put( buffer );
+                buffer = grown;
+            }
+            return buffer;
+        }
+    }
+}
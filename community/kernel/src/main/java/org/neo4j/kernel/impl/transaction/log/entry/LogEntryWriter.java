@@ -38,6 +38,7 @@ import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.LATEST
 public class LogEntryWriter
 {
     protected final WritableChecksumChannel channel;
+    protected final LogEntryVersion version;
     private final Visitor<StorageCommand,IOException> serializer;
 
     /**
@@ -45,14 +46,30 @@ public class LogEntryWriter
      * @param channel underlying channel
      */
     public LogEntryWriter( WritableChecksumChannel channel )
+    {
+        this( channel, LATEST_VERSION );
+    }
+
+    /**
+     * Create a writer that uses the given {@link LogEntryVersion} for versioning.
+     * @param channel underlying channel
+     * @param version the version of the written log entries
+     */
+    protected LogEntryWriter( WritableChecksumChannel channel, LogEntryVersion version )
     {
         this.channel = channel;
-        this.serializer = new StorageCommandSerializer( channel );
+        this.version = version;
+        this.serializer = new StorageCommandSerializer( channel, version );
     }
 
     protected static void writeLogEntryHeader( byte type, WritableChannel channel ) throws IOException
     {
-        channel.put( LATEST_VERSION.version() ).put( type );
+        writeLogEntryHeader( LATEST_VERSION, type, channel );
+    }
+
+    protected static void writeLogEntryHeader( LogEntryVersion version, byte type, WritableChannel channel ) throws IOException
+    {
+        channel.put( version.version() ).put( type );
     }
 
     private void writeStartEntry( LogEntryStart entry ) throws IOException
@@ -65,7 +82,7 @@ public class LogEntryWriter
             int previousChecksum, byte[] additionalHeaderData ) throws IOException
     {
         channel.beginChecksum();
-        writeLogEntryHeader( TX_START, channel );
+        writeLogEntryHeader( version, TX_START, channel );
         channel.putLong( timeWritten )
                 .putLong( latestCommittedTxWhenStarted )
                 .putInt( previousChecksum )
@@ -80,7 +97,7 @@ public class LogEntryWriter
 
     public int writeCommitEntry( long transactionId, long timeWritten ) throws IOException
     {
-        writeLogEntryHeader( TX_COMMIT, channel );
+        writeLogEntryHeader( version, TX_COMMIT, channel );
         channel.putLong( transactionId )
                 .putLong( timeWritten );
         return channel.putChecksum();
@@ -109,7 +126,7 @@ public class LogEntryWriter
     public void writeCheckPointEntry( LogPosition logPosition ) throws IOException
     {
         channel.beginChecksum();
-        writeLogEntryHeader( CHECK_POINT, channel );
+        writeLogEntryHeader( version, CHECK_POINT, channel );
         channel.putLong( logPosition.getLogVersion() )
                 .putLong( logPosition.getByteOffset() );
         channel.putChecksum();
@@ -26,20 +26,28 @@ import org.neo4j.io.fs.WritableChannel;
 import org.neo4j.storageengine.api.StorageCommand;
 
 import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryByteCodes.COMMAND;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.LATEST_VERSION;
 
 public class StorageCommandSerializer implements Visitor<StorageCommand,IOException>
 {
     private final WritableChannel channel;
+    private final LogEntryVersion version;
 
     public StorageCommandSerializer( WritableChannel channel )
+    {
+        this( channel, LATEST_VERSION );
+    }
+
+    public StorageCommandSerializer( WritableChannel channel, LogEntryVersion version )
     {
         this.channel = channel;
+        this.version = version;
     }
 
     @Override
     public boolean visit( StorageCommand command ) throws IOException
     {
-        LogEntryWriter.writeLogEntryHeader( COMMAND, channel );
+        LogEntryWriter.writeLogEntryHeader( version, COMMAND, channel );
         command.serialize( channel );
         return false;
     }
@@ -29,6 +29,8 @@ public interface ChannelNativeAccessor
 
     void evictFromSystemCache( StoreChannel storeChannel, long version );
 
+    void evictFromSystemCache( StoreChannel storeChannel, long version, long offset, long length );
+
     void preallocateSpace( StoreChannel storeChannel, long version );
 
     class EmptyChannelNativeAccessor implements ChannelNativeAccessor
@@ -45,6 +47,12 @@ public interface ChannelNativeAccessor
 
         }
 
+        @Override
+        public void evictFromSystemCache( StoreChannel storeChannel, long version, long offset, long length )
+        {
+
+        }
+
         @Override
         public void preallocateSpace( StoreChannel storeChannel, long version )
         {
@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.ByteBuffers;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A {@link StoreChannel} over a channel that has been opened for direct I/O, where every read and write has to start at a block
+ * aligned file position, cover a whole number of blocks, and go through a block aligned buffer.
+ * <p>
+ * All data goes through a block aligned window buffer, which mirrors a block aligned region of the file. Reads fill the whole
+ * window at a time, so that the many small reads of a log reader turn into a few large ones. Writes are expected to be appends:
+ * the block that the write starts in is completed with the bytes that precede the write position, and the block that the write
+ * ends in is padded with zeros, which read as the end of the log. The last, partially written, block is kept in the window, so
+ * that the next append does not have to read it back from the file.
+ * <p>
+ * Instances are not meant to be used by multiple threads at the same time, but reads, writes and close are synchronized, so that
+ * a concurrent close cannot free the window buffer from under a read or write.
+ */
+class DirectIOStoreChannel implements StoreChannel
+{
+    private static final int windowSize = getInteger( DirectIOStoreChannel.class, "windowSize", (int) mebiBytes( 1 ) );
+
+    private final StoreChannel delegate;
+    private final int blockSize;
+    private final int windowCapacity;
+    private ByteBuffer allocatedBuffer;
+    private ByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+    private long position;
+    private boolean closed;
+
+    DirectIOStoreChannel( StoreChannel delegate, int blockSize ) throws IOException
+    {
+        this.delegate = delegate;
+        this.blockSize = blockSize;
+        this.windowCapacity = Math.max( blockSize, windowSize - windowSize % blockSize );
+        this.position = delegate.position();
+    }
+
+    @Override
+    public synchronized int read( ByteBuffer dst, long position ) throws IOException
+    {
+        assertOpen();
+        if ( !dst.hasRemaining() )
+        {
+            return 0;
+        }
+        if ( position < windowStart || position >= windowStart + windowLength )
+        {
+            fillWindow( alignDown( position ) );
+            if ( position >= windowStart + windowLength )
+            {
+                return -1;
+            }
+        }
+        int offset = toIntExact( position - windowStart );
+        int bytes = min( dst.remaining(), windowLength - offset );
+        dst.put( window.duplicate().position( offset ).limit( offset + bytes ) );
+        return bytes;
+    }
+
+    @Override
+    public int read( ByteBuffer dst ) throws IOException
+    {
+        int read = read( dst, position );
+        if ( read > 0 )
+        {
+            position += read;
+        }
+        return read;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts, int offset, int length ) throws IOException
+    {
+        long total = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            while ( dsts[i].hasRemaining() )
+            {
+                int read = read( dsts[i] );
+                if ( read == -1 )
+                {
+                    return total == 0 ? -1 : total;
+                }
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public long read( ByteBuffer[] dsts ) throws IOException
+    {
+        return read( dsts, 0, dsts.length );
+    }
+
+    @Override
+    public void readAll( ByteBuffer dst ) throws IOException
+    {
+        while ( dst.hasRemaining() )
+        {
+            int read = read( dst );
+            if ( read == -1 )
+            {
+                throw new IllegalStateException( "Channel has reached end-of-stream." );
+            }
+        }
+    }
+
+    @Override
+    public synchronized void writeAll( ByteBuffer src, long position ) throws IOException
+    {
+        assertOpen();
+        while ( src.hasRemaining() )
+        {
+            position += writeBlocks( src, position );
+        }
+    }
+
+    @Override
+    public void writeAll( ByteBuffer src ) throws IOException
+    {
+        int bytes = src.remaining();
+        writeAll( src, position );
+        position += bytes;
+    }
+
+    @Override
+    public int write( ByteBuffer src ) throws IOException
+    {
+        int bytes = src.remaining();
+        writeAll( src );
+        return bytes;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs, int offset, int length ) throws IOException
+    {
+        long total = 0;
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            total += write( srcs[i] );
+        }
+        return total;
+    }
+
+    @Override
+    public long write( ByteBuffer[] srcs ) throws IOException
+    {
+        return write( srcs, 0, srcs.length );
+    }
+
+    /**
+     * Write as much of the given buffer, as fits in the window, at the given file position.
+     *
+     * @return the number of bytes written from the given buffer.
+     */
+    private int writeBlocks( ByteBuffer src, long position ) throws IOException
+    {
+        ByteBuffer buffer = window();
+        long blockStart = alignDown( position );
+        int prefix = toIntExact( position - blockStart );
+        if ( prefix > 0 )
+        {
+            if ( blockStart >= windowStart && position <= windowStart + windowLength )
+            {
+                // The bytes that precede the write position in its block are in the window, so move them to the start of the window
+                int blockOffset = toIntExact( blockStart - windowStart );
+                if ( blockOffset > 0 )
+                {
+                    buffer.clear().put( buffer.duplicate().position( blockOffset ).limit( blockOffset + prefix ) );
+                }
+            }
+            else
+            {
+                fillWindow( blockStart );
+                // Anything between the end of the file and the write position reads as zeros
+                zero( min( windowLength, prefix ), prefix );
+            }
+        }
+        windowStart = blockStart;
+
+        int bytes = min( src.remaining(), windowCapacity - prefix );
+        buffer.clear().position( prefix );
+        buffer.put( src.duplicate().limit( src.position() + bytes ) );
+        src.position( src.position() + bytes );
+        int end = prefix + bytes;
+        int alignedEnd = toIntExact( alignUp( end ) );
+        zero( end, alignedEnd );
+
+        // Until the write is complete, the window does not mirror the file
+        windowLength = 0;
+        buffer.clear().limit( alignedEnd );
+        delegate.writeAll( buffer, blockStart );
+        windowLength = alignedEnd;
+        return bytes;
+    }
+
+    private void fillWindow( long start ) throws IOException
+    {
+        ByteBuffer buffer = window();
+        windowStart = start;
+        windowLength = 0;
+        buffer.clear();
+        long readPosition = start;
+        int read;
+        while ( buffer.hasRemaining() && (read = delegate.read( buffer, readPosition )) > 0 )
+        {
+            readPosition += read;
+            if ( buffer.position() % blockSize != 0 )
+            {
+                // A short read means that we have reached the end of the file
+                break;
+            }
+        }
+        windowLength = buffer.position();
+    }
+
+    private void zero( int from, int to )
+    {
+        for ( int i = from; i < to; i++ )
+        {
+            window.put( i, (byte) 0 );
+        }
+    }
+
+    private ByteBuffer window()
+    {
+        if ( window == null )
+        {
+            allocatedBuffer = ByteBuffers.allocateDirect( windowCapacity + blockSize );
+            window = allocatedBuffer.alignedSlice( blockSize );
+        }
+        return window;
+    }
+
+    private long alignDown( long position )
+    {
+        return position - position % blockSize;
+    }
+
+    private long alignUp( long position )
+    {
+        return alignDown( position + blockSize - 1 );
+    }
+
+    private void assertOpen() throws ClosedChannelException
+    {
+        if ( closed )
+        {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public long position()
+    {
+        return position;
+    }
+
+    @Override
+    public StoreChannel position( long newPosition )
+    {
+        this.position = newPosition;
+        return this;
+    }
+
+    @Override
+    public synchronized StoreChannel truncate( long size ) throws IOException
+    {
+        assertOpen();
+        delegate.truncate( size );
+        if ( windowStart + windowLength > size )
+        {
+            windowLength = toIntExact( Math.max( 0, size - windowStart ) );
+        }
+        if ( position > size )
+        {
+            position = size;
+        }
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException
+    {
+        return delegate.size();
+    }
+
+    @Override
+    public void force( boolean metaData ) throws IOException
+    {
+        delegate.force( metaData );
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        force( false );
+    }
+
+    @Override
+    public FileLock tryLock() throws IOException
+    {
+        return delegate.tryLock();
+    }
+
+    @Override
+    public FileChannel fileChannel()
+    {
+        return delegate.fileChannel();
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public synchronized void close() throws IOException
+    {
+        closed = true;
+        try
+        {
+            delegate.close();
+        }
+        finally
+        {
+            if ( allocatedBuffer != null )
+            {
+                ByteBuffers.releaseBuffer( allocatedBuffer );
+                allocatedBuffer = null;
+                window = null;
+            }
+        }
+    }
+}
@@ -69,6 +69,26 @@ public interface LogFile
 
     void accept( LogFileVisitor visitor, LogPosition startingFromPosition ) throws IOException;
 
+    /**
+     * Notify that a transaction has been appended to this log, so that its start position can be indexed.
+     * Must be called in the order the transactions are appended, while holding the monitor of this log file.
+     *
+     * @param transactionId the id of the appended transaction.
+     * @param startPosition the position of the start entry of the transaction.
+     */
+    void transactionAppended( long transactionId, LogPosition startPosition );
+
+    /**
+     * Find a position to start scanning from, to find the start of the given transaction in a log file, without having
+     * to scan the log file from its start.
+     *
+     * @param transactionId the transaction to find.
+     * @param logStart the position of the first entry in the log file the transaction is in.
+     * @return an indexed position at, or before, the start of the given transaction, in the same log file,
+     * or {@code logStart} if no such position is known.
+     */
+    LogPosition findTransactionStartHint( long transactionId, LogPosition logStart );
+
     /**
      * @return {@code true} if a rotation is needed.
      */
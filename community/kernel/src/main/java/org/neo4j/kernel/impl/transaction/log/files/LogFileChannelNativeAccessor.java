@@ -32,6 +32,7 @@ public class LogFileChannelNativeAccessor implements ChannelNativeAccessor
     private final NativeAccess nativeAccess;
     private final Log log;
     private final AtomicLong rotationThreshold;
+    private final boolean evictForcedData;
 
     public LogFileChannelNativeAccessor( FileSystemAbstraction fileSystem, TransactionLogFilesContext context )
     {
@@ -39,6 +40,7 @@ public class LogFileChannelNativeAccessor implements ChannelNativeAccessor
         this.nativeAccess = context.getNativeAccess();
         this.log = context.getLogProvider().getLog( getClass() );
         this.rotationThreshold = context.getRotationThreshold();
+        this.evictForcedData = context.isDirectIO();
     }
 
     @Override
@@ -73,6 +75,20 @@ public class LogFileChannelNativeAccessor implements ChannelNativeAccessor
         }
     }
 
+    @Override
+    public void evictFromSystemCache( StoreChannel channel, long version, long offset, long length )
+    {
+        // Readers of recent log data, like log shipping, expect to find it in the cache unless the logs are meant to bypass it
+        if ( evictForcedData && channel.isOpen() )
+        {
+            var result = nativeAccess.tryEvictFromCache( fileSystem.getFileDescriptor( channel ), offset, length );
+            if ( result.isError() )
+            {
+                log.warn( "Unable to evict forced data of transaction log with version: " + version + " from cache. Error: " + result );
+            }
+        }
+    }
+
     @Override
     public void preallocateSpace( StoreChannel storeChannel, long version )
     {
@@ -69,4 +69,13 @@ public interface LogFiles extends Lifecycle
     LogFileChannelNativeAccessor getChannelNativeAccessor();
 
     PhysicalLogVersionedStoreChannel createLogChannelForVersion( long versionUsed, LongSupplier lastCommittedTransactionId ) throws IOException;
+
+    /**
+     * Keep the given log file, that has been pruned, for reuse as a future log file, if log files are recycled.
+     *
+     * @param logFile a log file that is no longer needed.
+     * @return {@code true} if the file was taken for reuse, otherwise the file is left as it is, to be deleted by the caller.
+     * @throws IOException if the file could not be taken for reuse.
+     */
+    boolean recycleLogFile( File logFile ) throws IOException;
 }
@@ -39,6 +39,7 @@ import org.neo4j.kernel.impl.transaction.log.entry.VersionAwareLogEntryReader;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngineFactory;
 import org.neo4j.storageengine.api.StoreId;
@@ -47,7 +48,9 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static java.util.Objects.requireNonNull;
 import static org.neo4j.configuration.GraphDatabaseSettings.logical_log_rotation_threshold;
+import static org.neo4j.configuration.GraphDatabaseSettings.logical_logs_direct_io;
 import static org.neo4j.configuration.GraphDatabaseSettings.preallocate_logical_logs;
+import static org.neo4j.configuration.GraphDatabaseSettings.recycle_logical_logs;
 
 /**
  * Transactional log files facade class builder.
@@ -82,6 +85,7 @@ public class LogFilesBuilder
     private DatabaseTracer databaseTracer = DatabaseTracer.NULL;
     private StoreId storeId;
     private NativeAccess nativeAccess;
+    private JobScheduler jobScheduler;
 
     private LogFilesBuilder()
     {
@@ -205,6 +209,15 @@ public class LogFilesBuilder
         return this;
     }
 
+    /**
+     * Job scheduler for background work on the log files. Without one, pruned log files are never recycled.
+     */
+    public LogFilesBuilder withJobScheduler( JobScheduler jobScheduler )
+    {
+        this.jobScheduler = jobScheduler;
+        return this;
+    }
+
     public LogFilesBuilder withStoreId( StoreId storeId )
     {
         this.storeId = storeId;
@@ -249,10 +262,12 @@ public class LogFilesBuilder
         AtomicLong rotationThreshold = getRotationThresholdAndRegisterForUpdates();
         AtomicBoolean tryPreallocateTransactionLogs = getTryToPreallocateTransactionLogs();
         var nativeAccess = getNativeAccess();
+        boolean recycleTransactionLogs = !readOnly && !fileBasedOperationsOnly && jobScheduler != null && config.get( recycle_logical_logs );
+        boolean directIO = !fileBasedOperationsOnly && config.get( logical_logs_direct_io );
 
         return new TransactionLogFilesContext( rotationThreshold, tryPreallocateTransactionLogs, logEntryReader, lastCommittedIdSupplier,
                 committingTransactionIdSupplier, lastClosedTransactionPositionSupplier, logVersionRepositorySupplier, fileSystem,
-                logProvider, databaseTracer, storeIdSupplier, nativeAccess );
+                logProvider, databaseTracer, storeIdSupplier, nativeAccess, recycleTransactionLogs, jobScheduler, directIO );
     }
 
     private NativeAccess getNativeAccess()
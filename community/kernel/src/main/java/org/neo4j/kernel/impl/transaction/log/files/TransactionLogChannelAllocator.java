@@ -19,10 +19,15 @@
  */
 package org.neo4j.kernel.impl.transaction.log.files;
 
+import com.sun.nio.file.ExtendedOpenOption;
+
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.util.Set;
 import java.util.function.LongSupplier;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
@@ -34,23 +39,34 @@ import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
 import org.neo4j.kernel.impl.transaction.log.entry.LogHeaderWriter;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.kernel.impl.transaction.tracing.LogFileCreateEvent;
+import org.neo4j.logging.Log;
 
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_LOG_FORMAT_VERSION;
 
 class TransactionLogChannelAllocator
 {
+    private static final Set<OpenOption> DIRECT_WRITE_OPTIONS = Set.of( READ, WRITE, CREATE, ExtendedOpenOption.DIRECT );
+    private static final Set<OpenOption> DIRECT_READ_OPTIONS = Set.of( READ, ExtendedOpenOption.DIRECT );
+
     private final TransactionLogFilesContext logFilesContext;
     private final FileSystemAbstraction fileSystem;
     private final TransactionLogFilesHelper fileHelper;
     private final LogHeaderCache logHeaderCache;
     private final LogFileChannelNativeAccessor nativeChannelAccessor;
     private final DatabaseTracer databaseTracer;
+    private final TransactionLogFileRecycler recycler;
+    private final Log log;
+    private volatile boolean directIO;
 
     TransactionLogChannelAllocator( TransactionLogFilesContext logFilesContext, TransactionLogFilesHelper fileHelper, LogHeaderCache logHeaderCache,
-            LogFileChannelNativeAccessor nativeChannelAccessor )
+            LogFileChannelNativeAccessor nativeChannelAccessor, TransactionLogFileRecycler recycler )
     {
         this.logFilesContext = logFilesContext;
         this.fileSystem = logFilesContext.getFileSystem();
@@ -58,6 +74,9 @@ class TransactionLogChannelAllocator
         this.fileHelper = fileHelper;
         this.logHeaderCache = logHeaderCache;
         this.nativeChannelAccessor = nativeChannelAccessor;
+        this.recycler = recycler;
+        this.log = logFilesContext.getLogProvider().getLog( getClass() );
+        this.directIO = logFilesContext.isDirectIO();
     }
 
     PhysicalLogVersionedStoreChannel createLogChannel( long version, LongSupplier lastCommittedTransactionId ) throws IOException
@@ -95,7 +114,7 @@ class TransactionLogChannelAllocator
         StoreChannel rawChannel = null;
         try
         {
-            rawChannel = fileSystem.read( fileToOpen );
+            rawChannel = directIO ? openDirect( fileToOpen, DIRECT_READ_OPTIONS ) : fileSystem.read( fileToOpen );
             ByteBuffer buffer = ByteBuffers.allocate( CURRENT_FORMAT_LOG_HEADER_SIZE );
             LogHeader header = readLogHeader( buffer, rawChannel, true, fileToOpen );
             if ( (header == null) || (header.getLogVersion() != version) )
@@ -135,7 +154,17 @@ class TransactionLogChannelAllocator
     {
         File file = fileHelper.getLogFileForVersion( version );
         boolean fileExist = fileSystem.fileExists( file );
-        StoreChannel storeChannel = fileSystem.write( file );
+        if ( !fileExist && recycler != null )
+        {
+            // A spare file is already filled with zeros, which reads as an empty log after the header that we are about to write
+            File spare = recycler.takeSpare();
+            if ( spare != null )
+            {
+                fileSystem.renameFile( spare, file );
+                fileExist = true;
+            }
+        }
+        StoreChannel storeChannel = directIO ? openDirect( file, DIRECT_WRITE_OPTIONS ) : fileSystem.write( file );
         if ( fileExist )
         {
             nativeChannelAccessor.adviseSequentialAccessAndKeepInCache( storeChannel, version );
@@ -147,6 +176,39 @@ class TransactionLogChannelAllocator
         return new AllocatedFile( file, storeChannel );
     }
 
+    /**
+     * Open the given file for direct I/O, or, if the file system does not support that, open it for buffered I/O, and stop trying to use
+     * direct I/O for log files.
+     */
+    private StoreChannel openDirect( File file, Set<OpenOption> options ) throws IOException
+    {
+        StoreChannel channel;
+        try
+        {
+            channel = fileSystem.open( file, options );
+        }
+        catch ( NoSuchFileException e )
+        {
+            throw e;
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            directIO = false;
+            log.warn( "Unable to use direct I/O for transaction log file " + file + ", the transaction logs will be accessed through " +
+                    "the file system cache instead.", e );
+            return options.contains( WRITE ) ? fileSystem.write( file ) : fileSystem.read( file );
+        }
+        try
+        {
+            return new DirectIOStoreChannel( channel, toIntExact( fileSystem.getBlockSize( file ) ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            channel.close();
+            throw e;
+        }
+    }
+
     private static class AllocatedFile
     {
         private final File file;
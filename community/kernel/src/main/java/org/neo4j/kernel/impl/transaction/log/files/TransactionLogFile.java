@@ -55,18 +55,20 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
     private final LogFiles logFiles;
     private final TransactionLogFilesContext context;
     private final LogVersionBridge readerLogVersionBridge;
+    private final TransactionLogIndex transactionLogIndex;
     private PositionAwarePhysicalFlushableChecksumChannel writer;
     private LogVersionRepository logVersionRepository;
 
     private volatile PhysicalLogVersionedStoreChannel channel;
     private ByteBuffer byteBuffer;
 
-    TransactionLogFile( LogFiles logFiles, TransactionLogFilesContext context )
+    TransactionLogFile( LogFiles logFiles, TransactionLogFilesContext context, TransactionLogIndex transactionLogIndex )
     {
         this.rotateAtSize = context.getRotationThreshold();
         this.context = context;
         this.logFiles = logFiles;
         this.readerLogVersionBridge = new ReaderLogVersionBridge( logFiles );
+        this.transactionLogIndex = transactionLogIndex;
     }
 
     @Override
@@ -172,6 +174,7 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
      * <li>2: Flush current log</li>
      * <li>3: Create new log file</li>
      * <li>4: Write header</li>
+     * <li>5: Write the transaction index of the previous log file</li>
      * </ol>
      *
      * Recovery: what happens if crash between:
@@ -185,6 +188,7 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
      * <li>3-4: New log version has been set, starting the writer will see that the new file exists and
      * will be forgiving when trying to read the header of it, so that if it isn't complete a fresh
      * header will be set.</li>
+     * <li>4-5: The previous log file has no transaction index, and will be scanned from its start when looking for transactions.</li>
      * </ol>
      *
      * Reading: what happens when rotation is between:
@@ -229,9 +233,22 @@ class TransactionLogFile extends LifecycleAdapter implements LogFile
          */
         PhysicalLogVersionedStoreChannel newLog = logFiles.createLogChannelForVersion( newLogVersion, context::committingTransactionId );
         currentLog.close();
+        transactionLogIndex.rotated( currentLog.getVersion() );
         return newLog;
     }
 
+    @Override
+    public void transactionAppended( long transactionId, LogPosition startPosition )
+    {
+        transactionLogIndex.transactionAppended( transactionId, startPosition );
+    }
+
+    @Override
+    public LogPosition findTransactionStartHint( long transactionId, LogPosition logStart )
+    {
+        return transactionLogIndex.findStartPosition( transactionId, logStart );
+    }
+
     @Override
     public FlushablePositionAwareChecksumChannel getWriter()
     {
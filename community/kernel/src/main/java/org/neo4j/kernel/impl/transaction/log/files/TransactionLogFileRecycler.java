@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.logging.Log;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * Keeps a small pool of spare transaction log files, that new log files are made from when the log is rotated.
+ * <p>
+ * Spare files are filled with zeros up to the rotation threshold, and forced, on a {@link Group#LOG_ROTATION} thread. Rotating
+ * to a spare file then only needs to rename it, and appending to it never has to grow the file, which saves the file system
+ * from doing metadata updates on the commit path. Pruned log files are turned into spare files, as long as the pool is not full.
+ * <p>
+ * The zeros after the last entry of a log file are read as the end of the log, just like for preallocated log files.
+ * Spare files are named so that they are never mistaken for log files. Any spare files that are found at startup are filled with
+ * zeros again, since we cannot know how far their preparation got.
+ */
+class TransactionLogFileRecycler
+{
+    private static final int spareFiles = getInteger( TransactionLogFileRecycler.class, "spareFiles", 2 );
+    private static final int ZERO_BUFFER_SIZE = (int) mebiBytes( 1 );
+    private static final String SPARE_PREFIX = "spare.";
+
+    private final FileSystemAbstraction fileSystem;
+    private final File logsDirectory;
+    private final String spareBaseName;
+    private final AtomicLong rotationThreshold;
+    private final JobScheduler jobScheduler;
+    private final Log log;
+    private final Deque<File> readySpares = new ArrayDeque<>();
+    private final Deque<File> pendingSpares = new ArrayDeque<>();
+    private int sparesInPreparation;
+    private long nextSpareId;
+    private boolean preparing;
+    private volatile boolean stopped = true;
+    private JobHandle preparation;
+
+    TransactionLogFileRecycler( FileSystemAbstraction fileSystem, File logsDirectory, String name, AtomicLong rotationThreshold,
+            JobScheduler jobScheduler, Log log )
+    {
+        this.fileSystem = fileSystem;
+        this.logsDirectory = logsDirectory;
+        this.spareBaseName = SPARE_PREFIX + name + ".";
+        this.rotationThreshold = rotationThreshold;
+        this.jobScheduler = jobScheduler;
+        this.log = log;
+    }
+
+    synchronized void start()
+    {
+        File[] spares = fileSystem.listFiles( logsDirectory, ( dir, fileName ) -> fileName.startsWith( spareBaseName ) );
+        if ( spares != null )
+        {
+            for ( File spare : spares )
+            {
+                try
+                {
+                    nextSpareId = Math.max( nextSpareId, Long.parseLong( spare.getName().substring( spareBaseName.length() ) ) + 1 );
+                    pendingSpares.add( spare );
+                }
+                catch ( NumberFormatException e )
+                {
+                    // Not one of ours
+                }
+            }
+        }
+        stopped = false;
+        schedulePreparation();
+    }
+
+    void stop() throws IOException
+    {
+        JobHandle job;
+        synchronized ( this )
+        {
+            stopped = true;
+            job = preparation;
+        }
+        if ( job != null )
+        {
+            try
+            {
+                job.waitTermination();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                throw new IOException( e );
+            }
+        }
+    }
+
+    /**
+     * Take a prepared spare file, and start preparing a new one in its place.
+     *
+     * @return a spare file that can be renamed to a new log file, or {@code null} if there is none ready.
+     */
+    synchronized File takeSpare()
+    {
+        File spare = readySpares.pollFirst();
+        schedulePreparation();
+        return spare;
+    }
+
+    /**
+     * Turn the given log file, which has been pruned, into a spare file, if the pool of spare files is not full.
+     *
+     * @return {@code true} if the file was turned into a spare file, or {@code false} if it should be deleted.
+     */
+    synchronized boolean recycle( File logFile ) throws IOException
+    {
+        if ( stopped || readySpares.size() + pendingSpares.size() + sparesInPreparation >= spareFiles )
+        {
+            return false;
+        }
+        File spare = newSpareFile();
+        fileSystem.renameFile( logFile, spare );
+        pendingSpares.add( spare );
+        schedulePreparation();
+        return true;
+    }
+
+    private void schedulePreparation()
+    {
+        if ( !preparing && !stopped && readySpares.size() < spareFiles )
+        {
+            preparing = true;
+            preparation = jobScheduler.schedule( Group.LOG_ROTATION, this::prepareSpares );
+        }
+    }
+
+    private void prepareSpares()
+    {
+        File spare;
+        while ( (spare = nextSpareToPrepare()) != null )
+        {
+            boolean prepared = false;
+            try
+            {
+                prepared = fillWithZeros( spare );
+            }
+            catch ( IOException e )
+            {
+                log.warn( "Failed to prepare spare transaction log file " + spare, e );
+            }
+            finally
+            {
+                preparedSpare( spare, prepared );
+            }
+        }
+    }
+
+    private synchronized File nextSpareToPrepare()
+    {
+        File spare = null;
+        if ( !stopped )
+        {
+            if ( !pendingSpares.isEmpty() )
+            {
+                spare = pendingSpares.pollFirst();
+            }
+            else if ( readySpares.size() + sparesInPreparation < spareFiles )
+            {
+                spare = newSpareFile();
+            }
+        }
+        if ( spare == null )
+        {
+            preparing = false;
+            return null;
+        }
+        sparesInPreparation++;
+        return spare;
+    }
+
+    private synchronized void preparedSpare( File spare, boolean prepared )
+    {
+        sparesInPreparation--;
+        if ( prepared )
+        {
+            readySpares.add( spare );
+        }
+        else if ( stopped )
+        {
+            // It will be filled with zeros again on the next start
+            pendingSpares.add( spare );
+        }
+        else
+        {
+            // Do not keep trying to prepare a file that we failed to prepare
+            fileSystem.deleteFile( spare );
+            stopped = true;
+        }
+    }
+
+    private boolean fillWithZeros( File spare ) throws IOException
+    {
+        ByteBuffer zeros = ByteBuffers.allocate( ZERO_BUFFER_SIZE );
+        try ( StoreChannel channel = fileSystem.write( spare ) )
+        {
+            long size = Math.max( rotationThreshold.get(), channel.size() );
+            long position = 0;
+            while ( position < size )
+            {
+                if ( stopped )
+                {
+                    return false;
+                }
+                zeros.clear().limit( (int) Math.min( zeros.capacity(), size - position ) );
+                channel.writeAll( zeros, position );
+                position += zeros.limit();
+            }
+            channel.force( false );
+        }
+        return true;
+    }
+
+    private File newSpareFile()
+    {
+        return new File( logsDirectory, spareBaseName + nextSpareId++ );
+    }
+}
@@ -54,6 +54,7 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     private final File logsDirectory;
     private final TransactionLogChannelAllocator channelAllocator;
     private final LogFileChannelNativeAccessor nativeChannelAccessor;
+    private final TransactionLogFileRecycler recycler;
 
     TransactionLogFiles( File logsDirectory, String name, TransactionLogFilesContext context )
     {
@@ -64,8 +65,13 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         this.logHeaderCache = new LogHeaderCache( 1000 );
         this.logFileInformation = new TransactionLogFileInformation( this, logHeaderCache, context );
         this.nativeChannelAccessor = new LogFileChannelNativeAccessor( fileSystem, context );
-        this.logFile = new TransactionLogFile( this, context );
-        this.channelAllocator = new TransactionLogChannelAllocator( logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor );
+        this.logFile = new TransactionLogFile( this, context, new TransactionLogIndex( fileSystem, logsDirectory, name, this,
+                context.getLogProvider().getLog( TransactionLogIndex.class ) ) );
+        this.recycler = context.isRecycleTransactionLogs()
+                        ? new TransactionLogFileRecycler( fileSystem, logsDirectory, name, context.getRotationThreshold(), context.getJobScheduler(),
+                                context.getLogProvider().getLog( TransactionLogFileRecycler.class ) )
+                        : null;
+        this.channelAllocator = new TransactionLogChannelAllocator( logFilesContext, fileHelper, logHeaderCache, nativeChannelAccessor, recycler );
     }
 
     @Override
@@ -78,11 +84,19 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
     public void start() throws IOException
     {
         logFile.start();
+        if ( recycler != null )
+        {
+            recycler.start();
+        }
     }
 
     @Override
     public void shutdown() throws IOException
     {
+        if ( recycler != null )
+        {
+            recycler.stop();
+        }
         logFile.shutdown();
     }
 
@@ -228,6 +242,12 @@ public class TransactionLogFiles extends LifecycleAdapter implements LogFiles
         return channelAllocator.createLogChannel( version, lastTransactionIdSupplier );
     }
 
+    @Override
+    public boolean recycleLogFile( File logFile ) throws IOException
+    {
+        return recycler != null && recycler.recycle( logFile );
+    }
+
     @Override
     public void accept( LogHeaderVisitor visitor ) throws IOException
     {
@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.transaction.log.LogPosition;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryReader;
 import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
 import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StoreId;
 
@@ -47,11 +48,15 @@ class TransactionLogFilesContext
     private final DatabaseTracer databaseTracer;
     private final Supplier<StoreId> storeId;
     private final NativeAccess nativeAccess;
+    private final boolean recycleTransactionLogs;
+    private final JobScheduler jobScheduler;
+    private final boolean directIO;
 
     TransactionLogFilesContext( AtomicLong rotationThreshold, AtomicBoolean tryPreallocateTransactionLogs, LogEntryReader logEntryReader,
             LongSupplier lastCommittedTransactionIdSupplier, LongSupplier committingTransactionIdSupplier, Supplier<LogPosition> lastClosedPositionSupplier,
             Supplier<LogVersionRepository> logVersionRepositorySupplier, FileSystemAbstraction fileSystem,
-            LogProvider logProvider, DatabaseTracer databaseTracer, Supplier<StoreId> storeId, NativeAccess nativeAccess )
+            LogProvider logProvider, DatabaseTracer databaseTracer, Supplier<StoreId> storeId, NativeAccess nativeAccess,
+            boolean recycleTransactionLogs, JobScheduler jobScheduler, boolean directIO )
     {
         this.rotationThreshold = rotationThreshold;
         this.tryPreallocateTransactionLogs = tryPreallocateTransactionLogs;
@@ -65,6 +70,9 @@ class TransactionLogFilesContext
         this.databaseTracer = databaseTracer;
         this.storeId = storeId;
         this.nativeAccess = nativeAccess;
+        this.recycleTransactionLogs = recycleTransactionLogs;
+        this.jobScheduler = jobScheduler;
+        this.directIO = directIO;
     }
 
     AtomicLong getRotationThreshold()
@@ -112,6 +120,21 @@ class TransactionLogFilesContext
         return tryPreallocateTransactionLogs;
     }
 
+    boolean isRecycleTransactionLogs()
+    {
+        return recycleTransactionLogs;
+    }
+
+    JobScheduler getJobScheduler()
+    {
+        return jobScheduler;
+    }
+
+    boolean isDirectIO()
+    {
+        return directIO;
+    }
+
     NativeAccess getNativeAccess()
     {
         return nativeAccess;
@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.logging.Log;
+
+import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A sparse index from transaction ids to the positions in a log file where the transactions start.
+ * <p>
+ * While transactions are appended to the active log file, the start of a transaction is sampled whenever it is at least
+ * {@code spacing} bytes past the previous sample. When the log is rotated, the samples of the log file that was rotated away
+ * are written to an index file next to it. Finding a transaction in a log file is then a binary search in the index of that
+ * file, followed by a scan of about {@code spacing} bytes, instead of a scan from the start of the file.
+ * <p>
+ * The index is only a hint. Log files without an index, like files that were written before this feature, are scanned from
+ * their start as before. Index files are written under a temporary name and then renamed, so they are either complete or
+ * missing. Index files of log files that no longer exist are deleted on rotation.
+ */
+class TransactionLogIndex
+{
+    private static final int spacing = getInteger( TransactionLogIndex.class, "spacing", (int) kibiBytes( 64 ) );
+    private static final String INDEX_PREFIX = "index.";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final long MAGIC = 0x4E54584944583031L;
+    // Magic, log version, last committed transaction id in the log file header, and number of entries.
+    private static final int HEADER_SIZE = Long.BYTES * 3 + Integer.BYTES;
+    // Transaction id and byte offset.
+    private static final int ENTRY_SIZE = Long.BYTES * 2;
+
+    private final FileSystemAbstraction fileSystem;
+    private final File logsDirectory;
+    private final String indexBaseName;
+    private final LogFiles logFiles;
+    private final Log log;
+    private final LongArrayList transactionIds = new LongArrayList();
+    private final LongArrayList offsets = new LongArrayList();
+    private long sampledVersion = -1;
+
+    TransactionLogIndex( FileSystemAbstraction fileSystem, File logsDirectory, String name, LogFiles logFiles, Log log )
+    {
+        this.fileSystem = fileSystem;
+        this.logsDirectory = logsDirectory;
+        this.indexBaseName = INDEX_PREFIX + name + ".";
+        this.logFiles = logFiles;
+        this.log = log;
+    }
+
+    /**
+     * Sample the start position of an appended transaction, if it is far enough from the previous sample.
+     * Transactions must be reported in the order they are appended.
+     */
+    synchronized void transactionAppended( long transactionId, LogPosition startPosition )
+    {
+        if ( spacing <= 0 )
+        {
+            return;
+        }
+        if ( startPosition.getLogVersion() != sampledVersion )
+        {
+            clearSamples( startPosition.getLogVersion() );
+        }
+        long offset = startPosition.getByteOffset();
+        if ( offsets.isEmpty() || offset - offsets.getLast() >= spacing )
+        {
+            transactionIds.add( transactionId );
+            offsets.add( offset );
+        }
+    }
+
+    /**
+     * Find the position to start scanning from, to find the start of the given transaction in the log file of the given position.
+     *
+     * @param transactionId the transaction to find.
+     * @param logStart the position of the first entry in the log file the transaction is in.
+     * @return the position of the closest indexed transaction at, or before, the given transaction, or {@code logStart} if there is none.
+     */
+    LogPosition findStartPosition( long transactionId, LogPosition logStart )
+    {
+        long version = logStart.getLogVersion();
+        long offset;
+        synchronized ( this )
+        {
+            offset = version == sampledVersion ? searchSamples( transactionId ) : -1;
+        }
+        if ( offset == -1 )
+        {
+            offset = searchIndexFile( version, transactionId );
+        }
+        return offset > logStart.getByteOffset() ? new LogPosition( version, offset ) : logStart;
+    }
+
+    /**
+     * Write the samples of the given log version, which has just been rotated away from, to its index file.
+     * A failure to write the index is logged, but not propagated, since the log can be searched without it.
+     */
+    void rotated( long version )
+    {
+        long[] ids;
+        long[] positions;
+        synchronized ( this )
+        {
+            if ( version != sampledVersion || transactionIds.isEmpty() )
+            {
+                return;
+            }
+            ids = transactionIds.toArray();
+            positions = offsets.toArray();
+            clearSamples( -1 );
+        }
+
+        File indexFile = indexFile( version );
+        File temporaryFile = new File( logsDirectory, indexFile.getName() + TEMPORARY_SUFFIX );
+        try
+        {
+            writeIndex( temporaryFile, version, ids, positions );
+            fileSystem.renameFile( temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to write transaction index " + indexFile + ". Transactions in log version " + version +
+                    " will be found by scanning the log file.", e );
+            fileSystem.deleteFile( temporaryFile );
+        }
+        removeStaleIndexFiles();
+    }
+
+    File indexFile( long version )
+    {
+        return new File( logsDirectory, indexBaseName + version );
+    }
+
+    private void clearSamples( long version )
+    {
+        sampledVersion = version;
+        transactionIds.clear();
+        offsets.clear();
+    }
+
+    private long searchSamples( long transactionId )
+    {
+        int index = transactionIds.binarySearch( transactionId );
+        index = index >= 0 ? index : -index - 2;
+        return index >= 0 ? offsets.get( index ) : -1;
+    }
+
+    private long searchIndexFile( long version, long transactionId )
+    {
+        File indexFile = indexFile( version );
+        if ( !fileSystem.fileExists( indexFile ) )
+        {
+            return -1;
+        }
+        try ( StoreChannel channel = fileSystem.read( indexFile ) )
+        {
+            if ( channel.size() < HEADER_SIZE )
+            {
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffers.allocate( HEADER_SIZE );
+            channel.readAll( buffer );
+            buffer.flip();
+            if ( buffer.getLong() != MAGIC || buffer.getLong() != version ||
+                 buffer.getLong() != logFiles.extractHeader( version ).getLastCommittedTxId() )
+            {
+                // This index belongs to some other log file.
+                return -1;
+            }
+            int entries = buffer.getInt();
+            if ( channel.size() != HEADER_SIZE + (long) entries * ENTRY_SIZE )
+            {
+                return -1;
+            }
+
+            // Find the last entry with a transaction id that is not greater than the one we look for.
+            ByteBuffer entry = ByteBuffers.allocate( ENTRY_SIZE );
+            long offset = -1;
+            int low = 0;
+            int high = entries - 1;
+            while ( low <= high )
+            {
+                int middle = (low + high) >>> 1;
+                entry.clear();
+                channel.position( HEADER_SIZE + (long) middle * ENTRY_SIZE );
+                channel.readAll( entry );
+                entry.flip();
+                if ( entry.getLong() <= transactionId )
+                {
+                    offset = entry.getLong();
+                    low = middle + 1;
+                }
+                else
+                {
+                    high = middle - 1;
+                }
+            }
+            return offset;
+        }
+        catch ( NoSuchFileException e )
+        {
+            return -1;
+        }
+        catch ( IOException e )
+        {
+            log.warn( "Unable to read transaction index of log version " + version + ". The log file will be scanned instead.", e );
+            return -1;
+        }
+    }
+
+    private void writeIndex( File file, long version, long[] ids, long[] positions ) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffers.allocate( HEADER_SIZE + ids.length * ENTRY_SIZE );
+        buffer.putLong( MAGIC );
+        buffer.putLong( version );
+        buffer.putLong( logFiles.extractHeader( version ).getLastCommittedTxId() );
+        buffer.putInt( ids.length );
+        for ( int i = 0; i < ids.length; i++ )
+        {
+            buffer.putLong( ids[i] );
+            buffer.putLong( positions[i] );
+        }
+        buffer.flip();
+        try ( StoreChannel channel = fileSystem.write( file ) )
+        {
+            channel.truncate( 0 );
+            channel.writeAll( buffer );
+            channel.force( false );
+        }
+    }
+
+    private void removeStaleIndexFiles()
+    {
+        File[] files = fileSystem.listFiles( logsDirectory, ( directory, name ) -> name.startsWith( indexBaseName ) );
+        if ( files == null )
+        {
+            return;
+        }
+        for ( File file : files )
+        {
+            if ( !logFiles.versionExists( indexedVersion( file ) ) )
+            {
+                fileSystem.deleteFile( file );
+            }
+        }
+    }
+
+    private long indexedVersion( File indexFile )
+    {
+        try
+        {
+            return Long.parseLong( indexFile.getName().substring( indexBaseName.length() ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            // A temporary file that was left behind by a crash.
+            return -1;
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.transaction.log.pruning;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.LongConsumer;
@@ -130,7 +131,23 @@ public class LogPruningImpl implements LogPruning
             fromVersion = fromVersion == NO_VERSION ? version : Math.min( fromVersion, version );
             toVersion = toVersion == NO_VERSION ? version : Math.max( toVersion, version );
             File logFile = logFiles.getLogFileForVersion( version );
-            fs.deleteFile( logFile );
+            if ( !recycle( logFile ) )
+            {
+                fs.deleteFile( logFile );
+            }
+        }
+
+        private boolean recycle( File logFile )
+        {
+            try
+            {
+                return logFiles.recycleLogFile( logFile );
+            }
+            catch ( IOException e )
+            {
+                // The file is deleted instead
+                return false;
+            }
         }
 
         String describeResult( LogPruneStrategy strategy )
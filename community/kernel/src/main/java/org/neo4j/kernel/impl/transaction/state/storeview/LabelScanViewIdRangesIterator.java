@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.state.storeview;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.internal.index.label.LabelScanReader;
+import org.neo4j.storageengine.api.StorageEntityScanCursor;
+
+/**
+ * Node id iterator used by each thread of a parallel index population when we go over node ids indexed in label scan store.
+ * Threads claim ranges of node ids from a shared counter and each range is read from the label scan store separately,
+ * so that the threads together visit every labeled node exactly once.
+ */
+class LabelScanViewIdRangesIterator<CURSOR extends StorageEntityScanCursor> implements EntityIdIterator
+{
+    private final int[] labelIds;
+    private final LabelScanReader labelScanReader;
+    private final CURSOR entityCursor;
+    private final AtomicLong nextRangeStart;
+    private final int rangeSize;
+
+    private PrimitiveLongResourceIterator idIterator;
+    private long rangeEnd;
+    private long nextId;
+    private boolean hasNextId;
+    private boolean exhausted;
+    private long lastReturnedId = LabelScanReader.NO_ID;
+
+    LabelScanViewIdRangesIterator( LabelScanReader labelScanReader, int[] labelIds, CURSOR entityCursor, AtomicLong nextRangeStart, int rangeSize )
+    {
+        this.labelScanReader = labelScanReader;
+        this.labelIds = labelIds;
+        this.entityCursor = entityCursor;
+        this.nextRangeStart = nextRangeStart;
+        this.rangeSize = rangeSize;
+    }
+
+    @Override
+    public void close()
+    {
+        closeIdIterator();
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        while ( !hasNextId && !exhausted )
+        {
+            if ( idIterator == null )
+            {
+                long rangeStart = nextRangeStart.getAndAdd( rangeSize );
+                rangeEnd = rangeStart + rangeSize;
+                // The from id is exclusive
+                idIterator = labelScanReader.nodesWithAnyOfLabels( rangeStart - 1, labelIds );
+            }
+            if ( !idIterator.hasNext() )
+            {
+                // There are no labeled nodes at or after this range, so there's nothing left for any range
+                exhausted = true;
+                closeIdIterator();
+            }
+            else
+            {
+                long id = idIterator.next();
+                if ( id < rangeEnd )
+                {
+                    nextId = id;
+                    hasNextId = true;
+                }
+                else
+                {
+                    // Done with this range, go and claim another one
+                    closeIdIterator();
+                }
+            }
+        }
+        return hasNextId;
+    }
+
+    @Override
+    public long next()
+    {
+        if ( !hasNext() )
+        {
+            throw new IllegalStateException();
+        }
+        hasNextId = false;
+        entityCursor.single( nextId );
+        entityCursor.next();
+        lastReturnedId = nextId;
+        return nextId;
+    }
+
+    @Override
+    public void invalidateCache()
+    {
+        if ( idIterator != null )
+        {
+            // The new iterator will return any id we've already read ahead again
+            hasNextId = false;
+            idIterator.close();
+            idIterator = labelScanReader.nodesWithAnyOfLabels( lastReturnedId, labelIds );
+        }
+    }
+
+    private void closeIdIterator()
+    {
+        if ( idIterator != null )
+        {
+            idIterator.close();
+            idIterator = null;
+        }
+    }
+}
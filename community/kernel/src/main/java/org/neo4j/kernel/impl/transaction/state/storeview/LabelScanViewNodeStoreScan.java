@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.IntPredicate;
 
 import org.neo4j.internal.helpers.collection.Visitor;
@@ -26,6 +28,7 @@ import org.neo4j.internal.index.label.LabelScanStore;
 import org.neo4j.lock.LockService;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.NodeLabelUpdate;
+import org.neo4j.storageengine.api.StorageNodeCursor;
 import org.neo4j.storageengine.api.StorageReader;
 
 /**
@@ -52,4 +55,11 @@ public class LabelScanViewNodeStoreScan<FAILURE extends Exception> extends Store
     {
         return new LabelScanViewIdIterator<>( labelScanStore.newReader(), labelIds, entityCursor );
     }
+
+    @Override
+    protected Function<StorageNodeCursor,EntityIdIterator> parallelEntityIdIterators()
+    {
+        AtomicLong nextRangeStart = new AtomicLong();
+        return cursor -> new LabelScanViewIdRangesIterator<>( labelScanStore.newReader(), labelIds, cursor, nextRangeStart, PARALLEL_SCAN_BATCH_SIZE );
+    }
 }
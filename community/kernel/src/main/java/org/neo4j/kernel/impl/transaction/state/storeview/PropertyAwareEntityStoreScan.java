@@ -21,12 +21,23 @@ package org.neo4j.kernel.impl.transaction.state.storeview;
 
 import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.function.IntPredicate;
 import java.util.function.LongFunction;
+import java.util.function.Predicate;
 
+import org.neo4j.internal.helpers.Exceptions;
 import org.neo4j.internal.kernel.api.PopulationProgress;
 import org.neo4j.io.IOUtils;
 import org.neo4j.kernel.impl.api.index.MultipleIndexPopulator;
+import org.neo4j.kernel.impl.api.index.ParallelScanListener;
 import org.neo4j.kernel.impl.api.index.PhaseTracker;
 import org.neo4j.kernel.impl.api.index.StoreScan;
 import org.neo4j.lock.Lock;
@@ -35,19 +46,30 @@ import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.StorageEntityScanCursor;
 import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
+import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.Value;
 
+import static org.neo4j.internal.helpers.NamedThreadFactory.daemon;
+
 public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityScanCursor, FAILURE extends Exception> implements StoreScan<FAILURE>
 {
+    /**
+     * Number of entities each thread of a parallel scan claims at a time.
+     */
+    static final int PARALLEL_SCAN_BATCH_SIZE = FeatureToggles.getInteger( PropertyAwareEntityStoreScan.class, "parallel_scan_batch_size", 10_000 );
+    private static final String SCAN_THREAD_NAME_PREFIX = "Index Population Scan Thread";
+
     final CURSOR entityCursor;
     private final StoragePropertyCursor propertyCursor;
-    private final StorageReader storageReader;
+    final StorageReader storageReader;
     private volatile boolean continueScanning;
-    private long count;
+    private final LongAdder count = new LongAdder();
     private long totalCount;
+    private int parallelism = 1;
     private final IntPredicate propertyKeyIdFilter;
     private final LongFunction<Lock> lockFunction;
     private PhaseTracker phaseTracker;
+    private ParallelScanListener parallelScanListener = ParallelScanListener.NONE;
 
     protected PropertyAwareEntityStoreScan( StorageReader storageReader, long totalEntityCount, IntPredicate propertyKeyIdFilter,
             LongFunction<Lock> lockFunction )
@@ -75,7 +97,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         return false;
     }
 
-    boolean hasRelevantProperty( CURSOR cursor, EntityUpdates.Builder updates )
+    boolean hasRelevantProperty( CURSOR cursor, StoragePropertyCursor propertyCursor, EntityUpdates.Builder updates )
     {
         if ( !cursor.hasProperties() )
         {
@@ -103,6 +125,12 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     @Override
     public void run() throws FAILURE
     {
+        if ( parallelism > 1 )
+        {
+            runParallel();
+            return;
+        }
+
         entityCursor.scan();
         try ( EntityIdIterator entityIdIterator = getEntityIdIterator() )
         {
@@ -113,8 +141,8 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
                 long id = entityIdIterator.next();
                 try ( Lock ignored = lockFunction.apply( id ) )
                 {
-                    count++;
-                    if ( process( entityCursor ) )
+                    count.increment();
+                    if ( process( entityCursor, propertyCursor ) )
                     {
                         entityIdIterator.invalidateCache();
                     }
@@ -127,6 +155,111 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         }
     }
 
+    /**
+     * Scans the store with {@link #parallelism} threads, each with cursors of its own, which claim batches of entities from
+     * a shared {@link #parallelEntityIdIterators() source of ids} until all entities have been processed.
+     * A failure in any of the threads stops the others and is rethrown once they have all completed.
+     */
+    private void runParallel() throws FAILURE
+    {
+        phaseTracker.setParallelism( PhaseTracker.Phase.SCAN, parallelism );
+        phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+        continueScanning = true;
+        ExecutorService executor = Executors.newFixedThreadPool( parallelism, daemon( SCAN_THREAD_NAME_PREFIX ) );
+        try
+        {
+            Function<CURSOR,EntityIdIterator> entityIdIterators = parallelEntityIdIterators();
+            List<Future<?>> scanners = new ArrayList<>( parallelism );
+            for ( int i = 0; i < parallelism; i++ )
+            {
+                scanners.add( executor.submit( () ->
+                {
+                    scanInParallel( entityIdIterators );
+                    return null;
+                } ) );
+            }
+            Throwable failure = awaitScanners( scanners );
+            if ( failure != null )
+            {
+                rethrow( failure );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+            IOUtils.closeAllUnchecked( propertyCursor, entityCursor, storageReader );
+        }
+    }
+
+    private void scanInParallel( Function<CURSOR,EntityIdIterator> entityIdIterators ) throws FAILURE
+    {
+        parallelScanListener.scanThreadStarted();
+        try ( CURSOR cursor = allocateCursor( storageReader );
+              StoragePropertyCursor threadPropertyCursor = storageReader.allocatePropertyCursor();
+              EntityIdIterator entityIdIterator = entityIdIterators.apply( cursor ) )
+        {
+            while ( continueScanning && entityIdIterator.hasNext() )
+            {
+                long id = entityIdIterator.next();
+                try ( Lock ignored = lockFunction.apply( id ) )
+                {
+                    count.increment();
+                    if ( process( cursor, threadPropertyCursor ) )
+                    {
+                        entityIdIterator.invalidateCache();
+                    }
+                }
+                parallelScanListener.scanThreadPassed( id );
+            }
+        }
+        finally
+        {
+            parallelScanListener.scanThreadCompleted();
+        }
+    }
+
+    private Throwable awaitScanners( List<Future<?>> scanners )
+    {
+        Throwable failure = null;
+        boolean interrupted = false;
+        for ( Future<?> scanner : scanners )
+        {
+            boolean done = false;
+            while ( !done )
+            {
+                try
+                {
+                    scanner.get();
+                    done = true;
+                }
+                catch ( InterruptedException e )
+                {
+                    // Stop the scan, but still wait for the scan threads since they use the storage reader which is closed after this
+                    interrupted = true;
+                    stop();
+                }
+                catch ( ExecutionException e )
+                {
+                    stop();
+                    failure = Exceptions.chain( failure, e.getCause() );
+                    done = true;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return failure;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private void rethrow( Throwable failure ) throws FAILURE
+    {
+        Exceptions.throwIfUnchecked( failure );
+        throw (FAILURE) failure;
+    }
+
     @Override
     public void acceptUpdate( MultipleIndexPopulator.MultipleIndexUpdater updater, IndexEntryUpdate<?> update,
             long currentlyIndexedNodeId )
@@ -141,11 +274,12 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
      * Process the given {@code record}.
      *
      * @param cursor CURSOR with information to process.
+     * @param propertyCursor {@link StoragePropertyCursor} to read properties of the entity with, owned by the calling thread.
      * @return {@code true} if external updates have been applied such that the scan iterator needs to be 100% up to date with store,
      * i.e. invalidate any caches if it has any.
      * @throws FAILURE on failure.
      */
-    protected abstract boolean process( CURSOR cursor ) throws FAILURE;
+    protected abstract boolean process( CURSOR cursor, StoragePropertyCursor propertyCursor ) throws FAILURE;
 
     @Override
     public void stop()
@@ -158,7 +292,7 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
     {
         if ( totalCount > 0 )
         {
-            return PopulationProgress.single( count, totalCount );
+            return PopulationProgress.single( count.sum(), totalCount );
         }
 
         // nothing to do 100% completed
@@ -171,6 +305,92 @@ public abstract class PropertyAwareEntityStoreScan<CURSOR extends StorageEntityS
         this.phaseTracker = phaseTracker;
     }
 
+    @Override
+    public int setParallelism( int parallelism )
+    {
+        this.parallelism = Math.max( 1, parallelism );
+        return this.parallelism;
+    }
+
+    @Override
+    public void setParallelScanListener( ParallelScanListener listener )
+    {
+        this.parallelScanListener = listener;
+    }
+
+    /**
+     * Creates the source of entity ids for a parallel scan. The returned function is called once by each scan thread,
+     * with a cursor owned by that thread, and the iterators it returns must together visit every entity exactly once.
+     * Each call to {@link EntityIdIterator#next()} must leave the given cursor positioned at the returned entity.
+     */
+    protected abstract Function<CURSOR,EntityIdIterator> parallelEntityIdIterators();
+
+    /**
+     * @param cursor cursor to iterate over, owned by the calling scan thread.
+     * @param scanBatch initializes the cursor to scan the next batch of entities, returning {@code false} if there are no more batches.
+     * @return an {@link EntityIdIterator} over the entities of all batches that the given cursor gets from {@code scanBatch}.
+     */
+    EntityIdIterator batchedEntityIdIterator( CURSOR cursor, Predicate<CURSOR> scanBatch )
+    {
+        return new EntityIdIterator()
+        {
+            private boolean inBatch;
+            private boolean hasSeenNext;
+            private boolean hasNext;
+
+            @Override
+            public void invalidateCache()
+            {
+                // Nothing to invalidate, we're reading directly from the store
+            }
+
+            @Override
+            public long next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new IllegalStateException();
+                }
+                hasSeenNext = false;
+                hasNext = false;
+                return cursor.entityReference();
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                if ( !hasSeenNext )
+                {
+                    hasNext = nextInBatches();
+                    hasSeenNext = true;
+                }
+                return hasNext;
+            }
+
+            private boolean nextInBatches()
+            {
+                while ( true )
+                {
+                    if ( inBatch && cursor.next() )
+                    {
+                        return true;
+                    }
+                    inBatch = scanBatch.test( cursor );
+                    if ( !inBatch )
+                    {
+                        return false;
+                    }
+                }
+            }
+
+            @Override
+            public void close()
+            {
+                // Nothing to close
+            }
+        };
+    }
+
     protected EntityIdIterator getEntityIdIterator()
     {
         return new EntityIdIterator()
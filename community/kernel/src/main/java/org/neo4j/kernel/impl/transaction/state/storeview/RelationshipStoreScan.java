@@ -19,11 +19,14 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.function.Function;
 import java.util.function.IntPredicate;
 
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.lock.LockService;
+import org.neo4j.storageengine.api.AllRelationshipsScan;
 import org.neo4j.storageengine.api.EntityUpdates;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StorageRelationshipScanCursor;
 
@@ -48,7 +51,14 @@ public class RelationshipStoreScan<FAILURE extends Exception> extends PropertyAw
     }
 
     @Override
-    protected boolean process( StorageRelationshipScanCursor cursor ) throws FAILURE
+    protected Function<StorageRelationshipScanCursor,EntityIdIterator> parallelEntityIdIterators()
+    {
+        AllRelationshipsScan relationshipScan = storageReader.allRelationshipScan();
+        return cursor -> batchedEntityIdIterator( cursor, batchCursor -> batchCursor.scanBatch( relationshipScan, PARALLEL_SCAN_BATCH_SIZE ) );
+    }
+
+    @Override
+    protected boolean process( StorageRelationshipScanCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         int reltype = cursor.type();
 
@@ -57,7 +67,7 @@ public class RelationshipStoreScan<FAILURE extends Exception> extends PropertyAw
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference(), true ).withTokens( reltype );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
@@ -19,13 +19,16 @@
  */
 package org.neo4j.kernel.impl.transaction.state.storeview;
 
+import java.util.function.Function;
 import java.util.function.IntPredicate;
 
 import org.neo4j.internal.helpers.collection.Visitor;
 import org.neo4j.lock.LockService;
+import org.neo4j.storageengine.api.AllNodeScan;
 import org.neo4j.storageengine.api.EntityUpdates;
 import org.neo4j.storageengine.api.NodeLabelUpdate;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 
 import static org.neo4j.collection.PrimitiveLongCollections.EMPTY_LONG_ARRAY;
@@ -55,7 +58,14 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
     }
 
     @Override
-    public boolean process( StorageNodeCursor cursor ) throws FAILURE
+    protected Function<StorageNodeCursor,EntityIdIterator> parallelEntityIdIterators()
+    {
+        AllNodeScan nodeScan = storageReader.allNodeScan();
+        return cursor -> batchedEntityIdIterator( cursor, batchCursor -> batchCursor.scanBatch( nodeScan, PARALLEL_SCAN_BATCH_SIZE ) );
+    }
+
+    @Override
+    public boolean process( StorageNodeCursor cursor, StoragePropertyCursor propertyCursor ) throws FAILURE
     {
         long[] labels = cursor.labels();
         if ( labels.length == 0 && labelIds.length != 0 )
@@ -75,7 +85,7 @@ public class StoreViewNodeStoreScan<FAILURE extends Exception> extends PropertyA
             // Notify the property update visitor
             EntityUpdates.Builder updates = EntityUpdates.forEntity( cursor.entityReference(), true ).withTokens( labels );
 
-            if ( hasRelevantProperty( cursor, updates ) )
+            if ( hasRelevantProperty( cursor, propertyCursor, updates ) )
             {
                 return propertyUpdatesVisitor.visit( updates.build() );
             }
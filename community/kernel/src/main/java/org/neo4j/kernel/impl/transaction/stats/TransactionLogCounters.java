@@ -44,4 +44,35 @@ public interface TransactionLogCounters
      * @return last log rotation time in milliseconds
      */
     long lastLogRotationTimeMillis();
+
+    /**
+     * Total number of transaction log forces done on behalf of committing transactions
+     * @return number of log forces
+     */
+    long numberOfLogForces();
+
+    /**
+     * Total number of appends made durable by transaction log forces. Divided by the {@link #numberOfLogForces() number of log forces}, this is
+     * the average number of committing threads that share a force.
+     * @return number of appends made durable by log forces
+     */
+    long forcedAppends();
+
+    /**
+     * Accumulated transaction log force time in microseconds
+     * @return accumulated log force time in microseconds
+     */
+    long logForceAccumulatedTotalTimeMicros();
+
+    /**
+     * Total number of transactions committed with relaxed durability, that is without waiting for the transaction log to be forced
+     * @return number of relaxed commits
+     */
+    long numberOfRelaxedCommits();
+
+    /**
+     * Total number of transaction log forces done in the background, to make transactions committed with relaxed durability durable
+     * @return number of background log forces
+     */
+    long numberOfBackgroundLogForces();
 }
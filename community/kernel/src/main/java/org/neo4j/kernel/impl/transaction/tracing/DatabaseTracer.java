@@ -82,7 +82,49 @@ public interface DatabaseTracer extends TransactionTracer, CheckPointTracer
         {
             return 0;
         }
+
+        @Override
+        public long numberOfLogForces()
+        {
+            return 0;
+        }
+
+        @Override
+        public long forcedAppends()
+        {
+            return 0;
+        }
+
+        @Override
+        public long logForceAccumulatedTotalTimeMicros()
+        {
+            return 0;
+        }
+
+        @Override
+        public long numberOfRelaxedCommits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long numberOfBackgroundLogForces()
+        {
+            return 0;
+        }
+
+        @Override
+        public LogForceEvents backgroundLogForces()
+        {
+            return LogAppendEvent.NULL;
+        }
     };
 
     LogFileCreateEvent createLogFile();
+
+    /**
+     * The events of the transaction log forces that are done in the background, to make transactions that were committed with
+     * relaxed durability durable.
+     */
+    LogForceEvents backgroundLogForces();
 }
@@ -48,6 +48,11 @@ public interface LogAppendEvent extends LogForceEvents, AutoCloseable
      */
     void setLogRotated( boolean logRotated );
 
+    /**
+     * Note how many of the appended transactions are committed with relaxed durability, that is without waiting for the log to be forced.
+     */
+    void setRelaxedCommits( int relaxedCommits );
+
     /**
      * Begin a log rotation as part of this appending to the transaction log.
      */
@@ -76,6 +81,11 @@ public interface LogAppendEvent extends LogForceEvents, AutoCloseable
 
         }
 
+        @Override
+        public void setRelaxedCommits( int relaxedCommits )
+        {
+        }
+
         @Override
         public LogRotateEvent beginLogRotate()
         {
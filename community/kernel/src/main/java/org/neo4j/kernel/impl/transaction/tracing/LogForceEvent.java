@@ -26,10 +26,24 @@ package org.neo4j.kernel.impl.transaction.tracing;
  */
 public interface LogForceEvent extends AutoCloseable
 {
-    LogForceEvent NULL = () ->
+    LogForceEvent NULL = new LogForceEvent()
     {
+        @Override
+        public void setBatchSize( int batchSize )
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
     };
 
+    /**
+     * Sets the number of appends that this force call makes durable, i.e. the number of committing threads that share it.
+     */
+    void setBatchSize( int batchSize );
+
     /**
      * Marks the end of the force call on the transaction log file.
      */
@@ -65,6 +65,36 @@ public interface TransactionTracer extends TransactionLogCounters
         {
             return 0;
         }
+
+        @Override
+        public long numberOfLogForces()
+        {
+            return 0;
+        }
+
+        @Override
+        public long forcedAppends()
+        {
+            return 0;
+        }
+
+        @Override
+        public long logForceAccumulatedTotalTimeMicros()
+        {
+            return 0;
+        }
+
+        @Override
+        public long numberOfRelaxedCommits()
+        {
+            return 0;
+        }
+
+        @Override
+        public long numberOfBackgroundLogForces()
+        {
+            return 0;
+        }
     };
 
     /**
@@ -30,6 +30,7 @@ import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
 import org.neo4j.kernel.impl.transaction.log.files.LogFiles;
 import org.neo4j.logging.Log;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
@@ -37,20 +38,32 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 
 import static org.neo4j.kernel.impl.transaction.log.Commitment.NO_COMMITMENT;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 public class DefaultRecoveryService implements RecoveryService
 {
+    private static final int recoveryBatchSize = getInteger( DefaultRecoveryService.class, "recoveryBatchSize", 100 );
+
     private final RecoveryStartInformationProvider recoveryStartInformationProvider;
     private final StorageEngine storageEngine;
     private final TransactionIdStore transactionIdStore;
     private final LogicalTransactionStore logicalTransactionStore;
     private final LogVersionRepository logVersionRepository;
     private final Log log;
+    private final JobScheduler scheduler;
+    private final boolean parallel;
 
+    /**
+     * @param parallel whether or not transactions are read ahead of being applied, and applied in batches, which lets the storage engine
+     * apply independent transactions in parallel.
+     */
     DefaultRecoveryService( StorageEngine storageEngine, LogTailScanner logTailScanner, TransactionIdStore transactionIdStore,
             LogicalTransactionStore logicalTransactionStore, LogVersionRepository logVersionRepository, LogFiles logFiles,
-            RecoveryStartInformationProvider.Monitor monitor, Log log )
+            RecoveryStartInformationProvider.Monitor monitor, Log log, JobScheduler scheduler, boolean parallel )
     {
+        this.scheduler = scheduler;
+        this.parallel = parallel;
         this.storageEngine = storageEngine;
         this.transactionIdStore = transactionIdStore;
         this.logicalTransactionStore = logicalTransactionStore;
@@ -68,13 +81,14 @@ public class DefaultRecoveryService implements RecoveryService
     @Override
     public RecoveryApplier getRecoveryApplier( TransactionApplicationMode mode ) throws Exception
     {
-        return new RecoveryVisitor( storageEngine, mode );
+        return new RecoveryVisitor( storageEngine, mode, parallel && mode == RECOVERY ? recoveryBatchSize : 1 );
     }
 
     @Override
     public TransactionCursor getTransactions( LogPosition position ) throws IOException
     {
-        return logicalTransactionStore.getTransactions( position );
+        TransactionCursor transactions = logicalTransactionStore.getTransactions( position );
+        return parallel ? new ReadAheadTransactionCursor( transactions, scheduler ) : transactions;
     }
 
     @Override
@@ -122,15 +136,26 @@ public class DefaultRecoveryService implements RecoveryService
         logVersionRepository.setCurrentLogVersion( positionAfterLastRecoveredTransaction.getLogVersion() );
     }
 
+    /**
+     * Applies the recovered transactions in batches of the given size. Transactions that are left in an incomplete batch are applied
+     * when the visitor is closed, which also happens when reading the transactions fails. A batch that fails to apply does not count
+     * towards the {@link #appliedTransactions() applied transactions}.
+     */
     static class RecoveryVisitor implements RecoveryApplier
     {
         private final StorageEngine storageEngine;
         private final TransactionApplicationMode mode;
+        private final int batchSize;
+        private TransactionToApply first;
+        private TransactionToApply last;
+        private int batched;
+        private long applied;
 
-        RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode )
+        RecoveryVisitor( StorageEngine storageEngine, TransactionApplicationMode mode, int batchSize )
         {
             this.storageEngine = storageEngine;
             this.mode = mode;
+            this.batchSize = batchSize;
         }
 
         @Override
@@ -141,13 +166,46 @@ public class DefaultRecoveryService implements RecoveryService
             TransactionToApply tx = new TransactionToApply( txRepresentation, txId );
             tx.commitment( NO_COMMITMENT, txId );
             tx.logPosition( transaction.getStartEntry().getStartPosition() );
-            storageEngine.apply( tx, mode );
+            if ( first == null )
+            {
+                first = tx;
+            }
+            else
+            {
+                last.next( tx );
+            }
+            last = tx;
+            if ( ++batched >= batchSize )
+            {
+                applyBatch();
+            }
             return false;
         }
 
+        private void applyBatch() throws Exception
+        {
+            if ( first != null )
+            {
+                TransactionToApply batch = first;
+                int batchedTransactions = batched;
+                first = null;
+                last = null;
+                batched = 0;
+                storageEngine.apply( batch, mode );
+                applied += batchedTransactions;
+            }
+        }
+
         @Override
-        public void close()
-        {   // nothing to close
+        public long appliedTransactions()
+        {
+            return applied;
+        }
+
+        @Override
+        public void close() throws Exception
+        {
+            applyBatch();
         }
     }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A {@link TransactionCursor} that reads and decodes transactions from another cursor on a {@link Group#RECOVERY} thread,
+ * ahead of the thread that applies them. At most a fixed number of transactions are read ahead.
+ * <p>
+ * Any failure to read a transaction is handed over to the applying thread, after the transactions that were read before it.
+ */
+class ReadAheadTransactionCursor implements TransactionCursor
+{
+    private static final int readAheadTransactions = getInteger( ReadAheadTransactionCursor.class, "readAheadTransactions", 256 );
+
+    private final TransactionCursor source;
+    private final BlockingQueue<Entry> entries = new ArrayBlockingQueue<>( readAheadTransactions );
+    private final JobHandle reader;
+    private volatile boolean closed;
+    private CommittedTransactionRepresentation current;
+    private LogPosition position;
+    private boolean exhausted;
+
+    ReadAheadTransactionCursor( TransactionCursor source, JobScheduler scheduler )
+    {
+        this.source = source;
+        this.reader = scheduler.schedule( Group.RECOVERY, this::readAhead );
+    }
+
+    private void readAhead()
+    {
+        try
+        {
+            while ( !closed && source.next() )
+            {
+                put( new Entry( source.get(), source.position(), null ) );
+            }
+            put( new Entry( null, source.position(), null ) );
+        }
+        catch ( Throwable t )
+        {
+            put( new Entry( null, null, t ) );
+        }
+    }
+
+    private void put( Entry entry )
+    {
+        try
+        {
+            while ( !closed && !entries.offer( entry, 10, MILLISECONDS ) )
+            {
+                // Wait for the applying thread to catch up
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        if ( exhausted )
+        {
+            return false;
+        }
+        Entry entry;
+        try
+        {
+            entry = entries.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException( "Interrupted while waiting for transactions to recover" ).initCause( e );
+        }
+        current = entry.transaction;
+        if ( entry.failure != null )
+        {
+            exhausted = true;
+            throw rethrow( entry.failure );
+        }
+        position = entry.position;
+        exhausted = current == null;
+        return !exhausted;
+    }
+
+    private static IOException rethrow( Throwable failure )
+    {
+        if ( failure instanceof IOException )
+        {
+            return (IOException) failure;
+        }
+        if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        if ( failure instanceof Error )
+        {
+            throw (Error) failure;
+        }
+        return new IOException( failure );
+    }
+
+    @Override
+    public CommittedTransactionRepresentation get()
+    {
+        return current;
+    }
+
+    @Override
+    public LogPosition position()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        closed = true;
+        entries.clear();
+        try
+        {
+            reader.waitTermination();
+        }
+        catch ( InterruptedException | ExecutionException e )
+        {
+            throw new IOException( e );
+        }
+        finally
+        {
+            source.close();
+        }
+    }
+
+    private static class Entry
+    {
+        private final CommittedTransactionRepresentation transaction;
+        private final LogPosition position;
+        private final Throwable failure;
+
+        Entry( CommittedTransactionRepresentation transaction, LogPosition position, Throwable failure )
+        {
+            this.transaction = transaction;
+            this.position = position;
+            this.failure = failure;
+        }
+    }
+}
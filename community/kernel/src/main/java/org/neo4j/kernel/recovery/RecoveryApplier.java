@@ -27,4 +27,11 @@ import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
  */
 public interface RecoveryApplier extends Visitor<CommittedTransactionRepresentation,Exception>, AutoCloseable
 {
+    /**
+     * Transactions can be applied in batches, so a visited transaction is not necessarily applied yet. The transactions that are
+     * still pending are applied when the applier is closed.
+     *
+     * @return the number of visited transactions that have been applied to the store, which are always the first ones visited.
+     */
+    long appliedTransactions();
 }
@@ -20,9 +20,12 @@
 package org.neo4j.kernel.recovery;
 
 import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.dbms.database.DatabaseStartAbortedException;
+import org.neo4j.internal.helpers.collection.Pair;
 import org.neo4j.kernel.database.Database;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -116,23 +119,34 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 // of the schema life until after we've done the reverse recovery.
                 schemaLife.init();
 
-                try ( TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition );
-                        RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY ) )
+                RecoveredTransactions recoveredTransactions = new RecoveredTransactions();
+                RecoveryApplier recoveryVisitor = recoveryService.getRecoveryApplier( RECOVERY );
+                LogPosition positionAfterTransactions;
+                try ( recoveryVisitor; TransactionCursor transactionsToRecover = recoveryService.getTransactions( recoveryStartPosition ) )
                 {
                     while ( transactionsToRecover.next() )
                     {
                         recoveryStartupChecker.checkIfCanceled();
-                        lastTransaction = transactionsToRecover.get();
-                        long txId = lastTransaction.getCommitEntry().getTxId();
-                        recoveryVisitor.visit( lastTransaction );
-                        monitor.transactionRecovered( txId );
-                        numberOfRecoveredTransactions++;
-                        lastTransactionPosition = transactionsToRecover.position();
+                        CommittedTransactionRepresentation transaction = transactionsToRecover.get();
+                        recoveredTransactions.visited( transaction, transactionsToRecover.position() );
+                        recoveryVisitor.visit( transaction );
+                        recoveredTransactions.applied( recoveryVisitor.appliedTransactions() );
+                    }
+                    positionAfterTransactions = transactionsToRecover.position();
+                }
+                finally
+                {
+                    // Closing the applier applies what it had left batched up, also when reading or applying failed. Only the transactions
+                    // that were applied count as recovered, and a failed recovery truncates the log right after the last of them.
+                    recoveredTransactions.applied( recoveryVisitor.appliedTransactions() );
+                    if ( recoveredTransactions.lastTransaction != null )
+                    {
+                        lastTransaction = recoveredTransactions.lastTransaction;
+                        lastTransactionPosition = recoveredTransactions.lastTransactionPosition;
                         recoveryToPosition = lastTransactionPosition;
-                        reportProgress();
                     }
-                    recoveryToPosition = transactionsToRecover.position();
                 }
+                recoveryToPosition = positionAfterTransactions;
             }
             catch ( Error | ClosedByInterruptException | DatabaseStartAbortedException e )
             {
@@ -186,6 +200,34 @@ public class TransactionLogsRecovery extends LifecycleAdapter
                 recoveryStartInformation.getFirstTxIdAfterLastCheckPoint() + 1;
     }
 
+    /**
+     * Keeps the transactions that have been handed to the recovery applier until it has applied them, since it can apply them in batches.
+     */
+    private class RecoveredTransactions
+    {
+        private final Deque<Pair<CommittedTransactionRepresentation,LogPosition>> unapplied = new ArrayDeque<>();
+        private CommittedTransactionRepresentation lastTransaction;
+        private LogPosition lastTransactionPosition;
+
+        void visited( CommittedTransactionRepresentation transaction, LogPosition positionAfterTransaction )
+        {
+            unapplied.add( Pair.of( transaction, positionAfterTransaction ) );
+        }
+
+        void applied( long appliedTransactions )
+        {
+            while ( numberOfRecoveredTransactions < appliedTransactions && !unapplied.isEmpty() )
+            {
+                Pair<CommittedTransactionRepresentation,LogPosition> applied = unapplied.poll();
+                lastTransaction = applied.first();
+                lastTransactionPosition = applied.other();
+                monitor.transactionRecovered( lastTransaction.getCommitEntry().getTxId() );
+                numberOfRecoveredTransactions++;
+                reportProgress();
+            }
+        }
+    }
+
     @Override
     public void start() throws Exception
     {
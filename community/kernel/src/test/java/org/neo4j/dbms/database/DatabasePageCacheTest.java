@@ -27,11 +27,13 @@ import org.mockito.stubbing.Answer;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageWriteBarrier;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
@@ -48,7 +50,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -71,6 +75,7 @@ class DatabasePageCacheTest
         globalPageCache = mock( PageCache.class );
         pagedFileMapper = new PagedFileAnswer();
         when( globalPageCache.map( any( File.class ), any(), eq( PAGE_SIZE ) ) ).then( pagedFileMapper );
+        doCallRealMethod().when( globalPageCache ).flushAndForce( anyList(), any( IOLimiter.class ) );
         databasePageCache = new DatabasePageCache( globalPageCache, EMPTY );
     }
 
@@ -93,6 +98,20 @@ class DatabasePageCacheTest
         verify( globalPageCache ).map( mapFile, EMPTY, PAGE_SIZE );
     }
 
+    @Test
+    void mapDatabaseFileWithWriteBarrier() throws IOException
+    {
+        PageWriteBarrier writeBarrier = mock( PageWriteBarrier.class );
+        File mapFile = testDirectory.createFile( "mapFile" );
+        when( globalPageCache.map( any( File.class ), any(), eq( PAGE_SIZE ), any(), any() ) ).then( pagedFileMapper );
+        try ( DatabasePageCache barrierPageCache = new DatabasePageCache( globalPageCache, EMPTY, writeBarrier ) )
+        {
+            barrierPageCache.map( mapFile, EMPTY, PAGE_SIZE, StandardOpenOption.CREATE );
+
+            verify( globalPageCache ).map( mapFile, EMPTY, PAGE_SIZE, StandardOpenOption.CREATE, writeBarrier );
+        }
+    }
+
     @Test
     void listExistingDatabaseMappings() throws IOException
     {
@@ -187,10 +206,10 @@ class DatabasePageCacheTest
             PagedFile originalPagedFile3 = findPagedFile( pagedFiles, mapFile3 );
             PagedFile originalPagedFile4 = findPagedFile( pagedFiles, mapFile4 );
 
-            verify( originalPagedFile1 ).flushAndForce();
-            verify( originalPagedFile2 ).flushAndForce();
-            verify( originalPagedFile3, never() ).flushAndForce();
-            verify( originalPagedFile4, never() ).flushAndForce();
+            verify( originalPagedFile1 ).flushAndForce( IOLimiter.UNLIMITED );
+            verify( originalPagedFile2 ).flushAndForce( IOLimiter.UNLIMITED );
+            verify( originalPagedFile3, never() ).flushAndForce( IOLimiter.UNLIMITED );
+            verify( originalPagedFile4, never() ).flushAndForce( IOLimiter.UNLIMITED );
         }
     }
 
@@ -204,7 +204,7 @@ class ExecutingQueryTest
                 ClientConnectionInfo.EMBEDDED_CONNECTION, randomNamedDatabaseId(), "neo4j", "hello world",
                 EMPTY_MAP,
                 Collections.emptyMap(),
-                () -> lockCount, () -> 0, () -> 1,
+                () -> lockCount, () -> 0, () -> 1, () -> 0,
                 Thread.currentThread().getId(),
                 Thread.currentThread().getName(),
                 clock,
@@ -229,6 +229,7 @@ class ExecutingQueryTest
                 () -> lockCount,
                 () -> 0,
                 () -> 1,
+                () -> 0,
                 Thread.currentThread().getId(),
                 Thread.currentThread().getName(),
                 clock,
@@ -281,6 +282,26 @@ class ExecutingQueryTest
         assertEquals( 8, snapshot.pageFaults() );
     }
 
+    @Test
+    void shouldReportPageFaultTime()
+    {
+        // given
+        page.faultTimeNanos( 3_000 );
+
+        // when
+        QuerySnapshot snapshot = query.snapshot();
+
+        // then
+        assertEquals( 3, snapshot.pageFaultTimeMicros() );
+
+        // when
+        page.faultTimeNanos( 5_000 );
+        snapshot = query.snapshot();
+
+        // then
+        assertEquals( 8, snapshot.pageFaultTimeMicros() );
+    }
+
     @Test
     void includeQueryExecutorThreadName()
     {
@@ -452,13 +473,14 @@ class ExecutingQueryTest
             FakeClock clock, FakeCpuClock cpuClock, NamedDatabaseId dbID, MapValue params )
     {
         return new ExecutingQuery( queryId, ClientConnectionInfo.EMBEDDED_CONNECTION, dbID, "neo4j", hello_world,
-                params, Collections.emptyMap(), () -> lockCount, page::hits, page::faults, Thread.currentThread().getId(),
+                params, Collections.emptyMap(), () -> lockCount, page::hits, page::faults, page::faultTimeNanos, Thread.currentThread().getId(),
                 Thread.currentThread().getName(), clock, cpuClock );
     }
 
     private static class PageCursorCountersStub implements PageCursorCounters
     {
         private long faults;
+        private long faultTimeNanos;
         private long pins;
         private long unpins;
         private long hits;
@@ -479,6 +501,17 @@ class ExecutingQueryTest
             faults += increment;
         }
 
+        @Override
+        public long faultTimeNanos()
+        {
+            return faultTimeNanos;
+        }
+
+        public void faultTimeNanos( long increment )
+        {
+            faultTimeNanos += increment;
+        }
+
         @Override
         public long pins()
         {
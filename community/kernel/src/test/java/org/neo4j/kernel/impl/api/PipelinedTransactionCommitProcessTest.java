@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.TestableTransactionAppender;
+import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.kernel.impl.transaction.tracing.CommitEvent;
+import org.neo4j.kernel.impl.transaction.tracing.LogAppendEvent;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.internal.helpers.Exceptions.contains;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.INTERNAL;
+
+class PipelinedTransactionCommitProcessTest
+{
+    private final CommitEvent commitEvent = CommitEvent.NULL;
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final StorageEngine storageEngine = mock( StorageEngine.class );
+    private ThreadPoolJobScheduler scheduler;
+    private ExecutorService committers;
+
+    @BeforeEach
+    void setUp()
+    {
+        AtomicLong nextTxId = new AtomicLong( 10 );
+        when( transactionIdStore.nextCommittingTransactionId() ).then( invocation -> nextTxId.incrementAndGet() );
+        scheduler = new ThreadPoolJobScheduler();
+        committers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        committers.shutdownNow();
+        scheduler.close();
+    }
+
+    @Test
+    void shouldCommitAndCloseConcurrentTransactions() throws Exception
+    {
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        List<Future<Long>> commits = new ArrayList<>();
+        for ( int i = 0; i < 20; i++ )
+        {
+            commits.add( committers.submit( () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) ) );
+        }
+        for ( Future<Long> commit : commits )
+        {
+            long txId = commit.get();
+            verify( transactionIdStore ).transactionCommitted( eq( txId ), anyInt(), anyLong() );
+            verify( transactionIdStore ).transactionClosed( eq( txId ), anyLong(), anyLong() );
+        }
+        commitProcess.stop();
+    }
+
+    @Test
+    void shouldApplyQueuedUpCommitsInOneBatchAndHandThemBackUnlinked() throws Exception
+    {
+        CountDownLatch firstApplyStarted = new CountDownLatch( 1 );
+        CountDownLatch releaseFirstApply = new CountDownLatch( 1 );
+        List<Integer> appliedBatchSizes = new ArrayList<>();
+        doAnswer( invocation ->
+        {
+            int size = 0;
+            for ( TransactionToApply tx = invocation.getArgument( 0 ); tx != null; tx = tx.next() )
+            {
+                size++;
+            }
+            appliedBatchSizes.add( size );
+            firstApplyStarted.countDown();
+            releaseFirstApply.await();
+            return null;
+        } ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        Future<Long> first = committers.submit( () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        firstApplyStarted.await();
+        TransactionToApply secondTransaction = mockedTransaction();
+        TransactionToApply thirdTransaction = mockedTransaction();
+        Future<Long> second = committers.submit( () -> commitProcess.commit( secondTransaction, commitEvent, INTERNAL ) );
+        Future<Long> third = committers.submit( () -> commitProcess.commit( thirdTransaction, commitEvent, INTERNAL ) );
+        // Wait for both to be committed, and queued up for the apply stage.
+        verify( transactionIdStore, timeout( 10_000 ).times( 3 ) ).transactionCommitted( anyLong(), anyInt(), anyLong() );
+        releaseFirstApply.countDown();
+
+        first.get();
+        second.get();
+        third.get();
+        assertEquals( List.of( 1, 2 ), appliedBatchSizes );
+        assertNull( secondTransaction.next() );
+        assertNull( thirdTransaction.next() );
+        commitProcess.stop();
+    }
+
+    @Test
+    void shouldFailWithProperMessageOnAppendException() throws Exception
+    {
+        TransactionAppender appender = mock( TransactionAppender.class );
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( appender ).appendWithoutForce( any( TransactionToApply.class ), any( LogAppendEvent.class ) );
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( appender );
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        assertThat( exception.getMessage(), containsString( "Could not append transaction representation to log" ) );
+        assertTrue( contains( exception, rootCause.getMessage(), rootCause.getClass() ) );
+        commitProcess.stop();
+    }
+
+    @Test
+    void shouldFailWithProperMessageOnForceException() throws Exception
+    {
+        TransactionAppender appender = mock( TransactionAppender.class );
+        IOException rootCause = new IOException( "Mock exception" );
+        when( appender.appendWithoutForce( any( TransactionToApply.class ), any( LogAppendEvent.class ) ) ).thenReturn( 11L );
+        doThrow( new IOException( rootCause ) ).when( appender ).force( any( LogAppendEvent.class ) );
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( appender );
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        assertThat( exception.getMessage(), containsString( "Could not force transaction log" ) );
+        assertTrue( contains( exception, rootCause.getMessage(), rootCause.getClass() ) );
+        commitProcess.stop();
+    }
+
+    @Test
+    void shouldFailCommitsAndKeepCommittingWhenStageThrowsUnexpectedly() throws Exception
+    {
+        RuntimeException rootCause = new RuntimeException( "Mock exception" );
+        CommitEvent failingCommitEvent = mock( CommitEvent.class );
+        when( failingCommitEvent.beginLogAppend() ).thenThrow( rootCause );
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), failingCommitEvent, INTERNAL ) );
+        assertThat( exception.getMessage(), containsString( "append stage" ) );
+        assertTrue( contains( exception, rootCause.getMessage(), rootCause.getClass() ) );
+
+        long txId = commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL );
+        verify( transactionIdStore ).transactionClosed( eq( txId ), anyLong(), anyLong() );
+        commitProcess.stop();
+    }
+
+    @Test
+    void shouldCloseTransactionRegardlessOfWhetherOrNotItAppliedCorrectly() throws Exception
+    {
+        IOException rootCause = new IOException( "Mock exception" );
+        doThrow( new IOException( rootCause ) ).when( storageEngine ).apply( any( TransactionToApply.class ), any( TransactionApplicationMode.class ) );
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        assertThat( exception.getMessage(), containsString( "Could not apply the transaction to the store" ) );
+        assertTrue( contains( exception, rootCause.getMessage(), rootCause.getClass() ) );
+        verify( transactionIdStore ).transactionClosed( eq( 11L ), anyLong(), anyLong() );
+        commitProcess.stop();
+    }
+
+    @Test
+    void shouldRefuseCommitsWhenStopped() throws Exception
+    {
+        PipelinedTransactionCommitProcess commitProcess = startedCommitProcess( new TestableTransactionAppender( transactionIdStore ) );
+        commitProcess.stop();
+
+        TransactionFailureException exception =
+                assertThrows( TransactionFailureException.class, () -> commitProcess.commit( mockedTransaction(), commitEvent, INTERNAL ) );
+        assertThat( exception.getMessage(), containsString( "stopped" ) );
+        verify( transactionIdStore, times( 0 ) ).nextCommittingTransactionId();
+    }
+
+    private PipelinedTransactionCommitProcess startedCommitProcess( TransactionAppender appender )
+    {
+        PipelinedTransactionCommitProcess commitProcess = new PipelinedTransactionCommitProcess( appender, storageEngine, scheduler );
+        commitProcess.start();
+        return commitProcess;
+    }
+
+    private TransactionToApply mockedTransaction()
+    {
+        TransactionRepresentation transaction = mock( TransactionRepresentation.class );
+        when( transaction.additionalHeader() ).thenReturn( new byte[0] );
+        return new TransactionToApply( transaction );
+    }
+}
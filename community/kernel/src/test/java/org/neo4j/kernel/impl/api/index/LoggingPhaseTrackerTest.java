@@ -156,6 +156,28 @@ class LoggingPhaseTrackerTest
         logProvider.assertAtLeastOnce( logMatcher );
     }
 
+    @Test
+    void mustReportParallelism()
+    {
+        // given
+        AssertableLogProvider logProvider = new AssertableLogProvider( true );
+        Log log = logProvider.getLog( IndexPopulationJob.class );
+        PhaseTracker phaseTracker = getPhaseTracker( log );
+        phaseTracker.setParallelism( PhaseTracker.Phase.SCAN, 4 );
+        phaseTracker.enterPhase( PhaseTracker.Phase.SCAN );
+        sleep( 100 );
+        phaseTracker.enterPhase( PhaseTracker.Phase.WRITE );
+        sleep( 100 );
+
+        // when
+        phaseTracker.stop();
+
+        // then
+        AssertableLogProvider.LogMatcher logMatcher = AssertableLogProvider.inLog( IndexPopulationJob.class ).info(
+                "TIME/PHASE Final: SCAN[totalTime=100ms, parallelism=4], WRITE[totalTime=100ms]" );
+        logProvider.assertAtLeastOnce( logMatcher );
+    }
+
     @Test
     void mustReportPeriod()
     {
@@ -23,10 +23,12 @@ import org.junit.jupiter.api.Test;
 
 import org.neo4j.configuration.Config;
 import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.kernel.impl.api.PipelinedTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.ReadOnlyTransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionCommitProcess;
 import org.neo4j.kernel.impl.api.TransactionRepresentationCommitProcess;
 import org.neo4j.kernel.impl.transaction.log.TransactionAppender;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StorageEngine;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -43,7 +45,7 @@ class CommunityCommitProcessFactoryTest
         Config config = Config.defaults( GraphDatabaseSettings.read_only, true );
 
         TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
-                mock( StorageEngine.class ), config );
+                mock( StorageEngine.class ), config, mock( JobScheduler.class ) );
 
         assertThat( commitProcess, instanceOf( ReadOnlyTransactionCommitProcess.class ) );
     }
@@ -54,8 +56,21 @@ class CommunityCommitProcessFactoryTest
         CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
 
         TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
-                mock( StorageEngine.class ), Config.defaults() );
+                mock( StorageEngine.class ), Config.defaults(), mock( JobScheduler.class ) );
 
         assertThat( commitProcess, instanceOf( TransactionRepresentationCommitProcess.class ) );
     }
+
+    @Test
+    void createPipelinedCommitProcess()
+    {
+        CommunityCommitProcessFactory factory = new CommunityCommitProcessFactory();
+
+        Config config = Config.defaults( GraphDatabaseSettings.pipelined_commit, true );
+
+        TransactionCommitProcess commitProcess = factory.create( mock( TransactionAppender.class ),
+                mock( StorageEngine.class ), config, mock( JobScheduler.class ) );
+
+        assertThat( commitProcess, instanceOf( PipelinedTransactionCommitProcess.class ) );
+    }
 }
@@ -25,9 +25,15 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.ByteArrayPageCursor;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettings;
+import org.neo4j.values.storable.Values;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.copyOfRange;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
 
 class GenericLayoutTest
 {
@@ -47,4 +53,27 @@ class GenericLayoutTest
                                     "firstSlotCount=%s, secondSlotCount=%s.", previous, i ) );
         }
     }
+
+    @Test
+    void keyPrefixCompressionShouldStartAtStringBytes()
+    {
+        GenericLayout layout = new GenericLayout( 1, spatialSettings );
+        byte[] left = serialize( layout, 1, "neo4j.com/a" );
+        byte[] right = serialize( layout, 2, "neo4j.com/b" );
+
+        int offset = layout.keyPrefixCompressionOffset();
+        byte[] commonBytes = "neo4j.com/".getBytes( UTF_8 );
+        assertArrayEquals( commonBytes, copyOfRange( left, offset, offset + commonBytes.length ) );
+        assertArrayEquals( commonBytes, copyOfRange( right, offset, offset + commonBytes.length ) );
+    }
+
+    private static byte[] serialize( GenericLayout layout, long entityId, String value )
+    {
+        GenericKey key = layout.newKey();
+        key.initialize( entityId );
+        key.initFromValue( 0, Values.stringValue( value ), NEUTRAL );
+        byte[] bytes = new byte[layout.keySize( key )];
+        layout.writeKey( ByteArrayPageCursor.wrap( bytes ), key );
+        return bytes;
+    }
 }
@@ -55,6 +55,7 @@ import org.neo4j.kernel.api.index.IndexSampler;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.storageengine.api.IndexEntryUpdate;
 import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
+import org.neo4j.test.Race;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
 import org.neo4j.values.storable.PointValue;
 import org.neo4j.values.storable.RandomValues;
@@ -80,9 +81,11 @@ import static org.neo4j.internal.helpers.collection.Iterables.asUniqueSet;
 import static org.neo4j.internal.helpers.collection.Iterators.filter;
 import static org.neo4j.internal.kernel.api.QueryContext.NULL_CONTEXT;
 import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.ONLINE;
+import static org.neo4j.kernel.impl.api.index.IndexUpdateMode.RECOVERY;
 import static org.neo4j.kernel.impl.index.schema.ValueCreatorUtil.countUniqueValues;
 import static org.neo4j.storageengine.api.IndexEntryUpdate.change;
 import static org.neo4j.storageengine.api.IndexEntryUpdate.remove;
+import static org.neo4j.test.Race.throwing;
 import static org.neo4j.values.storable.Values.of;
 
 abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
@@ -561,15 +564,45 @@ abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>, VALUE e
     }
 
     @Test
-    void requestForSecondUpdaterMustThrow() throws Exception
+    void requestForSecondRecoveryUpdaterMustThrow() throws Exception
     {
         // given
-        try ( IndexUpdater ignored = accessor.newUpdater( ONLINE ) )
+        try ( IndexUpdater ignored = accessor.newUpdater( RECOVERY ) )
         {
-            assertThrows( IllegalStateException.class, () -> accessor.newUpdater( ONLINE ) );
+            assertThrows( IllegalStateException.class, () -> accessor.newUpdater( RECOVERY ) );
         }
     }
 
+    @Test
+    void shouldHandleConcurrentOnlineUpdaters() throws Throwable
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleType();
+        int updaters = 4;
+
+        // when
+        Race race = new Race();
+        for ( int i = 0; i < updaters; i++ )
+        {
+            int first = i;
+            race.addContestant( throwing( () ->
+            {
+                try ( IndexUpdater updater = accessor.newUpdater( ONLINE ) )
+                {
+                    for ( int j = first; j < updates.length; j += updaters )
+                    {
+                        updater.process( updates[j] );
+                    }
+                }
+            } ) );
+        }
+        race.go();
+
+        // then
+        forceAndCloseAccessor();
+        verifyUpdates( updates );
+    }
+
     @Test
     void dropShouldDeleteAndCloseIndex()
     {
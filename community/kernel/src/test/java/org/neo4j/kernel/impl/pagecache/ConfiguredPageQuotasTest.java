@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Optional;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.pagecache.PageQuota;
+import org.neo4j.io.pagecache.PageQuotas;
+import org.neo4j.kernel.impl.pagecache.ConfiguredPageQuotas.Category;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_quota_max;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_quota_reserved;
+
+class ConfiguredPageQuotasTest
+{
+    private static final File DATABASE = new File( "/data/databases/neo4j" );
+
+    @Test
+    void mustCategoriseStoreFiles()
+    {
+        assertEquals( Optional.of( Category.RECORD_STORES ), Category.of( new File( DATABASE, "neostore.nodestore.db" ) ) );
+        assertEquals( Optional.of( Category.RECORD_STORES ), Category.of( new File( DATABASE, "neostore.propertystore.db.strings" ) ) );
+        assertEquals( Optional.of( Category.ID_FILES ), Category.of( new File( DATABASE, "neostore.nodestore.db.id" ) ) );
+        assertEquals( Optional.of( Category.COUNTS_STORE ), Category.of( new File( DATABASE, "neostore.counts.db" ) ) );
+        assertEquals( Optional.of( Category.INDEXES ), Category.of( new File( DATABASE, "neostore.labelscanstore.db" ) ) );
+        assertEquals( Optional.of( Category.INDEXES ), Category.of( new File( DATABASE, "schema/index/native-btree-1.0/1/index-1" ) ) );
+        assertEquals( Optional.empty(), Category.of( new File( DATABASE, "some.other.file" ) ) );
+    }
+
+    @Test
+    void mustNotHaveQuotasWhenNoneAreConfigured()
+    {
+        assertSame( PageQuotas.NONE, ConfiguredPageQuotas.fromConfig( Config.defaults(), 1000, 8192 ) );
+    }
+
+    @Test
+    void fileEntriesMustTakePrecedenceOverCategoryEntries()
+    {
+        Config config = Config.newBuilder().setRaw( Map.of(
+                pagecache_quota_reserved.name(), "record_stores=10%,neostore.nodestore.db=30%",
+                pagecache_quota_max.name(), "indexes=80k" ) ).build();
+        PageQuotas quotas = ConfiguredPageQuotas.fromConfig( config, 1000, 8192 );
+
+        assertEquals( PageQuota.of( 300, Long.MAX_VALUE ), quotas.quotaFor( new File( DATABASE, "neostore.nodestore.db" ) ) );
+        assertEquals( PageQuota.of( 100, Long.MAX_VALUE ), quotas.quotaFor( new File( DATABASE, "neostore.relationshipstore.db" ) ) );
+        assertEquals( PageQuota.of( 0, 10 ), quotas.quotaFor( new File( DATABASE, "neostore.labelscanstore.db" ) ) );
+        assertEquals( PageQuota.NONE, quotas.quotaFor( new File( DATABASE, "neostore.nodestore.db.id" ) ) );
+    }
+
+    @Test
+    void reservationMustBeCappedByLimit()
+    {
+        Config config = Config.newBuilder().setRaw( Map.of(
+                pagecache_quota_reserved.name(), "counts_store=50%",
+                pagecache_quota_max.name(), "counts_store=20%" ) ).build();
+        PageQuotas quotas = ConfiguredPageQuotas.fromConfig( config, 1000, 8192 );
+
+        assertEquals( PageQuota.of( 200, 200 ), quotas.quotaFor( new File( DATABASE, "neostore.counts.db" ) ) );
+    }
+
+    @Test
+    void configMustRejectMalformedEntries()
+    {
+        assertThrows( IllegalArgumentException.class, () -> Config.newBuilder().setRaw( Map.of( pagecache_quota_reserved.name(), "record_stores" ) ).build() );
+        assertThrows( IllegalArgumentException.class, () -> Config.newBuilder().setRaw( Map.of( pagecache_quota_max.name(), "indexes=150%" ) ).build() );
+        assertThrows( IllegalArgumentException.class, () -> Config.newBuilder().setRaw( Map.of( pagecache_quota_max.name(), "indexes=lots" ) ).build() );
+    }
+}
@@ -44,7 +44,9 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory;
+import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_memory_mapped_read_only;
 import static org.neo4j.configuration.GraphDatabaseSettings.pagecache_swapper;
+import static org.neo4j.configuration.GraphDatabaseSettings.relaxed_durability;
 import static org.neo4j.kernel.impl.pagecache.PageSwapperFactoryForTesting.TEST_PAGESWAPPER_NAME;
 
 @ExtendWith( EphemeralFileSystemExtension.class )
@@ -123,4 +125,17 @@ class ConfiguringPageCacheFactoryTest
         assertThrows( IllegalArgumentException.class, () -> new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
                 NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler ).getOrCreatePageCache().close() );
     }
+
+    @Test
+    void mustThrowIfMemoryMappedReadOnlyIsCombinedWithRelaxedDurability()
+    {
+        // Given
+        Config config = Config.newBuilder()
+                .set( pagecache_memory, "8m" )
+                .set( pagecache_memory_mapped_read_only, true )
+                .set( relaxed_durability, true ).build();
+        // When
+        assertThrows( IllegalArgumentException.class, () -> new ConfiguringPageCacheFactory( fs, config, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL,
+                NullLog.getInstance(), EmptyVersionContextSupplier.EMPTY, jobScheduler ).getOrCreatePageCache().close() );
+    }
 }
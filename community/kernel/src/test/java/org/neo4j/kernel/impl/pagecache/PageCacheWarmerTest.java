@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.pagecache.PageCursor.UNBOUND_PAGE_ID;
+
+@TestDirectoryExtension
+class PageCacheWarmerTest
+{
+    private static final int PAGE_SIZE = 8192;
+    private static final int FILE_PAGES = 100;
+
+    @Inject
+    private TestDirectory testDirectory;
+
+    private FileSystemAbstraction fs;
+    private ThreadPoolJobScheduler scheduler;
+    private File databaseDirectory;
+    private File storeFile;
+
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        fs = testDirectory.getFileSystem();
+        scheduler = new ThreadPoolJobScheduler();
+        databaseDirectory = testDirectory.homeDir().getCanonicalFile();
+        storeFile = new File( databaseDirectory, "neostore.nodestore.db" );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE, CREATE );
+              PageCursor cursor = pagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            for ( int i = 0; i < FILE_PAGES; i++ )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( i );
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        scheduler.close();
+    }
+
+    @Test
+    void mustReloadProfiledPagesOnWarmup() throws IOException
+    {
+        Config config = Config.defaults();
+        long[] hotPages = {1, 2, 3, 42, 63, 64, 99};
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            for ( long pageId : hotPages )
+            {
+                try ( PageCursor cursor = pagedFile.io( pageId, PagedFile.PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+            }
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            assertEquals( hotPages.length, warmer.profile() );
+        }
+        assertTrue( fs.fileExists( new File( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ),
+                storeFile.getName() + PageCacheWarmer.SUFFIX_CACHEPROF ) ) );
+
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            assertEquals( hotPages.length, warmer.warmUp() );
+            for ( long pageId = 0; pageId < FILE_PAGES; pageId++ )
+            {
+                boolean hot = contains( hotPages, pageId );
+                assertEquals( hot, isResident( pagedFile, pageId ), "page " + pageId );
+            }
+        }
+    }
+
+    @Test
+    void mustLoadNothingWithoutProfile() throws IOException
+    {
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, Config.defaults() );
+            assertEquals( 0, warmer.warmUp() );
+            assertFalse( isResident( pagedFile, 0 ) );
+        }
+    }
+
+    @Test
+    void mustPreloadWholeFilesWhenConfigured() throws IOException
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_prefetch, true );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            assertEquals( FILE_PAGES, warmer.warmUp() );
+            for ( long pageId = 0; pageId < FILE_PAGES; pageId++ )
+            {
+                assertTrue( isResident( pagedFile, pageId ), "page " + pageId );
+            }
+            try ( PageCursor cursor = pagedFile.io( 42, PagedFile.PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( 42, cursor.getLong() );
+            }
+        }
+    }
+
+    @Test
+    void mustCountTouchedPagesAgainstWarmupBudget() throws IOException
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.pagecache_warmup_prefetch, true );
+        config.set( GraphDatabaseSettings.pagecache_memory, "640k" );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, config, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            int residentPages = FILE_PAGES / 2;
+            long maxCachedPages = pageCache.maxCachedPages();
+            assertTrue( maxCachedPages >= FILE_PAGES - residentPages && maxCachedPages < FILE_PAGES, "maxCachedPages " + maxCachedPages );
+            assertEquals( residentPages, pagedFile.touch( 0, residentPages ) );
+
+            // Resident pages count against the budget too, so the warmup stops once it has touched as many pages as fit in the
+            // page cache, instead of faulting in the rest of the file and evicting the pages it just loaded.
+            PageCacheWarmer warmer = warmer( pageCache, config );
+            long pagesLoaded = warmer.warmUp();
+            assertTrue( pagesLoaded <= maxCachedPages, "pagesLoaded " + pagesLoaded );
+            for ( long pageId = maxCachedPages; pageId < FILE_PAGES; pageId++ )
+            {
+                assertFalse( isResident( pagedFile, pageId ), "page " + pageId );
+            }
+        }
+    }
+
+    @Test
+    void mustKeepProfilingOtherFilesWhenOneProfileCannotBeWritten() throws IOException
+    {
+        File otherStoreFile = new File( databaseDirectory, "neostore.relationshipstore.db" );
+        File profilesDirectory = new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY );
+        // A directory in the way of the temporary profile file makes writing the profile fail
+        fs.mkdirs( new File( profilesDirectory, storeFile.getName() + PageCacheWarmer.SUFFIX_CACHEPROF + ".tmp" ) );
+        try ( PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE );
+              PagedFile otherPagedFile = pageCache.map( otherStoreFile, PAGE_SIZE, CREATE ) )
+        {
+            assertEquals( 1, pagedFile.touch( 0, 1 ) );
+            try ( PageCursor cursor = otherPagedFile.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+            }
+
+            PageCacheWarmer warmer = warmer( pageCache, Config.defaults() );
+            assertEquals( 1, warmer.profile() );
+        }
+        assertFalse( fs.fileExists( new File( profilesDirectory, storeFile.getName() + PageCacheWarmer.SUFFIX_CACHEPROF ) ) );
+        assertTrue( fs.fileExists( new File( profilesDirectory, otherStoreFile.getName() + PageCacheWarmer.SUFFIX_CACHEPROF ) ) );
+    }
+
+    @Test
+    void mustNotProfileReadOnlyDatabase() throws Exception
+    {
+        Config config = Config.defaults( GraphDatabaseSettings.read_only, true );
+        List<Runnable> recurringJobs = new ArrayList<>();
+        try ( ThreadPoolJobScheduler recordingScheduler = new ThreadPoolJobScheduler()
+              {
+                  @Override
+                  public JobHandle scheduleRecurring( Group group, Runnable runnable, long initialDelay, long period, TimeUnit timeUnit )
+                  {
+                      recurringJobs.add( runnable );
+                      return super.scheduleRecurring( group, runnable, initialDelay, period, timeUnit );
+                  }
+              };
+              PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fs, scheduler );
+              PagedFile pagedFile = pageCache.map( storeFile, PAGE_SIZE ) )
+        {
+            assertEquals( 1, pagedFile.touch( 0, 1 ) );
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, recordingScheduler, databaseDirectory, config, NullLogProvider.getInstance() );
+            warmer.start();
+            // Run whatever the warmer scheduled right away, rather than waiting for the scheduler to get around to it
+            recurringJobs.forEach( Runnable::run );
+            warmer.stop();
+        }
+        assertFalse( fs.fileExists( new File( databaseDirectory, PageCacheWarmer.PROFILES_DIRECTORY ) ) );
+    }
+
+    private PageCacheWarmer warmer( PageCache pageCache, Config config )
+    {
+        return new PageCacheWarmer( fs, pageCache, scheduler, databaseDirectory, config, NullLogProvider.getInstance() );
+    }
+
+    private static boolean isResident( PagedFile pagedFile, long pageId ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( pageId, PagedFile.PF_SHARED_READ_LOCK | PagedFile.PF_NO_FAULT ) )
+        {
+            return cursor.next() && cursor.getCurrentPageId() != UNBOUND_PAGE_ID;
+        }
+    }
+
+    private static boolean contains( long[] array, long value )
+    {
+        for ( long element : array )
+        {
+            if ( element == value )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
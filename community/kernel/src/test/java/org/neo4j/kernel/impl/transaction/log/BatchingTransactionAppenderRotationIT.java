@@ -153,7 +153,7 @@ class BatchingTransactionAppenderRotationIT
         @Override
         public LogForceEvent beginLogForce()
         {
-            return null;
+            return LogForceEvent.NULL;
         }
 
         @Override
@@ -173,6 +173,11 @@ class BatchingTransactionAppenderRotationIT
 
         }
 
+        @Override
+        public void setRelaxedCommits( int relaxedCommits )
+        {
+        }
+
         @Override
         public LogRotateEvent beginLogRotate()
         {
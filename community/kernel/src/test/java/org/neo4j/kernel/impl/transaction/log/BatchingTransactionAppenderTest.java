@@ -28,10 +28,16 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.io.memory.ByteBuffers;
 import org.neo4j.kernel.impl.api.TestCommand;
 import org.neo4j.kernel.impl.api.TransactionToApply;
+import org.neo4j.kernel.impl.api.tracer.DefaultTracer;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommit;
@@ -48,6 +54,7 @@ import org.neo4j.monitoring.Health;
 import org.neo4j.storageengine.api.StorageCommand;
 import org.neo4j.storageengine.api.TransactionId;
 import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.OtherThreadExecutor;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.LifeExtension;
 
@@ -55,11 +62,14 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyByte;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.RETURNS_MOCKS;
@@ -334,6 +344,163 @@ class BatchingTransactionAppenderTest
         verify( databaseHealth ).panic( e );
     }
 
+    @Test
+    void shouldHoldOffForceUntilGroupCommitSizeIsReached() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( 1, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore,
+                databaseHealth, TimeUnit.MINUTES.toNanos( 10 ), 2, false, false ) );
+        DefaultTracer tracer = new DefaultTracer();
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+
+        try
+        {
+            // WHEN
+            Future<Long> first = executor.submit( () -> appender.append( new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) ),
+                    tracer.beginTransaction().beginCommitEvent().beginLogAppend() ) );
+            Future<Long> second = executor.submit( () -> appender.append( new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) ),
+                    tracer.beginTransaction().beginCommitEvent().beginLogAppend() ) );
+            first.get( 1, TimeUnit.MINUTES );
+            second.get( 1, TimeUnit.MINUTES );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        // THEN the first force was held off until the second transaction had been appended, so one force covered both
+        assertEquals( 1, tracer.numberOfLogForces() );
+        assertEquals( 2, tracer.forcedAppends() );
+    }
+
+    @Test
+    void shouldForceWhenGroupCommitDelayHasPassed() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( 1, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore,
+                databaseHealth, TimeUnit.MILLISECONDS.toNanos( 1 ), 64, false, false ) );
+        DefaultTracer tracer = new DefaultTracer();
+
+        // WHEN
+        appender.append( new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) ),
+                tracer.beginTransaction().beginCommitEvent().beginLogAppend() );
+
+        // THEN
+        assertEquals( 1, tracer.numberOfLogForces() );
+        assertEquals( 1, tracer.forcedAppends() );
+        assertEquals( 1, tracer.logForceLatencies().count() );
+    }
+
+    @Test
+    void relaxedCommitsMustWriteOutTheLogWithoutForcingIt() throws Exception
+    {
+        // GIVEN
+        FlushablePositionAwareChecksumChannel channel = spy( new InMemoryClosableChannel() );
+        Flushable flushable = mock( Flushable.class );
+        doAnswer( invocation ->
+        {
+            invocation.callRealMethod();
+            return flushable;
+        } ).when( channel ).prepareForFlush();
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L, 3L );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( 1, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore,
+                databaseHealth, 0, 1, false, true ) );
+        DefaultTracer tracer = new DefaultTracer();
+
+        // WHEN
+        appender.append( batchOf( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ), transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) ),
+                tracer.beginTransaction().beginCommitEvent().beginLogAppend() );
+
+        // THEN the transactions are committed, and written out to the log file, but the log file is not forced
+        verify( transactionIdStore ).transactionCommitted( eq( 2L ), anyInt(), anyLong() );
+        verify( transactionIdStore ).transactionCommitted( eq( 3L ), anyInt(), anyLong() );
+        verify( channel ).prepareForFlush();
+        verify( flushable, never() ).flush();
+        assertEquals( 2, tracer.numberOfRelaxedCommits() );
+        assertEquals( 0, tracer.numberOfLogForces() );
+
+        // WHEN
+        assertTrue( appender.forceRelaxedCommits( tracer.backgroundLogForces() ) );
+
+        // THEN the log is forced once, and does not need another force until there are more relaxed commits
+        verify( flushable ).flush();
+        assertFalse( appender.forceRelaxedCommits( tracer.backgroundLogForces() ) );
+        verify( flushable ).flush();
+        assertEquals( 1, tracer.numberOfBackgroundLogForces() );
+    }
+
+    @Test
+    void relaxedForceMustBeSkippedWhenAnotherForceCoveredItsWrites() throws Exception
+    {
+        // GIVEN a force of relaxed commits that is in progress
+        FlushablePositionAwareChecksumChannel channel = spy( new InMemoryClosableChannel() );
+        CountDownLatch forceStarted = new CountDownLatch( 1 );
+        CountDownLatch finishForce = new CountDownLatch( 1 );
+        Flushable flushable = mock( Flushable.class );
+        doAnswer( invocation ->
+        {
+            forceStarted.countDown();
+            finishForce.await();
+            return null;
+        } ).when( flushable ).flush();
+        doAnswer( invocation ->
+        {
+            invocation.callRealMethod();
+            return flushable;
+        } ).when( channel ).prepareForFlush();
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( 1, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore,
+                databaseHealth, 0, 1, false, true ) );
+        appender.append( new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) ), logAppendEvent );
+        DefaultTracer tracer = new DefaultTracer();
+
+        try ( OtherThreadExecutor<Void> firstForcer = new OtherThreadExecutor<>( "first forcer", null );
+              OtherThreadExecutor<Void> secondForcer = new OtherThreadExecutor<>( "second forcer", null ) )
+        {
+            Future<Boolean> firstForce = firstForcer.executeDontWait( state -> appender.forceRelaxedCommits( tracer.backgroundLogForces() ) );
+            assertTrue( forceStarted.await( 1, TimeUnit.MINUTES ) );
+
+            // WHEN another page write comes in for the same writes, while the first force is in progress
+            Future<Boolean> secondForce = secondForcer.executeDontWait( state -> appender.forceRelaxedCommits( tracer.backgroundLogForces() ) );
+            secondForcer.waitUntilWaiting( location -> location.isAt( BatchingTransactionAppender.class, "forceRelaxedCommits" ) );
+            finishForce.countDown();
+
+            // THEN it waits for the first force, and does not force the log again
+            assertTrue( firstForce.get() );
+            assertFalse( secondForce.get() );
+        }
+        verify( flushable ).flush();
+        assertEquals( 1, tracer.numberOfBackgroundLogForces() );
+    }
+
+    @Test
+    void checkPointMustForceRelaxedCommits() throws Exception
+    {
+        // GIVEN
+        when( logFile.getWriter() ).thenReturn( channel );
+        when( transactionIdStore.nextCommittingTransactionId() ).thenReturn( 2L );
+        when( transactionIdStore.getLastCommittedTransaction() ).thenReturn( new TransactionId( 1, BASE_TX_CHECKSUM, BASE_TX_COMMIT_TIMESTAMP ) );
+        BatchingTransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore,
+                databaseHealth, 0, 1, false, true ) );
+        appender.append( new TransactionToApply( transaction( singleTestCommand(), new byte[0], 0, 1, 0 ) ), logAppendEvent );
+
+        // WHEN
+        appender.checkPoint( new LogPosition( 0, 0 ), LogCheckPointEvent.NULL );
+
+        // THEN
+        assertFalse( appender.forceRelaxedCommits( LogAppendEvent.NULL ) );
+    }
+
     private BatchingTransactionAppender createTransactionAppender()
     {
         return new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache, transactionIdStore, databaseHealth, BASE_TX_CHECKSUM );
@@ -35,6 +35,7 @@ import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.kernel.impl.api.TestCommand;
 import org.neo4j.kernel.impl.api.TransactionToApply;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
 import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
 import org.neo4j.kernel.impl.transaction.TransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.files.LogFile;
@@ -292,6 +293,60 @@ class PhysicalLogicalTransactionStoreTest
         }
     }
 
+    @Test
+    void shouldFindTransactionsInRotatedLogFilesThroughTransactionIndex() throws Exception
+    {
+        // GIVEN
+        TransactionIdStore transactionIdStore = new SimpleTransactionIdStore();
+        TransactionMetadataCache positionCache = new TransactionMetadataCache();
+        LifeSupport life = new LifeSupport();
+        final LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.add( logFiles );
+        TransactionAppender appender = life.add( new BatchingTransactionAppender( logFiles, NO_ROTATION, positionCache,
+                transactionIdStore, DATABASE_HEALTH ) );
+        life.start();
+        try
+        {
+            // transactions large enough for many of them to be indexed, in two rotated log files and the active one
+            for ( int logFile = 0; logFile < 3; logFile++ )
+            {
+                for ( int i = 0; i < 20; i++ )
+                {
+                    PhysicalTransactionRepresentation transaction =
+                            new PhysicalTransactionRepresentation( Collections.singletonList( new TestCommand( 16 * 1024 ) ) );
+                    transaction.setHeader( new byte[0], 0, 0, 0, -1 );
+                    appender.append( new TransactionToApply( transaction ), LogAppendEvent.NULL );
+                }
+                if ( logFile < 2 )
+                {
+                    logFiles.getLogFile().rotate();
+                }
+            }
+            positionCache.clear();
+
+            // WHEN/THEN
+            LogicalTransactionStore store = new PhysicalLogicalTransactionStore( logFiles, positionCache, logEntryReader(), monitors, true );
+            long lastTransactionId = transactionIdStore.getLastCommittedTransactionId();
+            for ( long transactionId = TransactionIdStore.BASE_TX_ID + 1; transactionId <= lastTransactionId; transactionId++ )
+            {
+                try ( TransactionCursor cursor = store.getTransactions( transactionId ) )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( transactionId, cursor.get().getCommitEntry().getTxId() );
+                }
+            }
+        }
+        finally
+        {
+            life.shutdown();
+        }
+    }
+
     @Test
     void shouldThrowNoSuchTransactionExceptionIfLogFileIsMissing() throws Exception
     {
@@ -394,6 +449,12 @@ class PhysicalLogicalTransactionStoreTest
             return visitedTransactions;
         }
 
+        @Override
+        public long appliedTransactions()
+        {
+            return visitedTransactions;
+        }
+
         @Override
         public void close()
         {
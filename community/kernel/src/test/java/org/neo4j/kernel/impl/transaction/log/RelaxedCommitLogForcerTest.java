@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import org.neo4j.kernel.impl.transaction.tracing.DatabaseTracer;
+import org.neo4j.kernel.impl.transaction.tracing.LogForceEvents;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.test.OnDemandJobScheduler;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.neo4j.logging.AssertableLogProvider.inLog;
+
+class RelaxedCommitLogForcerTest
+{
+    private final BatchingTransactionAppender appender = mock( BatchingTransactionAppender.class );
+    private final OnDemandJobScheduler jobScheduler = new OnDemandJobScheduler( false );
+    private final AssertableLogProvider logProvider = new AssertableLogProvider();
+    private final RelaxedCommitLogForcer forcer =
+            new RelaxedCommitLogForcer( jobScheduler, Duration.ofMillis( 10 ), DatabaseTracer.NULL, logProvider );
+
+    @Test
+    void shouldForceRelaxedCommitsInTheBackground() throws IOException
+    {
+        // given
+        forcer.initialize( appender );
+        forcer.start();
+
+        // when
+        jobScheduler.runJob();
+        jobScheduler.runJob();
+
+        // then
+        verify( appender, times( 2 ) ).forceRelaxedCommits( any( LogForceEvents.class ) );
+    }
+
+    @Test
+    void shouldForceRelaxedCommitsBeforePageWrites() throws IOException
+    {
+        // given
+        forcer.initialize( appender );
+
+        // when
+        forcer.beforePageWrite();
+
+        // then
+        verify( appender ).forceRelaxedCommits( any( LogForceEvents.class ) );
+    }
+
+    @Test
+    void shouldNotForceAnythingBeforeInitialized() throws IOException
+    {
+        // when
+        forcer.beforePageWrite();
+        forcer.initialize( appender );
+
+        // then
+        verifyZeroInteractions( appender );
+    }
+
+    @Test
+    void shouldForceRelaxedCommitsAndCancelTheJobWhenStopped() throws IOException
+    {
+        // given
+        forcer.initialize( appender );
+        forcer.start();
+        assertNotNull( jobScheduler.getJob() );
+
+        // when
+        forcer.stop();
+
+        // then
+        verify( appender ).forceRelaxedCommits( any( LogForceEvents.class ) );
+        assertNull( jobScheduler.getJob() );
+    }
+
+    @Test
+    void shouldLogBackgroundFailures() throws IOException
+    {
+        // given
+        IOException failure = new IOException( "boom" );
+        doThrow( failure ).when( appender ).forceRelaxedCommits( any( LogForceEvents.class ) );
+        forcer.initialize( appender );
+        forcer.start();
+
+        // when
+        jobScheduler.runJob();
+
+        // then
+        logProvider.assertAtLeastOnce(
+                inLog( RelaxedCommitLogForcer.class ).error( equalTo( "Failed to force the transaction log in the background." ), sameInstance( failure ) ) );
+        assertNotNull( jobScheduler.getJob() );
+    }
+}
@@ -27,8 +27,10 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.configuration.Config;
 import org.neo4j.internal.nativeimpl.NativeAccess;
 import org.neo4j.internal.nativeimpl.NativeCallResult;
+import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.ReadableChannel;
 import org.neo4j.io.fs.StoreChannel;
@@ -58,6 +60,7 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.neo4j.configuration.GraphDatabaseSettings.logical_logs_direct_io;
 import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
@@ -278,6 +281,110 @@ class TransactionLogFileTest
         assertTrue( called.get() );
     }
 
+    @Test
+    void shouldWriteAndReadLogsWithDirectIO() throws Exception
+    {
+        // GIVEN
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withConfig( Config.defaults( logical_logs_direct_io, true ) )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.start();
+        life.add( logFiles );
+
+        // WHEN
+        LogFile logFile = logFiles.getLogFile();
+        FlushablePositionAwareChecksumChannel writer = logFile.getWriter();
+        LogPositionMarker positionMarker = new LogPositionMarker();
+        byte[] someBytes = someBytes( 5000 );
+        writer.getCurrentPosition( positionMarker );
+        LogPosition position1 = positionMarker.newPosition();
+        writer.putLong( 1 );
+        writer.put( someBytes, someBytes.length );
+        writer.prepareForFlush().flush();
+        writer.getCurrentPosition( positionMarker );
+        LogPosition position2 = positionMarker.newPosition();
+        writer.putLong( 2 );
+        writer.prepareForFlush().flush();
+        logFile.rotate();
+        writer.getCurrentPosition( positionMarker );
+        LogPosition position3 = positionMarker.newPosition();
+        writer.putLong( 3 );
+        writer.put( someBytes, someBytes.length );
+        writer.prepareForFlush().flush();
+
+        // THEN
+        assertEquals( position2.getByteOffset() + Long.BYTES, fileSystem.getFileSize( logFiles.getLogFileForVersion( position2.getLogVersion() ) ) );
+        assertEquals( position3.getLogVersion(), readLogHeader( fileSystem, logFiles.getLogFileForVersion( position3.getLogVersion() ) ).getLogVersion() );
+        try ( ReadableChannel reader = logFile.getReader( position1 ) )
+        {
+            assertEquals( 1, reader.getLong() );
+            assertArrayEquals( someBytes, readBytes( reader, someBytes.length ) );
+            assertEquals( 2, reader.getLong() );
+        }
+        try ( ReadableChannel reader = logFile.getReader( position3 ) )
+        {
+            assertEquals( 3, reader.getLong() );
+            assertArrayEquals( someBytes, readBytes( reader, someBytes.length ) );
+        }
+    }
+
+    @Test
+    void evictForcedLogDataFromCacheWithDirectIO() throws IOException
+    {
+        var capturingNativeAccess = new CapturingNativeAccess();
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withConfig( Config.defaults( logical_logs_direct_io, true ) )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .withNativeAccess( capturingNativeAccess )
+                .build();
+        life.start();
+        life.add( logFiles );
+
+        FlushablePositionAwareChecksumChannel writer = logFiles.getLogFile().getWriter();
+        writer.putLong( 1 );
+        writer.prepareForFlush().flush();
+        assertEquals( 0, capturingNativeAccess.getRegionEvictionCounter() );
+
+        byte[] someBytes = someBytes( (int) ByteUnit.mebiBytes( 1 ) );
+        for ( int i = 0; i < 5; i++ )
+        {
+            writer.put( someBytes, someBytes.length );
+        }
+        writer.prepareForFlush().flush();
+        assertEquals( 1, capturingNativeAccess.getRegionEvictionCounter() );
+    }
+
+    @Test
+    void keepForcedLogDataInCacheWithoutDirectIO() throws IOException
+    {
+        var capturingNativeAccess = new CapturingNativeAccess();
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withTransactionIdStore( transactionIdStore )
+                .withLogVersionRepository( logVersionRepository )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .withNativeAccess( capturingNativeAccess )
+                .build();
+        life.start();
+        life.add( logFiles );
+
+        FlushablePositionAwareChecksumChannel writer = logFiles.getLogFile().getWriter();
+        byte[] someBytes = someBytes( (int) ByteUnit.mebiBytes( 1 ) );
+        for ( int i = 0; i < 5; i++ )
+        {
+            writer.put( someBytes, someBytes.length );
+        }
+        writer.prepareForFlush().flush();
+        assertEquals( 0, capturingNativeAccess.getRegionEvictionCounter() );
+    }
+
     @Test
     void shouldCloseChannelInFailedAttemptToReadHeaderAfterOpen() throws Exception
     {
@@ -388,6 +495,7 @@ class TransactionLogFileTest
     private static class CapturingNativeAccess implements NativeAccess
     {
         private int evictionCounter;
+        private int regionEvictionCounter;
         private int adviseCounter;
         private int preallocateCounter;
         private int keepCounter;
@@ -405,6 +513,13 @@ class TransactionLogFileTest
             return NativeCallResult.SUCCESS;
         }
 
+        @Override
+        public NativeCallResult tryEvictFromCache( int fd, long offset, long length )
+        {
+            regionEvictionCounter++;
+            return NativeCallResult.SUCCESS;
+        }
+
         @Override
         public NativeCallResult tryAdviseSequentialAccess( int fd )
         {
@@ -437,6 +552,11 @@ class TransactionLogFileTest
             return evictionCounter;
         }
 
+        public int getRegionEvictionCounter()
+        {
+            return regionEvictionCounter;
+        }
+
         public int getAdviseCounter()
         {
             return adviseCounter;
@@ -456,6 +576,7 @@ class TransactionLogFileTest
         {
             adviseCounter = 0;
             evictionCounter = 0;
+            regionEvictionCounter = 0;
             preallocateCounter = 0;
             keepCounter = 0;
         }
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.checkpoint;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.logging.AssertableLogProvider;
+import org.neo4j.storageengine.api.TransactionIdStore;
+import org.neo4j.test.OnDemandJobScheduler;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.neo4j.logging.AssertableLogProvider.inLog;
+
+class IncrementalPageFlusherTest
+{
+    private final PageCache pageCache = mock( PageCache.class );
+    private final TransactionIdStore transactionIdStore = mock( TransactionIdStore.class );
+    private final IOLimiter ioLimiter = mock( IOLimiter.class );
+    private final OnDemandJobScheduler jobScheduler = new OnDemandJobScheduler();
+    private final AssertableLogProvider logProvider = new AssertableLogProvider();
+    private final IncrementalPageFlusher flusher = new IncrementalPageFlusher( pageCache, transactionIdStore, ioLimiter, jobScheduler, 1000, logProvider );
+
+    @Test
+    void shouldWriteDirtyPagesOfAllMappedFilesWithoutForcing() throws IOException
+    {
+        // given
+        List<PagedFile> files = List.of( mock( PagedFile.class ), mock( PagedFile.class ) );
+        when( pageCache.listExistingMappings() ).thenReturn( files );
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 42L );
+        flusher.start();
+
+        // when
+        jobScheduler.runJob();
+
+        // then
+        verify( pageCache ).flush( files, ioLimiter );
+        assertEquals( 42L, flusher.flushedTransactionId() );
+        assertNotNull( jobScheduler.getJob() );
+    }
+
+    @Test
+    void shouldSkipRoundWhenNoTransactionClosedSinceLastRound() throws IOException
+    {
+        // given
+        List<PagedFile> files = List.of( mock( PagedFile.class ) );
+        when( pageCache.listExistingMappings() ).thenReturn( files );
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 42L );
+        flusher.start();
+        jobScheduler.runJob();
+
+        // when
+        jobScheduler.runJob();
+
+        // then
+        verify( pageCache, times( 1 ) ).flush( files, ioLimiter );
+        assertEquals( 42L, flusher.flushedTransactionId() );
+        assertNotNull( jobScheduler.getJob() );
+    }
+
+    @Test
+    void shouldOnlyAdvanceToTransactionClosedBeforeTheRoundStarted() throws IOException
+    {
+        // given
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 10L );
+        doAnswer( invocation ->
+        {
+            // A transaction that closes while we flush may have dirtied pages we have already written.
+            when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 11L );
+            return null;
+        } ).when( pageCache ).flush( any(), any() );
+        flusher.start();
+
+        // when
+        jobScheduler.runJob();
+
+        // then
+        assertEquals( 10L, flusher.flushedTransactionId() );
+    }
+
+    @Test
+    void shouldNotAdvanceWhenRoundFails() throws IOException
+    {
+        // given
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 10L );
+        IOException failure = new IOException( "boom" );
+        doThrow( failure ).when( pageCache ).flush( any(), any() );
+        flusher.start();
+
+        // when
+        jobScheduler.runJob();
+
+        // then
+        assertEquals( TransactionIdStore.BASE_TX_ID, flusher.flushedTransactionId() );
+        logProvider.assertAtLeastOnce(
+                inLog( IncrementalPageFlusher.class ).warn( equalTo( "Failed to write dirty pages in the background." ), sameInstance( failure ) ) );
+        assertNotNull( jobScheduler.getJob() );
+    }
+
+    @Test
+    void shouldNotRescheduleWhenStopped()
+    {
+        // given
+        flusher.start();
+
+        // when
+        flusher.stop();
+        jobScheduler.runJob();
+
+        // then
+        assertNull( jobScheduler.getJob() );
+    }
+
+    @Test
+    void thresholdShouldAskForCheckPointWhenFlushedPastLastCheckPoint()
+    {
+        // given
+        CheckPointThreshold threshold = flusher.checkPointThreshold();
+        threshold.initialize( 5 );
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 5L );
+        flusher.start();
+        jobScheduler.runJob();
+
+        // then nothing has been written that the last check point did not already cover
+        assertFalse( threshold.isCheckPointingNeeded( 5, description -> {} ) );
+
+        // when
+        when( transactionIdStore.getLastClosedTransactionId() ).thenReturn( 8L );
+        jobScheduler.runJob();
+
+        // then
+        assertTrue( threshold.isCheckPointingNeeded( 9, description -> {} ) );
+        threshold.checkPointHappened( 9 );
+        assertFalse( threshold.isCheckPointingNeeded( 9, description -> {} ) );
+    }
+}
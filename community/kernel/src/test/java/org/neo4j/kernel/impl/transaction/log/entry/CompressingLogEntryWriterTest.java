@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.kernel.impl.api.TestCommand;
+import org.neo4j.kernel.impl.api.TestCommandReaderFactory;
+import org.neo4j.kernel.impl.transaction.log.InMemoryClosableChannel;
+import org.neo4j.kernel.impl.transaction.log.LogEntryCursor;
+import org.neo4j.kernel.impl.transaction.log.PhysicalTransactionRepresentation;
+import org.neo4j.storageengine.api.StorageCommand;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommandBlock.MAX_BLOCK_SIZE;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryVersion.V4_0_COMPRESSED;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
+
+class CompressingLogEntryWriterTest
+{
+    private final LogEntryReader logEntryReader = new VersionAwareLogEntryReader( new TestCommandReaderFactory() );
+
+    @Test
+    void shouldReadBackCompressedTransactions() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 1024 * 1024 );
+        CompressingLogEntryWriter writer = new CompressingLogEntryWriter( channel );
+        // enough commands to fill more than one block
+        List<StorageCommand> commands = commands( 4_000, 128 );
+        writeTransaction( writer, 1, commands );
+        writeTransaction( writer, 2, commands( 10, 128 ) );
+
+        // when
+        List<LogEntry> entries = new ArrayList<>();
+        try ( LogEntryCursor cursor = new LogEntryCursor( logEntryReader, channel.reader() ) )
+        {
+            while ( cursor.next() )
+            {
+                entries.add( cursor.get() );
+            }
+        }
+
+        // then
+        assertTrue( channel.writerPosition() < 4_000 * 128 / 2 );
+        assertEquals( 4_000 + 10 + 4, entries.size() );
+        assertTrue( entries.get( 0 ) instanceof LogEntryStart );
+        for ( int i = 0; i < commands.size(); i++ )
+        {
+            LogEntry entry = entries.get( i + 1 );
+            assertEquals( new LogEntryCommand( commands.get( i ) ), entry );
+            assertEquals( V4_0_COMPRESSED, entry.getVersion() );
+        }
+        assertEquals( 1, ((LogEntryCommit) entries.get( commands.size() + 1 )).getTxId() );
+        assertEquals( 2, ((LogEntryCommit) entries.get( entries.size() - 1 )).getTxId() );
+    }
+
+    @Test
+    void shouldWriteSmallTransactionsUncompressed() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        CompressingLogEntryWriter writer = new CompressingLogEntryWriter( channel );
+        TestCommand command = new TestCommand( new byte[]{1, 2, 3} );
+        writeTransaction( writer, 1, List.of( command ) );
+
+        // when
+        LogEntry start = logEntryReader.readLogEntry( channel.reader() );
+        LogEntry commandEntry = logEntryReader.readLogEntry( channel.reader() );
+        LogEntry commit = logEntryReader.readLogEntry( channel.reader() );
+
+        // then
+        assertEquals( V4_0_COMPRESSED, start.getVersion() );
+        assertEquals( LogEntryByteCodes.COMMAND, commandEntry.getType() );
+        assertEquals( new LogEntryCommand( command ), commandEntry );
+        assertEquals( 1, ((LogEntryCommit) commit).getTxId() );
+        assertNull( logEntryReader.readLogEntry( channel.reader() ) );
+    }
+
+    @Test
+    void shouldWriteCommandLargerThanBlockUncompressed() throws IOException
+    {
+        // given
+        InMemoryClosableChannel channel = new InMemoryClosableChannel( 2 * MAX_BLOCK_SIZE );
+        CompressingLogEntryWriter writer = new CompressingLogEntryWriter( channel );
+        List<StorageCommand> commands = new ArrayList<>( commands( 10, 1024 ) );
+        commands.addAll( commands( 1, MAX_BLOCK_SIZE + 1 ) );
+        writeTransaction( writer, 1, commands );
+
+        // when
+        List<LogEntry> entries = new ArrayList<>();
+        LogEntry entry;
+        while ( (entry = logEntryReader.readLogEntry( channel.reader() )) != null )
+        {
+            entries.add( entry );
+        }
+
+        // then
+        assertEquals( 4, entries.size() );
+        assertEquals( LogEntryByteCodes.COMPRESSED_COMMANDS, entries.get( 1 ).getType() );
+        assertEquals( 10, ((LogEntryCommandBlock) entries.get( 1 )).commands().size() );
+        assertEquals( new LogEntryCommand( commands.get( 10 ) ), entries.get( 2 ) );
+    }
+
+    @Test
+    void shouldRejectCommandBlockWithInvalidLengths() throws IOException
+    {
+        assertInvalidCommandBlock( -1, 10 );
+        assertInvalidCommandBlock( MAX_BLOCK_SIZE + 1, 10 );
+        assertInvalidCommandBlock( 10, -1 );
+        assertInvalidCommandBlock( 10, MAX_BLOCK_SIZE + 1 );
+    }
+
+    private void assertInvalidCommandBlock( int uncompressedLength, int compressedLength ) throws IOException
+    {
+        InMemoryClosableChannel channel = new InMemoryClosableChannel();
+        channel.put( V4_0_COMPRESSED.version() ).put( LogEntryByteCodes.COMPRESSED_COMMANDS );
+        channel.putInt( uncompressedLength ).putInt( compressedLength );
+        channel.put( new byte[10], 10 );
+
+        IOException exception = assertThrows( IOException.class, () -> logEntryReader.readLogEntry( channel.reader() ) );
+        assertThat( exception.getMessage(), containsString( "Invalid command block lengths" ) );
+    }
+
+    private static void writeTransaction( LogEntryWriter writer, long txId, List<StorageCommand> commands ) throws IOException
+    {
+        writer.writeStartEntry( txId, txId - 1, BASE_TX_CHECKSUM, new byte[0] );
+        writer.serialize( new PhysicalTransactionRepresentation( commands ) );
+        writer.writeCommitEntry( txId, txId );
+    }
+
+    private static List<StorageCommand> commands( int count, int size )
+    {
+        List<StorageCommand> commands = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            byte[] bytes = new byte[size];
+            Arrays.fill( bytes, (byte) (i % 7) );
+            commands.add( new TestCommand( bytes ) );
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import com.sun.nio.file.ExtendedOpenOption;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.RandomExtension;
+import org.neo4j.test.extension.testdirectory.TestDirectoryExtension;
+import org.neo4j.test.rule.RandomRule;
+import org.neo4j.test.rule.TestDirectory;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@TestDirectoryExtension
+@ExtendWith( RandomExtension.class )
+class DirectIOStoreChannelTest
+{
+    private static final int BLOCK_SIZE = 512;
+
+    @Inject
+    private TestDirectory testDirectory;
+    @Inject
+    private RandomRule random;
+
+    private FileSystemAbstraction fs;
+    private File file;
+
+    @BeforeEach
+    void setUp()
+    {
+        fs = testDirectory.getFileSystem();
+        file = testDirectory.file( "log" );
+    }
+
+    @Test
+    void shouldReadBackAppendedData() throws IOException
+    {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        try ( StoreChannel channel = new DirectIOStoreChannel( new AlignmentCheckingChannel( file ), BLOCK_SIZE ) )
+        {
+            for ( int i = 0; i < 100; i++ )
+            {
+                byte[] bytes = randomBytes( random.nextInt( 1, 3 * BLOCK_SIZE ) );
+                channel.writeAll( ByteBuffer.wrap( bytes ) );
+                expected.write( bytes );
+                assertEquals( expected.size(), channel.position() );
+            }
+        }
+
+        assertArrayEquals( expected.toByteArray(), readWithDirectIO( expected.size() ) );
+        assertArrayEquals( expected.toByteArray(), readWithBufferedIO( expected.size() ) );
+        // The end of the last block is padded with zeros
+        assertEquals( alignUp( expected.size() ), fs.getFileSize( file ) );
+        byte[] padding = readWithBufferedIO( (int) fs.getFileSize( file ) );
+        assertTrue( allZeros( Arrays.copyOfRange( padding, expected.size(), padding.length ) ) );
+    }
+
+    @Test
+    void shouldAppendToExistingFile() throws IOException
+    {
+        byte[] existing = randomBytes( 3 * BLOCK_SIZE + 17 );
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( existing ) );
+        }
+
+        byte[] appended = randomBytes( 2 * BLOCK_SIZE );
+        try ( StoreChannel channel = new DirectIOStoreChannel( new AlignmentCheckingChannel( file ), BLOCK_SIZE ) )
+        {
+            channel.position( existing.length );
+            channel.writeAll( ByteBuffer.wrap( appended ) );
+        }
+
+        byte[] content = readWithBufferedIO( existing.length + appended.length );
+        assertArrayEquals( existing, Arrays.copyOfRange( content, 0, existing.length ) );
+        assertArrayEquals( appended, Arrays.copyOfRange( content, existing.length, content.length ) );
+    }
+
+    @Test
+    void shouldAppendAfterTruncate() throws IOException
+    {
+        byte[] first = randomBytes( 5 * BLOCK_SIZE );
+        byte[] second = randomBytes( 100 );
+        int truncatedSize = 2 * BLOCK_SIZE + 31;
+        try ( StoreChannel channel = new DirectIOStoreChannel( new AlignmentCheckingChannel( file ), BLOCK_SIZE ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( first ) );
+            channel.truncate( truncatedSize );
+            assertEquals( truncatedSize, channel.position() );
+            channel.writeAll( ByteBuffer.wrap( second ) );
+        }
+
+        byte[] content = readWithDirectIO( truncatedSize + second.length );
+        assertArrayEquals( Arrays.copyOfRange( first, 0, truncatedSize ), Arrays.copyOfRange( content, 0, truncatedSize ) );
+        assertArrayEquals( second, Arrays.copyOfRange( content, truncatedSize, content.length ) );
+    }
+
+    @Test
+    void shouldReadEndOfFile() throws IOException
+    {
+        byte[] bytes = randomBytes( BLOCK_SIZE + 10 );
+        try ( StoreChannel channel = fs.write( file ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( bytes ) );
+        }
+
+        try ( StoreChannel channel = new DirectIOStoreChannel( new AlignmentCheckingChannel( file ), BLOCK_SIZE ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( 2 * bytes.length );
+            channel.position( 3 );
+            assertEquals( bytes.length - 3, channel.read( buffer ) );
+            assertEquals( -1, channel.read( buffer ) );
+            assertThrows( IllegalStateException.class, () -> channel.readAll( ByteBuffer.allocate( 1 ) ) );
+        }
+    }
+
+    @Test
+    void shouldWorkWithRealDirectIO() throws IOException
+    {
+        StoreChannel directChannel;
+        try
+        {
+            directChannel = fs.open( file, Set.of( READ, WRITE, CREATE, ExtendedOpenOption.DIRECT ) );
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            assumeTrue( false, "Direct I/O is not supported here: " + e );
+            return;
+        }
+
+        byte[] bytes = randomBytes( 10_000 );
+        try ( StoreChannel channel = new DirectIOStoreChannel( directChannel, (int) fs.getBlockSize( file ) ) )
+        {
+            channel.writeAll( ByteBuffer.wrap( bytes, 0, 3_000 ) );
+            channel.writeAll( ByteBuffer.wrap( bytes, 3_000, 7_000 ) );
+            channel.force( false );
+        }
+
+        assertArrayEquals( bytes, readWithBufferedIO( bytes.length ) );
+    }
+
+    private byte[] readWithDirectIO( int length ) throws IOException
+    {
+        try ( StoreChannel channel = new DirectIOStoreChannel( new AlignmentCheckingChannel( file ), BLOCK_SIZE ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( length );
+            // Read in small pieces, like a log reader would
+            while ( buffer.hasRemaining() )
+            {
+                ByteBuffer piece = buffer.duplicate().limit( Math.min( buffer.limit(), buffer.position() + 100 ) );
+                channel.readAll( piece );
+                buffer.position( piece.position() );
+            }
+            return buffer.array();
+        }
+    }
+
+    private byte[] readWithBufferedIO( int length ) throws IOException
+    {
+        try ( StoreChannel channel = fs.read( file ) )
+        {
+            ByteBuffer buffer = ByteBuffer.allocate( length );
+            channel.readAll( buffer );
+            return buffer.array();
+        }
+    }
+
+    private byte[] randomBytes( int length )
+    {
+        byte[] bytes = new byte[length];
+        random.nextBytes( bytes );
+        return bytes;
+    }
+
+    private static long alignUp( long position )
+    {
+        return (position + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+    }
+
+    private static boolean allZeros( byte[] bytes )
+    {
+        for ( byte b : bytes )
+        {
+            if ( b != 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the file is only accessed the way that a channel opened for direct I/O can be accessed.
+     */
+    private class AlignmentCheckingChannel extends StoreFileChannel
+    {
+        AlignmentCheckingChannel( File file ) throws IOException
+        {
+            super( (StoreFileChannel) fs.open( file, Set.<OpenOption>of( READ, WRITE, CREATE ) ) );
+        }
+
+        @Override
+        public int read( ByteBuffer dst, long position ) throws IOException
+        {
+            assertAligned( dst, position );
+            return super.read( dst, position );
+        }
+
+        @Override
+        public void writeAll( ByteBuffer src, long position ) throws IOException
+        {
+            assertAligned( src, position );
+            super.writeAll( src, position );
+        }
+
+        @Override
+        public int read( ByteBuffer dst )
+        {
+            throw new UnsupportedOperationException( "Only positional reads are expected" );
+        }
+
+        @Override
+        public int write( ByteBuffer src )
+        {
+            throw new UnsupportedOperationException( "Only positional writes are expected" );
+        }
+
+        private void assertAligned( ByteBuffer buffer, long position )
+        {
+            assertEquals( 0, position % BLOCK_SIZE, "position" );
+            assertEquals( 0, buffer.remaining() % BLOCK_SIZE, "length" );
+            assertTrue( buffer.isDirect(), "direct buffer" );
+            assertEquals( 0, buffer.alignmentOffset( buffer.position(), BLOCK_SIZE ), "buffer alignment" );
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.memory.ByteBuffers;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.entry.LogHeader;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.OnDemandJobScheduler;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.LifeExtension;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+import org.neo4j.test.scheduler.CallingThreadJobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.configuration.GraphDatabaseSettings.recycle_logical_logs;
+import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.kernel.impl.transaction.log.entry.LogHeaderReader.readLogHeader;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+
+@Neo4jLayoutExtension
+@ExtendWith( LifeExtension.class )
+class TransactionLogFileRecyclerTest
+{
+    private static final long ROTATION_THRESHOLD = 64 * 1024;
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private DatabaseLayout databaseLayout;
+    @Inject
+    private LifeSupport life;
+
+    private final SimpleLogVersionRepository logVersionRepository = new SimpleLogVersionRepository();
+
+    @Test
+    void shouldPrepareSpareFilesOnStart() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+
+        File[] spares = spareFiles( logFiles );
+        assertEquals( 2, spares.length );
+        for ( File spare : spares )
+        {
+            assertFilledWithZeros( spare, ROTATION_THRESHOLD );
+        }
+    }
+
+    @Test
+    void shouldRotateIntoSpareFile() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+
+        File rotatedTo = logFiles.getLogFile().rotate();
+
+        assertEquals( logFiles.getLogFileForVersion( 1 ), rotatedTo );
+        assertEquals( ROTATION_THRESHOLD, fileSystem.getFileSize( rotatedTo ) );
+        LogHeader header = readLogHeader( fileSystem, rotatedTo );
+        assertNotNull( header );
+        assertEquals( 1, header.getLogVersion() );
+        // The spare that was taken has been replaced by a new one
+        assertEquals( 2, spareFiles( logFiles ).length );
+    }
+
+    @Test
+    void shouldRecyclePrunedLogFilesUntilPoolIsFull() throws IOException
+    {
+        OnDemandJobScheduler jobScheduler = new OnDemandJobScheduler();
+        LogFiles logFiles = startLogFiles( jobScheduler );
+        logFiles.getLogFile().rotate();
+        logFiles.getLogFile().rotate();
+        File firstLogFile = logFiles.getLogFileForVersion( 0 );
+        File secondLogFile = logFiles.getLogFileForVersion( 1 );
+        File thirdLogFile = logFiles.getLogFileForVersion( 2 );
+
+        // No spares have been prepared yet, so the pruned files make up the pool
+        assertTrue( logFiles.recycleLogFile( firstLogFile ) );
+        assertTrue( logFiles.recycleLogFile( secondLogFile ) );
+        assertFalse( logFiles.recycleLogFile( thirdLogFile ) );
+        assertFalse( fileSystem.fileExists( firstLogFile ) );
+        assertFalse( fileSystem.fileExists( secondLogFile ) );
+        assertTrue( fileSystem.fileExists( thirdLogFile ) );
+
+        jobScheduler.runJob();
+
+        File[] spares = spareFiles( logFiles );
+        assertEquals( 2, spares.length );
+        for ( File spare : spares )
+        {
+            assertFilledWithZeros( spare, ROTATION_THRESHOLD );
+        }
+    }
+
+    @Test
+    void shouldNotRecycleWhenDisabled() throws IOException
+    {
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withRotationThreshold( ROTATION_THRESHOLD )
+                .withTransactionIdStore( new SimpleTransactionIdStore( 2L, 0, BASE_TX_COMMIT_TIMESTAMP, 0, 0 ) )
+                .withLogVersionRepository( logVersionRepository )
+                .withLogEntryReader( logEntryReader() )
+                .withJobScheduler( new CallingThreadJobScheduler() )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.add( logFiles );
+        life.start();
+
+        logFiles.getLogFile().rotate();
+
+        assertEquals( 0, spareFiles( logFiles ).length );
+        assertFalse( logFiles.recycleLogFile( logFiles.getLogFileForVersion( 0 ) ) );
+        assertTrue( fileSystem.fileExists( logFiles.getLogFileForVersion( 0 ) ) );
+    }
+
+    private LogFiles startLogFiles() throws IOException
+    {
+        return startLogFiles( new CallingThreadJobScheduler() );
+    }
+
+    private LogFiles startLogFiles( JobScheduler jobScheduler ) throws IOException
+    {
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withConfig( Config.defaults( recycle_logical_logs, true ) )
+                .withRotationThreshold( ROTATION_THRESHOLD )
+                .withTransactionIdStore( new SimpleTransactionIdStore( 2L, 0, BASE_TX_COMMIT_TIMESTAMP, 0, 0 ) )
+                .withLogVersionRepository( logVersionRepository )
+                .withLogEntryReader( logEntryReader() )
+                .withJobScheduler( jobScheduler )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.add( logFiles );
+        life.start();
+        return logFiles;
+    }
+
+    private File[] spareFiles( LogFiles logFiles )
+    {
+        return fileSystem.listFiles( logFiles.logFilesDirectory(), ( dir, name ) -> name.startsWith( "spare." ) );
+    }
+
+    private void assertFilledWithZeros( File file, long expectedSize ) throws IOException
+    {
+        assertEquals( expectedSize, fileSystem.getFileSize( file ) );
+        ByteBuffer buffer = ByteBuffers.allocate( (int) expectedSize );
+        try ( StoreChannel channel = fileSystem.read( file ) )
+        {
+            channel.readAll( buffer );
+        }
+        assertArrayEquals( new byte[(int) expectedSize], buffer.array() );
+    }
+}
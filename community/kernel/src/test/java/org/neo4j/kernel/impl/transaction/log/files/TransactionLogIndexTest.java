@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.files;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.kernel.impl.transaction.SimpleLogVersionRepository;
+import org.neo4j.kernel.impl.transaction.SimpleTransactionIdStore;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.lifecycle.LifeSupport;
+import org.neo4j.logging.NullLog;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.LifeExtension;
+import org.neo4j.test.extension.Neo4jLayoutExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.io.ByteUnit.mebiBytes;
+import static org.neo4j.kernel.impl.transaction.log.TestLogEntryReader.logEntryReader;
+import static org.neo4j.kernel.impl.transaction.log.files.TransactionLogFilesHelper.DEFAULT_NAME;
+import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_COMMIT_TIMESTAMP;
+
+@Neo4jLayoutExtension
+@ExtendWith( LifeExtension.class )
+class TransactionLogIndexTest
+{
+    // Far enough apart for every transaction to be sampled.
+    private static final long GAP = mebiBytes( 1 );
+
+    @Inject
+    private FileSystemAbstraction fileSystem;
+    @Inject
+    private DatabaseLayout databaseLayout;
+    @Inject
+    private LifeSupport life;
+
+    @Test
+    void shouldFindSampledTransactionsInActiveLogFile() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+
+        appendTransactions( logFile, 0, logStart.getByteOffset(), 10, 3 );
+        // Too close to the previous transaction to be sampled
+        logFile.transactionAppended( 13, new LogPosition( 0, logStart.getByteOffset() + 2 * GAP + 1 ) );
+
+        assertEquals( logStart, logFile.findTransactionStartHint( 9, logStart ) );
+        assertEquals( logStart, logFile.findTransactionStartHint( 10, logStart ) );
+        assertEquals( new LogPosition( 0, logStart.getByteOffset() + GAP ), logFile.findTransactionStartHint( 11, logStart ) );
+        assertEquals( new LogPosition( 0, logStart.getByteOffset() + 2 * GAP ), logFile.findTransactionStartHint( 12, logStart ) );
+        assertEquals( new LogPosition( 0, logStart.getByteOffset() + 2 * GAP ), logFile.findTransactionStartHint( 13, logStart ) );
+    }
+
+    @Test
+    void shouldWriteIndexOnRotationAndFindTransactionsInIt() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+        appendTransactions( logFile, 0, logStart.getByteOffset(), 10, 100 );
+
+        logFile.rotate();
+
+        assertTrue( fileSystem.fileExists( indexFile( 0 ) ) );
+        // A fresh index only has the index file to go on
+        TransactionLogIndex index = newIndex( logFiles );
+        for ( int i = 0; i < 100; i++ )
+        {
+            assertEquals( new LogPosition( 0, logStart.getByteOffset() + i * GAP ), index.findStartPosition( 10 + i, logStart ) );
+        }
+        assertEquals( new LogPosition( 0, logStart.getByteOffset() + 99 * GAP ), index.findStartPosition( 1000, logStart ) );
+        assertEquals( logStart, index.findStartPosition( 5, logStart ) );
+    }
+
+    @Test
+    void shouldScanFromLogStartWithoutIndex() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+
+        logFile.rotate();
+
+        assertFalse( fileSystem.fileExists( indexFile( 0 ) ) );
+        assertEquals( logStart, newIndex( logFiles ).findStartPosition( 10, logStart ) );
+        assertFalse( fileSystem.fileExists( indexFile( 0 ) ) );
+    }
+
+    @Test
+    void shouldIgnoreIndexFileWithIncompleteHeader() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+        appendTransactions( logFile, 0, logStart.getByteOffset(), 10, 10 );
+        logFile.rotate();
+
+        try ( StoreChannel channel = fileSystem.write( indexFile( 0 ) ) )
+        {
+            channel.truncate( 10 );
+        }
+
+        assertEquals( logStart, newIndex( logFiles ).findStartPosition( 15, logStart ) );
+    }
+
+    @Test
+    void shouldIgnoreIncompleteIndexFile() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+        appendTransactions( logFile, 0, logStart.getByteOffset(), 10, 10 );
+        logFile.rotate();
+
+        try ( StoreChannel channel = fileSystem.write( indexFile( 0 ) ) )
+        {
+            channel.truncate( channel.size() - 1 );
+        }
+
+        assertEquals( logStart, newIndex( logFiles ).findStartPosition( 15, logStart ) );
+    }
+
+    @Test
+    void shouldIgnoreIndexFileOfOtherLogFile() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+        appendTransactions( logFile, 0, logStart.getByteOffset(), 10, 10 );
+        logFile.rotate();
+        logFile.rotate();
+
+        fileSystem.copyFile( indexFile( 0 ), indexFile( 1 ) );
+
+        LogPosition secondLogStart = logFiles.extractHeader( 1 ).getStartPosition();
+        assertEquals( secondLogStart, newIndex( logFiles ).findStartPosition( 15, secondLogStart ) );
+    }
+
+    @Test
+    void shouldRemoveIndexFilesOfMissingLogFilesOnRotation() throws IOException
+    {
+        LogFiles logFiles = startLogFiles();
+        LogFile logFile = logFiles.getLogFile();
+        LogPosition logStart = logFiles.extractHeader( 0 ).getStartPosition();
+        appendTransactions( logFile, 0, logStart.getByteOffset(), 10, 10 );
+        logFile.rotate();
+        // A pruned log file, and a temporary file left behind by a crash
+        fileSystem.deleteFile( logFiles.getLogFileForVersion( 0 ) );
+        File leftover = new File( indexFile( 7 ).getPath() + ".tmp" );
+        fileSystem.write( leftover ).close();
+
+        appendTransactions( logFile, 1, logStart.getByteOffset(), 20, 10 );
+        logFile.rotate();
+
+        assertFalse( fileSystem.fileExists( indexFile( 0 ) ) );
+        assertFalse( fileSystem.fileExists( leftover ) );
+        assertTrue( fileSystem.fileExists( indexFile( 1 ) ) );
+    }
+
+    private static void appendTransactions( LogFile logFile, long version, long startOffset, long firstTransactionId, int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            logFile.transactionAppended( firstTransactionId + i, new LogPosition( version, startOffset + i * GAP ) );
+        }
+    }
+
+    private File indexFile( long version )
+    {
+        return new File( databaseLayout.getTransactionLogsDirectory(), "index." + DEFAULT_NAME + "." + version );
+    }
+
+    private TransactionLogIndex newIndex( LogFiles logFiles )
+    {
+        return new TransactionLogIndex( fileSystem, databaseLayout.getTransactionLogsDirectory(), DEFAULT_NAME, logFiles, NullLog.getInstance() );
+    }
+
+    private LogFiles startLogFiles() throws IOException
+    {
+        LogFiles logFiles = LogFilesBuilder.builder( databaseLayout, fileSystem )
+                .withTransactionIdStore( new SimpleTransactionIdStore( 2L, 0, BASE_TX_COMMIT_TIMESTAMP, 0, 0 ) )
+                .withLogVersionRepository( new SimpleLogVersionRepository() )
+                .withLogEntryReader( logEntryReader() )
+                .withStoreId( StoreId.UNKNOWN )
+                .build();
+        life.add( logFiles );
+        life.start();
+        return logFiles;
+    }
+}
@@ -23,13 +23,16 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.eclipse.collections.impl.block.factory.primitive.IntPredicates;
 import org.junit.jupiter.api.Test;
 
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import org.neo4j.internal.kernel.api.PopulationProgress;
 import org.neo4j.kernel.impl.api.index.StoreScan;
+import org.neo4j.kernel.impl.transaction.state.storeview.EntityIdIterator;
 import org.neo4j.kernel.impl.transaction.state.storeview.PropertyAwareEntityStoreScan;
 import org.neo4j.lock.LockService;
 import org.neo4j.storageengine.api.StorageNodeCursor;
+import org.neo4j.storageengine.api.StoragePropertyCursor;
 import org.neo4j.storageengine.api.StorageReader;
 import org.neo4j.storageengine.api.StubStorageCursors;
 
@@ -60,7 +63,7 @@ class PropertyAwareEntityStoreScanTest
                         id -> locks.acquireNodeLock( id, LockService.LockType.READ_LOCK ) )
                 {
                     @Override
-                    public boolean process( StorageNodeCursor node )
+                    public boolean process( StorageNodeCursor node, StoragePropertyCursor propertyCursor )
                     {
                         // then
                         read.incrementAndGet();
@@ -75,6 +78,12 @@ class PropertyAwareEntityStoreScanTest
                     {
                         return storageReader.allocateNodeCursor();
                     }
+
+                    @Override
+                    protected Function<StorageNodeCursor,EntityIdIterator> parallelEntityIdIterators()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
                 };
         percentageSupplier.setStoreScan( scan );
 
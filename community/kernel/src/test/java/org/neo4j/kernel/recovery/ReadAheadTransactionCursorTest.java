@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.recovery;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
+import org.neo4j.kernel.impl.transaction.log.LogPosition;
+import org.neo4j.kernel.impl.transaction.log.TransactionCursor;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.kernel.impl.transaction.log.GivenTransactionCursor.exhaust;
+
+class ReadAheadTransactionCursorTest
+{
+    private final JobScheduler jobScheduler = new ThreadPoolJobScheduler();
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldReadAllTransactionsInOrder() throws IOException
+    {
+        CommittedTransactionRepresentation[] transactions = transactions( 1_000 );
+        SourceCursor source = new SourceCursor( transactions, null );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, jobScheduler ) )
+        {
+            assertArrayEquals( transactions, exhaust( cursor ) );
+            assertEquals( new LogPosition( 0, transactions.length ), cursor.position() );
+            assertFalse( cursor.next() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldReportPositionAfterEachTransaction() throws IOException
+    {
+        SourceCursor source = new SourceCursor( transactions( 3 ), null );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, jobScheduler ) )
+        {
+            for ( int i = 1; i <= 3; i++ )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( new LogPosition( 0, i ), cursor.position() );
+            }
+            assertFalse( cursor.next() );
+        }
+    }
+
+    @Test
+    void shouldHandOverFailureAfterTransactionsReadBeforeIt() throws IOException
+    {
+        CommittedTransactionRepresentation[] transactions = transactions( 10 );
+        IOException failure = new IOException( "Corrupted log" );
+        SourceCursor source = new SourceCursor( transactions, failure );
+
+        try ( ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, jobScheduler ) )
+        {
+            for ( CommittedTransactionRepresentation transaction : transactions )
+            {
+                assertTrue( cursor.next() );
+                assertSame( transaction, cursor.get() );
+            }
+            assertSame( failure, assertThrows( IOException.class, cursor::next ) );
+            assertFalse( cursor.next() );
+        }
+        assertTrue( source.closed );
+    }
+
+    @Test
+    void shouldStopReadingAheadWhenClosedEarly() throws IOException
+    {
+        SourceCursor source = new SourceCursor( transactions( 10_000 ), null );
+
+        ReadAheadTransactionCursor cursor = new ReadAheadTransactionCursor( source, jobScheduler );
+        assertTrue( cursor.next() );
+        cursor.close();
+
+        assertTrue( source.closed );
+        assertTrue( source.index < 10_000 );
+    }
+
+    private static CommittedTransactionRepresentation[] transactions( int count )
+    {
+        CommittedTransactionRepresentation[] transactions = new CommittedTransactionRepresentation[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            transactions[i] = mock( CommittedTransactionRepresentation.class );
+        }
+        return transactions;
+    }
+
+    private static class SourceCursor implements TransactionCursor
+    {
+        private final CommittedTransactionRepresentation[] transactions;
+        private final IOException failure;
+        private volatile int index = -1;
+        private volatile boolean closed;
+
+        SourceCursor( CommittedTransactionRepresentation[] transactions, IOException failure )
+        {
+            this.transactions = transactions;
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean next() throws IOException
+        {
+            if ( index + 1 < transactions.length )
+            {
+                index++;
+                return true;
+            }
+            if ( failure != null )
+            {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public CommittedTransactionRepresentation get()
+        {
+            return transactions[index];
+        }
+
+        @Override
+        public LogPosition position()
+        {
+            return new LogPosition( 0, index + 1 );
+        }
+
+        @Override
+        public void close()
+        {
+            closed = true;
+        }
+    }
+}
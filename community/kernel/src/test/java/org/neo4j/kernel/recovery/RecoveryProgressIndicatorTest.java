@@ -24,6 +24,8 @@ import org.mockito.Answers;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.neo4j.common.ProgressReporter;
 import org.neo4j.kernel.impl.transaction.CommittedTransactionRepresentation;
 import org.neo4j.kernel.impl.transaction.log.LogPosition;
@@ -33,10 +35,12 @@ import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 import static org.neo4j.kernel.impl.transaction.log.entry.LogVersions.CURRENT_FORMAT_LOG_HEADER_SIZE;
 import static org.neo4j.kernel.recovery.RecoveryStartupChecker.EMPTY_CHECKER;
+import static org.neo4j.storageengine.api.TransactionApplicationMode.RECOVERY;
 import static org.neo4j.storageengine.api.TransactionIdStore.BASE_TX_CHECKSUM;
 
 class RecoveryProgressIndicatorTest
@@ -68,6 +72,15 @@ class RecoveryProgressIndicatorTest
         when( recoveryService.getRecoveryStartInformation() ).thenReturn( startInformation );
         when( recoveryService.getTransactionsInReverseOrder( recoveryStartPosition ) ).thenReturn( reverseTransactionCursor );
         when( recoveryService.getTransactions( recoveryStartPosition ) ).thenReturn( transactionCursor );
+        AtomicLong appliedTransactions = new AtomicLong();
+        RecoveryApplier recoveryApplier = mock( RecoveryApplier.class );
+        when( recoveryApplier.visit( any() ) ).then( invocation ->
+        {
+            appliedTransactions.incrementAndGet();
+            return false;
+        } );
+        when( recoveryApplier.appliedTransactions() ).then( invocation -> appliedTransactions.get() );
+        when( recoveryService.getRecoveryApplier( RECOVERY ) ).thenReturn( recoveryApplier );
 
         AssertableProgressReporter progressReporter = new AssertableProgressReporter( expectedMax );
         TransactionLogsRecovery recovery = new TransactionLogsRecovery(
@@ -21,6 +21,7 @@ package org.neo4j.kernel.recovery;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.mutable.MutableInt;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -61,6 +62,8 @@ import org.neo4j.kernel.lifecycle.Lifecycle;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 import org.neo4j.logging.Log;
 import org.neo4j.monitoring.Monitors;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.StorageEngine;
 import org.neo4j.storageengine.api.StoreId;
@@ -69,6 +72,7 @@ import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.test.extension.Inject;
 import org.neo4j.test.extension.Neo4jLayoutExtension;
 import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 
 import static java.util.UUID.randomUUID;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCause;
@@ -82,6 +86,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -123,6 +128,13 @@ class TransactionLogsRecoveryTest
     private LogFiles logFiles;
     private File storeDir;
     private Lifecycle schemaLife;
+    private final JobScheduler jobScheduler = new ThreadPoolJobScheduler();
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        jobScheduler.close();
+    }
 
     @BeforeEach
     void setUp() throws Exception
@@ -199,7 +211,7 @@ class TransactionLogsRecoveryTest
             CorruptedLogsTruncator logPruner = new CorruptedLogsTruncator( storeDir, logFiles, fileSystem );
             monitors.addMonitorListener( monitor );
             life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ) )
+                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ), jobScheduler, false )
             {
                 private int nr;
 
@@ -221,6 +233,12 @@ class TransactionLogsRecoveryTest
                             actual.close();
                         }
 
+                        @Override
+                        public long appliedTransactions()
+                        {
+                            return actual.appliedTransactions();
+                        }
+
                         @Override
                         public boolean visit( CommittedTransactionRepresentation tx ) throws Exception
                         {
@@ -299,7 +317,7 @@ class TransactionLogsRecoveryTest
                 }
             } );
             life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ) ),
+                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ), jobScheduler, false ),
                     logPruner, schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER ) );
 
             life.start();
@@ -394,6 +412,55 @@ class TransactionLogsRecoveryTest
         assertEquals( marker.getByteOffset(), file.length() );
     }
 
+    @Test
+    void shouldNotTruncateAfterOrReportTransactionsOfBatchThatFailedToApply() throws Exception
+    {
+        // GIVEN
+        File file = logFiles.getLogFileForVersion( logVersion );
+        final LogPositionMarker marker = new LogPositionMarker();
+
+        writeSomeData( file, pair ->
+        {
+            LogEntryWriter writer = pair.first();
+            Consumer<LogPositionMarker> consumer = pair.other();
+
+            // two complete transactions, that end up in the same batch
+            consumer.accept( marker ); // <-- marker has the last position before anything that gets applied
+            writer.writeStartEntry( 2L, 5L, BASE_TX_CHECKSUM, new byte[0] );
+            int previousChecksum = writer.writeCommitEntry( 6L, 3L );
+            writer.writeStartEntry( 4L, 6L, previousChecksum, new byte[0] );
+            writer.writeCommitEntry( 7L, 5L );
+
+            return true;
+        } );
+        StorageEngine storageEngine = mock( StorageEngine.class );
+        doThrow( new IOException( "Mock apply failure" ) ).when( storageEngine )
+                .apply( any( CommandsToApply.class ), eq( TransactionApplicationMode.RECOVERY ) );
+        RecoveryMonitor monitor = mock( RecoveryMonitor.class );
+        LogEntryReader reader = logEntryReader();
+        LogicalTransactionStore txStore = new PhysicalLogicalTransactionStore( logFiles, new TransactionMetadataCache(), reader, monitors, false );
+        LifeSupport life = new LifeSupport();
+        life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, getTailScanner( logFiles, reader ), transactionIdStore,
+                txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ), jobScheduler, true ),
+                new CorruptedLogsTruncator( storeDir, logFiles, fileSystem ), schemaLife, monitor, ProgressReporter.SILENT, false, EMPTY_CHECKER ) );
+
+        // WHEN
+        try
+        {
+            life.start();
+        }
+        finally
+        {
+            life.shutdown();
+        }
+
+        // THEN
+        verify( monitor ).failToRecoverTransactionsAfterPosition( any( IOException.class ), any( LogPosition.class ) );
+        verify( monitor, never() ).transactionRecovered( anyLong() );
+        assertEquals( marker.getByteOffset(), file.length() );
+        assertEquals( 5L, transactionIdStore.getLastClosedTransactionId() );
+    }
+
     @Test
     void shouldTellTransactionIdStoreAfterSuccessfulRecovery() throws Exception
     {
@@ -518,7 +585,7 @@ class TransactionLogsRecoveryTest
             CorruptedLogsTruncator logPruner = new CorruptedLogsTruncator( storeDir, logFiles, fileSystem );
             monitors.addMonitorListener( monitor );
             life.add( new TransactionLogsRecovery( new DefaultRecoveryService( storageEngine, tailScanner, transactionIdStore,
-                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ) ),
+                    txStore, versionRepository, logFiles, NO_MONITOR, mock( Log.class ), jobScheduler, false ),
                     logPruner, schemaLife, monitor, ProgressReporter.SILENT, false, startupChecker ) );
 
             life.start();
@@ -33,6 +33,12 @@ public class AbsentNativeAccess implements NativeAccess
         return NativeCallResult.SUCCESS;
     }
 
+    @Override
+    public NativeCallResult tryEvictFromCache( int fd, long offset, long length )
+    {
+        return NativeCallResult.SUCCESS;
+    }
+
     @Override
     public NativeCallResult tryAdviseSequentialAccess( int fd )
     {
@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+
+/**
+ * Allocates native memory directly from the Linux kernel, with anonymous memory mappings, such that the memory can be
+ * backed by explicit huge pages, and placed on specific NUMA nodes.
+ * <p>
+ * Every step is best effort: if no explicit huge pages are reserved with {@code vm.nr_hugepages}, the mapping is made
+ * with normal pages and marked as eligible for transparent huge pages instead; if the memory policy cannot be set, the
+ * memory is placed by the default first touch policy. Only when no mapping can be made at all, does {@link #map(long,
+ * boolean, NumaPolicy)} return zero, and the caller should then allocate the memory by other means.
+ */
+public final class AnonymousMemory
+{
+    /**
+     * How pages of memory are placed on the NUMA nodes of the system.
+     */
+    public enum NumaPolicy
+    {
+        /**
+         * Leave placement to the operating system, which by default puts pages on the node of the CPU that first
+         * touches them.
+         */
+        DEFAULT,
+        /**
+         * Spread the pages evenly over all the nodes, so that no single node has its memory bandwidth exhausted by
+         * threads on other nodes.
+         */
+        INTERLEAVE,
+        /**
+         * Put the pages on the node of the CPU that first touches them, even if the process has been started with
+         * another memory policy, for instance by {@code numactl}.
+         */
+        LOCAL
+    }
+
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_PRIVATE = 0x02;
+    private static final int MAP_ANONYMOUS = 0x20;
+    private static final int MAP_HUGETLB = 0x40000;
+    private static final int MADV_HUGEPAGE = 14;
+    private static final int MPOL_INTERLEAVE = 3;
+    private static final int MPOL_LOCAL = 4;
+    private static final long MAP_FAILED = -1;
+    private static final long DEFAULT_HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+    private static final LibC LIBC;
+    private static final boolean AVAILABLE;
+    private static final Throwable INITIALIZATION_FAILURE;
+    private static final long HUGE_PAGE_SIZE = readHugePageSize();
+    private static final long SYS_MBIND = mbindSyscallNumber();
+    private static final BitSet ONLINE_NODES = readOnlineNodes();
+
+    static
+    {
+        LibC libc = null;
+        boolean available = false;
+        Throwable initFailure = null;
+        try
+        {
+            if ( Platform.isLinux() )
+            {
+                libc = Native.load( Platform.C_LIBRARY_NAME, LibC.class );
+                available = true;
+            }
+        }
+        catch ( Throwable t )
+        {
+            initFailure = t;
+        }
+        LIBC = libc;
+        AVAILABLE = available;
+        INITIALIZATION_FAILURE = initFailure;
+    }
+
+    interface LibC extends Library
+    {
+        Pointer mmap( Pointer address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+        int munmap( Pointer address, long length ) throws LastErrorException;
+
+        int madvise( Pointer address, long length, int advice ) throws LastErrorException;
+
+        // The syscall arguments are read as longs by the C library, so they should all be passed as longs or pointers.
+        long syscall( long number, Object... args ) throws LastErrorException;
+    }
+
+    private AnonymousMemory()
+    {
+    }
+
+    /**
+     * @return {@code true} if memory can be mapped with this class on this system.
+     */
+    public static boolean isAvailable()
+    {
+        return AVAILABLE;
+    }
+
+    /**
+     * @return a description of why anonymous memory mappings are or are not available.
+     */
+    public static String describe()
+    {
+        if ( AVAILABLE )
+        {
+            return "Anonymous memory mappings are available, with " + HUGE_PAGE_SIZE + " byte huge pages, and " +
+                    ONLINE_NODES.cardinality() + " NUMA node(s).";
+        }
+        StringBuilder description = new StringBuilder( "Anonymous memory mappings are not available." );
+        if ( INITIALIZATION_FAILURE != null )
+        {
+            description.append( " Details: " ).append( getStackTrace( INITIALIZATION_FAILURE ) );
+        }
+        return description.toString();
+    }
+
+    /**
+     * @return the size in bytes of the default huge pages of the system. Memory that is mapped with huge pages should
+     * be a multiple of this size, or the remainder of the last huge page is wasted.
+     */
+    public static long hugePageSize()
+    {
+        return HUGE_PAGE_SIZE;
+    }
+
+    /**
+     * Map the given amount of zeroed, readable and writable memory.
+     *
+     * @param bytes the size of the mapping. Huge page mappings are rounded up to a multiple of {@link #hugePageSize()}
+     * by the kernel, and must be unmapped with the same size as they were mapped with.
+     * @param hugePages {@code true} if the memory should be backed by huge pages.
+     * @param numaPolicy the placement of the memory on the NUMA nodes.
+     * @return the address of the mapping, or zero if no mapping could be made.
+     */
+    public static long map( long bytes, boolean hugePages, NumaPolicy numaPolicy )
+    {
+        if ( !AVAILABLE )
+        {
+            return 0;
+        }
+        long address = 0;
+        if ( hugePages )
+        {
+            // This fails if the system does not have enough explicit huge pages reserved.
+            address = tryMap( bytes, MAP_HUGETLB );
+        }
+        if ( address == 0 )
+        {
+            address = tryMap( bytes, 0 );
+            if ( address != 0 && hugePages )
+            {
+                Pointer pointer = new Pointer( address );
+                tryCall( () -> LIBC.madvise( pointer, bytes, MADV_HUGEPAGE ) );
+            }
+        }
+        if ( address != 0 )
+        {
+            bind( address, bytes, numaPolicy );
+        }
+        return address;
+    }
+
+    /**
+     * Unmap memory that was mapped with {@link #map(long, boolean, NumaPolicy)}.
+     */
+    public static void unmap( long address, long bytes )
+    {
+        if ( address != 0 )
+        {
+            LIBC.munmap( new Pointer( address ), bytes );
+        }
+    }
+
+    private static long tryMap( long bytes, int extraFlags )
+    {
+        try
+        {
+            // The memory is not touched here, so the pages are not placed on any node until after we set the policy.
+            // Huge pages are reserved by the mapping, so running out of them makes the mapping fail, rather than the first touch.
+            Pointer pointer = LIBC.mmap( null, bytes, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANONYMOUS | extraFlags, -1, 0 );
+            long address = Pointer.nativeValue( pointer );
+            return address == MAP_FAILED ? 0 : address;
+        }
+        catch ( LastErrorException e )
+        {
+            return 0;
+        }
+    }
+
+    private static void bind( long address, long bytes, NumaPolicy numaPolicy )
+    {
+        // A memory policy makes no difference on a system with a single node.
+        if ( numaPolicy == NumaPolicy.DEFAULT || SYS_MBIND == -1 || ONLINE_NODES.cardinality() < 2 )
+        {
+            return;
+        }
+        if ( numaPolicy == NumaPolicy.LOCAL )
+        {
+            tryCall( () -> LIBC.syscall( SYS_MBIND, address, bytes, (long) MPOL_LOCAL, Pointer.NULL, 0L, 0L ) );
+            return;
+        }
+        long[] words = ONLINE_NODES.toLongArray();
+        Memory nodeMask = new Memory( (long) words.length * Long.BYTES );
+        nodeMask.write( 0, words, 0, words.length );
+        // The kernel reads one bit less than maxnode, for historical reasons.
+        long maxNode = (long) words.length * Long.SIZE + 1;
+        tryCall( () -> LIBC.syscall( SYS_MBIND, address, bytes, (long) MPOL_INTERLEAVE, nodeMask, maxNode, 0L ) );
+    }
+
+    private static void tryCall( Runnable call )
+    {
+        try
+        {
+            call.run();
+        }
+        catch ( LastErrorException e )
+        {
+            // All memory placement advice is best effort.
+        }
+    }
+
+    private static long mbindSyscallNumber()
+    {
+        if ( Platform.is64Bit() && Platform.isIntel() )
+        {
+            return 237;
+        }
+        if ( Platform.is64Bit() && Platform.isARM() )
+        {
+            return 235;
+        }
+        return -1;
+    }
+
+    private static long readHugePageSize()
+    {
+        try
+        {
+            for ( String line : Files.readAllLines( Path.of( "/proc/meminfo" ) ) )
+            {
+                if ( line.startsWith( "Hugepagesize:" ) )
+                {
+                    String[] parts = line.substring( "Hugepagesize:".length() ).trim().split( "\\s+" );
+                    return Long.parseLong( parts[0] ) * 1024;
+                }
+            }
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // Use the default below.
+        }
+        return DEFAULT_HUGE_PAGE_SIZE;
+    }
+
+    private static BitSet readOnlineNodes()
+    {
+        try
+        {
+            List<String> lines = Files.readAllLines( Path.of( "/sys/devices/system/node/online" ) );
+            return lines.isEmpty() ? new BitSet() : parseNodeList( lines.get( 0 ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            return new BitSet();
+        }
+    }
+
+    /**
+     * Parse a node list in the format used by the kernel, like {@code 0-3,6}.
+     */
+    static BitSet parseNodeList( String nodeList )
+    {
+        BitSet nodes = new BitSet();
+        for ( String range : nodeList.trim().split( "," ) )
+        {
+            if ( range.isEmpty() )
+            {
+                continue;
+            }
+            int dash = range.indexOf( '-' );
+            if ( dash == -1 )
+            {
+                nodes.set( Integer.parseInt( range ) );
+            }
+            else
+            {
+                nodes.set( Integer.parseInt( range.substring( 0, dash ) ), Integer.parseInt( range.substring( dash + 1 ) ) + 1 );
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Memory;
+import com.sun.jna.Native;
+import com.sun.jna.Platform;
+import com.sun.jna.Pointer;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+
+import static org.apache.commons.lang3.exception.ExceptionUtils.getStackTrace;
+
+/**
+ * A minimal binding to the Linux io_uring interface, for submitting batches of vectored reads and writes, and file
+ * syncs, to the kernel with a single system call, and reaping their completions.
+ * <p>
+ * The submission and completion queues are shared with the kernel through memory mappings, and are accessed directly,
+ * so an instance of this class must only be used by one thread at a time. Memory buffers are given as raw native
+ * addresses.
+ * <p>
+ * io_uring is available on Linux kernels from 5.1, but it may also be disabled by the system administrator, or by a
+ * seccomp filter. Use {@link #isAvailable()} to find out if it can be used.
+ */
+public final class IoUring implements AutoCloseable
+{
+    /**
+     * The maximum number of buffers in a single read or write entry. Larger vectors are split into multiple entries,
+     * which the kernel is free to process in parallel.
+     */
+    public static final int MAX_BUFFERS_PER_ENTRY = 32;
+
+    // System call numbers. These are the same on all architectures, since io_uring was added after the unification.
+    private static final long SYS_IO_URING_SETUP = 425;
+    private static final long SYS_IO_URING_ENTER = 426;
+
+    private static final byte IORING_OP_READV = 1;
+    private static final byte IORING_OP_WRITEV = 2;
+    private static final byte IORING_OP_FSYNC = 3;
+    private static final int IORING_FSYNC_DATASYNC = 1;
+    private static final int IORING_ENTER_GETEVENTS = 1;
+    private static final long IORING_OFF_SQ_RING = 0L;
+    private static final long IORING_OFF_CQ_RING = 0x8000000L;
+    private static final long IORING_OFF_SQES = 0x10000000L;
+
+    private static final int PROT_READ = 0x1;
+    private static final int PROT_WRITE = 0x2;
+    private static final int MAP_SHARED = 0x01;
+    private static final int MAP_POPULATE = 0x8000;
+    private static final int EINTR = 4;
+
+    // struct io_uring_params: 10 ints, then struct io_sqring_offsets and struct io_cqring_offsets, 40 bytes each.
+    private static final int PARAMS_SIZE = 120;
+    private static final int PARAMS_SQ_ENTRIES = 0;
+    private static final int PARAMS_CQ_ENTRIES = 4;
+    private static final int PARAMS_SQ_OFF = 40;
+    private static final int PARAMS_CQ_OFF = 80;
+    private static final int SQ_OFF_HEAD = 0;
+    private static final int SQ_OFF_TAIL = 4;
+    private static final int SQ_OFF_RING_MASK = 8;
+    private static final int SQ_OFF_ARRAY = 24;
+    private static final int CQ_OFF_HEAD = 0;
+    private static final int CQ_OFF_TAIL = 4;
+    private static final int CQ_OFF_RING_MASK = 8;
+    private static final int CQ_OFF_CQES = 20;
+
+    // struct io_uring_sqe
+    private static final int SQE_SIZE = 64;
+    private static final int SQE_OPCODE = 0;
+    private static final int SQE_FD = 4;
+    private static final int SQE_OFF = 8;
+    private static final int SQE_ADDR = 16;
+    private static final int SQE_LEN = 24;
+    private static final int SQE_RW_FLAGS = 28;
+    private static final int SQE_USER_DATA = 32;
+
+    // struct io_uring_cqe
+    private static final int CQE_SIZE = 16;
+    private static final int CQE_USER_DATA = 0;
+    private static final int CQE_RES = 8;
+
+    // struct iovec
+    private static final int IOVEC_SIZE = 16;
+
+    private static final LibC LIBC;
+    private static final boolean AVAILABLE;
+    private static final Throwable INITIALIZATION_FAILURE;
+
+    static
+    {
+        LibC libc = null;
+        boolean available = false;
+        Throwable initFailure = null;
+        try
+        {
+            if ( Platform.isLinux() )
+            {
+                libc = Native.load( Platform.C_LIBRARY_NAME, LibC.class );
+                // Creating and closing a ring is the only reliable way to find out if io_uring is actually allowed.
+                new IoUring( libc, 1 ).close();
+                available = true;
+            }
+        }
+        catch ( Throwable t )
+        {
+            initFailure = t;
+        }
+        LIBC = libc;
+        AVAILABLE = available;
+        INITIALIZATION_FAILURE = initFailure;
+    }
+
+    interface LibC extends Library
+    {
+        // The syscall arguments are read as longs by the C library, so they should all be passed as longs or pointers.
+        long syscall( long number, Object... args ) throws LastErrorException;
+
+        Pointer mmap( Pointer address, long length, int protection, int flags, int fd, long offset ) throws LastErrorException;
+
+        int munmap( Pointer address, long length ) throws LastErrorException;
+
+        int close( int fd ) throws LastErrorException;
+    }
+
+    private final LibC libc;
+    private final int ringFd;
+    private final int entries;
+    private final Pointer sqRing;
+    private final long sqRingSize;
+    private final Pointer cqRing;
+    private final long cqRingSize;
+    private final Pointer sqes;
+    private final long sqesSize;
+    private final int sqHeadOffset;
+    private final int sqTailOffset;
+    private final int sqMask;
+    private final int sqArrayOffset;
+    private final int cqHeadOffset;
+    private final int cqTailOffset;
+    private final int cqMask;
+    private final int cqesOffset;
+    private final Memory iovecs;
+    private final long[] results;
+    private boolean closed;
+
+    /**
+     * @return {@code true} if io_uring can be used on this system.
+     */
+    public static boolean isAvailable()
+    {
+        return AVAILABLE;
+    }
+
+    /**
+     * @return a description of why io_uring is or is not available.
+     */
+    public static String describe()
+    {
+        if ( AVAILABLE )
+        {
+            return "io_uring is available.";
+        }
+        StringBuilder description = new StringBuilder( "io_uring is not available." );
+        if ( INITIALIZATION_FAILURE != null )
+        {
+            description.append( " Details: " ).append( getStackTrace( INITIALIZATION_FAILURE ) );
+        }
+        return description.toString();
+    }
+
+    /**
+     * Create a new ring, that can hold the given number of entries in flight at a time.
+     *
+     * @param entries the size of the submission queue. Will be rounded up to a power of two by the kernel.
+     * @return the new ring.
+     * @throws IOException if io_uring is not available, or the ring could not be created.
+     */
+    public static IoUring create( int entries ) throws IOException
+    {
+        if ( !AVAILABLE )
+        {
+            throw new IOException( describe() );
+        }
+        return new IoUring( LIBC, entries );
+    }
+
+    private IoUring( LibC libc, int requestedEntries ) throws IOException
+    {
+        this.libc = libc;
+        Memory params = new Memory( PARAMS_SIZE );
+        params.clear();
+        ringFd = (int) syscall( libc, SYS_IO_URING_SETUP, (long) requestedEntries, params );
+        Pointer mappedSqRing = null;
+        long mappedSqRingSize = 0;
+        Pointer mappedCqRing = null;
+        long mappedCqRingSize = 0;
+        try
+        {
+            entries = params.getInt( PARAMS_SQ_ENTRIES );
+            int cqEntries = params.getInt( PARAMS_CQ_ENTRIES );
+            sqHeadOffset = params.getInt( PARAMS_SQ_OFF + SQ_OFF_HEAD );
+            sqTailOffset = params.getInt( PARAMS_SQ_OFF + SQ_OFF_TAIL );
+            int sqMaskOffset = params.getInt( PARAMS_SQ_OFF + SQ_OFF_RING_MASK );
+            sqArrayOffset = params.getInt( PARAMS_SQ_OFF + SQ_OFF_ARRAY );
+            cqHeadOffset = params.getInt( PARAMS_CQ_OFF + CQ_OFF_HEAD );
+            cqTailOffset = params.getInt( PARAMS_CQ_OFF + CQ_OFF_TAIL );
+            int cqMaskOffset = params.getInt( PARAMS_CQ_OFF + CQ_OFF_RING_MASK );
+            cqesOffset = params.getInt( PARAMS_CQ_OFF + CQ_OFF_CQES );
+
+            mappedSqRingSize = sqArrayOffset + (long) entries * Integer.BYTES;
+            mappedSqRing = mmap( mappedSqRingSize, IORING_OFF_SQ_RING );
+            mappedCqRingSize = cqesOffset + (long) cqEntries * CQE_SIZE;
+            mappedCqRing = mmap( mappedCqRingSize, IORING_OFF_CQ_RING );
+            sqMask = mappedSqRing.getInt( sqMaskOffset );
+            cqMask = mappedCqRing.getInt( cqMaskOffset );
+            sqesSize = (long) entries * SQE_SIZE;
+            sqes = mmap( sqesSize, IORING_OFF_SQES );
+            sqRing = mappedSqRing;
+            sqRingSize = mappedSqRingSize;
+            cqRing = mappedCqRing;
+            cqRingSize = mappedCqRingSize;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            if ( mappedCqRing != null )
+            {
+                libc.munmap( mappedCqRing, mappedCqRingSize );
+            }
+            if ( mappedSqRing != null )
+            {
+                libc.munmap( mappedSqRing, mappedSqRingSize );
+            }
+            libc.close( ringFd );
+            throw e;
+        }
+        iovecs = new Memory( (long) entries * MAX_BUFFERS_PER_ENTRY * IOVEC_SIZE );
+        results = new long[entries];
+    }
+
+    /**
+     * @return the number of entries that can be submitted in one batch.
+     */
+    public int entries()
+    {
+        return entries;
+    }
+
+    /**
+     * Read consecutive file data into the given buffers, all of the same size, with as few system calls as possible.
+     *
+     * @return the total number of bytes read. This is less than the combined size of the buffers, if the end of the
+     * file was reached. The contents of the buffers beyond the bytes read are undefined.
+     * @throws IOException if any of the reads failed.
+     */
+    public long read( int fd, long fileOffset, long[] bufferAddresses, int arrayOffset, int length, int bufferSize ) throws IOException
+    {
+        return vectored( IORING_OP_READV, fd, fileOffset, bufferAddresses, arrayOffset, length, bufferSize );
+    }
+
+    /**
+     * Write the contents of the given buffers, all of the same size, consecutively into the file, with as few system
+     * calls as possible.
+     *
+     * @return the total number of bytes written.
+     * @throws IOException if any of the writes failed.
+     */
+    public long write( int fd, long fileOffset, long[] bufferAddresses, int arrayOffset, int length, int bufferSize ) throws IOException
+    {
+        return vectored( IORING_OP_WRITEV, fd, fileOffset, bufferAddresses, arrayOffset, length, bufferSize );
+    }
+
+    /**
+     * Force the data of the given file to the storage device, like {@code fdatasync}.
+     *
+     * @throws IOException if the sync failed.
+     */
+    public void dataSync( int fd ) throws IOException
+    {
+        assertOpen();
+        int tail = sqTail();
+        long sqe = prepareEntry( tail, 0, IORING_OP_FSYNC, fd, 0 );
+        sqes.setInt( sqe + SQE_RW_FLAGS, IORING_FSYNC_DATASYNC );
+        submitAndAwait( tail, 1 );
+        checkResult( "fdatasync", results[0] );
+    }
+
+    /**
+     * Read into, or write from, single buffers at unrelated positions of possibly different files, with a single
+     * system call. The outcome of each operation is put into the given results array, as either the number of bytes
+     * transferred, or the negated error number of a failed operation.
+     *
+     * @param count the number of operations in the batch. At most {@link #entries()}.
+     * @throws IOException if the operations could not be submitted, or their completions could not be awaited.
+     */
+    public void submitBatch( int count, boolean[] writes, int[] fds, long[] fileOffsets, long[] bufferAddresses, int[] bufferSizes, long[] results )
+            throws IOException
+    {
+        assertOpen();
+        if ( count > entries )
+        {
+            throw new IllegalArgumentException( "Cannot submit " + count + " operations to a ring of " + entries + " entries." );
+        }
+        int tail = sqTail();
+        for ( int i = 0; i < count; i++ )
+        {
+            long iovec = (long) i * MAX_BUFFERS_PER_ENTRY * IOVEC_SIZE;
+            iovecs.setLong( iovec, bufferAddresses[i] );
+            iovecs.setLong( iovec + Long.BYTES, bufferSizes[i] );
+            long sqe = prepareEntry( tail, i, writes[i] ? IORING_OP_WRITEV : IORING_OP_READV, fds[i], fileOffsets[i] );
+            sqes.setLong( sqe + SQE_ADDR, Pointer.nativeValue( iovecs ) + iovec );
+            sqes.setInt( sqe + SQE_LEN, 1 );
+        }
+        submitAndAwait( tail, count );
+        System.arraycopy( this.results, 0, results, 0, count );
+    }
+
+    private long vectored( byte opcode, int fd, long fileOffset, long[] bufferAddresses, int arrayOffset, int length, int bufferSize )
+            throws IOException
+    {
+        assertOpen();
+        long total = 0;
+        int done = 0;
+        while ( done < length )
+        {
+            int tail = sqTail();
+            int count = 0;
+            while ( done < length && count < entries )
+            {
+                int buffers = Math.min( MAX_BUFFERS_PER_ENTRY, length - done );
+                long iovecBase = (long) count * MAX_BUFFERS_PER_ENTRY * IOVEC_SIZE;
+                for ( int i = 0; i < buffers; i++ )
+                {
+                    long iovec = iovecBase + (long) i * IOVEC_SIZE;
+                    iovecs.setLong( iovec, bufferAddresses[arrayOffset + done + i] );
+                    iovecs.setLong( iovec + Long.BYTES, bufferSize );
+                }
+                long sqe = prepareEntry( tail, count, opcode, fd, fileOffset + (long) done * bufferSize );
+                sqes.setLong( sqe + SQE_ADDR, Pointer.nativeValue( iovecs ) + iovecBase );
+                sqes.setInt( sqe + SQE_LEN, buffers );
+                done += buffers;
+                count++;
+            }
+            submitAndAwait( tail, count );
+            for ( int i = 0; i < count; i++ )
+            {
+                total += checkResult( opcode == IORING_OP_READV ? "readv" : "writev", results[i] );
+            }
+        }
+        return total;
+    }
+
+    private long prepareEntry( int tail, int index, byte opcode, int fd, long fileOffset )
+    {
+        int slot = (tail + index) & sqMask;
+        long sqe = (long) slot * SQE_SIZE;
+        sqes.setMemory( sqe, SQE_SIZE, (byte) 0 );
+        sqes.setByte( sqe + SQE_OPCODE, opcode );
+        sqes.setInt( sqe + SQE_FD, fd );
+        sqes.setLong( sqe + SQE_OFF, fileOffset );
+        sqes.setLong( sqe + SQE_USER_DATA, index );
+        sqRing.setInt( sqArrayOffset + (long) slot * Integer.BYTES, slot );
+        return sqe;
+    }
+
+    private int sqTail()
+    {
+        return sqRing.getInt( sqTailOffset );
+    }
+
+    private void submitAndAwait( int tail, int count ) throws IOException
+    {
+        // The entries must be visible to the kernel before the new tail is.
+        VarHandle.releaseFence();
+        sqRing.setInt( sqTailOffset, tail + count );
+        VarHandle.fullFence();
+
+        int toSubmit = count;
+        int completed = 0;
+        while ( completed < count )
+        {
+            int submitted = (int) syscallRetryingOnInterrupt( toSubmit, count - completed );
+            toSubmit -= Math.min( toSubmit, submitted );
+            completed += reapCompletions();
+        }
+    }
+
+    private int reapCompletions()
+    {
+        int head = cqRing.getInt( cqHeadOffset );
+        int cqTail = cqRing.getInt( cqTailOffset );
+        // The completion entries must not be read before the tail that announced them.
+        VarHandle.acquireFence();
+        int reaped = 0;
+        while ( head != cqTail )
+        {
+            long cqe = cqesOffset + (long) (head & cqMask) * CQE_SIZE;
+            int index = (int) cqRing.getLong( cqe + CQE_USER_DATA );
+            results[index] = cqRing.getInt( cqe + CQE_RES );
+            head++;
+            reaped++;
+        }
+        // We must be done reading the entries before the kernel is allowed to overwrite them.
+        VarHandle.releaseFence();
+        cqRing.setInt( cqHeadOffset, head );
+        return reaped;
+    }
+
+    private long syscallRetryingOnInterrupt( int toSubmit, int minComplete ) throws IOException
+    {
+        for ( ;; )
+        {
+            try
+            {
+                return libc.syscall( SYS_IO_URING_ENTER, (long) ringFd, (long) toSubmit, (long) minComplete, (long) IORING_ENTER_GETEVENTS, null, 0L );
+            }
+            catch ( LastErrorException e )
+            {
+                if ( e.getErrorCode() != EINTR )
+                {
+                    throw new IOException( "io_uring_enter failed: " + e.getMessage(), e );
+                }
+            }
+        }
+    }
+
+    private static long checkResult( String operation, long result ) throws IOException
+    {
+        if ( result < 0 )
+        {
+            throw new IOException( operation + " through io_uring failed with error number " + -result + "." );
+        }
+        return result;
+    }
+
+    private static long syscall( LibC libc, long number, Object... args ) throws IOException
+    {
+        try
+        {
+            return libc.syscall( number, args );
+        }
+        catch ( LastErrorException e )
+        {
+            throw new IOException( "io_uring_setup failed: " + e.getMessage(), e );
+        }
+    }
+
+    private Pointer mmap( long size, long offset ) throws IOException
+    {
+        try
+        {
+            return libc.mmap( null, size, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd, offset );
+        }
+        catch ( LastErrorException e )
+        {
+            throw new IOException( "Could not map io_uring queue: " + e.getMessage(), e );
+        }
+    }
+
+    private void assertOpen() throws IOException
+    {
+        if ( closed )
+        {
+            throw new IOException( "This io_uring has been closed." );
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed )
+        {
+            return;
+        }
+        closed = true;
+        libc.munmap( sqes, sqesSize );
+        libc.munmap( cqRing, cqRingSize );
+        libc.munmap( sqRing, sqRingSize );
+        libc.close( ringFd );
+    }
+}
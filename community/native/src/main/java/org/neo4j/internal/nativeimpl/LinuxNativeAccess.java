@@ -119,6 +119,20 @@ public class LinuxNativeAccess implements NativeAccess
         return wrapResult( () -> posix_fadvise( fd, 0, 0, POSIX_FADV_DONTNEED ) );
     }
 
+    @Override
+    public NativeCallResult tryEvictFromCache( int fd, long offset, long length )
+    {
+        if ( fd <= 0 )
+        {
+            return new NativeCallResult( NativeAccess.ERROR, "Incorrect file descriptor." );
+        }
+        if ( offset < 0 || length <= 0 )
+        {
+            return new NativeCallResult( NativeAccess.ERROR, "Incorrect region to evict. Offset: " + offset + ", length: " + length );
+        }
+        return wrapResult( () -> posix_fadvise( fd, offset, length, POSIX_FADV_DONTNEED ) );
+    }
+
     @Override
     public NativeCallResult tryAdviseSequentialAccess( int fd )
     {
@@ -45,6 +45,17 @@ public interface NativeAccess
      */
     NativeCallResult tryEvictFromCache( int fd );
 
+    /**
+     * Try to evict cached pages of the given region of the file referenced by provided file descriptor.
+     * Useful for the parts of files that we have written and forced, and will not read again any time soon. For example: the head of the
+     * current log file.
+     * @param fd file descriptor
+     * @param offset offset of the region in the file
+     * @param length length of the region in bytes
+     * @return returns zero on success, or an error number on failure
+     */
+    NativeCallResult tryEvictFromCache( int fd, long offset, long length );
+
     /**
      * Try to advice that file referenced by provided file descriptor will be accessed in a sequential fashion.
      * Useful for files that we will read from start to the end sequentially. For example: WAL files.
@@ -41,6 +41,7 @@ class AbsentNativeAccessTest
         assertFalse( absentNativeAccess.tryEvictFromCache( 1 ).isError() );
         assertFalse( absentNativeAccess.tryEvictFromCache( 2 ).isError() );
         assertFalse( absentNativeAccess.tryEvictFromCache( -1 ).isError() );
+        assertFalse( absentNativeAccess.tryEvictFromCache( 1, 0, 4096 ).isError() );
     }
 
     @Test
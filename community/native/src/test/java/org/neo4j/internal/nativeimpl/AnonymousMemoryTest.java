@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.nativeimpl;
+
+import com.sun.jna.Pointer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import java.util.BitSet;
+
+import org.neo4j.internal.nativeimpl.AnonymousMemory.NumaPolicy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnonymousMemoryTest
+{
+    @Test
+    void mustParseNodeLists()
+    {
+        assertEquals( nodes( 0 ), AnonymousMemory.parseNodeList( "0\n" ) );
+        assertEquals( nodes( 0, 1, 2, 3 ), AnonymousMemory.parseNodeList( "0-3" ) );
+        assertEquals( nodes( 0, 1, 4, 6, 7 ), AnonymousMemory.parseNodeList( "0-1,4,6-7" ) );
+    }
+
+    @Test
+    @EnabledOnOs( OS.LINUX )
+    void mustMapUsableMemoryWithAnyCombinationOfOptions()
+    {
+        assertTrue( AnonymousMemory.isAvailable(), AnonymousMemory.describe() );
+        long bytes = AnonymousMemory.hugePageSize();
+        for ( boolean hugePages : new boolean[]{false, true} )
+        {
+            for ( NumaPolicy numaPolicy : NumaPolicy.values() )
+            {
+                long address = AnonymousMemory.map( bytes, hugePages, numaPolicy );
+                assertNotEquals( 0, address );
+                try
+                {
+                    Pointer pointer = new Pointer( address );
+                    assertEquals( 0, pointer.getLong( bytes - Long.BYTES ) );
+                    pointer.setLong( 0, 42 );
+                    pointer.setLong( bytes - Long.BYTES, 43 );
+                    assertEquals( 42, pointer.getLong( 0 ) );
+                    assertEquals( 43, pointer.getLong( bytes - Long.BYTES ) );
+                }
+                finally
+                {
+                    AnonymousMemory.unmap( address, bytes );
+                }
+            }
+        }
+    }
+
+    private static BitSet nodes( int... nodes )
+    {
+        BitSet bitSet = new BitSet();
+        for ( int node : nodes )
+        {
+            bitSet.set( node );
+        }
+        return bitSet;
+    }
+}
@@ -164,6 +164,33 @@ class LinuxNativeAccessTest
                 assertFalse( nativeAccess.tryEvictFromCache( descriptor ).isError() );
             }
         }
+
+        @Test
+        void failToSkipCacheRegionOnLinuxForIncorrectArguments() throws IOException, IllegalAccessException
+        {
+            assertEquals( ERROR, nativeAccess.tryEvictFromCache( 0, 0, 4096 ).getErrorCode() );
+            assertEquals( ERROR, nativeAccess.tryEvictFromCache( -1, 0, 4096 ).getErrorCode() );
+
+            File file = new File( tempFile, "file" );
+            try ( RandomAccessFile randomFile = new RandomAccessFile( file, "rw" ) )
+            {
+                int descriptor = getDescriptor( randomFile );
+                assertEquals( ERROR, nativeAccess.tryEvictFromCache( descriptor, -1, 4096 ).getErrorCode() );
+                assertEquals( ERROR, nativeAccess.tryEvictFromCache( descriptor, 0, 0 ).getErrorCode() );
+            }
+        }
+
+        @Test
+        void skipCacheRegionOnLinuxForCorrectDescriptor() throws IOException, IllegalAccessException
+        {
+            File file = new File( tempFile, "file" );
+            try ( RandomAccessFile randomFile = new RandomAccessFile( file, "rw" ) )
+            {
+                randomFile.setLength( 8192 );
+                int descriptor = getDescriptor( randomFile );
+                assertFalse( nativeAccess.tryEvictFromCache( descriptor, 0, 4096 ).isError() );
+            }
+        }
     }
 
     private void preallocate( File file, long bytes ) throws IOException, IllegalAccessException
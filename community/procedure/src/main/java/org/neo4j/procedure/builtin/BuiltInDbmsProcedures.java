@@ -31,6 +31,9 @@ import org.neo4j.graphdb.Transaction;
 import org.neo4j.internal.kernel.api.procs.ProcedureSignature;
 import org.neo4j.internal.kernel.api.procs.UserFunctionSignature;
 import org.neo4j.internal.kernel.api.security.SecurityContext;
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.tracing.LatencyHistogram;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.query.FunctionInformation;
@@ -84,6 +87,18 @@ public class BuiltInDbmsProcedures
         return results.stream().sorted( Comparator.comparing( c -> c.name ) );
     }
 
+    @Admin
+    @SystemProcedure
+    @Description( "Show the latencies of the page faults and page flushes of the page cache, in nanoseconds. The latencies are counted in " +
+            "buckets that are powers of two wide, and the percentiles are the upper bounds of the buckets that hold them." )
+    @Procedure( name = "dbms.pageCacheLatencies", mode = DBMS )
+    public Stream<PageCacheLatencyResult> pageCacheLatencies()
+    {
+        PageCacheCounters counters = graph.getDependencyResolver().resolveDependency( PageCacheTracer.class );
+        return Stream.of( new PageCacheLatencyResult( "fault", counters.faultLatencies() ),
+                new PageCacheLatencyResult( "flush", counters.flushLatencies() ) );
+    }
+
     @Description( "Attaches a map of data to the transaction. The data will be printed when listing queries, and " +
             "inserted into the query log." )
     @Procedure( name = "tx.setMetaData", mode = DBMS )
@@ -211,6 +226,28 @@ public class BuiltInDbmsProcedures
         }
     }
 
+    public static class PageCacheLatencyResult
+    {
+        public final String operation;
+        public final long count;
+        public final double meanNanos;
+        public final long p50Nanos;
+        public final long p90Nanos;
+        public final long p99Nanos;
+        public final long p999Nanos;
+
+        private PageCacheLatencyResult( String operation, LatencyHistogram latencies )
+        {
+            this.operation = operation;
+            this.count = latencies.count();
+            this.meanNanos = latencies.meanNanos();
+            this.p50Nanos = latencies.percentileNanos( 0.5 );
+            this.p90Nanos = latencies.percentileNanos( 0.9 );
+            this.p99Nanos = latencies.percentileNanos( 0.99 );
+            this.p999Nanos = latencies.percentileNanos( 0.999 );
+        }
+    }
+
     public static class StringResult
     {
         public final String value;
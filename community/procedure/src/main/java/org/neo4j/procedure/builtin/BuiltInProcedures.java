@@ -19,6 +19,8 @@
  */
 package org.neo4j.procedure.builtin;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -50,6 +52,9 @@ import org.neo4j.internal.schema.ConstraintDescriptor;
 import org.neo4j.internal.schema.IndexDescriptor;
 import org.neo4j.internal.schema.IndexProviderDescriptor;
 import org.neo4j.internal.schema.SchemaDescriptor;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.SilentTokenNameLookup;
 import org.neo4j.kernel.api.exceptions.Status;
@@ -57,6 +62,10 @@ import org.neo4j.kernel.api.procedure.SystemProcedure;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.coreapi.InternalTransaction;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.impl.transaction.log.LogicalTransactionStore;
+import org.neo4j.kernel.impl.transaction.log.NoSuchTransactionException;
+import org.neo4j.kernel.impl.transaction.log.changes.ChangeEvent;
+import org.neo4j.kernel.impl.transaction.log.changes.ChangeEventStream;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.procedure.Admin;
 import org.neo4j.procedure.Context;
@@ -64,6 +73,8 @@ import org.neo4j.procedure.Description;
 import org.neo4j.procedure.Mode;
 import org.neo4j.procedure.Name;
 import org.neo4j.procedure.Procedure;
+import org.neo4j.storageengine.api.StorageEngine;
+import org.neo4j.storageengine.api.TransactionIdStore;
 import org.neo4j.values.storable.Value;
 
 import static org.neo4j.internal.helpers.collection.Iterators.asList;
@@ -395,6 +406,52 @@ public class BuiltInProcedures
                 .clearQueryCaches();
     }
 
+    @Admin
+    @Description( "Stream the changes to nodes and relationships made by committed transactions, starting from the given transaction id. " +
+            "The changes of every transaction end with a COMMIT event. At most the given number of transactions are returned; " +
+            "call again from the transaction after the last COMMIT event to follow the changes." )
+    @Procedure( name = "db.changes", mode = READ )
+    public Stream<ChangeResult> changes( @Name( "fromTransactionId" ) long fromTransactionId,
+            @Name( value = "maxTransactions", defaultValue = "1000" ) long maxTransactions ) throws ProcedureException
+    {
+        ChangeEventStream changes;
+        try
+        {
+            changes = new ChangeEventStream( resolver.resolveDependency( LogicalTransactionStore.class ),
+                    resolver.resolveDependency( TransactionIdStore.class ), resolver.resolveDependency( StorageEngine.class ).newEntityChangeDecoder(),
+                    fromTransactionId, maxTransactions );
+        }
+        catch ( NoSuchTransactionException e )
+        {
+            throw new ProcedureException( Status.Transaction.TransactionNotFound, e,
+                    "Transaction %d is no longer in the transaction log", fromTransactionId );
+        }
+        catch ( IOException e )
+        {
+            throw new ProcedureException( Status.Procedure.ProcedureCallFailed, e, "Unable to read the transaction log" );
+        }
+        TokenNameLookup tokens = new SilentTokenNameLookup( kernelTransaction.tokenRead() );
+        return stream( changes ).map( event -> new ChangeResult( event, tokens ) ).onClose( () -> closeChanges( changes ) );
+    }
+
+    @Admin
+    @Description( "List the page cache statistics of the files of the database that are mapped into the page cache, and the pages " +
+            "reserved for and allowed to each file by its page quota. Page hits are counted when the page cursor that observed them is closed." )
+    @Procedure( name = "db.pageCacheFiles", mode = READ )
+    public Stream<PageCacheFileResult> pageCacheFiles() throws ProcedureException
+    {
+        List<PagedFile> pagedFiles;
+        try
+        {
+            pagedFiles = resolver.resolveDependency( PageCache.class ).listExistingMappings();
+        }
+        catch ( IOException e )
+        {
+            throw new ProcedureException( Status.Procedure.ProcedureCallFailed, e, "Unable to list the files mapped into the page cache" );
+        }
+        return pagedFiles.stream().map( PageCacheFileResult::new ).sorted( Comparator.comparing( result -> result.file ) );
+    }
+
     @SystemProcedure
     @Procedure( name = "db.schema.nodeTypeProperties", mode = Mode.READ )
     @Description( "Show the derived property schema of the nodes in tabular form." )
@@ -499,6 +556,18 @@ public class BuiltInProcedures
         return propertyNames;
     }
 
+    private static void closeChanges( ChangeEventStream changes )
+    {
+        try
+        {
+            changes.close();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     private IndexProcedures indexProcedures()
     {
         return new IndexProcedures( kernelTransaction, resolver.resolveDependency( IndexingService.class ) );
@@ -539,6 +608,75 @@ public class BuiltInProcedures
         }
     }
 
+    public static class ChangeResult
+    {
+        public final long transactionId;
+        public final long commitTime;
+        public final String event;      // "NODE_CREATED", "LABEL_ADDED", "RELATIONSHIP_PROPERTY_SET", "COMMIT", ...
+        public final Long entityId;     // node or relationship id
+        public final String token;      // label, relationship type or property key
+        public final Long startNodeId;  // for created and deleted relationships
+        public final Long endNodeId;
+        public final Object before;     // property value before the change, if known
+        public final Object after;      // property value after the change
+
+        private ChangeResult( ChangeEvent event, TokenNameLookup tokens )
+        {
+            this.transactionId = event.transactionId();
+            this.commitTime = event.commitTime();
+            this.event = event.type().name();
+            this.entityId = event.entityId() == -1 ? null : event.entityId();
+            this.token = tokenName( event, tokens );
+            this.startNodeId = event.startNodeId() == -1 ? null : event.startNodeId();
+            this.endNodeId = event.endNodeId() == -1 ? null : event.endNodeId();
+            this.before = event.before() == null ? null : event.before().asObjectCopy();
+            this.after = event.after() == null ? null : event.after().asObjectCopy();
+        }
+
+        private static String tokenName( ChangeEvent event, TokenNameLookup tokens )
+        {
+            switch ( event.type() )
+            {
+            case LABEL_ADDED:
+            case LABEL_REMOVED:
+                return tokens.labelGetName( event.tokenId() );
+            case RELATIONSHIP_CREATED:
+            case RELATIONSHIP_DELETED:
+                return tokens.relationshipTypeGetName( event.tokenId() );
+            case NODE_PROPERTY_SET:
+            case NODE_PROPERTY_REMOVED:
+            case RELATIONSHIP_PROPERTY_SET:
+            case RELATIONSHIP_PROPERTY_REMOVED:
+                return tokens.propertyKeyGetName( event.tokenId() );
+            default:
+                return null;
+            }
+        }
+    }
+
+    public static class PageCacheFileResult
+    {
+        public final String file;
+        public final long pageHits;
+        public final long pageFaults;
+        public final double hitRatio;
+        public final long residentPages;
+        public final long reservedPages;
+        public final long maxPages;
+
+        private PageCacheFileResult( PagedFile pagedFile )
+        {
+            PageFileCounters counters = pagedFile.pageFileCounters();
+            this.file = pagedFile.file().getPath();
+            this.pageHits = counters.hits();
+            this.pageFaults = counters.faults();
+            this.hitRatio = counters.hitRatio();
+            this.residentPages = counters.residentPages();
+            this.reservedPages = counters.reservedPages();
+            this.maxPages = counters.maxPages();
+        }
+    }
+
     public static class BooleanResult
     {
         public BooleanResult( Boolean success )
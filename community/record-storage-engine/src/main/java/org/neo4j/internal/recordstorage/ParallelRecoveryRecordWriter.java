@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.eclipse.collections.api.set.primitive.MutableLongSet;
+import org.eclipse.collections.impl.set.mutable.primitive.LongHashSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.internal.recordstorage.Command.BaseCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCountsCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCountsCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipGroupCommand;
+import org.neo4j.kernel.impl.store.IdUpdateListener;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.DynamicRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.CommandsToApply;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.util.concurrent.WorkSync;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * Writes the records of recovered transactions to the stores on a number of threads.
+ * <p>
+ * Recovered transactions are grouped into runs, where no two transactions write the same record, or touch the same node or
+ * relationship. The records of a run can then be written in any order, and the stores end up as if the transactions had been
+ * applied one after another. The index updates of a transaction only read the nodes and relationships that the transaction
+ * touches, so they also see the same store as they would when applying one transaction after another. This means that the
+ * records of a whole run can be written first, partitioned by record page over a number of threads, after which the index and
+ * counts appliers are run over the transactions of the run, in transaction order.
+ * <p>
+ * Transactions with other commands than node, relationship, property, relationship group and counts commands, like token and
+ * schema commands, are never part of a run with other transactions, and are applied by the ordinary appliers.
+ */
+class ParallelRecoveryRecordWriter
+{
+    private static final int minimumCommandsPerThread = getInteger( ParallelRecoveryRecordWriter.class, "minimumCommandsPerThread", 256 );
+    // Records that are likely to be on the same page are written by the same thread
+    private static final int PARTITION_SHIFT = 6;
+
+    private static final int NODES = 0;
+    private static final int RELATIONSHIPS = 1;
+    private static final int PROPERTIES = 2;
+    private static final int RELATIONSHIP_GROUPS = 3;
+    private static final int NODE_LABELS = 4;
+    private static final int STRINGS = 5;
+    private static final int ARRAYS = 6;
+    private static final int NODE_ENTITIES = 7;
+    private static final int RELATIONSHIP_ENTITIES = 8;
+    private static final int KEY_KINDS = 9;
+
+    private final NeoStores neoStores;
+    private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs;
+    private final JobScheduler scheduler;
+    private final int parallelism;
+    private final MutableLongSet[] runKeys = newKeySets();
+    private final MutableLongSet[] transactionKeys = newKeySets();
+
+    ParallelRecoveryRecordWriter( NeoStores neoStores, Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs,
+            JobScheduler scheduler, int parallelism )
+    {
+        this.neoStores = neoStores;
+        this.idGeneratorWorkSyncs = idGeneratorWorkSyncs;
+        this.scheduler = scheduler;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Find the run of transactions that starts with the given transaction.
+     *
+     * @param first the first transaction of the run.
+     * @return the run, which is either a number of transactions whose records can be written by {@link #write(Run)}, or a single
+     * transaction that has to be applied by the ordinary appliers.
+     */
+    Run nextRun( CommandsToApply first ) throws IOException
+    {
+        Run run = new Run();
+        CommandsToApply transaction = first;
+        try
+        {
+            while ( transaction != null )
+            {
+                List<BaseCommand<?>> commands = new ArrayList<>();
+                if ( !collect( transaction, commands ) )
+                {
+                    if ( run.transactions == 0 )
+                    {
+                        run.recordsWritable = false;
+                        run.transactions = 1;
+                        transaction = transaction.next();
+                    }
+                    break;
+                }
+                if ( conflictsWithRun() )
+                {
+                    break;
+                }
+                for ( int kind = 0; kind < KEY_KINDS; kind++ )
+                {
+                    runKeys[kind].addAll( transactionKeys[kind] );
+                }
+                run.commands.addAll( commands );
+                run.transactions++;
+                transaction = transaction.next();
+            }
+        }
+        finally
+        {
+            clear( runKeys );
+            clear( transactionKeys );
+        }
+        run.end = transaction;
+        return run;
+    }
+
+    /**
+     * Write the records of the given run to the stores, and update the id generators accordingly.
+     */
+    void write( Run run ) throws IOException
+    {
+        List<BaseCommand<?>> commands = run.commands;
+        int threads = Math.max( 1, Math.min( parallelism, commands.size() / minimumCommandsPerThread ) );
+        List<List<BaseCommand<?>>> partitions = new ArrayList<>( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            partitions.add( new ArrayList<>( commands.size() / threads + 1 ) );
+        }
+        for ( BaseCommand<?> command : commands )
+        {
+            partitions.get( partition( command, threads ) ).add( command );
+        }
+
+        List<EnumMap<IdType,ChangedIds>> idUpdates = new ArrayList<>( threads );
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<JobHandle> workers = new ArrayList<>( threads - 1 );
+        for ( int i = 0; i < threads; i++ )
+        {
+            EnumMap<IdType,ChangedIds> partitionIdUpdates = new EnumMap<>( IdType.class );
+            idUpdates.add( partitionIdUpdates );
+            List<BaseCommand<?>> partition = partitions.get( i );
+            Runnable writer = () -> writePartition( partition, new EnqueuingIdUpdateListener( partitionIdUpdates ), failure );
+            if ( i < threads - 1 )
+            {
+                workers.add( scheduler.schedule( Group.RECOVERY, writer ) );
+            }
+            else
+            {
+                writer.run();
+            }
+        }
+        for ( JobHandle worker : workers )
+        {
+            try
+            {
+                worker.waitTermination();
+            }
+            catch ( InterruptedException | ExecutionException e )
+            {
+                throw new IOException( e );
+            }
+        }
+        Throwable throwable = failure.get();
+        if ( throwable instanceof IOException )
+        {
+            throw (IOException) throwable;
+        }
+        if ( throwable instanceof RuntimeException )
+        {
+            throw (RuntimeException) throwable;
+        }
+        if ( throwable != null )
+        {
+            throw (Error) throwable;
+        }
+
+        applyIdUpdates( idUpdates );
+    }
+
+    private void writePartition( List<BaseCommand<?>> commands, IdUpdateListener idUpdateListener, AtomicReference<Throwable> failure )
+    {
+        try
+        {
+            for ( BaseCommand<?> command : commands )
+            {
+                if ( failure.get() != null )
+                {
+                    return;
+                }
+                writeRecord( command, idUpdateListener );
+            }
+        }
+        catch ( Throwable throwable )
+        {
+            if ( !failure.compareAndSet( null, throwable ) )
+            {
+                failure.get().addSuppressed( throwable );
+            }
+        }
+    }
+
+    private void writeRecord( BaseCommand<?> command, IdUpdateListener idUpdateListener )
+    {
+        if ( command instanceof NodeCommand )
+        {
+            neoStores.getNodeStore().updateRecord( ((NodeCommand) command).getAfter(), idUpdateListener );
+        }
+        else if ( command instanceof RelationshipCommand )
+        {
+            neoStores.getRelationshipStore().updateRecord( ((RelationshipCommand) command).getAfter(), idUpdateListener );
+        }
+        else if ( command instanceof PropertyCommand )
+        {
+            neoStores.getPropertyStore().updateRecord( ((PropertyCommand) command).getAfter(), idUpdateListener );
+        }
+        else
+        {
+            neoStores.getRelationshipGroupStore().updateRecord( ((RelationshipGroupCommand) command).getAfter(), idUpdateListener );
+        }
+    }
+
+    private void applyIdUpdates( List<EnumMap<IdType,ChangedIds>> idUpdates ) throws IOException
+    {
+        for ( EnumMap<IdType,ChangedIds> partitionIdUpdates : idUpdates )
+        {
+            for ( Map.Entry<IdType,ChangedIds> idChanges : partitionIdUpdates.entrySet() )
+            {
+                idChanges.getValue().applyAsync( idGeneratorWorkSyncs.get( idChanges.getKey() ) );
+            }
+        }
+        try
+        {
+            for ( EnumMap<IdType,ChangedIds> partitionIdUpdates : idUpdates )
+            {
+                for ( ChangedIds changedIds : partitionIdUpdates.values() )
+                {
+                    changedIds.awaitApply();
+                }
+            }
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( "Failed to update id generators", e );
+        }
+    }
+
+    /**
+     * Collect the record commands of the given transaction, and the keys of the records and entities that they touch.
+     *
+     * @return {@code false} if the transaction has commands whose records cannot be written by this writer.
+     */
+    private boolean collect( CommandsToApply transaction, List<BaseCommand<?>> commands ) throws IOException
+    {
+        clear( transactionKeys );
+        return !transaction.accept( command -> !collect( command, commands ) );
+    }
+
+    private boolean collect( StorageCommand command, List<BaseCommand<?>> commands )
+    {
+        if ( command instanceof NodeCountsCommand || command instanceof RelationshipCountsCommand )
+        {
+            return true;
+        }
+        if ( command instanceof NodeCommand )
+        {
+            NodeCommand nodeCommand = (NodeCommand) command;
+            transactionKeys[NODE_ENTITIES].add( nodeCommand.getKey() );
+            if ( !addRecord( NODES, nodeCommand.getKey() ) || !addDynamicRecords( nodeCommand.getAfter().getDynamicLabelRecords() ) )
+            {
+                return false;
+            }
+        }
+        else if ( command instanceof RelationshipCommand )
+        {
+            transactionKeys[RELATIONSHIP_ENTITIES].add( ((RelationshipCommand) command).getKey() );
+            if ( !addRecord( RELATIONSHIPS, ((RelationshipCommand) command).getKey() ) )
+            {
+                return false;
+            }
+        }
+        else if ( command instanceof RelationshipGroupCommand )
+        {
+            if ( !addRecord( RELATIONSHIP_GROUPS, ((RelationshipGroupCommand) command).getKey() ) )
+            {
+                return false;
+            }
+        }
+        else if ( command instanceof PropertyCommand )
+        {
+            PropertyCommand propertyCommand = (PropertyCommand) command;
+            addOwner( propertyCommand.getBefore() );
+            addOwner( propertyCommand.getAfter() );
+            if ( !addRecord( PROPERTIES, propertyCommand.getKey() ) || !addPropertyValueRecords( propertyCommand.getAfter() ) )
+            {
+                return false;
+            }
+        }
+        else
+        {
+            return false;
+        }
+        commands.add( (BaseCommand<?>) command );
+        return true;
+    }
+
+    private void addOwner( PropertyRecord record )
+    {
+        if ( record.isNodeSet() )
+        {
+            transactionKeys[NODE_ENTITIES].add( record.getNodeId() );
+        }
+        else if ( record.isRelSet() )
+        {
+            transactionKeys[RELATIONSHIP_ENTITIES].add( record.getRelId() );
+        }
+    }
+
+    private boolean addPropertyValueRecords( PropertyRecord record )
+    {
+        if ( record.inUse() )
+        {
+            for ( PropertyBlock block : record )
+            {
+                if ( !block.isLight() && !addDynamicRecords( block.getValueRecords() ) )
+                {
+                    return false;
+                }
+            }
+        }
+        return addDynamicRecords( record.getDeletedRecords() );
+    }
+
+    private boolean addDynamicRecords( Iterable<DynamicRecord> records )
+    {
+        for ( DynamicRecord record : records )
+        {
+            PropertyType type = record.getType();
+            int kind = type == PropertyType.STRING ? STRINGS : type == PropertyType.ARRAY ? ARRAYS : NODE_LABELS;
+            if ( !addRecord( kind, record.getId() ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean addRecord( int kind, long id )
+    {
+        // A record that is written twice by the same transaction is not something we can write in any order
+        return transactionKeys[kind].add( id );
+    }
+
+    private boolean conflictsWithRun()
+    {
+        for ( int kind = 0; kind < KEY_KINDS; kind++ )
+        {
+            MutableLongSet keys = runKeys[kind];
+            if ( !keys.isEmpty() && transactionKeys[kind].anySatisfy( keys::contains ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int partition( BaseCommand<?> command, int partitions )
+    {
+        long page = command.getKey() >>> PARTITION_SHIFT;
+        int hash = 31 * command.getClass().hashCode() + Long.hashCode( page * 0x9E3779B97F4A7C15L );
+        return Math.floorMod( hash, partitions );
+    }
+
+    private static MutableLongSet[] newKeySets()
+    {
+        MutableLongSet[] keys = new MutableLongSet[KEY_KINDS];
+        for ( int kind = 0; kind < KEY_KINDS; kind++ )
+        {
+            keys[kind] = new LongHashSet();
+        }
+        return keys;
+    }
+
+    private static void clear( MutableLongSet[] keys )
+    {
+        for ( MutableLongSet set : keys )
+        {
+            set.clear();
+        }
+    }
+
+    /**
+     * A run of recovered transactions, that ends just before {@link #end}.
+     */
+    static class Run
+    {
+        private final List<BaseCommand<?>> commands = new ArrayList<>();
+        private CommandsToApply end;
+        private int transactions;
+        private boolean recordsWritable = true;
+
+        /**
+         * @return the transaction after the last transaction of this run, or {@code null} if the run ends the batch.
+         */
+        CommandsToApply end()
+        {
+            return end;
+        }
+
+        /**
+         * @return {@code true} if the records of this run are to be written by {@link #write(Run)}, or {@code false} if the single
+         * transaction of this run has to be applied by the ordinary appliers.
+         */
+        boolean recordsWritable()
+        {
+            return recordsWritable;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.CommandStream;
+import org.neo4j.storageengine.api.EntityChangeDecoder;
+import org.neo4j.storageengine.api.EntityChangeVisitor;
+import org.neo4j.values.storable.Value;
+
+import static org.neo4j.kernel.impl.store.NodeLabelsField.parseLabelsField;
+
+/**
+ * Decodes {@link NodeCommand node}, {@link RelationshipCommand relationship} and {@link PropertyCommand property} commands into
+ * logical changes, in the same way as {@link OnlineIndexUpdates} does, except that nothing is read from the store. The commands
+ * may be read from the log long after they were applied, and the records they point to may since have been reused.
+ * <p>
+ * The commands carry the dynamic records of labels and property values that were written by the transaction, but not of the
+ * ones it deleted. Dynamic label lists that are not in the commands leave the labels of that node unreported, and string and
+ * array values that are not in the commands are reported as {@code null}.
+ */
+class RecordEntityChangeDecoder implements EntityChangeDecoder
+{
+    private static final Comparator<PropertyBlock> BLOCK_COMPARATOR = Comparator.comparingInt( PropertyBlock::getKeyIndexId );
+    private static final long[] NO_LABELS = new long[0];
+
+    private final PropertyStore propertyStore;
+    private final EntityCommandGrouper<NodeCommand> nodeCommands = new EntityCommandGrouper<>( NodeCommand.class, 16 );
+    private final EntityCommandGrouper<RelationshipCommand> relationshipCommands = new EntityCommandGrouper<>( RelationshipCommand.class, 16 );
+    private PropertyBlock[] beforeBlocks = new PropertyBlock[8];
+    private int beforeBlocksCursor;
+    private PropertyBlock[] afterBlocks = new PropertyBlock[8];
+    private int afterBlocksCursor;
+
+    RecordEntityChangeDecoder( PropertyStore propertyStore )
+    {
+        this.propertyStore = propertyStore;
+    }
+
+    @Override
+    public void decode( CommandStream commands, EntityChangeVisitor visitor ) throws IOException
+    {
+        try
+        {
+            commands.accept( command ->
+            {
+                if ( command instanceof NodeCommand )
+                {
+                    nodeCommands.add( (NodeCommand) command );
+                }
+                else if ( command instanceof RelationshipCommand )
+                {
+                    relationshipCommands.add( (RelationshipCommand) command );
+                }
+                else if ( command instanceof PropertyCommand )
+                {
+                    PropertyCommand propertyCommand = (PropertyCommand) command;
+                    if ( propertyCommand.getAfter().isNodeSet() )
+                    {
+                        nodeCommands.add( propertyCommand );
+                    }
+                    else if ( propertyCommand.getAfter().isRelSet() )
+                    {
+                        relationshipCommands.add( propertyCommand );
+                    }
+                }
+                return false;
+            } );
+            decodeNodes( nodeCommands.sortAndAccessGroups(), visitor );
+            decodeRelationships( relationshipCommands.sortAndAccessGroups(), visitor );
+        }
+        finally
+        {
+            nodeCommands.clear();
+            relationshipCommands.clear();
+        }
+    }
+
+    private void decodeNodes( EntityCommandGrouper<NodeCommand>.Cursor nodes, EntityChangeVisitor visitor )
+    {
+        while ( nodes.nextEntity() )
+        {
+            long nodeId = nodes.currentEntityId();
+            NodeCommand command = nodes.currentEntityCommand();
+            if ( command != null && !command.getBefore().inUse() && command.getAfter().inUse() )
+            {
+                visitor.nodeCreated( nodeId );
+            }
+            if ( command != null )
+            {
+                decodeLabels( nodeId, command, visitor );
+            }
+            decodeProperties( nodes, true, visitor );
+            if ( command != null && command.getBefore().inUse() && !command.getAfter().inUse() )
+            {
+                visitor.nodeDeleted( nodeId );
+            }
+        }
+    }
+
+    private void decodeRelationships( EntityCommandGrouper<RelationshipCommand>.Cursor relationships, EntityChangeVisitor visitor )
+    {
+        while ( relationships.nextEntity() )
+        {
+            long relationshipId = relationships.currentEntityId();
+            RelationshipCommand command = relationships.currentEntityCommand();
+            if ( command != null && !command.getBefore().inUse() && command.getAfter().inUse() )
+            {
+                RelationshipRecord after = command.getAfter();
+                visitor.relationshipCreated( relationshipId, after.getType(), after.getFirstNode(), after.getSecondNode() );
+            }
+            decodeProperties( relationships, false, visitor );
+            if ( command != null && command.getBefore().inUse() && !command.getAfter().inUse() )
+            {
+                RelationshipRecord before = command.getBefore();
+                visitor.relationshipDeleted( relationshipId, before.getType(), before.getFirstNode(), before.getSecondNode() );
+            }
+        }
+    }
+
+    private static void decodeLabels( long nodeId, NodeCommand command, EntityChangeVisitor visitor )
+    {
+        long[] labelsBefore = labels( command.getBefore() );
+        long[] labelsAfter = labels( command.getAfter() );
+        if ( labelsBefore == null || labelsAfter == null )
+        {
+            return;
+        }
+        for ( long label : labelsAfter )
+        {
+            if ( !contains( labelsBefore, label ) )
+            {
+                visitor.nodeLabelAdded( nodeId, (int) label );
+            }
+        }
+        for ( long label : labelsBefore )
+        {
+            if ( !contains( labelsAfter, label ) )
+            {
+                visitor.nodeLabelRemoved( nodeId, (int) label );
+            }
+        }
+    }
+
+    private void decodeProperties( EntityCommandGrouper<?>.Cursor changes, boolean node, EntityChangeVisitor visitor )
+    {
+        long entityId = changes.currentEntityId();
+        mapBlocks( changes );
+        int bc = 0;
+        int ac = 0;
+        while ( bc < beforeBlocksCursor || ac < afterBlocksCursor )
+        {
+            PropertyBlock beforeBlock = bc < beforeBlocksCursor ? beforeBlocks[bc] : null;
+            PropertyBlock afterBlock = ac < afterBlocksCursor ? afterBlocks[ac] : null;
+            int beforeKey = beforeBlock != null ? beforeBlock.getKeyIndexId() : Integer.MAX_VALUE;
+            int afterKey = afterBlock != null ? afterBlock.getKeyIndexId() : Integer.MAX_VALUE;
+            if ( beforeKey < afterKey )
+            {
+                // REMOVE
+                Value before = valueOf( beforeBlock );
+                if ( node )
+                {
+                    visitor.nodePropertyRemoved( entityId, beforeKey, before );
+                }
+                else
+                {
+                    visitor.relationshipPropertyRemoved( entityId, beforeKey, before );
+                }
+                bc++;
+                continue;
+            }
+
+            // ADD or CHANGE
+            Value before = null;
+            if ( beforeKey == afterKey )
+            {
+                bc++;
+                if ( beforeBlock.hasSameContentsAs( afterBlock ) )
+                {
+                    ac++;
+                    continue;
+                }
+                before = valueOf( beforeBlock );
+            }
+            Value after = valueOf( afterBlock );
+            if ( node )
+            {
+                visitor.nodePropertySet( entityId, afterKey, before, after );
+            }
+            else
+            {
+                visitor.relationshipPropertySet( entityId, afterKey, before, after );
+            }
+            ac++;
+        }
+    }
+
+    /**
+     * @return the labels of the given node record, or {@code null} if they are in dynamic records that are not in the command.
+     */
+    private static long[] labels( NodeRecord node )
+    {
+        return node.inUse() ? parseLabelsField( node ).getIfLoaded() : NO_LABELS;
+    }
+
+    private static boolean contains( long[] labels, long label )
+    {
+        for ( long candidate : labels )
+        {
+            if ( candidate == label )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void mapBlocks( EntityCommandGrouper<?>.Cursor changes )
+    {
+        beforeBlocksCursor = 0;
+        afterBlocksCursor = 0;
+        PropertyCommand change;
+        while ( (change = changes.nextProperty()) != null )
+        {
+            for ( PropertyBlock block : change.getBefore() )
+            {
+                if ( beforeBlocksCursor == beforeBlocks.length )
+                {
+                    beforeBlocks = Arrays.copyOf( beforeBlocks, beforeBlocksCursor * 2 );
+                }
+                beforeBlocks[beforeBlocksCursor++] = block;
+            }
+            for ( PropertyBlock block : change.getAfter() )
+            {
+                if ( afterBlocksCursor == afterBlocks.length )
+                {
+                    afterBlocks = Arrays.copyOf( afterBlocks, afterBlocksCursor * 2 );
+                }
+                afterBlocks[afterBlocksCursor++] = block;
+            }
+        }
+        Arrays.sort( beforeBlocks, 0, beforeBlocksCursor, BLOCK_COMPARATOR );
+        Arrays.sort( afterBlocks, 0, afterBlocksCursor, BLOCK_COMPARATOR );
+    }
+
+    private Value valueOf( PropertyBlock block )
+    {
+        PropertyType type = block.getType();
+        if ( block.isLight() && (type == PropertyType.STRING || type == PropertyType.ARRAY) )
+        {
+            // Loading the value records from the store could give us the value of some later transaction.
+            return null;
+        }
+        return type.value( block, propertyStore );
+    }
+}
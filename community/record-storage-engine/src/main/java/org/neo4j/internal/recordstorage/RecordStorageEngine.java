@@ -68,9 +68,11 @@ import org.neo4j.lock.ResourceLocker;
 import org.neo4j.logging.Log;
 import org.neo4j.logging.LogProvider;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.CommandCreationContext;
 import org.neo4j.storageengine.api.CommandsToApply;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
+import org.neo4j.storageengine.api.EntityChangeDecoder;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.LogVersionRepository;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
@@ -114,6 +116,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
     private final GBPTreeCountsStore countsStore;
     private final int denseNodeThreshold;
     private final Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
+    private final ParallelRecoveryRecordWriter recoveryRecordWriter;
 
     // installed later
     private IndexUpdateListener indexUpdateListener;
@@ -124,6 +127,7 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             PageCache pageCache,
             FileSystemAbstraction fs,
             LogProvider logProvider,
+            JobScheduler jobScheduler,
             TokenHolders tokenHolders,
             SchemaState schemaState,
             ConstraintRuleAccessor constraintSemantics,
@@ -163,6 +167,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
             countsStore = openCountsStore( pageCache, databaseLayout, config, logProvider, recoveryCleanupWorkCollector );
 
             consistencyCheckApply = config.get( GraphDatabaseSettings.consistency_check_on_apply );
+
+            int recoveryParallelism = config.get( GraphDatabaseSettings.recovery_apply_parallelism );
+            recoveryRecordWriter = recoveryParallelism > 1 && !consistencyCheckApply
+                                   ? new ParallelRecoveryRecordWriter( neoStores, idGeneratorWorkSyncs, jobScheduler, recoveryParallelism )
+                                   : null;
         }
         catch ( Throwable failure )
         {
@@ -214,6 +223,12 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         return new RecordStorageCommandCreationContext( neoStores, denseNodeThreshold );
     }
 
+    @Override
+    public EntityChangeDecoder newEntityChangeDecoder()
+    {
+        return new RecordEntityChangeDecoder( neoStores.getPropertyStore() );
+    }
+
     @Override
     public void addIndexUpdateListener( IndexUpdateListener listener )
     {
@@ -284,16 +299,35 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         // point between closing this and the locks above
         CommandsToApply initialBatch = batch;
         try ( IndexActivator indexActivator = new IndexActivator( indexUpdateListener );
-              LockGroup locks = new LockGroup();
-              BatchTransactionApplier batchApplier = applier( mode, indexActivator ) )
+              LockGroup locks = new LockGroup() )
         {
             while ( batch != null )
             {
-                try ( TransactionApplier txApplier = batchApplier.startTx( batch, locks ) )
+                CommandsToApply end = null;
+                boolean recordsWritten = false;
+                if ( mode == RECOVERY && recoveryRecordWriter != null )
                 {
-                    batch.accept( txApplier );
+                    // The records of a run of independent recovered transactions are written up front, by a number of threads,
+                    // and the remaining appliers then go through the transactions of the run one by one.
+                    ParallelRecoveryRecordWriter.Run run = recoveryRecordWriter.nextRun( batch );
+                    if ( run.recordsWritable() )
+                    {
+                        recoveryRecordWriter.write( run );
+                        recordsWritten = true;
+                    }
+                    end = run.end();
+                }
+                try ( BatchTransactionApplier batchApplier = applier( mode, indexActivator, recordsWritten ) )
+                {
+                    while ( batch != end )
+                    {
+                        try ( TransactionApplier txApplier = batchApplier.startTx( batch, locks ) )
+                        {
+                            batch.accept( txApplier );
+                        }
+                        batch = batch.next();
+                    }
                 }
-                batch = batch.next();
             }
         }
         catch ( Throwable cause )
@@ -311,8 +345,11 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
      * individual {@link TransactionApplier}s returned by the wrapped {@link BatchTransactionApplier}s.
      *
      * After all transactions have been applied the appliers are closed.
+     *
+     * @param recordsWritten {@code true} if the records of the transactions have already been written to the stores, in which case
+     * there is no applier for the graph store.
      */
-    protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode, IndexActivator indexActivator )
+    protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode, IndexActivator indexActivator, boolean recordsWritten )
     {
         ArrayList<BatchTransactionApplier> appliers = new ArrayList<>();
         // Graph store application. The order of the decorated store appliers is irrelevant
@@ -320,7 +357,10 @@ public class RecordStorageEngine implements StorageEngine, Lifecycle
         {
             appliers.add( new ConsistencyCheckingBatchApplier( neoStores ) );
         }
-        appliers.add( new NeoStoreBatchTransactionApplier( mode, neoStores, cacheAccess, lockService( mode ), idGeneratorWorkSyncs ) );
+        if ( !recordsWritten )
+        {
+            appliers.add( new NeoStoreBatchTransactionApplier( mode, neoStores, cacheAccess, lockService( mode ), idGeneratorWorkSyncs ) );
+        }
         if ( mode.needsHighIdTracking() )
         {
             appliers.add( new HighIdBatchTransactionApplier( neoStores ) );
@@ -112,9 +112,9 @@ public class RecordStorageEngineFactory implements StorageEngineFactory
     public StorageEngine instantiate( FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config, PageCache pageCache, TokenHolders tokenHolders,
             SchemaState schemaState, ConstraintRuleAccessor constraintSemantics, IndexConfigCompleter indexConfigCompleter, LockService lockService,
             IdGeneratorFactory idGeneratorFactory, IdController idController, DatabaseHealth databaseHealth, LogProvider logProvider,
-            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean createStoreIfNotExists )
+            JobScheduler jobScheduler, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean createStoreIfNotExists )
     {
-        return new RecordStorageEngine( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics,
+        return new RecordStorageEngine( databaseLayout, config, pageCache, fs, logProvider, jobScheduler, tokenHolders, schemaState, constraintSemantics,
                 indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory, idController, recoveryCleanupWorkCollector, createStoreIfNotExists );
     }
 
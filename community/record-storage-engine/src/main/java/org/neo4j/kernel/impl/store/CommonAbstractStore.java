@@ -62,10 +62,12 @@ import static java.lang.String.format;
 import static org.neo4j.internal.helpers.ArrayUtil.concat;
 import static org.neo4j.internal.helpers.Exceptions.throwIfUnchecked;
 import static org.neo4j.io.pagecache.PageCacheOpenOptions.ANY_PAGE_SIZE;
+import static org.neo4j.io.pagecache.PageCacheOpenOptions.READ_ONLY;
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
+import static org.neo4j.io.pagecache.PagedFile.PF_TRANSIENT;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
 import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
 
@@ -194,12 +196,14 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
         try
         {
             determineRecordSize( storeHeaderFormat.generateHeader() );
+            // The store file of a read-only database is never written to, which lets the page cache serve it from a memory mapping if it can.
+            OpenOption[] mapOptions = configuration.get( GraphDatabaseSettings.read_only ) ? concat( READ_ONLY, openOptions ) : openOptions;
             if ( getNumberOfReservedLowIds() > 0 )
             {
                 // This store has a store-specific header so we have read it before we can be sure that we can map it with correct page size.
                 // Try to open the store file (w/o creating if it doesn't exist), with page size for the configured header value.
                 HEADER defaultHeader = storeHeaderFormat.generateHeader();
-                pagedFile = pageCache.map( storageFile, filePageSize, concat( ANY_PAGE_SIZE, openOptions ) );
+                pagedFile = pageCache.map( storageFile, filePageSize, concat( ANY_PAGE_SIZE, mapOptions ) );
                 HEADER readHeader = readStoreHeaderAndDetermineRecordSize( pagedFile );
                 if ( !defaultHeader.equals( readHeader ) )
                 {
@@ -212,7 +216,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
             if ( pagedFile == null )
             {
                 // Map the file with the correct page size
-                pagedFile = pageCache.map( storageFile, filePageSize, openOptions );
+                pagedFile = pageCache.map( storageFile, filePageSize, mapOptions );
             }
         }
         catch ( NoSuchFileException | StoreNotFoundException e )
@@ -525,7 +529,7 @@ public abstract class CommonAbstractStore<RECORD extends AbstractBaseRecord,HEAD
     {
         return visitor ->
         {
-            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD | PF_TRANSIENT ) )
             {
                 int numberOfReservedLowIds = getNumberOfReservedLowIds();
                 int startingId = numberOfReservedLowIds;
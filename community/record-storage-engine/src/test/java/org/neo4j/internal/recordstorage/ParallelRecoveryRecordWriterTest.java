@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.neo4j.configuration.Config;
+import org.neo4j.internal.id.DefaultIdGeneratorFactory;
+import org.neo4j.internal.id.IdGenerator;
+import org.neo4j.internal.id.IdType;
+import org.neo4j.internal.recordstorage.Command.LabelTokenCommand;
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.io.fs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.record.LabelTokenRecord;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.test.extension.EphemeralNeo4jLayoutExtension;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.pagecache.EphemeralPageCacheExtension;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.util.concurrent.WorkSync;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.NORMAL;
+
+@EphemeralPageCacheExtension
+@EphemeralNeo4jLayoutExtension
+class ParallelRecoveryRecordWriterTest
+{
+    @Inject
+    private PageCache pageCache;
+    @Inject
+    private DatabaseLayout databaseLayout;
+    @Inject
+    private EphemeralFileSystemAbstraction fs;
+
+    private final JobScheduler jobScheduler = new ThreadPoolJobScheduler();
+    private NeoStores neoStores;
+    private ParallelRecoveryRecordWriter writer;
+
+    @BeforeEach
+    void before()
+    {
+        DefaultIdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
+        StoreFactory storeFactory =
+                new StoreFactory( databaseLayout, Config.defaults(), idGeneratorFactory, pageCache, fs, NullLogProvider.getInstance() );
+        neoStores = storeFactory.openAllNeoStores( true );
+        Map<IdType,WorkSync<IdGenerator,IdGeneratorUpdateWork>> idGeneratorWorkSyncs = new EnumMap<>( IdType.class );
+        for ( IdType idType : IdType.values() )
+        {
+            idGeneratorWorkSyncs.put( idType, new WorkSync<>( idGeneratorFactory.get( idType ) ) );
+        }
+        writer = new ParallelRecoveryRecordWriter( neoStores, idGeneratorWorkSyncs, jobScheduler, 4 );
+    }
+
+    @AfterEach
+    void after() throws Exception
+    {
+        neoStores.close();
+        jobScheduler.close();
+    }
+
+    @Test
+    void shouldEndRunAtTransactionWritingSameRecord() throws Exception
+    {
+        GroupOfCommands first = transaction( createNode( 1 ), createNode( 2 ) );
+        GroupOfCommands second = transaction( createNode( 3 ) );
+        GroupOfCommands third = transaction( createNode( 2 ) );
+        chain( first, second, third );
+
+        ParallelRecoveryRecordWriter.Run run = writer.nextRun( first );
+
+        assertTrue( run.recordsWritable() );
+        assertSame( third, run.end() );
+        assertNull( writer.nextRun( third ).end() );
+    }
+
+    @Test
+    void shouldEndRunAtTransactionChangingPropertiesOfNodeInRun() throws Exception
+    {
+        GroupOfCommands first = transaction( createNode( 1 ) );
+        GroupOfCommands second = transaction( createNodeProperty( 10, 1 ) );
+        chain( first, second );
+
+        assertSame( second, writer.nextRun( first ).end() );
+    }
+
+    @Test
+    void shouldApplyTransactionsWithOtherCommandsOnTheirOwn() throws Exception
+    {
+        GroupOfCommands first = transaction( createNode( 1 ) );
+        GroupOfCommands second = transaction( new LabelTokenCommand( new LabelTokenRecord( 0 ), new LabelTokenRecord( 0 ) ), createNode( 2 ) );
+        GroupOfCommands third = transaction( createNode( 3 ) );
+        chain( first, second, third );
+
+        assertSame( second, writer.nextRun( first ).end() );
+        ParallelRecoveryRecordWriter.Run tokenRun = writer.nextRun( second );
+        assertFalse( tokenRun.recordsWritable() );
+        assertSame( third, tokenRun.end() );
+    }
+
+    @Test
+    void shouldWriteRecordsOfRunOnMultipleThreads() throws Exception
+    {
+        int transactions = 20;
+        int nodesPerTransaction = 200;
+        GroupOfCommands[] chain = new GroupOfCommands[transactions];
+        for ( int i = 0; i < transactions; i++ )
+        {
+            StorageCommand[] commands = new StorageCommand[nodesPerTransaction];
+            for ( int j = 0; j < nodesPerTransaction; j++ )
+            {
+                commands[j] = createNode( (long) i * nodesPerTransaction + j );
+            }
+            chain[i] = transaction( commands );
+        }
+        chain( chain );
+
+        ParallelRecoveryRecordWriter.Run run = writer.nextRun( chain[0] );
+        assertNull( run.end() );
+        writer.write( run );
+
+        NodeStore nodeStore = neoStores.getNodeStore();
+        for ( long nodeId = 0; nodeId < transactions * nodesPerTransaction; nodeId++ )
+        {
+            assertTrue( nodeStore.getRecord( nodeId, nodeStore.newRecord(), NORMAL ).inUse() );
+        }
+    }
+
+    private static NodeCommand createNode( long id )
+    {
+        NodeRecord after = new NodeRecord( id );
+        after.setInUse( true );
+        after.setCreated();
+        return new NodeCommand( new NodeRecord( id ), after );
+    }
+
+    private static PropertyCommand createNodeProperty( long id, long nodeId )
+    {
+        PropertyRecord after = new PropertyRecord( id, new NodeRecord( nodeId ) );
+        after.setInUse( true );
+        after.setCreated();
+        return new PropertyCommand( new PropertyRecord( id ), after );
+    }
+
+    private static GroupOfCommands transaction( StorageCommand... commands )
+    {
+        return new GroupOfCommands( commands );
+    }
+
+    private static void chain( GroupOfCommands... transactions )
+    {
+        for ( int i = 1; i < transactions.length; i++ )
+        {
+            transactions[i - 1].next = transactions[i];
+        }
+    }
+}
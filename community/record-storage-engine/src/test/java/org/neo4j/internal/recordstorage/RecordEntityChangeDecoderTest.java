@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.internal.recordstorage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.internal.recordstorage.Command.NodeCommand;
+import org.neo4j.internal.recordstorage.Command.PropertyCommand;
+import org.neo4j.internal.recordstorage.Command.RelationshipCommand;
+import org.neo4j.kernel.impl.store.InlineNodeLabels;
+import org.neo4j.kernel.impl.store.PropertyStore;
+import org.neo4j.kernel.impl.store.PropertyType;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.storageengine.api.EntityChangeVisitor;
+import org.neo4j.storageengine.api.StorageCommand;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_PROPERTY;
+import static org.neo4j.kernel.impl.store.record.Record.NO_NEXT_RELATIONSHIP;
+
+class RecordEntityChangeDecoderTest
+{
+    // Only inlined values are used, so the decoder never needs the store.
+    private final RecordEntityChangeDecoder decoder = new RecordEntityChangeDecoder( null );
+
+    @Test
+    void shouldDecodeCreatedNodeWithLabelsAndProperties() throws IOException
+    {
+        // given
+        NodeRecord before = new NodeRecord( 5 );
+        NodeRecord after = node( 5, 3, 1 );
+        PropertyRecord propertiesBefore = propertyRecord( 1, 5 );
+        PropertyRecord propertiesAfter = propertyRecord( 1, 5, property( 10, Values.intValue( 42 ) ) );
+
+        // when
+        List<String> changes = decode( new NodeCommand( before, after ), new PropertyCommand( propertiesBefore, propertiesAfter ) );
+
+        // then
+        assertEquals( List.of( "nodeCreated 5", "labelAdded 5 1", "labelAdded 5 3", "nodePropertySet 5 10 null Int(42)" ), changes );
+    }
+
+    @Test
+    void shouldDecodeChangedAndRemovedProperties() throws IOException
+    {
+        // given
+        PropertyRecord before = propertyRecord( 1, 7, property( 1, Values.intValue( 1 ) ), property( 2, Values.booleanValue( true ) ),
+                property( 3, Values.longValue( 3 ) ) );
+        PropertyRecord after = propertyRecord( 1, 7, property( 1, Values.intValue( 2 ) ), property( 3, Values.longValue( 3 ) ) );
+
+        // when
+        List<String> changes = decode( new PropertyCommand( before, after ) );
+
+        // then
+        assertEquals( List.of( "nodePropertySet 7 1 Int(1) Int(2)", "nodePropertyRemoved 7 2 Boolean('true')" ), changes );
+    }
+
+    @Test
+    void shouldDecodeLabelChangesOfExistingNode() throws IOException
+    {
+        // when
+        List<String> changes = decode( new NodeCommand( node( 2, 1, 2 ), node( 2, 2, 4 ) ) );
+
+        // then
+        assertEquals( List.of( "labelAdded 2 4", "labelRemoved 2 1" ), changes );
+    }
+
+    @Test
+    void shouldDecodeDeletedNodeAfterItsProperties() throws IOException
+    {
+        // given
+        PropertyRecord before = propertyRecord( 1, 4, property( 10, Values.intValue( 42 ) ) );
+        PropertyRecord after = propertyRecord( 1, 4 );
+        after.setInUse( false );
+
+        // when
+        List<String> changes = decode( new NodeCommand( node( 4, 1 ), new NodeRecord( 4 ) ), new PropertyCommand( before, after ) );
+
+        // then
+        assertEquals( List.of( "labelRemoved 4 1", "nodePropertyRemoved 4 10 Int(42)", "nodeDeleted 4" ), changes );
+    }
+
+    @Test
+    void shouldDecodeRelationshipsAfterNodes() throws IOException
+    {
+        // given
+        RelationshipRecord created = relationship( 8, 1, 2, 3 );
+        RelationshipRecord deleted = relationship( 9, 2, 1, 4 );
+        PropertyRecord propertiesBefore = new PropertyRecord( 1 );
+        propertiesBefore.setRelId( 8 );
+        PropertyRecord propertiesAfter = new PropertyRecord( 1 );
+        propertiesAfter.setInUse( true );
+        propertiesAfter.setRelId( 8 );
+        propertiesAfter.addPropertyBlock( property( 5, Values.shortValue( (short) 15 ) ) );
+
+        // when
+        List<String> changes = decode( new RelationshipCommand( deleted, new RelationshipRecord( 9 ) ),
+                new RelationshipCommand( new RelationshipRecord( 8 ), created ),
+                new PropertyCommand( propertiesBefore, propertiesAfter ),
+                new NodeCommand( new NodeRecord( 1 ), node( 1 ) ) );
+
+        // then
+        assertEquals( List.of( "nodeCreated 1", "relationshipCreated 8 3 1 2", "relationshipPropertySet 8 5 null Short(15)",
+                "relationshipDeleted 9 4 2 1" ), changes );
+    }
+
+    @Test
+    void shouldReportUnknownValueOfStringNotInTheLog() throws IOException
+    {
+        // given
+        PropertyBlock longString = new PropertyBlock();
+        longString.setSingleBlock( PropertyStore.singleBlockLongValue( 10, PropertyType.STRING, 17 ) );
+        PropertyRecord before = propertyRecord( 1, 3, longString );
+        PropertyRecord after = propertyRecord( 1, 3, property( 10, Values.stringValue( "short" ) ) );
+
+        // when
+        List<String> changes = decode( new PropertyCommand( before, after ) );
+
+        // then
+        assertEquals( List.of( "nodePropertySet 3 10 null String(\"short\")" ), changes );
+    }
+
+    private List<String> decode( StorageCommand... commands ) throws IOException
+    {
+        List<String> changes = new ArrayList<>();
+        decoder.decode( new GroupOfCommands( commands ), new RecordingVisitor( changes ) );
+        return changes;
+    }
+
+    private static NodeRecord node( long id, long... labels )
+    {
+        NodeRecord node = new NodeRecord( id ).initialize( true, NO_NEXT_PROPERTY.longValue(), false, NO_NEXT_RELATIONSHIP.longValue(), 0 );
+        new InlineNodeLabels( node ).put( labels, null, null );
+        return node;
+    }
+
+    private static RelationshipRecord relationship( long id, long startNode, long endNode, int type )
+    {
+        return new RelationshipRecord( id ).initialize( true, NO_NEXT_PROPERTY.longValue(), startNode, endNode, type, NO_NEXT_RELATIONSHIP.longValue(),
+                NO_NEXT_RELATIONSHIP.longValue(), NO_NEXT_RELATIONSHIP.longValue(), NO_NEXT_RELATIONSHIP.longValue(), true, true );
+    }
+
+    private static PropertyRecord propertyRecord( long id, long nodeId, PropertyBlock... blocks )
+    {
+        PropertyRecord record = new PropertyRecord( id );
+        record.setInUse( true );
+        record.setNodeId( nodeId );
+        for ( PropertyBlock block : blocks )
+        {
+            record.addPropertyBlock( block );
+        }
+        return record;
+    }
+
+    private static PropertyBlock property( int key, Value value )
+    {
+        PropertyBlock block = new PropertyBlock();
+        PropertyStore.encodeValue( block, key, value, null, null, true );
+        return block;
+    }
+
+    private static class RecordingVisitor implements EntityChangeVisitor
+    {
+        private final List<String> changes;
+
+        RecordingVisitor( List<String> changes )
+        {
+            this.changes = changes;
+        }
+
+        @Override
+        public void nodeCreated( long nodeId )
+        {
+            changes.add( "nodeCreated " + nodeId );
+        }
+
+        @Override
+        public void nodeDeleted( long nodeId )
+        {
+            changes.add( "nodeDeleted " + nodeId );
+        }
+
+        @Override
+        public void nodeLabelAdded( long nodeId, int labelId )
+        {
+            changes.add( "labelAdded " + nodeId + " " + labelId );
+        }
+
+        @Override
+        public void nodeLabelRemoved( long nodeId, int labelId )
+        {
+            changes.add( "labelRemoved " + nodeId + " " + labelId );
+        }
+
+        @Override
+        public void nodePropertySet( long nodeId, int propertyKeyId, Value before, Value after )
+        {
+            changes.add( "nodePropertySet " + nodeId + " " + propertyKeyId + " " + before + " " + after );
+        }
+
+        @Override
+        public void nodePropertyRemoved( long nodeId, int propertyKeyId, Value before )
+        {
+            changes.add( "nodePropertyRemoved " + nodeId + " " + propertyKeyId + " " + before );
+        }
+
+        @Override
+        public void relationshipCreated( long relationshipId, int typeId, long startNodeId, long endNodeId )
+        {
+            changes.add( "relationshipCreated " + relationshipId + " " + typeId + " " + startNodeId + " " + endNodeId );
+        }
+
+        @Override
+        public void relationshipDeleted( long relationshipId, int typeId, long startNodeId, long endNodeId )
+        {
+            changes.add( "relationshipDeleted " + relationshipId + " " + typeId + " " + startNodeId + " " + endNodeId );
+        }
+
+        @Override
+        public void relationshipPropertySet( long relationshipId, int propertyKeyId, Value before, Value after )
+        {
+            changes.add( "relationshipPropertySet " + relationshipId + " " + propertyKeyId + " " + before + " " + after );
+        }
+
+        @Override
+        public void relationshipPropertyRemoved( long relationshipId, int propertyKeyId, Value before )
+        {
+            changes.add( "relationshipPropertyRemoved " + relationshipId + " " + propertyKeyId + " " + before );
+        }
+    }
+}
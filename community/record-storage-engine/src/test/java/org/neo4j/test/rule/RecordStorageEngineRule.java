@@ -49,10 +49,12 @@ import org.neo4j.monitoring.DatabaseEventListeners;
 import org.neo4j.monitoring.DatabaseHealth;
 import org.neo4j.monitoring.DatabasePanicEventGenerator;
 import org.neo4j.monitoring.Health;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.ConstraintRuleAccessor;
 import org.neo4j.storageengine.api.IndexUpdateListener;
 import org.neo4j.storageengine.api.NodeLabelUpdateListener;
 import org.neo4j.storageengine.api.TransactionApplicationMode;
+import org.neo4j.test.scheduler.ThreadPoolJobScheduler;
 import org.neo4j.token.TokenHolders;
 import org.neo4j.token.api.TokenHolder;
 
@@ -71,6 +73,7 @@ import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.imme
 public class RecordStorageEngineRule extends ExternalResource
 {
     private final LifeSupport life = new LifeSupport();
+    private final JobScheduler jobScheduler = new ThreadPoolJobScheduler();
 
     @Override
     public void before() throws Throwable
@@ -92,7 +95,7 @@ public class RecordStorageEngineRule extends ExternalResource
         IdGeneratorFactory idGeneratorFactory = new DefaultIdGeneratorFactory( fs, immediate() );
         NullLogProvider nullLogProvider = NullLogProvider.getInstance();
         RecordStorageEngine engine = life.add(
-                new ExtendedRecordStorageEngine( databaseLayout, config, pageCache, fs, nullLogProvider, tokenHolders, mock( SchemaState.class ),
+                new ExtendedRecordStorageEngine( databaseLayout, config, pageCache, fs, nullLogProvider, jobScheduler, tokenHolders, mock( SchemaState.class ),
                         constraintSemantics, indexConfigCompleter, lockService, databaseHealth, idGeneratorFactory,
                         new DefaultIdController(), transactionApplierTransformer ) );
         engine.addIndexUpdateListener( indexUpdateListener );
@@ -104,6 +107,7 @@ public class RecordStorageEngineRule extends ExternalResource
     public void after( boolean successful ) throws Throwable
     {
         life.shutdown();
+        jobScheduler.close();
         super.after( successful );
     }
 
@@ -225,22 +229,22 @@ public class RecordStorageEngineRule extends ExternalResource
                 transactionApplierTransformer;
 
         ExtendedRecordStorageEngine( DatabaseLayout databaseLayout, Config config, PageCache pageCache, FileSystemAbstraction fs,
-                LogProvider logProvider, TokenHolders tokenHolders, SchemaState schemaState,
+                LogProvider logProvider, JobScheduler jobScheduler, TokenHolders tokenHolders, SchemaState schemaState,
                 ConstraintRuleAccessor constraintSemantics,
                 IndexConfigCompleter indexConfigCompleter,
                 LockService lockService, Health databaseHealth,
                 IdGeneratorFactory idGeneratorFactory, IdController idController,
                 Function<BatchTransactionApplierFacade,BatchTransactionApplierFacade> transactionApplierTransformer )
         {
-            super( databaseLayout, config, pageCache, fs, logProvider, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter,
+            super( databaseLayout, config, pageCache, fs, logProvider, jobScheduler, tokenHolders, schemaState, constraintSemantics, indexConfigCompleter,
                     lockService, databaseHealth, idGeneratorFactory, idController, RecoveryCleanupWorkCollector.immediate(), true );
             this.transactionApplierTransformer = transactionApplierTransformer;
         }
 
         @Override
-        protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode, IndexActivator indexActivator )
+        protected BatchTransactionApplierFacade applier( TransactionApplicationMode mode, IndexActivator indexActivator, boolean recordsWritten )
         {
-            BatchTransactionApplierFacade recordEngineApplier = super.applier( mode, indexActivator );
+            BatchTransactionApplierFacade recordEngineApplier = super.applier( mode, indexActivator, recordsWritten );
             return transactionApplierTransformer.apply( recordEngineApplier );
         }
     }
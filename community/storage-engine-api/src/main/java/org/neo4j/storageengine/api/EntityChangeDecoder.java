@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import java.io.IOException;
+
+/**
+ * Decodes the commands of committed transactions into the logical changes they made to nodes and relationships.
+ * <p>
+ * The commands may be read from the transaction log long after they were applied, so a decoder must only use what is in
+ * the commands, and not the current contents of the store. Values that cannot be decoded from the commands alone are
+ * reported as {@code null}.
+ * <p>
+ * A decoder may keep state between calls, and is not safe to use by multiple threads at the same time.
+ */
+public interface EntityChangeDecoder
+{
+    /**
+     * Decode the commands of one transaction. The changes are reported per entity, nodes first, then relationships, each in
+     * entity id order. The changes of an entity are reported in the order: created, labels, properties, deleted.
+     *
+     * @param commands the commands of a committed transaction.
+     * @param visitor receives the changes.
+     * @throws IOException if the commands could not be read.
+     */
+    void decode( CommandStream commands, EntityChangeVisitor visitor ) throws IOException;
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.storageengine.api;
+
+import org.neo4j.values.storable.Value;
+
+/**
+ * Receives the logical changes that a transaction made to nodes and relationships, from an {@link EntityChangeDecoder}.
+ * Token ids refer to labels, relationship types and property keys. Property values are {@code null} if they are not known.
+ */
+public interface EntityChangeVisitor
+{
+    void nodeCreated( long nodeId );
+
+    void nodeDeleted( long nodeId );
+
+    void nodeLabelAdded( long nodeId, int labelId );
+
+    void nodeLabelRemoved( long nodeId, int labelId );
+
+    /**
+     * A property was added to, or changed on, a node.
+     *
+     * @param before the value before the change, or {@code null} if the property was added, or if the previous value is not known.
+     * @param after the value after the change.
+     */
+    void nodePropertySet( long nodeId, int propertyKeyId, Value before, Value after );
+
+    void nodePropertyRemoved( long nodeId, int propertyKeyId, Value before );
+
+    void relationshipCreated( long relationshipId, int typeId, long startNodeId, long endNodeId );
+
+    void relationshipDeleted( long relationshipId, int typeId, long startNodeId, long endNodeId );
+
+    /**
+     * A property was added to, or changed on, a relationship.
+     *
+     * @param before the value before the change, or {@code null} if the property was added, or if the previous value is not known.
+     * @param after the value after the change.
+     */
+    void relationshipPropertySet( long relationshipId, int propertyKeyId, Value before, Value after );
+
+    void relationshipPropertyRemoved( long relationshipId, int propertyKeyId, Value before );
+}
@@ -45,6 +45,12 @@ public interface StorageEngine extends Lifecycle
      */
     CommandCreationContext newCommandCreationContext();
 
+    /**
+     * @return a new {@link EntityChangeDecoder} for decoding the commands of committed transactions, as read from the transaction log,
+     * into logical changes to nodes and relationships.
+     */
+    EntityChangeDecoder newEntityChangeDecoder();
+
     /**
      * Adds an {@link IndexUpdateListener} which will receive streams of index updates from changes that gets
      * {@link #apply(CommandsToApply, TransactionApplicationMode) applied} to this storage engine.
@@ -76,7 +76,7 @@ public interface StorageEngineFactory
     StorageEngine instantiate( FileSystemAbstraction fs, DatabaseLayout databaseLayout, Config config, PageCache pageCache, TokenHolders tokenHolders,
             SchemaState schemaState, ConstraintRuleAccessor constraintSemantics, IndexConfigCompleter indexConfigCompleter, LockService lockService,
             IdGeneratorFactory idGeneratorFactory, IdController idController, DatabaseHealth databaseHealth,
-            LogProvider logProvider, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean createStoreIfNotExists );
+            LogProvider logProvider, JobScheduler jobScheduler, RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean createStoreIfNotExists );
 
     /**
      * Lists files of a specific storage location.
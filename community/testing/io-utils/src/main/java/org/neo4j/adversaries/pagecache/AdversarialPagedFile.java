@@ -23,11 +23,13 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Objects;
+import java.util.function.LongConsumer;
 
 import org.neo4j.adversaries.Adversary;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 
 /**
  * A {@linkplain PagedFile paged file} that wraps another paged file and an {@linkplain Adversary adversary} to provide
@@ -100,6 +102,26 @@ public class AdversarialPagedFile implements PagedFile
         return delegate.getLastPageId();
     }
 
+    @Override
+    public int touch( long pageId, int count ) throws IOException
+    {
+        adversary.injectFailure( FileNotFoundException.class, IOException.class, SecurityException.class );
+        return delegate.touch( pageId, count );
+    }
+
+    @Override
+    public void visitResidentPages( LongConsumer visitor ) throws IOException
+    {
+        adversary.injectFailure( IllegalStateException.class );
+        delegate.visitResidentPages( visitor );
+    }
+
+    @Override
+    public PageFileCounters pageFileCounters()
+    {
+        return delegate.pageFileCounters();
+    }
+
     @Override
     public void close()
     {
@@ -90,6 +90,18 @@ public class DelegatingPageCache implements PageCache
         delegate.flushAndForce( limiter );
     }
 
+    @Override
+    public void flushAndForce( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        delegate.flushAndForce( files, limiter );
+    }
+
+    @Override
+    public void flush( List<PagedFile> files, IOLimiter limiter ) throws IOException
+    {
+        delegate.flush( files, limiter );
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
@@ -21,6 +21,9 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.LongConsumer;
+
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 
 public class DelegatingPagedFile implements PagedFile
 {
@@ -67,6 +70,24 @@ public class DelegatingPagedFile implements PagedFile
         return delegate.file();
     }
 
+    @Override
+    public int touch( long pageId, int count ) throws IOException
+    {
+        return delegate.touch( pageId, count );
+    }
+
+    @Override
+    public void visitResidentPages( LongConsumer visitor ) throws IOException
+    {
+        delegate.visitResidentPages( visitor );
+    }
+
+    @Override
+    public PageFileCounters pageFileCounters()
+    {
+        return delegate.pageFileCounters();
+    }
+
     @Override
     public void close()
     {
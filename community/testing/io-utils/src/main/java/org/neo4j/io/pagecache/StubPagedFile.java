@@ -21,6 +21,9 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.function.LongConsumer;
+
+import org.neo4j.io.pagecache.monitoring.PageFileCounters;
 
 public class StubPagedFile implements PagedFile
 {
@@ -85,6 +88,60 @@ public class StubPagedFile implements PagedFile
         return lastPageId;
     }
 
+    @Override
+    public int touch( long pageId, int count )
+    {
+        return 0;
+    }
+
+    @Override
+    public void visitResidentPages( LongConsumer visitor )
+    {
+    }
+
+    @Override
+    public PageFileCounters pageFileCounters()
+    {
+        return new PageFileCounters()
+        {
+            @Override
+            public long residentPages()
+            {
+                return 0;
+            }
+
+            @Override
+            public long reservedPages()
+            {
+                return 0;
+            }
+
+            @Override
+            public long maxPages()
+            {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public long hits()
+            {
+                return 0;
+            }
+
+            @Override
+            public long faults()
+            {
+                return 0;
+            }
+
+            @Override
+            public double hitRatio()
+            {
+                return 0;
+            }
+        };
+    }
+
     @Override
     public void close()
     {
@@ -532,6 +532,32 @@ public final class UnsafeUtil
         GlobalMemoryTracker.INSTANCE.deallocated( bytes );
     }
 
+    /**
+     * Account for memory that was allocated by other means than {@link #allocateMemory(long, MemoryAllocationTracker)},
+     * such as a memory mapping, so it can be accessed and tracked like any other allocated memory.
+     * The memory must be accounted for with {@link #releasedExternalMemory(long, long, MemoryAllocationTracker)}
+     * when it is released.
+     */
+    public static void allocatedExternalMemory( long pointer, long bytes, MemoryAllocationTracker allocationTracker )
+    {
+        assert allocationTracker != GlobalMemoryTracker.INSTANCE;
+        addAllocatedPointer( pointer, bytes );
+        GlobalMemoryTracker.INSTANCE.allocated( bytes );
+        allocationTracker.allocated( bytes );
+    }
+
+    /**
+     * Account for the release of memory that was accounted for with
+     * {@link #allocatedExternalMemory(long, long, MemoryAllocationTracker)}.
+     */
+    public static void releasedExternalMemory( long pointer, long bytes, MemoryAllocationTracker allocationTracker )
+    {
+        assert allocationTracker != GlobalMemoryTracker.INSTANCE;
+        checkFree( pointer );
+        GlobalMemoryTracker.INSTANCE.deallocated( bytes );
+        allocationTracker.deallocated( bytes );
+    }
+
     private static void addAllocatedPointer( long pointer, long sizeInBytes )
     {
         if ( CHECK_NATIVE_ACCESS )
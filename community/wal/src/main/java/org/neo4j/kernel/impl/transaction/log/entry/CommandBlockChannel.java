@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.neo4j.io.fs.ReadableChannel;
+
+/**
+ * A {@link ReadableChannel} over the uncompressed bytes of a block of commands.
+ * <p>
+ * Reading past the end of the block means that the block is corrupt, rather than that we reached the end of the log,
+ * so this is reported as a plain {@link IOException} instead of a {@link org.neo4j.io.fs.ReadPastEndException}.
+ */
+class CommandBlockChannel implements ReadableChannel
+{
+    private final ByteBuffer buffer;
+
+    CommandBlockChannel( byte[] block )
+    {
+        this.buffer = ByteBuffer.wrap( block );
+    }
+
+    boolean hasRemaining()
+    {
+        return buffer.hasRemaining();
+    }
+
+    @Override
+    public byte get() throws IOException
+    {
+        ensure( Byte.BYTES );
+        return buffer.get();
+    }
+
+    @Override
+    public short getShort() throws IOException
+    {
+        ensure( Short.BYTES );
+        return buffer.getShort();
+    }
+
+    @Override
+    public int getInt() throws IOException
+    {
+        ensure( Integer.BYTES );
+        return buffer.getInt();
+    }
+
+    @Override
+    public long getLong() throws IOException
+    {
+        ensure( Long.BYTES );
+        return buffer.getLong();
+    }
+
+    @Override
+    public float getFloat() throws IOException
+    {
+        ensure( Float.BYTES );
+        return buffer.getFloat();
+    }
+
+    @Override
+    public double getDouble() throws IOException
+    {
+        ensure( Double.BYTES );
+        return buffer.getDouble();
+    }
+
+    @Override
+    public void get( byte[] bytes, int length ) throws IOException
+    {
+        ensure( length );
+        buffer.get( bytes, 0, length );
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    private void ensure( int bytes ) throws IOException
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            throw new IOException( "Command block is truncated, wanted " + bytes + " bytes at offset " + buffer.position() +
+                    " of a block of " + buffer.limit() + " bytes" );
+        }
+    }
+}
@@ -59,7 +59,7 @@ public enum LogEntryParsersV2_3 implements LogEntryParser
                 public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
                                        CommandReaderFactory commandReader ) throws IOException
                 {
-                    StorageCommand command = commandReader.get( version.version() ).read( channel );
+                    StorageCommand command = commandReader.get( version.commandFormat() ).read( channel );
                     return command == null ? null : new LogEntryCommand( version, command );
                 }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.transaction.log.entry;
+
+import com.github.luben.zstd.Zstd;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.io.fs.ReadableChecksumChannel;
+import org.neo4j.kernel.impl.transaction.log.LogPositionMarker;
+import org.neo4j.storageengine.api.CommandReader;
+import org.neo4j.storageengine.api.CommandReaderFactory;
+
+import static org.neo4j.kernel.impl.transaction.log.entry.LogEntryCommandBlock.MAX_BLOCK_SIZE;
+
+/**
+ * The entries of {@link LogEntryVersion#V4_0}, with the addition of {@link #COMPRESSED_COMMANDS}, which holds a zstd
+ * compressed block of commands. Commands can still also be stored one by one in uncompressed {@link #COMMAND} entries.
+ */
+public enum LogEntryParsersV4_0Compressed implements LogEntryParser
+{
+    TX_START
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.TX_START.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.TX_START;
+                }
+            },
+
+    COMMAND
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.COMMAND.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMMAND;
+                }
+            },
+
+    COMPRESSED_COMMANDS
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    int uncompressedLength = channel.getInt();
+                    int compressedLength = channel.getInt();
+                    if ( uncompressedLength < 0 || uncompressedLength > MAX_BLOCK_SIZE || compressedLength < 0 || compressedLength > MAX_BLOCK_SIZE )
+                    {
+                        throw new IOException( "Invalid command block lengths, uncompressed " + uncompressedLength + " and compressed " +
+                                compressedLength + " bytes, where at most " + MAX_BLOCK_SIZE + " bytes are allowed" );
+                    }
+                    byte[] compressed = new byte[compressedLength];
+                    channel.get( compressed, compressedLength );
+
+                    byte[] block = new byte[uncompressedLength];
+                    long decompressedLength = Zstd.decompressByteArray( block, 0, uncompressedLength, compressed, 0, compressedLength );
+                    if ( Zstd.isError( decompressedLength ) )
+                    {
+                        throw new IOException( "Could not decompress command block: " + Zstd.getErrorName( decompressedLength ) );
+                    }
+                    if ( decompressedLength != uncompressedLength )
+                    {
+                        throw new IOException( "Command block decompressed to " + decompressedLength + " bytes, expected " + uncompressedLength );
+                    }
+
+                    CommandReader reader = commandReader.get( version.commandFormat() );
+                    CommandBlockChannel blockChannel = new CommandBlockChannel( block );
+                    List<LogEntryCommand> commands = new ArrayList<>();
+                    while ( blockChannel.hasRemaining() )
+                    {
+                        commands.add( new LogEntryCommand( version, reader.read( blockChannel ) ) );
+                    }
+                    return new LogEntryCommandBlock( version, commands );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.COMPRESSED_COMMANDS;
+                }
+            },
+
+    TX_COMMIT
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.TX_COMMIT.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.TX_COMMIT;
+                }
+            },
+
+    CHECK_POINT
+            {
+                @Override
+                public LogEntry parse( LogEntryVersion version, ReadableChecksumChannel channel, LogPositionMarker marker,
+                                       CommandReaderFactory commandReader ) throws IOException
+                {
+                    return LogEntryParsersV4_0.CHECK_POINT.parse( version, channel, marker, commandReader );
+                }
+
+                @Override
+                public byte byteCode()
+                {
+                    return LogEntryByteCodes.CHECK_POINT;
+                }
+            }
+}
@@ -24,6 +24,7 @@ import org.eclipse.collections.impl.map.mutable.primitive.ByteObjectHashMap;
 
 import org.neo4j.io.fs.WritableChannel;
 import org.neo4j.storageengine.api.CommandReader;
+import org.neo4j.storageengine.api.CommandReaderFactory;
 import org.neo4j.storageengine.api.StorageCommand;
 
 /**
@@ -50,6 +51,11 @@ import org.neo4j.storageengine.api.StorageCommand;
  * <li>Modify {@link StorageCommand#serialize(WritableChannel)}.
  * Also LogEntryWriter (if log entry layout has changed) with required changes</li>
  * </ol>
+ * <p/>
+ * Some versions only add a different way of storing the commands of another version, for instance
+ * {@link #V4_0_COMPRESSED}, which stores blocks of commands compressed. Such versions have the
+ * {@link #commandFormat() command format} of the version they build on, and are never picked as the
+ * {@link #LATEST_VERSION}, since they are only written when explicitly asked for.
  */
 public enum LogEntryVersion
 {
@@ -61,29 +67,50 @@ public enum LogEntryVersion
     // * New schema store format, where the schema store payload is stored in the property store.
     // * Removed master and author id from transactions
     // * Added checksum to transactions
-    V4_0( (byte) 1, LogEntryParsersV4_0.class );
+    V4_0( (byte) 1, LogEntryParsersV4_0.class ),
+    // Version 4.0 with compressed commands
+    // * Added an entry that holds a zstd compressed block of V4_0 commands
+    V4_0_COMPRESSED( (byte) 2, LogEntryParsersV4_0Compressed.class, V4_0 );
 
     public static final LogEntryVersion LATEST_VERSION;
     private static final byte LOWEST_VERSION;
+    private static final byte HIGHEST_VERSION;
     private static final LogEntryVersion[] ALL = values();
     private static final ByteObjectHashMap<LogEntryVersion> LOOKUP_BY_VERSION;
 
     static
     {
         LOOKUP_BY_VERSION = new ByteObjectHashMap<>();
+        LogEntryVersion latest = null;
         for ( LogEntryVersion version : ALL )
         {
             LOOKUP_BY_VERSION.put( version.version(), version );
+            if ( version.commandFormat() == version.version() && (latest == null || version.version() > latest.version()) )
+            {
+                latest = version;
+            }
         }
         MutableByteSet keys = LOOKUP_BY_VERSION.keySet();
         LOWEST_VERSION = keys.min();
-        LATEST_VERSION = LOOKUP_BY_VERSION.get( keys.max() );
+        HIGHEST_VERSION = keys.max();
+        LATEST_VERSION = latest;
     }
 
     private final byte version;
+    private final byte commandFormat;
     private final LogEntryParser[] entryTypes;
 
     LogEntryVersion( byte version, Class<? extends Enum<? extends LogEntryParser>> cls )
+    {
+        this( version, cls, version );
+    }
+
+    LogEntryVersion( byte version, Class<? extends Enum<? extends LogEntryParser>> cls, LogEntryVersion commandFormat )
+    {
+        this( version, cls, commandFormat.version );
+    }
+
+    LogEntryVersion( byte version, Class<? extends Enum<? extends LogEntryParser>> cls, byte commandFormat )
     {
         this.entryTypes = new LogEntryParser[highestCode( cls ) + 1];
         for ( Enum<? extends LogEntryParser> parser : cls.getEnumConstants() )
@@ -92,6 +119,7 @@ public enum LogEntryVersion
             this.entryTypes[candidate.byteCode()] = candidate;
         }
         this.version = version;
+        this.commandFormat = commandFormat;
     }
 
     /**
@@ -102,6 +130,15 @@ public enum LogEntryVersion
         return version;
     }
 
+    /**
+     * @return the format id of the commands in log entries of this version, which is what
+     * {@link CommandReaderFactory#get(int)} is asked for when reading them.
+     */
+    public int commandFormat()
+    {
+        return commandFormat;
+    }
+
     /**
      * @param type type of entry.
      * @return a {@link LogEntryParser} capable of reading a {@link LogEntry} of the given type for this
@@ -140,13 +177,12 @@ public enum LogEntryVersion
         {
             return logEntryVersion;
         }
-        byte latestVersion = LATEST_VERSION.version();
-        if ( version > latestVersion )
+        if ( version > HIGHEST_VERSION )
         {
             throw new UnsupportedLogVersionException( String.format(
                     "Transaction logs contains entries with prefix %d, and the highest supported prefix is %d. This " +
                             "indicates that the log files originates from a newer version of neo4j.",
-                    version, latestVersion ) );
+                    version, HIGHEST_VERSION ) );
         }
         throw new UnsupportedLogVersionException( String.format(
                 "Transaction logs contains entries with prefix %d, and the lowest supported prefix is %d. This " +
@@ -62,4 +62,12 @@ class LogEntryVersionTest
         assertTrue( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V3_0_10 ) );
         assertFalse( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V4_0 ) );
     }
+
+    @Test
+    void compressedVersionIsNeverTheLatest()
+    {
+        assertEquals( LogEntryVersion.V4_0, LogEntryVersion.LATEST_VERSION );
+        assertEquals( LogEntryVersion.V4_0.commandFormat(), LogEntryVersion.V4_0_COMPRESSED.commandFormat() );
+        assertFalse( LogEntryVersion.moreRecentVersionExists( LogEntryVersion.V4_0_COMPRESSED ) );
+    }
 }